@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2020, 2021 1C-Soft LLC.
+ * Copyright (c) 2020, 2026 1C-Soft LLC.
  *
  * This program and the accompanying materials are made available under
  * the terms of the Eclipse Public License 2.0 which is available at
@@ -12,9 +12,11 @@
  *******************************************************************************/
 package org.lxtk.lx4e.internal.examples.proto;
 
+import static org.lxtk.lx4e.examples.proto.ProtoCore.DOCUMENT_SERVICE;
 import static org.lxtk.lx4e.examples.proto.ProtoCore.WORKSPACE_SERVICE;
 import static org.lxtk.util.connect.Connectable.ConnectionState.DISCONNECTED;
 
+import java.time.Duration;
 import java.util.function.Consumer;
 
 import org.eclipse.core.runtime.IStatus;
@@ -40,6 +42,8 @@ public class Activator
 
     public static final Consumer<Throwable> LOGGER = e -> logError(e);
 
+    private static final Duration IDLE_TIMEOUT = Duration.ofMinutes(5);
+
     // The shared instance
     private static Activator plugin;
 
@@ -68,7 +72,9 @@ public class Activator
             documentProvider = new ProtoDocumentProvider();
 
             languageClient = new ProtoLanguageClient();
-            languageClient.connect();
+            // start the server when the first proto file is opened,
+            // and stop it when no proto file has been open for a while
+            languageClient.enableLazyActivation(DOCUMENT_SERVICE, IDLE_TIMEOUT);
             rollback.add(() ->
             {
                 languageClient.dispose();
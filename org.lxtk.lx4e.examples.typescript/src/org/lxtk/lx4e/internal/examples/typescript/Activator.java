@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019 1C-Soft LLC.
+ * Copyright (c) 2019, 2026 1C-Soft LLC.
  *
  * This program and the accompanying materials are made available under
  * the terms of the Eclipse Public License 2.0 which is available at
@@ -14,7 +14,7 @@ package org.lxtk.lx4e.internal.examples.typescript;
 
 import static org.lxtk.util.connect.Connectable.ConnectionState.DISCONNECTED;
 
-import java.text.MessageFormat;
+import java.net.URI;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Consumer;
@@ -32,6 +32,7 @@ import org.eclipse.ui.editors.text.EditorsUI;
 import org.eclipse.ui.plugin.AbstractUIPlugin;
 import org.eclipse.ui.texteditor.ChainedPreferenceStore;
 import org.lxtk.TextDocument;
+import org.lxtk.WorkspaceFolder;
 import org.lxtk.lx4e.EclipseTextDocument;
 import org.lxtk.lx4e.examples.typescript.TypeScriptCore;
 import org.lxtk.lx4e.util.ResourceUtil;
@@ -54,6 +55,7 @@ public class Activator
 
     private Runnable stopRunnable;
     private TypeScriptSourceFileDocumentProvider documentProvider;
+    private TypeScriptLanguageClient languageClient;
     private Map<IProject, Disposable> connectedProjects;
     private IPreferenceStore combinedPreferenceStore;
 
@@ -76,60 +78,25 @@ public class Activator
     {
         if (project == null || connectedProjects == null || connectedProjects.containsKey(project))
             return;
+        URI locationURI = project.getLocationURI();
+        if (locationURI == null)
+            return;
         SafeRun.run(rollback ->
         {
-            TypeScriptLanguageClient languageClient = new TypeScriptLanguageClient(project);
-            languageClient.connect();
-            rollback.add(() ->
+            if (languageClient == null)
             {
-                languageClient.dispose();
-                for (int i = 0; i < 100; i++)
-                {
-                    if (languageClient.getConnectionState() == DISCONNECTED)
-                        break;
-                    try
-                    {
-                        Thread.sleep(50);
-                    }
-                    catch (InterruptedException e)
-                    {
-                    }
-                }
-            });
+                languageClient = newLanguageClient();
+                rollback.add(() -> disposeLanguageClient());
+            }
 
-            languageClient.onDidChangeConnectionState().subscribe(new Consumer<Connectable>()
-            {
-                boolean shutUp;
+            Disposable attachment = languageClient.getWorkspaceFolders().attach(
+                new WorkspaceFolder(locationURI, project.getName()));
+            rollback.add(attachment::dispose);
 
-                @Override
-                public void accept(Connectable c)
-                {
-                    String errorMessage = languageClient.getErrorMessage();
-                    if (errorMessage != null)
-                    {
-                        PlatformUI.getWorkbench().getDisplay().asyncExec(() ->
-                        {
-                            if (!shutUp)
-                            {
-                                shutUp = true;
-
-                                Shell shell = null;
-                                IWorkbenchWindow window =
-                                    PlatformUI.getWorkbench().getActiveWorkbenchWindow();
-                                if (window != null)
-                                    shell = window.getShell();
-                                MessageDialog.openError(shell, "TypeScript Language Client",
-                                    MessageFormat.format(
-                                        "Unable to connect project ''{0}'' to TypeScript language server. Dependent language services will be disabled. See Error Log for details",
-                                        project.getName()));
-                            }
-                        });
-                    }
-                }
-            });
+            languageClient.connect();
 
             rollback.setLogger(e -> logError(e));
-            connectedProjects.put(project, rollback::run);
+            connectedProjects.put(project, attachment);
         });
     }
 
@@ -144,8 +111,70 @@ public class Activator
 
     private synchronized void disconnectAll()
     {
-        Disposable.disposeAll(connectedProjects.values());
-        connectedProjects = null;
+        try
+        {
+            Disposable.disposeAll(connectedProjects.values());
+        }
+        finally
+        {
+            connectedProjects = null;
+            disposeLanguageClient();
+        }
+    }
+
+    private static TypeScriptLanguageClient newLanguageClient()
+    {
+        TypeScriptLanguageClient languageClient = new TypeScriptLanguageClient();
+        languageClient.onDidChangeConnectionState().subscribe(new Consumer<Connectable>()
+        {
+            boolean shutUp;
+
+            @Override
+            public void accept(Connectable c)
+            {
+                String errorMessage = languageClient.getErrorMessage();
+                if (errorMessage != null)
+                {
+                    PlatformUI.getWorkbench().getDisplay().asyncExec(() ->
+                    {
+                        if (!shutUp)
+                        {
+                            shutUp = true;
+
+                            Shell shell = null;
+                            IWorkbenchWindow window =
+                                PlatformUI.getWorkbench().getActiveWorkbenchWindow();
+                            if (window != null)
+                                shell = window.getShell();
+                            MessageDialog.openError(shell, "TypeScript Language Client",
+                                "Unable to connect to TypeScript language server. Dependent language services will be disabled. See Error Log for details");
+                        }
+                    });
+                }
+            }
+        });
+        return languageClient;
+    }
+
+    private synchronized void disposeLanguageClient()
+    {
+        if (languageClient == null)
+            return;
+        TypeScriptLanguageClient c = languageClient;
+        languageClient = null;
+        c.dispose();
+        for (int i = 0; i < 100; i++)
+        {
+            if (c.getConnectionState() == DISCONNECTED)
+                break;
+            try
+            {
+                Thread.sleep(50);
+            }
+            catch (InterruptedException e)
+            {
+            }
+        }
     }
 
     @Override
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019, 2024 1C-Soft LLC.
+ * Copyright (c) 2019, 2026 1C-Soft LLC.
  *
  * This program and the accompanying materials are made available under
  * the terms of the Eclipse Public License 2.0 which is available at
@@ -19,25 +19,19 @@ import static org.lxtk.lx4e.examples.typescript.TypeScriptCore.LANGUAGE_SERVICE;
 import java.io.File;
 import java.io.IOException;
 import java.io.UncheckedIOException;
-import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
 
-import org.eclipse.core.resources.IProject;
-import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.lsp4j.DocumentFilter;
-import org.eclipse.lsp4j.InitializeParams;
 import org.eclipse.lsp4j.MessageParams;
 import org.eclipse.lsp4j.services.LanguageServer;
 import org.lxtk.CommandService;
-import org.lxtk.DocumentUri;
+import org.lxtk.WorkspaceService;
 import org.lxtk.client.AbstractLanguageClient;
-import org.lxtk.client.BufferingDiagnosticConsumer;
 import org.lxtk.client.CodeActionFeature;
 import org.lxtk.client.CompletionFeature;
 import org.lxtk.client.DefinitionFeature;
@@ -52,15 +46,18 @@ import org.lxtk.client.HoverFeature;
 import org.lxtk.client.ImplementationFeature;
 import org.lxtk.client.ReferencesFeature;
 import org.lxtk.client.RenameFeature;
+import org.lxtk.client.SharedWorkspaceFolders;
 import org.lxtk.client.SignatureHelpFeature;
 import org.lxtk.client.TextDocumentSyncFeature;
 import org.lxtk.client.TypeDefinitionFeature;
+import org.lxtk.client.WorkspaceFoldersFeature;
 import org.lxtk.client.WorkspaceSymbolFeature;
 import org.lxtk.jsonrpc.AbstractJsonRpcConnectionFactory;
 import org.lxtk.jsonrpc.JsonRpcConnectionFactory;
 import org.lxtk.lx4e.EclipseCommandService;
 import org.lxtk.lx4e.EclipseLog;
 import org.lxtk.lx4e.EclipseTextDocumentChangeEventMergeStrategy;
+import org.lxtk.lx4e.diagnostics.CoalescingDiagnosticConsumer;
 import org.lxtk.lx4e.diagnostics.DiagnosticMarkers;
 import org.lxtk.lx4e.ui.EclipseLanguageClient;
 import org.lxtk.lx4e.ui.EclipseLanguageClientController;
@@ -69,7 +66,8 @@ import org.lxtk.util.connect.StdioConnection;
 import org.lxtk.util.connect.StreamBasedConnection;
 
 /**
- * Represents a TypeScript language client.
+ * Represents a TypeScript language client. A single client serves
+ * all of the {@link #getWorkspaceFolders() attached} workspace folders.
  */
 public class TypeScriptLanguageClient
     extends EclipseLanguageClientController<LanguageServer>
@@ -80,36 +78,25 @@ public class TypeScriptLanguageClient
 
     static final String MARKER_TYPE = "org.lxtk.lx4e.examples.typescript.problem"; //$NON-NLS-1$
 
-    private final IProject project;
-    private final Log log;
-    private final List<DocumentFilter> documentSelector;
-    private final String rootUri;
-    private final BufferingDiagnosticConsumer diagnosticConsumer =
-        new BufferingDiagnosticConsumer(new DiagnosticMarkers(MARKER_TYPE));
+    private static final Log LOG =
+        new EclipseLog(Activator.getDefault().getBundle(), "typescript-language-client"); //$NON-NLS-1$
+
+    private static final List<DocumentFilter> DOCUMENT_SELECTOR =
+        Collections.singletonList(new DocumentFilter(LANGUAGE_ID, "file", null)); //$NON-NLS-1$
+
+    private final SharedWorkspaceFolders workspaceFolders = new SharedWorkspaceFolders();
+    private final CoalescingDiagnosticConsumer diagnosticConsumer =
+        new CoalescingDiagnosticConsumer(new DiagnosticMarkers(MARKER_TYPE));
     private final CommandService commandService = new EclipseCommandService();
 
     /**
-     * Creates a new TypeScript language client with the given {@link IProject}
-     * as the client's root folder.
+     * Returns the workspace folders served by this client.
      *
-     * @param project not <code>null</code>
-     * @throws IllegalStateException if the project's {@link IProject#getLocation()
-     *  location} could not be resolved
+     * @return the workspace folders (never <code>null</code>)
      */
-    public TypeScriptLanguageClient(IProject project)
+    public SharedWorkspaceFolders getWorkspaceFolders()
     {
-        this.project = Objects.requireNonNull(project);
-        log = new EclipseLog(Activator.getDefault().getBundle(),
-            "typescript-language-client:" + project.getName());
-        IPath location = project.getLocation();
-        if (location == null)
-            throw new IllegalStateException();
-        documentSelector = Collections.singletonList(new DocumentFilter(LANGUAGE_ID, "file", //$NON-NLS-1$
-            project.getLocation().append("**").toString())); //$NON-NLS-1$
-        URI locationURI = project.getLocationURI();
-        if (locationURI == null)
-            throw new IllegalStateException();
-        rootUri = DocumentUri.convert(project.getLocationURI());
+        return workspaceFolders;
     }
 
     @Override
@@ -122,13 +109,13 @@ public class TypeScriptLanguageClient
     @Override
     protected Log log()
     {
-        return log;
+        return LOG;
     }
 
     @Override
     protected List<DocumentFilter> getDocumentSelector()
     {
-        return documentSelector;
+        return DOCUMENT_SELECTOR;
     }
 
     @Override
@@ -161,17 +148,15 @@ public class TypeScriptLanguageClient
         features.add(new RenameFeature(LANGUAGE_SERVICE));
         features.add(new SignatureHelpFeature(LANGUAGE_SERVICE));
         features.add(new TypeDefinitionFeature(LANGUAGE_SERVICE));
-        features.add(new WorkspaceSymbolFeature(LANGUAGE_SERVICE, project));
+        features.add(new WorkspaceSymbolFeature(LANGUAGE_SERVICE, this));
+        features.add(new WorkspaceFoldersFeature(workspaceFolders.getWorkspaceService()));
         return new EclipseLanguageClient<>(log(), diagnosticConsumer,
             TypeScriptWorkspaceEditChangeFactory.INSTANCE, features)
         {
-            @SuppressWarnings("deprecation")
             @Override
-            public void fillInitializeParams(InitializeParams params)
+            public WorkspaceService getWorkspaceService()
             {
-                super.fillInitializeParams(params);
-
-                params.setRootUri(rootUri);
+                return workspaceFolders.getWorkspaceService();
             }
 
             @Override
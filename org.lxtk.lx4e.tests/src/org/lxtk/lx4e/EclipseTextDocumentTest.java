@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2026 1C-Soft LLC.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Vladimir Piskarev (1C) - initial API and implementation
+ *******************************************************************************/
+package org.lxtk.lx4e;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.handly.buffer.Buffer;
+import org.eclipse.handly.buffer.IBuffer;
+import org.eclipse.jface.text.IDocument;
+import org.lxtk.TextDocumentSnapshot;
+
+import junit.framework.TestCase;
+
+public class EclipseTextDocumentTest
+    extends TestCase
+{
+    private EclipseTextDocument textDocument;
+    private IDocument document;
+
+    @Override
+    protected void setUp() throws Exception
+    {
+        super.setUp();
+        IBuffer buffer = new Buffer("abc\ndef"); //$NON-NLS-1$
+        try
+        {
+            textDocument = new EclipseTextDocument(URI.create("file:///test.txt"), //$NON-NLS-1$
+                "plaintext", buffer, null); //$NON-NLS-1$
+        }
+        finally
+        {
+            buffer.release();
+        }
+        document = textDocument.getUnderlyingDocument();
+    }
+
+    @Override
+    protected void tearDown() throws Exception
+    {
+        if (textDocument != null)
+            textDocument.dispose();
+        super.tearDown();
+    }
+
+    public void testSnapshots() throws Exception
+    {
+        List<String> textsBeforeChange = new ArrayList<>();
+        textDocument.onWillChange().subscribe(
+            event -> textsBeforeChange.add(event.getSnapshot().getText()));
+
+        assertSnapshot(0);
+
+        document.replace(1, 2, "xyz"); //$NON-NLS-1$
+        assertSnapshot(1);
+
+        document.replace(0, 0, "\r\n"); //$NON-NLS-1$
+        assertSnapshot(2);
+
+        document.replace(document.getLength(), 0, "\ud83d\ude00"); //$NON-NLS-1$
+        assertSnapshot(3);
+
+        document.replace(2, document.getLength() - 2, ""); //$NON-NLS-1$
+        assertSnapshot(4);
+
+        document.set("new text"); //$NON-NLS-1$
+        assertSnapshot(5);
+
+        assertEquals(5, textsBeforeChange.size());
+        assertEquals("abc\ndef", textsBeforeChange.get(0)); //$NON-NLS-1$
+        assertEquals("axyz\ndef", textsBeforeChange.get(1)); //$NON-NLS-1$
+        assertEquals("\r\n", textsBeforeChange.get(4)); //$NON-NLS-1$
+    }
+
+    public void testSnapshotsRandom() throws Exception
+    {
+        StringBuilder largeText = new StringBuilder();
+        for (int i = 0; i < 1000; i++)
+            largeText.append("line ").append(i).append('\n'); //$NON-NLS-1$
+        document.set(largeText.toString());
+        int version = textDocument.getLastChange().getSnapshot().getVersion();
+
+        String[] fragments = { "a", "bc", "\n", "\r\n", "\ud83d\ude00" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+        Random random = new Random(0);
+        for (int i = 0; i < 500; i++)
+        {
+            int offset = random.nextInt(document.getLength() + 1);
+            int length = random.nextInt(Math.min(10, document.getLength() - offset) + 1);
+            document.replace(offset, length, fragments[random.nextInt(fragments.length)]);
+            assertSnapshot(++version);
+        }
+    }
+
+    private void assertSnapshot(int expectedVersion)
+    {
+        TextDocumentSnapshot snapshot = textDocument.getLastChange().getSnapshot();
+        assertSame(textDocument, snapshot.getDocument());
+        assertEquals(expectedVersion, snapshot.getVersion());
+        assertEquals(document.get(), snapshot.getText());
+    }
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2022 1C-Soft LLC.
+ * Copyright (c) 2022, 2026 1C-Soft LLC.
  *
  * This program and the accompanying materials are made available under
  * the terms of the Eclipse Public License 2.0 which is available at
@@ -15,8 +15,11 @@ package org.lxtk.lx4e.internal.ui;
 import java.time.Duration;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.function.Predicate;
 
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -83,6 +86,81 @@ public class TaskExecutor
         return results;
     }
 
+    /**
+     * Applies the given asynchronous task function to each of the input elements
+     * and composes the resulting futures, without scheduling any jobs or blocking
+     * any threads. The returned future completes when all of the task futures
+     * have completed or the given timeout has expired, whichever comes first.
+     * In the returned map, the result of a task that failed or did not complete
+     * in time is <code>null</code>; the future of a task that did not complete
+     * in time is cancelled.
+     * <p>
+     * Note that a caller that needs the results synchronously still has to wait
+     * for the returned future; compared to {@link #parallelCompute}, it only saves
+     * scheduling a job per input element.
+     * </p>
+     *
+     * @param inputElements not <code>null</code>, must not contain duplicates
+     * @param taskFunction not <code>null</code>
+     * @param timeout may be <code>null</code>
+     * @return a future of the results map, whose iteration order is the order
+     *  of the input elements (never <code>null</code>)
+     */
+    public static <P, R> CompletableFuture<Map<P, R>> parallelComputeAsync(P[] inputElements,
+        Function<P, CompletableFuture<R>> taskFunction, Duration timeout)
+    {
+        if (inputElements.length == 0)
+            return CompletableFuture.completedFuture(Map.of());
+
+        Map<P, CompletableFuture<R>> futures = new LinkedHashMap<>();
+
+        for (P inputElement : inputElements)
+        {
+            if (futures.containsKey(inputElement))
+                throw new IllegalArgumentException("Duplicate input element: " + inputElement); //$NON-NLS-1$
+
+            futures.put(inputElement, null); // initialize iteration order
+        }
+
+        for (P inputElement : inputElements)
+        {
+            CompletableFuture<R> future;
+            try
+            {
+                future = taskFunction.apply(inputElement);
+            }
+            catch (RuntimeException e)
+            {
+                future = CompletableFuture.failedFuture(e);
+            }
+            futures.put(inputElement,
+                future != null ? future : CompletableFuture.completedFuture(null));
+        }
+
+        CompletableFuture<Void> all =
+            CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0]));
+        if (timeout != null)
+            all.completeOnTimeout(null, timeout.toMillis(), TimeUnit.MILLISECONDS);
+
+        return all.handle((v, e) ->
+        {
+            Map<P, R> results = new LinkedHashMap<>();
+            futures.forEach((inputElement, future) ->
+            {
+                R result = null;
+                if (future.isDone())
+                {
+                    if (!future.isCompletedExceptionally())
+                        result = future.join();
+                }
+                else
+                    future.cancel(true);
+                results.put(inputElement, result);
+            });
+            return results;
+        });
+    }
+
     public static <P> void sequentialExecute(P[] inputElements,
         BiFunction<P, Duration, Boolean> task, Duration timeout)
     {
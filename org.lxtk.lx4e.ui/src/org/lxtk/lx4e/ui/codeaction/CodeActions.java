@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019, 2022 1C-Soft LLC.
+ * Copyright (c) 2019, 2026 1C-Soft LLC.
  *
  * This program and the accompanying materials are made available under
  * the terms of the Eclipse Public License 2.0 which is available at
@@ -18,7 +18,6 @@ import java.util.concurrent.CompletableFuture;
 import java.util.function.Supplier;
 
 import org.eclipse.core.runtime.CoreException;
-import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.lsp4j.CodeAction;
 import org.eclipse.lsp4j.CodeActionParams;
 import org.eclipse.lsp4j.Command;
@@ -69,15 +68,16 @@ class CodeActions
         if (providers.length == 0)
             return null;
 
-        return new CodeActionResults(TaskExecutor.parallelCompute(
-            providers, (provider, monitor) -> computeCodeActionResult(provider, params,
-                requestSupplier, timeout, monitor),
-            Messages.CodeActions_Computing_code_actions, timeout, null));
+        // the callers implement synchronous APIs, so the results have to be waited for;
+        // the async fan-out only avoids scheduling a job per provider
+        return new CodeActionResults(TaskExecutor.parallelComputeAsync(providers,
+            provider -> computeCodeActionResult(provider, params, requestSupplier, timeout),
+            timeout).join());
     }
 
-    private static CodeActionResult computeCodeActionResult(CodeActionProvider provider,
-        CodeActionParams params, Supplier<CodeActionRequest> requestSupplier, Duration timeout,
-        IProgressMonitor monitor)
+    private static CompletableFuture<CodeActionResult> computeCodeActionResult(
+        CodeActionProvider provider, CodeActionParams params,
+        Supplier<CodeActionRequest> requestSupplier, Duration timeout)
     {
         CodeActionRequest request = requestSupplier.get();
         request.setProvider(provider);
@@ -86,10 +86,9 @@ class CodeActions
         request.setParams(JsonUtil.deepCopy(params));
         request.setTimeout(timeout);
         request.setMayThrow(false);
-        request.setProgressMonitor(monitor);
         request.setUpWorkDoneProgress(WorkDoneProgressFactory::newWorkDoneProgress);
 
-        return new CodeActionResult(request.sendAndReceive());
+        return request.sendAsync().thenApply(CodeActionResult::new);
     }
 
     static void execute(Command command, String label, CommandService commandService)
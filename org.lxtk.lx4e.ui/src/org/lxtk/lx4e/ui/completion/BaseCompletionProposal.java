@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2021, 2022 1C-Soft LLC.
+ * Copyright (c) 2021, 2026 1C-Soft LLC.
  *
  * This program and the accompanying materials are made available under
  * the terms of the Eclipse Public License 2.0 which is available at
@@ -77,6 +77,7 @@ import org.lxtk.lx4e.internal.ui.StyledBrowserInformationControlInput;
 import org.lxtk.lx4e.requests.CompletionResolveRequest;
 import org.lxtk.lx4e.ui.WorkDoneProgressFactory;
 import org.lxtk.lx4e.util.Markdown;
+import org.lxtk.util.completion.BatchMatcher;
 import org.lxtk.util.completion.DefaultMatcher;
 import org.lxtk.util.completion.MatchResult;
 import org.lxtk.util.completion.snippet.Snippet;
@@ -92,6 +93,27 @@ public class BaseCompletionProposal
 {
     private static final TextEdit[] NO_EDITS = new TextEdit[0];
     private static final DefaultMatcher MATCHER = new DefaultMatcher();
+    // whether the class does not override computeMatchResult
+    private static final ClassValue<Boolean> DEFAULT_MATCHING = new ClassValue<>()
+    {
+        @Override
+        protected Boolean computeValue(Class<?> type)
+        {
+            for (Class<?> c = type; c != BaseCompletionProposal.class; c = c.getSuperclass())
+            {
+                try
+                {
+                    c.getDeclaredMethod("computeMatchResult", String.class, String.class); //$NON-NLS-1$
+                    return false;
+                }
+                catch (NoSuchMethodException e)
+                {
+                    // continue with the superclass
+                }
+            }
+            return true;
+        }
+    };
 
     /** The given completion item (never <code>null</code>) */
     protected final CompletionItem completionItem;
@@ -354,7 +376,11 @@ public class BaseCompletionProposal
      * Returns the result of matching the given string against the given pattern.
      * <p>
      * Delegates to {@link #computeMatchResult(String, String)} for computing the match result
-     * if not already computed.
+     * if not already computed. However, if this class does not override
+     * <code>computeMatchResult</code>, and the score for the given pattern and string
+     * has already been computed in batch for the completion context, e.g. while
+     * re-filtering cached completion results, the score is used without matching
+     * the string individually; the matching regions are then computed on demand.
      * </p>
      *
      * @param pattern not <code>null</code>
@@ -368,11 +394,28 @@ public class BaseCompletionProposal
         if (matchResultCache != null && pattern.equals(matchResultCache.pattern)
             && string.equals(matchResultCache.string))
             return matchResultCache.result;
-        MatchResult result = computeMatchResult(pattern, string);
+        MatchResult result;
+        Integer score = getBatchScore(pattern, string);
+        if (score == null)
+            result = computeMatchResult(pattern, string);
+        else if (score == BatchMatcher.NO_MATCH)
+            result = null;
+        else
+            result = new BatchMatchResult(pattern, string, score);
         matchResultCache = new MatchResultCache(pattern, string, result);
         return result;
     }
 
+    private Integer getBatchScore(String pattern, String string)
+    {
+        if (!DEFAULT_MATCHING.get(getClass()))
+            return null;
+        BatchScores batchScores = completionContext.getBatchScores();
+        if (batchScores == null)
+            return null;
+        return batchScores.getScore(pattern, string);
+    }
+
     /**
      * Computes the result of matching the given string against the given pattern.
      *
@@ -797,6 +840,39 @@ public class BaseCompletionProposal
             TabStopLinkedMode.start(viewer, start, exitOffset, tabStops).getSelectedRegion();
     }
 
+    private static class BatchMatchResult
+        implements MatchResult
+    {
+        final String pattern;
+        final String string;
+        final int score;
+        int[] matchingRegions;
+
+        BatchMatchResult(String pattern, String string, int score)
+        {
+            this.pattern = pattern;
+            this.string = string;
+            this.score = score;
+        }
+
+        @Override
+        public int[] getMatchingRegions()
+        {
+            if (matchingRegions == null)
+            {
+                MatchResult result = MATCHER.match(pattern, string);
+                matchingRegions = result != null ? result.getMatchingRegions() : new int[0];
+            }
+            return matchingRegions;
+        }
+
+        @Override
+        public int getScore()
+        {
+            return score;
+        }
+    }
+
     private static class MatchResultCache
     {
         final String pattern;
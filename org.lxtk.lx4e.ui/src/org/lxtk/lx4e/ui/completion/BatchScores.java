@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (c) 2026 1C-Soft LLC.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Vladimir Piskarev (1C) - initial API and implementation
+ *******************************************************************************/
+package org.lxtk.lx4e.ui.completion;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+import org.lxtk.util.completion.BatchMatcher;
+
+/**
+ * Shares the scores computed in batch by a {@link BatchMatcher} for the current
+ * pattern with the completion proposals whose filter strings are candidates
+ * of the batch matcher. When the pattern changes, e.g. as the user keeps typing
+ * with the proposal popup open, all of the candidates are re-matched at once
+ * by the first proposal asking for a score, and the other proposals just look
+ * up their scores.
+ * <p>
+ * This class is thread-safe.
+ * </p>
+ */
+final class BatchScores
+{
+    private final Supplier<BatchMatcher> matcherSupplier;
+    private BatchMatcher matcher; // guarded by this
+    private Map<String, Integer> indexes; // guarded by this
+    private String pattern; // guarded by this
+    private int[] scores; // guarded by this
+
+    /**
+     * Constructor.
+     *
+     * @param matcherSupplier supplies the batch matcher on first use
+     *  (not <code>null</code>)
+     */
+    BatchScores(Supplier<BatchMatcher> matcherSupplier)
+    {
+        this.matcherSupplier = Objects.requireNonNull(matcherSupplier);
+    }
+
+    /**
+     * Sets the scores that have already been computed by the batch matcher
+     * for the given pattern.
+     *
+     * @param pattern not <code>null</code>
+     * @param scores the scores of the candidates (not <code>null</code>);
+     *  must not be modified afterwards
+     */
+    synchronized void setScores(String pattern, int[] scores)
+    {
+        this.pattern = Objects.requireNonNull(pattern);
+        this.scores = Objects.requireNonNull(scores);
+    }
+
+    /**
+     * Returns the score of matching the given string against the given pattern,
+     * as computed in batch for all of the candidates.
+     *
+     * @param pattern not <code>null</code>
+     * @param string not <code>null</code>
+     * @return the score, which is {@link BatchMatcher#NO_MATCH} if the string
+     *  does not match the pattern, or <code>null</code> if the string is not
+     *  a candidate of the batch matcher
+     */
+    synchronized Integer getScore(String pattern, String string)
+    {
+        if (matcher == null)
+        {
+            matcher = matcherSupplier.get();
+            indexes = new HashMap<>();
+            for (int i = 0, n = matcher.size(); i < n; i++)
+                indexes.putIfAbsent(matcher.getCandidate(i), i);
+        }
+        Integer index = indexes.get(string);
+        if (index == null)
+            return null;
+        if (!pattern.equals(this.pattern))
+        {
+            int[] scores = new int[matcher.size()];
+            matcher.match(pattern, scores, ForkJoinPool.commonPool());
+            this.pattern = pattern;
+            this.scores = scores;
+        }
+        return scores[index];
+    }
+}
@@ -0,0 +1,367 @@
+/*******************************************************************************
+ * Copyright (c) 2026 1C-Soft LLC.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Vladimir Piskarev (1C) - initial API and implementation
+ *******************************************************************************/
+package org.lxtk.lx4e.ui.completion;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentListener;
+import org.eclipse.jface.text.contentassist.ICompletionProposal;
+import org.eclipse.jface.text.contentassist.ICompletionProposalExtension2;
+import org.eclipse.lsp4j.CompletionItem;
+import org.eclipse.lsp4j.CompletionList;
+import org.eclipse.lsp4j.InsertReplaceEdit;
+import org.eclipse.lsp4j.TextEdit;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.lxtk.CompletionItemUtil;
+import org.lxtk.CompletionProvider;
+import org.lxtk.lx4e.DocumentUtil;
+import org.lxtk.lx4e.ui.completion.ContentAssistProcessor.CompletionResult;
+import org.lxtk.lx4e.ui.completion.ContentAssistProcessor.CompletionResults;
+import org.lxtk.util.completion.BatchMatcher;
+import org.lxtk.util.completion.DefaultMatcher;
+
+/**
+ * Caches the last complete completion results computed for a document,
+ * so that they can be re-filtered and re-scored locally as the user keeps
+ * typing the same word, instead of sending a new completion request
+ * on each invocation of content assist.
+ * <p>
+ * The cached results remain valid as long as the document is changed only
+ * between the invocation offset and the end of the text typed since, and are
+ * discarded as soon as any other change is made to the document. A result is reused
+ * only if the word start offset is the same as when the result was computed
+ * and the current offset is the end of the text typed since. Results containing
+ * an incomplete completion list are never cached.
+ * </p>
+ * <p>
+ * Before proposals are created from the cached items, the items are
+ * pre-filtered in batch by a {@link BatchMatcher} against the filter strings
+ * used by the default completion proposals, so that no proposal objects
+ * need to be created for the items that do not match. The text typed since
+ * the start of the current word is used as the pattern, as well as, for an item
+ * with a text edit, the text typed since the start of the edit range. An item
+ * is only dropped if it matches none of its patterns; the created proposals
+ * are then validated as usual.
+ * </p>
+ * <p>
+ * The batch matcher is also shared with the proposals through the completion
+ * context (see {@link BatchScores}), so that the proposals look up their scores
+ * for the text typed since the start of the current word rather than matching
+ * their filter strings one by one, both when they are created from the cached
+ * items and while the proposal popup is open.
+ * </p>
+ */
+final class CompletionCache
+{
+    private static final DefaultMatcher MATCHER = new DefaultMatcher();
+
+    private Entry entry; // guarded by this
+
+    /**
+     * Caches the given completion results for the given context, replacing
+     * the currently cached results. If the given results contain an incomplete
+     * completion list, the currently cached results are discarded, but the given
+     * results are not cached.
+     *
+     * @param context not <code>null</code>
+     * @param results not <code>null</code>
+     */
+    void put(CompletionContext context, CompletionResults results)
+    {
+        Map<CompletionProvider, CompletionResult> map = results.asMap();
+        for (CompletionResult result : map.values())
+        {
+            if (result != null && result.getCompletionList() != null
+                && result.getCompletionList().isIncomplete())
+            {
+                invalidate();
+                return;
+            }
+        }
+        Entry newEntry = new Entry(context, results,
+            context.getCurrentWordRegion().getOffset());
+        context.setBatchScores(new BatchScores(newEntry::getMatcher));
+        newEntry.document.addDocumentListener(newEntry);
+        Entry oldEntry;
+        synchronized (this)
+        {
+            oldEntry = entry;
+            entry = newEntry;
+        }
+        if (oldEntry != null)
+            oldEntry.dispose();
+    }
+
+    /**
+     * Returns completion proposals computed from the cached results for the given
+     * document and offset, filtered and scored against the text typed since
+     * the results were computed.
+     *
+     * @param processor not <code>null</code>
+     * @param document not <code>null</code>
+     * @param offset the invocation offset
+     * @param wordStart the start offset of the current word
+     * @param providers the currently matching completion providers (not <code>null</code>)
+     * @return the completion proposals, or <code>null</code> if the cached results
+     *  cannot be reused for the given document and offset
+     */
+    ICompletionProposal[] getProposals(ContentAssistProcessor processor, IDocument document,
+        int offset, int wordStart, Collection<CompletionProvider> providers)
+    {
+        Entry entry;
+        synchronized (this)
+        {
+            entry = this.entry;
+        }
+        if (entry == null || !entry.isValidFor(document, offset, wordStart)
+            || !providers.containsAll(entry.results.asMap().keySet()))
+            return null;
+
+        CompletionContext context = entry.context;
+        int invocationOffset = context.getInvocationOffset();
+        DocumentEvent typing;
+        try
+        {
+            typing = new DocumentEvent(document, invocationOffset, 0,
+                document.get(invocationOffset, offset - invocationOffset));
+        }
+        catch (BadLocationException e)
+        {
+            return null;
+        }
+
+        boolean[] matches = null;
+        if (offset > invocationOffset)
+        {
+            // cheap pre-filtering, so that proposals are only created for matching items
+            try
+            {
+                matches = entry.prefilter(document, offset);
+            }
+            catch (BadLocationException e)
+            {
+                return null;
+            }
+        }
+
+        List<ICompletionProposal> result = new ArrayList<>();
+        for (int i = 0, n = entry.items.length; i < n; i++)
+        {
+            if (matches != null && !matches[i])
+                continue;
+            ICompletionProposal proposal = processor.toCompletionProposal(entry.items[i],
+                entry.lists[i], entry.providers[i], context);
+            if (proposal == null)
+                continue;
+            if (offset == invocationOffset)
+                result.add(proposal); // nothing has been typed since
+            else if (proposal instanceof ICompletionProposalExtension2)
+            {
+                // same as if the proposal popup had been open while typing
+                if (((ICompletionProposalExtension2)proposal).validate(document, offset, typing))
+                    result.add(proposal);
+            }
+        }
+        return result.toArray(new ICompletionProposal[0]);
+    }
+
+    /**
+     * Discards the cached results.
+     */
+    void invalidate()
+    {
+        Entry oldEntry;
+        synchronized (this)
+        {
+            oldEntry = entry;
+            entry = null;
+        }
+        if (oldEntry != null)
+            oldEntry.dispose();
+    }
+
+    private static class Entry
+        implements IDocumentListener
+    {
+        final CompletionContext context;
+        final CompletionResults results;
+        final IDocument document;
+        final int wordStart;
+        final CompletionItem[] items;
+        final CompletionList[] lists;
+        final CompletionProvider[] providers;
+        final int[] filterStarts; // the start of the pattern for each item
+        final SortedSet<Integer> distinctFilterStarts = new TreeSet<>();
+        volatile int end;
+        volatile boolean valid = true;
+        private BatchMatcher matcher; // guarded by this
+
+        Entry(CompletionContext context, CompletionResults results, int wordStart)
+        {
+            this.context = context;
+            this.results = results;
+            this.document = context.getDocument();
+            this.wordStart = wordStart;
+            this.end = context.getInvocationOffset();
+
+            List<CompletionItem> items = new ArrayList<>();
+            List<CompletionList> lists = new ArrayList<>();
+            List<CompletionProvider> providers = new ArrayList<>();
+            results.asMap().forEach((provider, result) ->
+            {
+                if (result == null || result.getCompletionList() == null)
+                    return;
+                CompletionList list = result.getCompletionList();
+                for (CompletionItem item : list.getItems())
+                {
+                    items.add(item);
+                    lists.add(list);
+                    providers.add(provider);
+                }
+            });
+            this.items = items.toArray(new CompletionItem[0]);
+            this.lists = lists.toArray(new CompletionList[0]);
+            this.providers = providers.toArray(new CompletionProvider[0]);
+
+            filterStarts = new int[this.items.length];
+            distinctFilterStarts.add(wordStart);
+            for (int i = 0; i < filterStarts.length; i++)
+            {
+                filterStarts[i] = getFilterStart(this.items[i], this.lists[i]);
+                distinctFilterStarts.add(filterStarts[i]);
+            }
+        }
+
+        /*
+         * Returns the start offset of the text the given item is filtered against,
+         * i.e. the start of the range of the item's text edit, or the word start
+         * if the item has no text edit.
+         */
+        private int getFilterStart(CompletionItem item, CompletionList list)
+        {
+            Either<TextEdit, InsertReplaceEdit> textEdit =
+                CompletionItemUtil.getTextEdit(item, list.getItemDefaults());
+            if (textEdit == null)
+                return wordStart;
+            org.eclipse.lsp4j.Position start = textEdit.isLeft()
+                ? textEdit.getLeft().getRange().getStart()
+                : textEdit.getRight().getInsert().getStart();
+            try
+            {
+                int offset = DocumentUtil.toOffset(document, start);
+                if (offset <= end)
+                    return offset;
+            }
+            catch (BadLocationException e)
+            {
+                // fall through
+            }
+            return wordStart;
+        }
+
+        /*
+         * Matches the filter strings of the items against the text typed since
+         * the word start and since the filter start of each item. Returns whether
+         * each of the items matches any of its patterns.
+         */
+        boolean[] prefilter(IDocument document, int offset) throws BadLocationException
+        {
+            BatchMatcher matcher = getMatcher();
+            boolean[] result = new boolean[items.length];
+            int[] scores = new int[items.length];
+            for (int start : distinctFilterStarts)
+            {
+                if (start > offset)
+                    break;
+                String pattern = document.get(start, offset - start);
+                if (!pattern.isEmpty())
+                {
+                    matcher.match(pattern, scores, ForkJoinPool.commonPool());
+                    // the proposals are matched against the text typed since the word start
+                    if (start == wordStart)
+                        context.getBatchScores().setScores(pattern, scores.clone());
+                }
+                for (int i = 0; i < items.length; i++)
+                {
+                    if (start != wordStart && start != filterStarts[i])
+                        continue;
+                    // an empty pattern does not allow for pre-filtering
+                    if (pattern.isEmpty() || scores[i] != BatchMatcher.NO_MATCH)
+                        result[i] = true;
+                }
+            }
+            return result;
+        }
+
+        /*
+         * Returns a batch matcher for the filter strings of the items, which are
+         * the same as those used by the default completion proposals.
+         */
+        synchronized BatchMatcher getMatcher()
+        {
+            if (matcher == null)
+            {
+                List<String> filterStrings = new ArrayList<>(items.length);
+                for (CompletionItem item : items)
+                {
+                    String filterText = item.getFilterText();
+                    filterStrings.add(filterText != null ? filterText : item.getLabel());
+                }
+                matcher = new BatchMatcher(MATCHER, filterStrings);
+            }
+            return matcher;
+        }
+
+        boolean isValidFor(IDocument document, int offset, int wordStart)
+        {
+            return valid && this.document == document && this.wordStart == wordStart
+                && end == offset && offset >= context.getInvocationOffset();
+        }
+
+        void dispose()
+        {
+            valid = false;
+            document.removeDocumentListener(this);
+        }
+
+        @Override
+        public void documentAboutToBeChanged(DocumentEvent event)
+        {
+            if (!valid)
+                return;
+            // the typing must not touch the text the results were computed for
+            if (event.getOffset() < context.getInvocationOffset()
+                || event.getOffset() + event.getLength() > end)
+            {
+                dispose();
+                return;
+            }
+            String text = event.getText();
+            end += (text == null ? 0 : text.length()) - event.getLength();
+        }
+
+        @Override
+        public void documentChanged(DocumentEvent event)
+        {
+        }
+    }
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2021, 2022 1C-Soft LLC.
+ * Copyright (c) 2021, 2026 1C-Soft LLC.
  *
  * This program and the accompanying materials are made available under
  * the terms of the Eclipse Public License 2.0 which is available at
@@ -43,6 +43,7 @@ public class CompletionContext
     private URI documentUri;
     private int invocationOffset;
     private IContentAssistProcessor contentAssistProcessor;
+    private volatile BatchScores batchScores;
 
     /**
      * Returns the text viewer.
@@ -172,6 +173,16 @@ public class CompletionContext
         return contentAssistProcessor;
     }
 
+    void setBatchScores(BatchScores batchScores)
+    {
+        this.batchScores = batchScores;
+    }
+
+    BatchScores getBatchScores()
+    {
+        return batchScores;
+    }
+
     private String getSelectedText()
     {
         Point selection = getTextViewer().getSelectedRange();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019, 2022 1C-Soft LLC.
+ * Copyright (c) 2019, 2026 1C-Soft LLC.
  *
  * This program and the accompanying materials are made available under
  * the terms of the Eclipse Public License 2.0 which is available at
@@ -15,10 +15,13 @@ package org.lxtk.lx4e.ui.completion;
 import java.net.URI;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.NavigableMap;
 import java.util.Objects;
+import java.util.Set;
 import java.util.function.Supplier;
 
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -26,8 +29,12 @@ import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.ITextViewer;
 import org.eclipse.jface.text.TextPresentation;
+import org.eclipse.jface.text.contentassist.ContentAssistEvent;
+import org.eclipse.jface.text.contentassist.ICompletionListener;
 import org.eclipse.jface.text.contentassist.ICompletionProposal;
 import org.eclipse.jface.text.contentassist.IContentAssistProcessor;
+import org.eclipse.jface.text.contentassist.IContentAssistant;
+import org.eclipse.jface.text.contentassist.IContentAssistantExtension2;
 import org.eclipse.jface.text.contentassist.IContextInformation;
 import org.eclipse.jface.text.contentassist.IContextInformationPresenter;
 import org.eclipse.jface.text.contentassist.IContextInformationValidator;
@@ -46,6 +53,7 @@ import org.eclipse.lsp4j.jsonrpc.messages.Tuple.Two;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.custom.StyleRange;
 import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.widgets.Control;
 import org.lxtk.CompletionProvider;
 import org.lxtk.DocumentUri;
 import org.lxtk.LanguageOperationTarget;
@@ -76,6 +84,9 @@ public class ContentAssistProcessor
 
     private final Supplier<LanguageOperationTarget> targetSupplier;
     private IContextInformationValidator contextInformationValidator;
+    private volatile IContentAssistant streamingAssistant;
+    private volatile StreamingCompletionSession streamingSession;
+    private final CompletionCache completionCache = new CompletionCache();
 
     /**
      * Constructor.
@@ -101,9 +112,106 @@ public class ContentAssistProcessor
         return targetSupplier.get();
     }
 
+    /**
+     * Enables streaming of completion results for this processor.
+     * <p>
+     * In streaming mode, completion requests are sent to all of the providers
+     * in a group at once, and proposals are shown as soon as one of the providers
+     * has answered (possibly with a partial result), instead of waiting for all
+     * of the providers to answer. Results of the providers that answer later
+     * are merged into the open proposal popup by re-invoking the given content
+     * assistant, which makes this processor return the merged proposals without
+     * sending new requests. The order of proposals is determined by the sorter
+     * of the content assistant, e.g. {@link CompletionProposalSorter}, so that
+     * it remains stable as results are merged.
+     * </p>
+     * <p>
+     * Since the results need to be received incrementally, streaming mode does not
+     * use {@link #computeCompletionResults(CompletionProvider[], CompletionParams)
+     * computeCompletionResults} and {@link #computeCompletionResult(CompletionProvider,
+     * CompletionParams, IProgressMonitor) computeCompletionResult}, which return
+     * the results only when computed; these methods are not invoked in streaming mode.
+     * The requests are created by {@link #newCompletionRequest()} and sent
+     * asynchronously, and partial results are collected on the threads that
+     * receive them. Proposals are created from the results received so far through
+     * {@link #getCompletionProposals(CompletionResults, CompletionContext)
+     * getCompletionProposals} (and hence {@link #toCompletionProposal(CompletionItem,
+     * CompletionList, CompletionProvider, CompletionContext) toCompletionProposal})
+     * on the thread invoking {@link #computeCompletionProposals(ITextViewer, int)
+     * computeCompletionProposals}, as in non-streaming mode. Note that
+     * <code>getCompletionProposals</code> may therefore be invoked several times
+     * for a single invocation of content assist, each time with all of the results
+     * received so far.
+     * </p>
+     *
+     * @param assistant the content assistant this processor is installed in
+     *  (not <code>null</code>). It must implement {@link IContentAssistantExtension2}
+     * @see #getCompletionMergeDelay()
+     */
+    public void enableStreaming(IContentAssistant assistant)
+    {
+        if (!(assistant instanceof IContentAssistantExtension2))
+            throw new IllegalArgumentException();
+        if (streamingAssistant != null)
+            throw new IllegalStateException();
+        ((IContentAssistantExtension2)assistant).addCompletionListener(
+            new ICompletionListener()
+            {
+                @Override
+                public void assistSessionStarted(ContentAssistEvent event)
+                {
+                }
+
+                @Override
+                public void assistSessionEnded(ContentAssistEvent event)
+                {
+                    StreamingCompletionSession session = streamingSession;
+                    if (session != null && !session.isRefreshing())
+                    {
+                        streamingSession = null;
+                        session.dispose();
+                    }
+                }
+
+                @Override
+                public void selectionChanged(ICompletionProposal proposal,
+                    boolean smartToggle)
+                {
+                }
+            });
+        streamingAssistant = assistant;
+    }
+
+    /**
+     * Returns whether streaming of completion results is enabled for this processor.
+     *
+     * @return <code>true</code> if streaming is enabled, and <code>false</code> otherwise
+     * @see #enableStreaming(IContentAssistant)
+     */
+    public final boolean isStreamingEnabled()
+    {
+        return streamingAssistant != null;
+    }
+
     @Override
     public ICompletionProposal[] computeCompletionProposals(ITextViewer viewer, int offset)
     {
+        if (isStreamingEnabled())
+        {
+            StreamingCompletionSession session = streamingSession;
+            if (session != null)
+            {
+                if (session.isFor(viewer.getDocument(), offset))
+                {
+                    // refresh with late results
+                    cacheCompletionResults(session.getContext(), session.getResults());
+                    return session.getProposals();
+                }
+                streamingSession = null;
+                session.dispose();
+            }
+        }
+
         LanguageOperationTarget target = getLanguageOperationTarget();
         if (target == null)
             return null;
@@ -134,6 +242,17 @@ public class ContentAssistProcessor
         context.setInvocationOffset(offset);
         context.setContentAssistProcessor(this);
 
+        if (isCompletionCacheEnabled())
+        {
+            ICompletionProposal[] proposals = getCachedCompletionProposals(providerGroups, context);
+            if (proposals != null && proposals.length > 0)
+                return proposals;
+            completionCache.invalidate();
+        }
+
+        if (isStreamingEnabled())
+            return computeCompletionProposalsStreaming(providerGroups, params, context);
+
         for (CompletionProvider[] providerGroup : providerGroups)
         {
             CompletionResults results = computeCompletionResults(providerGroup, params);
@@ -141,7 +260,10 @@ public class ContentAssistProcessor
             {
                 ICompletionProposal[] proposals = getCompletionProposals(results, context);
                 if (proposals != null && proposals.length > 0)
+                {
+                    cacheCompletionResults(context, results);
                     return proposals;
+                }
             }
         }
 
@@ -203,6 +325,74 @@ public class ContentAssistProcessor
         return contextInformationValidator;
     }
 
+    private ICompletionProposal[] computeCompletionProposalsStreaming(
+        CompletionProvider[][] providerGroups, CompletionParams params, CompletionContext context)
+    {
+        for (CompletionProvider[] providerGroup : providerGroups)
+        {
+            if (providerGroup.length == 0)
+                continue;
+
+            StreamingCompletionSession session =
+                new StreamingCompletionSession(this, context, providerGroup);
+            streamingSession = session;
+            session.start(params);
+
+            ICompletionProposal[] proposals =
+                session.awaitFirstPaint(getCompletionTimeout(), getCompletionMergeDelay());
+            if (proposals.length > 0)
+            {
+                cacheCompletionResults(context, session.getResults());
+                session.setUpdateListener(() -> scheduleRefresh(session, context));
+                return proposals;
+            }
+
+            if (streamingSession == session)
+                streamingSession = null;
+            session.dispose();
+        }
+        return null;
+    }
+
+    private ICompletionProposal[] getCachedCompletionProposals(
+        CompletionProvider[][] providerGroups, CompletionContext context)
+    {
+        Set<CompletionProvider> providers = new HashSet<>();
+        for (CompletionProvider[] providerGroup : providerGroups)
+            providers.addAll(Arrays.asList(providerGroup));
+        return completionCache.getProposals(this, context.getDocument(),
+            context.getInvocationOffset(), context.getCurrentWordRegion().getOffset(), providers);
+    }
+
+    private void cacheCompletionResults(CompletionContext context, CompletionResults results)
+    {
+        if (results != null && isCompletionCacheEnabled())
+            completionCache.put(context, results);
+    }
+
+    private void scheduleRefresh(StreamingCompletionSession session, CompletionContext context)
+    {
+        Control control = context.getTextViewer().getTextWidget();
+        if (control == null || control.isDisposed())
+            return;
+        control.getDisplay().asyncExec(() ->
+        {
+            IContentAssistant assistant = streamingAssistant;
+            if (assistant == null || streamingSession != session
+                || !session.isFor(context.getDocument(), context.getInvocationOffset()))
+                return;
+            session.setRefreshing(true);
+            try
+            {
+                assistant.showPossibleCompletions();
+            }
+            finally
+            {
+                session.setRefreshing(false);
+            }
+        });
+    }
+
     /**
      * Returns a new instance of {@link IContextInformationValidator}.
      *
@@ -454,6 +644,43 @@ public class ContentAssistProcessor
         return Duration.ofSeconds(1);
     }
 
+    /**
+     * Returns whether completion results may be reused as the user keeps typing
+     * the same word. If enabled, complete completion results (i.e. results that
+     * contain no incomplete completion list) are cached, and a subsequent invocation
+     * of content assist in the same word re-filters and re-scores the cached results
+     * locally instead of sending new requests, as long as the document has only been
+     * changed by typing in that word.
+     * <p>
+     * Default implementation returns <code>true</code>, since a completion list
+     * that is not marked as incomplete need not be recomputed on further typing
+     * according to the protocol. Subclasses may disable the cache if the language
+     * server is known to compute results that depend on the text typed in the
+     * current word even though it reports them as complete.
+     * </p>
+     *
+     * @return <code>true</code> if completion results may be reused,
+     *  and <code>false</code> otherwise
+     */
+    protected boolean isCompletionCacheEnabled()
+    {
+        return true;
+    }
+
+    /**
+     * Returns the time to wait for the other providers in a group once one of them
+     * has answered, before the proposals are shown in streaming mode. This allows
+     * nearly simultaneous results to be shown together rather than merged
+     * into the open popup one after another.
+     *
+     * @return a non-negative duration
+     * @see #enableStreaming(IContentAssistant)
+     */
+    protected Duration getCompletionMergeDelay()
+    {
+        return Duration.ofMillis(50);
+    }
+
     /**
      * Returns a new instance of {@link SignatureHelpRequest}.
      *
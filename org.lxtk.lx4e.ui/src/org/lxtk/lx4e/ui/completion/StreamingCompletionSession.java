@@ -0,0 +1,370 @@
+/*******************************************************************************
+ * Copyright (c) 2026 1C-Soft LLC.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Vladimir Piskarev (1C) - initial API and implementation
+ *******************************************************************************/
+package org.lxtk.lx4e.ui.completion;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
+import org.eclipse.jface.text.contentassist.ICompletionProposal;
+import org.eclipse.lsp4j.CompletionItem;
+import org.eclipse.lsp4j.CompletionList;
+import org.eclipse.lsp4j.CompletionParams;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.lxtk.AbstractPartialResultProgress;
+import org.lxtk.CompletionProvider;
+import org.lxtk.jsonrpc.JsonUtil;
+import org.lxtk.lx4e.requests.CompletionRequest;
+import org.lxtk.lx4e.ui.WorkDoneProgressFactory;
+import org.lxtk.lx4e.ui.completion.ContentAssistProcessor.CompletionResult;
+import org.lxtk.lx4e.ui.completion.ContentAssistProcessor.CompletionResults;
+
+/**
+ * Streams completion results of a group of completion providers for a single
+ * invocation of content assist. Requests are sent to all of the providers
+ * at once; partial results reported by a provider are collected as they arrive.
+ * Proposals for the results collected so far are available at any time
+ * via {@link #getProposals()}, which converts the results on the calling thread
+ * through {@link ContentAssistProcessor#getCompletionProposals(CompletionResults,
+ * CompletionContext)}; an update listener is notified when a provider completes
+ * after the first paint.
+ */
+final class StreamingCompletionSession
+{
+    private final ContentAssistProcessor processor;
+    private final CompletionContext context;
+    private final IDocument document;
+    private final long modificationStamp;
+    private final ProviderStream[] streams;
+    private Runnable updateListener; // guarded by this
+    private boolean firstPaintDone; // guarded by this
+    private volatile boolean refreshing;
+    private volatile boolean disposed;
+
+    /**
+     * Constructor.
+     *
+     * @param processor not <code>null</code>
+     * @param context not <code>null</code>
+     * @param providers not <code>null</code>
+     */
+    StreamingCompletionSession(ContentAssistProcessor processor, CompletionContext context,
+        CompletionProvider[] providers)
+    {
+        this.processor = processor;
+        this.context = context;
+        this.document = context.getDocument();
+        this.modificationStamp = getModificationStamp(document);
+        this.streams = new ProviderStream[providers.length];
+        for (int i = 0; i < providers.length; i++)
+            streams[i] = new ProviderStream(providers[i]);
+    }
+
+    /**
+     * Sends completion requests with the given params to all of the providers.
+     *
+     * @param params not <code>null</code>
+     */
+    void start(CompletionParams params)
+    {
+        for (ProviderStream stream : streams)
+            stream.start(params);
+    }
+
+    /**
+     * Waits until at least one of the providers has produced completion items
+     * or all of the providers have completed, whichever comes first,
+     * but no longer than the given timeout. If there are items and some
+     * of the providers are still running, waits for them for at most
+     * the given merge delay, so that nearly simultaneous results can be
+     * painted together.
+     *
+     * @param timeout not <code>null</code>
+     * @param mergeDelay not <code>null</code>
+     * @return the proposals for the results collected so far (never <code>null</code>)
+     */
+    ICompletionProposal[] awaitFirstPaint(Duration timeout, Duration mergeDelay)
+    {
+        synchronized (this)
+        {
+            long deadline = System.nanoTime() + timeout.toNanos();
+            try
+            {
+                while (!hasItems() && !isDone() && !disposed)
+                {
+                    if (!waitUntil(deadline))
+                        break;
+                }
+                if (hasItems() && !isDone())
+                {
+                    deadline = Math.min(deadline, System.nanoTime() + mergeDelay.toNanos());
+                    while (!isDone() && !disposed)
+                    {
+                        if (!waitUntil(deadline))
+                            break;
+                    }
+                }
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+            firstPaintDone = true;
+        }
+        return getProposals();
+    }
+
+    /**
+     * Returns the proposals for the results collected so far. The proposals
+     * are computed on the calling thread.
+     *
+     * @return the proposals (never <code>null</code>)
+     */
+    ICompletionProposal[] getProposals()
+    {
+        CompletionResults results;
+        synchronized (this)
+        {
+            results = snapshot();
+        }
+        ICompletionProposal[] proposals = processor.getCompletionProposals(results, context);
+        return proposals != null ? proposals : new ICompletionProposal[0];
+    }
+
+    /**
+     * Returns the completion results of this session if all of the providers
+     * have completed.
+     *
+     * @return the completion results, or <code>null</code> if some of the providers
+     *  are still running or the session has been disposed
+     */
+    synchronized CompletionResults getResults()
+    {
+        if (disposed || !isDone())
+            return null;
+        return snapshot();
+    }
+
+    /**
+     * Returns the completion context of this session.
+     *
+     * @return the completion context (never <code>null</code>)
+     */
+    CompletionContext getContext()
+    {
+        return context;
+    }
+
+    /**
+     * Sets the listener to be notified when a provider completes
+     * after the first paint.
+     *
+     * @param updateListener may be <code>null</code>
+     */
+    synchronized void setUpdateListener(Runnable updateListener)
+    {
+        this.updateListener = updateListener;
+    }
+
+    /**
+     * Returns whether this session has been started for the given document
+     * and offset and the document has not been modified since.
+     *
+     * @param document may be <code>null</code>
+     * @param offset the invocation offset
+     * @return <code>true</code> if this session is for the given document
+     *  and offset, and <code>false</code> otherwise
+     */
+    boolean isFor(IDocument document, int offset)
+    {
+        return !disposed && this.document == document
+            && context.getInvocationOffset() == offset
+            && modificationStamp != IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP
+            && modificationStamp == getModificationStamp(document);
+    }
+
+    boolean isRefreshing()
+    {
+        return refreshing;
+    }
+
+    void setRefreshing(boolean refreshing)
+    {
+        this.refreshing = refreshing;
+    }
+
+    /**
+     * Cancels all pending requests of this session.
+     */
+    void dispose()
+    {
+        disposed = true;
+        for (ProviderStream stream : streams)
+            stream.cancel();
+        synchronized (this)
+        {
+            updateListener = null;
+            notifyAll();
+        }
+    }
+
+    private CompletionResults snapshot() // guarded by this
+    {
+        Map<CompletionProvider, CompletionResult> results = new LinkedHashMap<>();
+        for (ProviderStream stream : streams)
+        {
+            CompletionList list = stream.completionList;
+            if (list != null)
+            {
+                // the items of the stream's list keep being added
+                CompletionList copy =
+                    new CompletionList(list.isIncomplete(), new ArrayList<>(list.getItems()));
+                copy.setItemDefaults(list.getItemDefaults());
+                list = copy;
+            }
+            results.put(stream.provider, new CompletionResult(list));
+        }
+        return new CompletionResults(results);
+    }
+
+    private boolean hasItems() // guarded by this
+    {
+        for (ProviderStream stream : streams)
+        {
+            if (stream.completionList != null && !stream.completionList.getItems().isEmpty())
+                return true;
+        }
+        return false;
+    }
+
+    private boolean isDone() // guarded by this
+    {
+        for (ProviderStream stream : streams)
+        {
+            if (!stream.done)
+                return false;
+        }
+        return true;
+    }
+
+    private boolean waitUntil(long deadline) throws InterruptedException
+    {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0)
+            return false;
+        long millis = Math.max(remaining / 1_000_000, 1);
+        wait(millis);
+        return true;
+    }
+
+    private static long getModificationStamp(IDocument document)
+    {
+        if (!(document instanceof IDocumentExtension4))
+            return IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
+        return ((IDocumentExtension4)document).getModificationStamp();
+    }
+
+    private class ProviderStream
+    {
+        final CompletionProvider provider;
+        CompletionList completionList; // guarded by session
+        boolean done; // guarded by session
+        CompletableFuture<Either<List<CompletionItem>, CompletionList>> future;
+
+        ProviderStream(CompletionProvider provider)
+        {
+            this.provider = provider;
+        }
+
+        void start(CompletionParams params)
+        {
+            CompletionRequest request = processor.newCompletionRequest();
+            request.setProvider(provider);
+            // note that request params can get modified as part of request processing
+            // (e.g. a progress token can be set); therefore we need to copy the given params
+            request.setParams(JsonUtil.deepCopy(params));
+            request.setTimeout(processor.getCompletionTimeout());
+            request.setMayThrow(false);
+            request.setUpWorkDoneProgress(WorkDoneProgressFactory::newWorkDoneProgress);
+            request.setUpPartialResultProgress(
+                () -> new AbstractPartialResultProgress<Either<List<CompletionItem>,
+                    CompletionList>>()
+                {
+                    @Override
+                    protected void onAccept(Either<List<CompletionItem>, CompletionList> value)
+                    {
+                        accept(value, false);
+                    }
+                });
+
+            future = request.sendAsync();
+            future.whenComplete((result, e) -> accept(result, true));
+        }
+
+        void cancel()
+        {
+            if (future != null)
+                future.cancel(true);
+        }
+
+        void accept(Either<List<CompletionItem>, CompletionList> value, boolean last)
+        {
+            Runnable listener = null;
+            synchronized (StreamingCompletionSession.this)
+            {
+                if (done)
+                    return; // a late partial result
+
+                if (value != null && !disposed)
+                {
+                    List<CompletionItem> items;
+                    if (value.isRight())
+                    {
+                        CompletionList list = value.getRight();
+                        items = list.getItems();
+                        if (completionList == null)
+                            completionList = new CompletionList(list.isIncomplete(),
+                                new ArrayList<>());
+                        else if (list.isIncomplete())
+                            completionList.setIsIncomplete(true);
+                        if (completionList.getItemDefaults() == null)
+                            completionList.setItemDefaults(list.getItemDefaults());
+                    }
+                    else
+                    {
+                        items = value.getLeft();
+                        if (completionList == null)
+                            completionList = new CompletionList(new ArrayList<>());
+                    }
+                    if (items != null)
+                        completionList.getItems().addAll(items);
+                }
+
+                if (last)
+                {
+                    done = true;
+                    if (firstPaintDone)
+                        listener = updateListener;
+                }
+                StreamingCompletionSession.this.notifyAll();
+            }
+            if (listener != null)
+                listener.run();
+        }
+    }
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2020, 2022 1C-Soft LLC.
+ * Copyright (c) 2020, 2026 1C-Soft LLC.
  *
  * This program and the accompanying materials are made available under
  * the terms of the Eclipse Public License 2.0 which is available at
@@ -26,7 +26,7 @@ public class DiagnosticAnnotation
     extends Annotation
     implements IDiagnosticAnnotation
 {
-    private final Diagnostic diagnostic;
+    private volatile Diagnostic diagnostic;
     private boolean isQuickFixable, isQuickFixableStateSet;
 
     /**
@@ -45,6 +45,17 @@ public class DiagnosticAnnotation
         return diagnostic;
     }
 
+    /**
+     * Replaces the diagnostic represented by this annotation with an equivalent diagnostic
+     * whose range may be different, e.g. because the document has been changed.
+     *
+     * @param diagnostic not <code>null</code>
+     */
+    void setDiagnostic(Diagnostic diagnostic)
+    {
+        this.diagnostic = Objects.requireNonNull(diagnostic);
+    }
+
     @Override
     public String getText()
     {
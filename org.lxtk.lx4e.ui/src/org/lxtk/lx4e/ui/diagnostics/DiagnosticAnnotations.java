@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2020, 2022 1C-Soft LLC.
+ * Copyright (c) 2020, 2026 1C-Soft LLC.
  *
  * This program and the accompanying materials are made available under
  * the terms of the Eclipse Public License 2.0 which is available at
@@ -12,12 +12,15 @@
  *******************************************************************************/
 package org.lxtk.lx4e.ui.diagnostics;
 
+import static org.lxtk.lx4e.internal.util.AnnotationUtil.getLockObject;
 import static org.lxtk.lx4e.internal.util.AnnotationUtil.replaceAnnotations;
 
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
@@ -29,6 +32,7 @@ import org.eclipse.jface.text.IRegion;
 import org.eclipse.jface.text.Position;
 import org.eclipse.jface.text.source.Annotation;
 import org.eclipse.jface.text.source.IAnnotationModel;
+import org.eclipse.jface.text.source.IAnnotationModelExtension;
 import org.eclipse.lsp4j.Diagnostic;
 import org.lxtk.DocumentService;
 import org.lxtk.TextDocument;
@@ -40,6 +44,17 @@ import org.lxtk.util.Disposable;
 /**
  * Manages annotations representing LSP diagnostics for text documents
  * of a given {@link DocumentService}.
+ * <p>
+ * Annotations are updated incrementally: when new diagnostics are accepted for
+ * a document, an existing annotation is kept if its diagnostic is still present
+ * with the same range. An existing {@link DiagnosticAnnotation} is also kept if its
+ * diagnostic is still present with a shifted range; the annotation is then given
+ * the new diagnostic and moved to the new position. All of the additions, removals
+ * and moves are applied in a single {@link IAnnotationModelExtension#replaceAnnotations
+ * replaceAnnotations} call, so that the annotation model fires a single change event.
+ * The document regions are computed in the calling thread; the annotation model
+ * is only locked for the final swap.
+ * </p>
  */
 /*
  * Implementation note: methods are synchronized to avoid a race between a thread
@@ -49,7 +64,8 @@ import org.lxtk.util.Disposable;
 public class DiagnosticAnnotations
     implements BiConsumer<URI, Collection<Diagnostic>>, Disposable
 {
-    private final Map<TextDocument, Map<IAnnotationModel, Collection<Annotation>>> info =
+    // the diagnostic of each managed annotation, by annotation model and text document
+    private final Map<TextDocument, Map<IAnnotationModel, Map<Annotation, Diagnostic>>> info =
         new IdentityHashMap<>();
     private final DocumentService documentService;
     private final Disposable subscription;
@@ -89,19 +105,20 @@ public class DiagnosticAnnotations
 
         IAnnotationModel annotationModel = getAnnotationModel(textDocument);
 
-        Collection<Annotation> toRemove = null;
-        Map<IAnnotationModel, Collection<Annotation>> annotations = info.get(textDocument);
+        Map<Annotation, Diagnostic> oldAnnotations = null;
+        Map<IAnnotationModel, Map<Annotation, Diagnostic>> annotations = info.get(textDocument);
         if (annotations != null)
         {
-            for (Map.Entry<IAnnotationModel, Collection<Annotation>> entry : annotations.entrySet())
+            for (Map.Entry<IAnnotationModel, Map<Annotation, Diagnostic>> entry : annotations
+                .entrySet())
             {
                 if (entry.getKey() == annotationModel)
-                    toRemove = entry.getValue();
+                    oldAnnotations = entry.getValue();
                 else
                 {
                     try
                     {
-                        replaceAnnotations(entry.getKey(), entry.getValue(), null);
+                        replaceAnnotations(entry.getKey(), entry.getValue().keySet(), null);
                     }
                     catch (Throwable e)
                     {
@@ -115,19 +132,19 @@ public class DiagnosticAnnotations
         if (annotationModel == null)
             return;
 
-        Map<Annotation, Position> toAdd = null;
+        List<Diagnostic> newDiagnostics = new ArrayList<>();
+        List<Position> newPositions = new ArrayList<>();
         if (diagnostics != null && !diagnostics.isEmpty())
         {
             IDocument document = getUnderlyingDocument(textDocument);
             if (document != null)
-            {
-                toAdd = toDiagnosticAnnotations(diagnostics, document);
-                if (!toAdd.isEmpty())
-                    addAnnotationInfo(textDocument, annotationModel, toAdd.keySet());
-            }
+                toPositions(diagnostics, document, newDiagnostics, newPositions);
         }
 
-        replaceAnnotations(annotationModel, toRemove, toAdd);
+        Map<Annotation, Diagnostic> newAnnotations =
+            updateAnnotations(annotationModel, oldAnnotations, newDiagnostics, newPositions);
+        if (!newAnnotations.isEmpty())
+            addAnnotationInfo(textDocument, annotationModel, newAnnotations);
     }
 
     @Override
@@ -153,7 +170,7 @@ public class DiagnosticAnnotations
         {
             try
             {
-                replaceAnnotations(annotationModel, toRemove, null);
+                replaceAnnotations(annotationModel, toRemove.keySet(), null);
             }
             catch (Throwable e)
             {
@@ -182,14 +199,15 @@ public class DiagnosticAnnotations
 
     private synchronized void removeAnnotations(TextDocument textDocument)
     {
-        Map<IAnnotationModel, Collection<Annotation>> annotations = info.remove(textDocument);
+        Map<IAnnotationModel, Map<Annotation, Diagnostic>> annotations =
+            info.remove(textDocument);
         if (annotations == null)
             return;
         annotations.forEach((annotationModel, toRemove) ->
         {
             try
             {
-                replaceAnnotations(annotationModel, toRemove, null);
+                replaceAnnotations(annotationModel, toRemove.keySet(), null);
             }
             catch (Throwable e)
             {
@@ -224,11 +242,22 @@ public class DiagnosticAnnotations
         if (document == null)
             return;
 
-        Map<Annotation, Position> toAdd = toDiagnosticAnnotations(diagnostics, document);
-        if (toAdd.isEmpty())
+        List<Diagnostic> newDiagnostics = new ArrayList<>();
+        List<Position> newPositions = new ArrayList<>();
+        toPositions(diagnostics, document, newDiagnostics, newPositions);
+        if (newDiagnostics.isEmpty())
             return;
 
-        addAnnotationInfo(textDocument, annotationModel, toAdd.keySet());
+        Map<Annotation, Diagnostic> newAnnotations = new IdentityHashMap<>(newDiagnostics.size());
+        Map<Annotation, Position> toAdd = new IdentityHashMap<>(newDiagnostics.size());
+        for (int i = 0; i < newDiagnostics.size(); i++)
+        {
+            Diagnostic diagnostic = newDiagnostics.get(i);
+            Annotation annotation = createAnnotation(diagnostic);
+            newAnnotations.put(annotation, diagnostic);
+            toAdd.put(annotation, newPositions.get(i));
+        }
+        addAnnotationInfo(textDocument, annotationModel, newAnnotations);
         replaceAnnotations(annotationModel, null, toAdd);
     }
 
@@ -273,10 +302,9 @@ public class DiagnosticAnnotations
         return new DiagnosticAnnotation(diagnostic);
     }
 
-    private Map<Annotation, Position> toDiagnosticAnnotations(Collection<Diagnostic> diagnostics,
-        IDocument document)
+    private static void toPositions(Collection<Diagnostic> diagnostics, IDocument document,
+        List<Diagnostic> resultDiagnostics, List<Position> resultPositions)
     {
-        Map<Annotation, Position> result = new IdentityHashMap<>(diagnostics.size());
         for (Diagnostic diagnostic : diagnostics)
         {
             IRegion r;
@@ -289,23 +317,127 @@ public class DiagnosticAnnotations
                 // silently ignore: the document might have changed in the meantime
                 continue;
             }
-            result.put(createAnnotation(diagnostic), new Position(r.getOffset(), r.getLength()));
+            resultDiagnostics.add(diagnostic);
+            resultPositions.add(new Position(r.getOffset(), r.getLength()));
+        }
+    }
+
+    private Map<Annotation, Diagnostic> updateAnnotations(IAnnotationModel annotationModel,
+        Map<Annotation, Diagnostic> oldAnnotations, List<Diagnostic> newDiagnostics,
+        List<Position> newPositions)
+    {
+        Map<Annotation, Diagnostic> result = new IdentityHashMap<>(newDiagnostics.size());
+        synchronized (getLockObject(annotationModel))
+        {
+            // old annotations that are still in the model, by diagnostic content
+            Map<DiagnosticContent, List<Annotation>> candidates = new HashMap<>();
+            List<Annotation> toRemove = new ArrayList<>();
+            if (oldAnnotations != null)
+            {
+                oldAnnotations.forEach((annotation, diagnostic) ->
+                {
+                    Position position = annotationModel.getPosition(annotation);
+                    if (position != null && !position.isDeleted())
+                        candidates.computeIfAbsent(new DiagnosticContent(diagnostic),
+                            k -> new ArrayList<>(1)).add(annotation);
+                    else
+                        toRemove.add(annotation);
+                });
+            }
+
+            // a moved annotation is removed and added back in the same call
+            Map<Annotation, Position> toAdd = new IdentityHashMap<>();
+            for (int i = 0; i < newDiagnostics.size(); i++)
+            {
+                Diagnostic diagnostic = newDiagnostics.get(i);
+                Position position = newPositions.get(i);
+                List<Annotation> matches = candidates.get(new DiagnosticContent(diagnostic));
+                if (matches != null && !matches.isEmpty())
+                {
+                    int index = 0;
+                    for (int j = 0; j < matches.size(); j++)
+                    {
+                        if (position.equals(annotationModel.getPosition(matches.get(j))))
+                        {
+                            index = j;
+                            break;
+                        }
+                    }
+                    Annotation match = matches.get(index);
+                    boolean moved = !position.equals(annotationModel.getPosition(match));
+                    if (!moved || match instanceof DiagnosticAnnotation)
+                    {
+                        matches.remove(index);
+                        if (match instanceof DiagnosticAnnotation)
+                            ((DiagnosticAnnotation)match).setDiagnostic(diagnostic);
+                        if (moved)
+                        {
+                            toRemove.add(match);
+                            toAdd.put(match, position);
+                        }
+                        result.put(match, diagnostic);
+                        continue;
+                    }
+                }
+                Annotation annotation = createAnnotation(diagnostic);
+                toAdd.put(annotation, position);
+                result.put(annotation, diagnostic);
+            }
+            candidates.values().forEach(toRemove::addAll);
+
+            replaceAnnotations(annotationModel, toRemove, toAdd);
         }
         return result;
     }
 
     private void addAnnotationInfo(TextDocument textDocument, IAnnotationModel annotationModel,
-        Collection<Annotation> toAdd)
+        Map<Annotation, Diagnostic> toAdd)
     {
-        Map<IAnnotationModel, Collection<Annotation>> annotationsMap =
+        Map<IAnnotationModel, Map<Annotation, Diagnostic>> annotationsMap =
             info.computeIfAbsent(textDocument, k -> new IdentityHashMap<>(2));
-        Collection<Annotation> annotations = annotationsMap.get(annotationModel);
+        Map<Annotation, Diagnostic> annotations = annotationsMap.get(annotationModel);
         if (annotations != null)
-            annotations.addAll(toAdd);
+            annotations.putAll(toAdd);
         else
+            annotationsMap.put(annotationModel, new IdentityHashMap<>(toAdd));
+    }
+
+    /**
+     * Identifies a diagnostic by all of its properties except for the range.
+     */
+    private static final class DiagnosticContent
+    {
+        private final Diagnostic diagnostic;
+
+        DiagnosticContent(Diagnostic diagnostic)
+        {
+            this.diagnostic = diagnostic;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(diagnostic.getMessage(), diagnostic.getCode(),
+                diagnostic.getSeverity());
+        }
+
+        @Override
+        public boolean equals(Object obj)
         {
-            annotations = new ArrayList<>(toAdd);
-            annotationsMap.put(annotationModel, annotations);
+            if (this == obj)
+                return true;
+            if (!(obj instanceof DiagnosticContent))
+                return false;
+            Diagnostic other = ((DiagnosticContent)obj).diagnostic;
+            return Objects.equals(diagnostic.getMessage(), other.getMessage())
+                && Objects.equals(diagnostic.getCode(), other.getCode())
+                && diagnostic.getSeverity() == other.getSeverity()
+                && Objects.equals(diagnostic.getSource(), other.getSource())
+                && Objects.equals(diagnostic.getCodeDescription(), other.getCodeDescription())
+                && Objects.equals(diagnostic.getTags(), other.getTags())
+                && Objects.equals(diagnostic.getRelatedInformation(),
+                    other.getRelatedInformation())
+                && Objects.equals(diagnostic.getData(), other.getData());
         }
     }
 }
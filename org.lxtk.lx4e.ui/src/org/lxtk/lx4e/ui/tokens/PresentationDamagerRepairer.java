@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2021 1C-Soft LLC.
+ * Copyright (c) 2021, 2026 1C-Soft LLC.
  *
  * This program and the accompanying materials are made available under
  * the terms of the Eclipse Public License 2.0 which is available at
@@ -14,30 +14,34 @@ package org.lxtk.lx4e.ui.tokens;
 
 import java.net.URI;
 import java.time.Duration;
-import java.util.BitSet;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.function.Supplier;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.DocumentEvent;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.ITextViewer;
 import org.eclipse.jface.text.ITypedRegion;
 import org.eclipse.jface.text.TextAttribute;
 import org.eclipse.jface.text.TextPresentation;
 import org.eclipse.jface.text.presentation.IPresentationDamager;
 import org.eclipse.jface.text.presentation.IPresentationRepairer;
 import org.eclipse.jface.text.rules.DefaultDamagerRepairer;
-import org.eclipse.lsp4j.Position;
 import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.SemanticTokens;
 import org.eclipse.lsp4j.SemanticTokensLegend;
 import org.eclipse.lsp4j.SemanticTokensRangeParams;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.custom.StyleRange;
+import org.eclipse.swt.custom.StyledText;
+import org.eclipse.swt.events.DisposeListener;
+import org.eclipse.ui.progress.UIJob;
 import org.lxtk.DocumentSemanticTokensProvider;
 import org.lxtk.DocumentUri;
 import org.lxtk.LanguageOperationTarget;
@@ -45,20 +49,51 @@ import org.lxtk.LanguageService;
 import org.lxtk.lx4e.DocumentUtil;
 import org.lxtk.lx4e.internal.ui.Activator;
 import org.lxtk.lx4e.requests.DocumentRangeSemanticTokensRequest;
+import org.lxtk.lx4e.requests.DocumentSemanticTokensDeltaRequest;
+import org.lxtk.lx4e.requests.DocumentSemanticTokensRequest;
+import org.lxtk.util.Disposable;
+import org.lxtk.util.EventEmitter;
+import org.lxtk.util.EventStream;
 
 /**
  * Base implementation of an {@link IPresentationRepairer} that computes the "repair description"
  * using a {@link DocumentSemanticTokensProvider}. Also implements {@link IPresentationDamager}.
+ * <p>
+ * The damager-repairer fetches semantic tokens in the background and caches them
+ * per document; the cached tokens are shifted through document changes until
+ * a new response arrives. The repair description is computed from the cached tokens,
+ * without sending any request on the calling thread.
+ * </p>
+ * <p>
+ * Once {@link #install(ITextViewer) installed} on a text viewer, the damager-repairer
+ * invalidates text presentation of the viewer when the cached tokens are {@link
+ * #onDidUpdateTokens() updated}, and is disposed automatically when the text widget
+ * of the viewer is disposed. Until it is installed, nothing invalidates text presentation
+ * when the tokens have been updated; therefore, as long as there are no cached tokens
+ * for the document, the damager-repairer computes the repair description by sending
+ * a range request for the damaged region and waiting for the response for at most
+ * {@link #getSemanticTokensRequestTimeout()}. A damager-repairer that is not installed
+ * needs to be {@link #dispose() disposed} explicitly when it is no longer used.
+ * </p>
+ *
+ * @see SemanticTokensRefreshSupport#SemanticTokensRefreshSupport(ITextViewer,
+ *  PresentationDamagerRepairer)
  */
 public abstract class PresentationDamagerRepairer
-    implements IPresentationDamager, IPresentationRepairer
+    implements IPresentationDamager, IPresentationRepairer, Disposable
 {
     private final Supplier<LanguageOperationTarget> targetSupplier;
     private final TextAttribute defaultTextAttribute = new TextAttribute(null);
     @SuppressWarnings("deprecation")
     private final IPresentationDamager damager =
         new DefaultDamagerRepairer(null, defaultTextAttribute);
+    private final EventEmitter<Void> onDidUpdateTokens = new EventEmitter<>();
+    private final DisposeListener disposeListener = e -> dispose();
+    private ITextViewer textViewer;
+    private volatile UIJob repaintJob;
     private IDocument document;
+    private SemanticTokensCache cache;
+    private volatile TokenAttributeTable attributeTable;
 
     /**
      * Constructor.
@@ -73,8 +108,97 @@ public abstract class PresentationDamagerRepairer
     @Override
     public void setDocument(IDocument document)
     {
+        if (this.document == document)
+            return;
         this.document = document;
         damager.setDocument(document);
+        setCache(document == null ? null : new SemanticTokensCache(this, document));
+    }
+
+    /**
+     * Installs this damager-repairer on the given text viewer. From now on,
+     * text presentation of the viewer is invalidated when the cached semantic tokens
+     * have been updated. Has no effect if this
+     * damager-repairer is already installed on the given viewer.
+     * <p>
+     * This method must be called in the UI thread.
+     * </p>
+     *
+     * @param textViewer not <code>null</code>
+     * @throws IllegalStateException if this damager-repairer is already installed
+     *  on another text viewer
+     */
+    public void install(ITextViewer textViewer)
+    {
+        Objects.requireNonNull(textViewer);
+        if (this.textViewer == textViewer)
+            return;
+        if (this.textViewer != null)
+            throw new IllegalStateException();
+        this.textViewer = textViewer;
+        repaintJob = new UIJob("Repaint Semantic Tokens") //$NON-NLS-1$
+        {
+            @Override
+            public IStatus runInUIThread(IProgressMonitor monitor)
+            {
+                if (repaintJob == this)
+                    textViewer.invalidateTextPresentation();
+                return Status.OK_STATUS;
+            }
+        };
+        repaintJob.setSystem(true);
+        StyledText textWidget = textViewer.getTextWidget();
+        if (textWidget != null)
+            textWidget.addDisposeListener(disposeListener);
+    }
+
+    /**
+     * Disposes this damager-repairer. In particular, uninstalls it from
+     * the text viewer it is installed on, if any.
+     * <p>
+     * This method must be called in the UI thread.
+     * </p>
+     */
+    @Override
+    public void dispose()
+    {
+        setCache(null);
+        if (textViewer != null)
+        {
+            StyledText textWidget = textViewer.getTextWidget();
+            if (textWidget != null && !textWidget.isDisposed())
+                textWidget.removeDisposeListener(disposeListener);
+            UIJob repaintJob = this.repaintJob;
+            this.repaintJob = null;
+            repaintJob.cancel();
+            textViewer = null;
+        }
+    }
+
+    /**
+     * Returns a stream of events that are emitted when the cached semantic tokens
+     * have been updated with a response from the server.
+     *
+     * @return a stream of events that are emitted when the cached semantic tokens
+     *  have been updated (never <code>null</code>)
+     */
+    public EventStream<Void> onDidUpdateTokens()
+    {
+        return onDidUpdateTokens;
+    }
+
+    /**
+     * Marks the cached semantic tokens as stale and schedules a background request
+     * for new tokens. The cached tokens continue to be used until the response arrives.
+     * Also discards the text attributes computed for semantic tokens so far, so that
+     * subclasses can call this method when the text attributes have changed.
+     */
+    public void invalidateTokens()
+    {
+        attributeTable = null;
+        SemanticTokensCache cache = this.cache;
+        if (cache != null)
+            cache.invalidate();
     }
 
     @Override
@@ -87,54 +211,25 @@ public abstract class PresentationDamagerRepairer
     @Override
     public final void createPresentation(TextPresentation presentation, ITypedRegion damage)
     {
-        LanguageOperationTarget target = targetSupplier.get();
-        if (target != null)
+        int startOffset = damage.getOffset();
+        int endOffset = startOffset + damage.getLength();
+        SemanticTokensCache cache = this.cache;
+        if (cache != null)
         {
-            URI documentUri = target.getDocumentUri();
-            LanguageService languageService = target.getLanguageService();
-
-            DocumentSemanticTokensProvider provider =
-                languageService.getDocumentMatcher().getBestMatch(
-                    languageService.getDocumentSemanticTokensProviders(),
-                    DocumentSemanticTokensProvider::getDocumentSelector, documentUri,
-                    target.getLanguageId());
-            if (provider != null)
+            PresentationBuilder builder =
+                new PresentationBuilder(presentation, startOffset, endOffset);
+            if (cache.forEachToken(startOffset, endOffset, builder) != null)
             {
-                Range range = null;
-                try
-                {
-                    range = DocumentUtil.toRange(document, damage.getOffset(), damage.getLength());
-                }
-                catch (BadLocationException e)
-                {
-                    Activator.logError(e);
-                }
-                if (range != null)
-                {
-                    DocumentRangeSemanticTokensRequest request =
-                        newDocumentRangeSemanticTokensRequest();
-                    request.setProvider(provider);
-                    request.setParams(new SemanticTokensRangeParams(
-                        DocumentUri.toTextDocumentIdentifier(documentUri), range));
-                    request.setTimeout(getSemanticTokensRequestTimeout());
-                    request.setMayThrow(false);
-
-                    SemanticTokens tokens = request.sendAndReceive();
-                    if (tokens != null)
-                    {
-                        List<Integer> data = tokens.getData();
-                        if (data.size() % 5 == 0)
-                        {
-                            createPresentation(presentation, damage, data,
-                                provider.getRegistrationOptions().getLegend());
-                            return;
-                        }
-                    }
-                }
+                builder.done();
+                return;
             }
         }
+        // if installed, text presentation will be invalidated when the tokens have arrived
+        if ((cache == null || textViewer == null)
+            && createPresentationSynchronously(presentation, damage))
+            return;
         // fallback
-        addStyleRange(presentation, damage.getOffset(), damage.getLength(), defaultTextAttribute);
+        addStyleRange(presentation, startOffset, endOffset - startOffset, defaultTextAttribute);
     }
 
     /**
@@ -155,8 +250,32 @@ public abstract class PresentationDamagerRepairer
         return defaultTextAttribute;
     }
 
+    /**
+     * Returns a new instance of {@link DocumentSemanticTokensRequest}.
+     *
+     * @return the created request object (not <code>null</code>)
+     */
+    protected DocumentSemanticTokensRequest newDocumentSemanticTokensRequest()
+    {
+        return new DocumentSemanticTokensRequest();
+    }
+
+    /**
+     * Returns a new instance of {@link DocumentSemanticTokensDeltaRequest}.
+     *
+     * @return the created request object (not <code>null</code>)
+     */
+    protected DocumentSemanticTokensDeltaRequest newDocumentSemanticTokensDeltaRequest()
+    {
+        return new DocumentSemanticTokensDeltaRequest();
+    }
+
     /**
      * Returns a new instance of {@link DocumentRangeSemanticTokensRequest}.
+     * The request is used for providers that cannot provide semantic tokens
+     * for a full document, as well as on the calling thread as long as there are
+     * no cached tokens for the document and this damager-repairer is not installed
+     * on a text viewer.
      *
      * @return the created request object (not <code>null</code>)
      */
@@ -166,7 +285,9 @@ public abstract class PresentationDamagerRepairer
     }
 
     /**
-     * Returns the timeout for a semantic tokens request.
+     * Returns the timeout for a semantic tokens request that is sent on the calling thread,
+     * i.e. as long as there are no cached tokens for the document and this
+     * damager-repairer is not installed on a text viewer.
      *
      * @return a positive duration
      */
@@ -175,60 +296,143 @@ public abstract class PresentationDamagerRepairer
         return Duration.ofMillis(100);
     }
 
-    private void createPresentation(TextPresentation presentation, IRegion damage,
-        List<Integer> data, SemanticTokensLegend legend)
+    /**
+     * Returns the timeout for a semantic tokens request that is sent in the background.
+     *
+     * @return a positive duration
+     */
+    protected Duration getSemanticTokensFetchTimeout()
     {
-        int startOffset = damage.getOffset();
-        int endOffset = damage.getOffset() + damage.getLength();
-        for (int i = 0, line = 0, character = 0, size = data.size(); i < size; i += 5)
-        {
-            Integer deltaLine = data.get(i);
-            if (deltaLine == null || deltaLine < 0)
-                break;
-            line += deltaLine;
+        return Duration.ofSeconds(5);
+    }
 
-            Integer deltaCharacter = data.get(i + 1);
-            if (deltaCharacter == null || deltaCharacter < 0)
-                break;
-            if (deltaLine > 0)
-                character = 0;
-            character += deltaCharacter;
+    LanguageOperationTarget getTarget()
+    {
+        return targetSupplier.get();
+    }
 
-            int offset;
-            try
-            {
-                offset = DocumentUtil.toOffset(document, new Position(line, character));
-            }
-            catch (BadLocationException e)
+    private void setCache(SemanticTokensCache newCache)
+    {
+        SemanticTokensCache oldCache = cache;
+        cache = newCache;
+        if (oldCache != null)
+            oldCache.dispose();
+        if (newCache != null)
+        {
+            newCache.onDidUpdate().subscribe(e ->
             {
-                break;
-            }
+                UIJob repaintJob = this.repaintJob;
+                if (repaintJob != null)
+                    repaintJob.schedule();
+                onDidUpdateTokens.emit(null, Activator::logError);
+            });
+        }
+    }
 
-            if (offset >= endOffset)
-                break;
+    private boolean createPresentationSynchronously(TextPresentation presentation,
+        IRegion damage)
+    {
+        LanguageOperationTarget target = targetSupplier.get();
+        if (target == null)
+            return false;
 
-            Integer length = data.get(i + 2);
-            if (length == null || length <= 0)
-                continue;
+        URI documentUri = target.getDocumentUri();
+        LanguageService languageService = target.getLanguageService();
 
-            if (offset + length <= startOffset)
-                continue;
+        DocumentSemanticTokensProvider provider = languageService.getDocumentMatcher().getBestMatch(
+            languageService.getDocumentSemanticTokensProviders(),
+            DocumentSemanticTokensProvider::getDocumentSelector, documentUri,
+            target.getLanguageId());
+        if (provider == null)
+            return false;
 
-            Integer typeIndex = data.get(i + 3);
-            if (typeIndex == null || typeIndex < 0 || typeIndex >= legend.getTokenTypes().size())
-                continue;
+        Range range;
+        try
+        {
+            range = DocumentUtil.toRange(document, damage.getOffset(), damage.getLength());
+        }
+        catch (BadLocationException e)
+        {
+            Activator.logError(e);
+            return false;
+        }
 
-            String type = legend.getTokenTypes().get(typeIndex);
+        DocumentRangeSemanticTokensRequest request = newDocumentRangeSemanticTokensRequest();
+        request.setProvider(provider);
+        request.setParams(new SemanticTokensRangeParams(
+            DocumentUri.toTextDocumentIdentifier(documentUri), range));
+        request.setTimeout(getSemanticTokensRequestTimeout());
+        request.setMayThrow(false);
 
-            Integer modifierFlags = data.get(i + 4);
-            if (modifierFlags == null)
-                continue;
+        SemanticTokens tokens = request.sendAndReceive();
+        if (tokens == null)
+            return false;
 
-            Set<String> modifiers = getTokenModifiers(modifierFlags, legend.getTokenModifiers());
+        List<Integer> data = tokens.getData();
+        if (data == null || data.size() % 5 != 0)
+            return false;
 
-            TextAttribute tokenTextAttribute = getTokenTextAttribute(new Token(type, modifiers));
+        SemanticTokensLegend legend = provider.getRegistrationOptions().getLegend();
+        int[] decoded = SemanticTokensDecoder.decode(document,
+            SemanticTokensDecoder.toArray(data), legend.getTokenTypes().size());
+        if (decoded == null)
+            return false;
+
+        int startOffset = damage.getOffset();
+        int endOffset = startOffset + damage.getLength();
+        PresentationBuilder builder =
+            new PresentationBuilder(presentation, startOffset, endOffset);
+        for (int i = 0; i < decoded.length; i += 4)
+        {
+            int offset = decoded[i];
+            if (offset >= endOffset)
+                break;
+            builder.accept(legend, offset, decoded[i + 1], decoded[i + 2], decoded[i + 3]);
+        }
+        builder.done();
+        return true;
+    }
+
+    private TokenAttributeTable getAttributeTable(SemanticTokensLegend legend)
+    {
+        TokenAttributeTable table = attributeTable;
+        if (table == null || table.getLegend() != legend)
+            attributeTable = table = new TokenAttributeTable(legend, this::getTokenTextAttribute);
+        return table;
+    }
+
+    private class PresentationBuilder
+        implements SemanticTokensCache.TokenConsumer
+    {
+        private final TextPresentation presentation;
+        private final int endOffset;
+        private int startOffset;
+
+        PresentationBuilder(TextPresentation presentation, int startOffset, int endOffset)
+        {
+            this.presentation = presentation;
+            this.startOffset = startOffset;
+            this.endOffset = endOffset;
+        }
+
+        @Override
+        public void accept(SemanticTokensLegend legend, int offset, int length, int tokenType,
+            int tokenModifiers)
+        {
+            if (offset < startOffset)
+            {
+                length -= startOffset - offset;
+                offset = startOffset;
+            }
+            if (offset + length > endOffset)
+                length = endOffset - offset;
+            if (length <= 0)
+                return;
+
+            TextAttribute tokenTextAttribute =
+                getAttributeTable(legend).get(tokenType, tokenModifiers);
             if (tokenTextAttribute == null)
-                continue;
+                return;
 
             if (offset > startOffset)
                 addStyleRange(presentation, startOffset, offset - startOffset,
@@ -238,20 +442,13 @@ public abstract class PresentationDamagerRepairer
 
             startOffset = offset + length;
         }
-        if (startOffset < endOffset)
-            addStyleRange(presentation, startOffset, endOffset - startOffset, defaultTextAttribute);
-    }
 
-    private static Set<String> getTokenModifiers(int modifierFlags, List<String> allModifiers)
-    {
-        Set<String> result = new HashSet<>();
-        BitSet bs = BitSet.valueOf(new long[] { modifierFlags });
-        for (int i = bs.nextSetBit(0), size = allModifiers.size(); i >= 0 && i < size;
-            i = bs.nextSetBit(i + 1))
+        void done()
         {
-            result.add(allModifiers.get(i));
+            if (startOffset < endOffset)
+                addStyleRange(presentation, startOffset, endOffset - startOffset,
+                    defaultTextAttribute);
         }
-        return result;
     }
 
     private static void addStyleRange(TextPresentation presentation, int offset, int length,
@@ -0,0 +1,435 @@
+/*******************************************************************************
+ * Copyright (c) 2026 1C-Soft LLC.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Vladimir Piskarev (1C) - initial API and implementation
+ *******************************************************************************/
+package org.lxtk.lx4e.ui.tokens;
+
+import java.util.Objects;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentListener;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.SemanticTokens;
+import org.eclipse.lsp4j.SemanticTokensDelta;
+import org.eclipse.lsp4j.SemanticTokensDeltaParams;
+import org.eclipse.lsp4j.SemanticTokensLegend;
+import org.eclipse.lsp4j.SemanticTokensParams;
+import org.eclipse.lsp4j.SemanticTokensRangeParams;
+import org.eclipse.lsp4j.SemanticTokensServerFull;
+import org.eclipse.lsp4j.SemanticTokensWithRegistrationOptions;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.lxtk.DocumentSemanticTokensProvider;
+import org.lxtk.DocumentUri;
+import org.lxtk.LanguageOperationTarget;
+import org.lxtk.LanguageService;
+import org.lxtk.lx4e.DocumentUtil;
+import org.lxtk.lx4e.internal.ui.Activator;
+import org.lxtk.lx4e.requests.DocumentRangeSemanticTokensRequest;
+import org.lxtk.lx4e.requests.DocumentSemanticTokensDeltaRequest;
+import org.lxtk.lx4e.requests.DocumentSemanticTokensRequest;
+import org.lxtk.util.Disposable;
+import org.lxtk.util.EventEmitter;
+import org.lxtk.util.EventStream;
+
+/**
+ * Caches semantic tokens for a document. The tokens are fetched in the background,
+ * using <code>textDocument/semanticTokens/full/delta</code> requests whenever
+ * possible, and are shifted through document changes between responses.
+ * <p>
+ * This implementation is thread-safe.
+ * </p>
+ */
+final class SemanticTokensCache
+    implements Disposable
+{
+    private static final int FETCH_DELAY = 200;
+
+    private final PresentationDamagerRepairer repairer;
+    private final IDocument document;
+    private final EventEmitter<Void> onDidUpdate = new EventEmitter<>();
+    private final IDocumentListener documentListener = new IDocumentListener()
+    {
+        @Override
+        public void documentAboutToBeChanged(DocumentEvent event)
+        {
+            synchronized (SemanticTokensCache.this)
+            {
+                generation++;
+            }
+        }
+
+        @Override
+        public void documentChanged(DocumentEvent event)
+        {
+            shiftTokens(event);
+            fetchJob.schedule(FETCH_DELAY);
+        }
+    };
+    private final Job fetchJob = new Job("Fetch Semantic Tokens") //$NON-NLS-1$
+    {
+        @Override
+        protected IStatus run(IProgressMonitor monitor)
+        {
+            fetch(monitor);
+            return Status.OK_STATUS;
+        }
+    };
+
+    // guarded by this
+    private long generation;
+    private int[] tokens = new int[0]; // (offset, length, type, modifiers) quadruples
+    private int tokenCount;
+    private SemanticTokensLegend legend;
+    private boolean isStale = true;
+    private boolean isDisposed;
+
+    // accessed only by the fetch job, except for reset
+    private DocumentSemanticTokensProvider lastProvider;
+    private String lastResultId;
+    private int[] lastData;
+
+    /**
+     * Constructor.
+     *
+     * @param repairer not <code>null</code>
+     * @param document not <code>null</code>
+     */
+    SemanticTokensCache(PresentationDamagerRepairer repairer, IDocument document)
+    {
+        this.repairer = Objects.requireNonNull(repairer);
+        this.document = Objects.requireNonNull(document);
+        fetchJob.setSystem(true);
+        document.addDocumentListener(documentListener);
+    }
+
+    @Override
+    public void dispose()
+    {
+        synchronized (this)
+        {
+            if (isDisposed)
+                return;
+            isDisposed = true;
+        }
+        document.removeDocumentListener(documentListener);
+        fetchJob.cancel();
+        onDidUpdate.dispose();
+    }
+
+    /**
+     * Returns a stream of events that are emitted when the cached tokens
+     * have been updated with a response from the server.
+     *
+     * @return a stream of events that are emitted when the cached tokens
+     *  have been updated (never <code>null</code>)
+     */
+    EventStream<Void> onDidUpdate()
+    {
+        return onDidUpdate;
+    }
+
+    /**
+     * Marks the cached tokens as stale and schedules a request for full tokens.
+     * The currently cached tokens stay available until the response arrives.
+     */
+    void invalidate()
+    {
+        synchronized (this)
+        {
+            isStale = true;
+        }
+        fetchJob.cancel();
+        fetchJob.schedule();
+    }
+
+    /**
+     * Passes the cached tokens that intersect the given document range
+     * to the given consumer, in document order. If the cached tokens
+     * are stale, schedules a background request for new tokens.
+     *
+     * @param startOffset the start offset of the range
+     * @param endOffset the end offset of the range
+     * @param consumer not <code>null</code>
+     * @return the legend for the cached tokens, or <code>null</code>
+     *  if there are no cached tokens
+     */
+    SemanticTokensLegend forEachToken(int startOffset, int endOffset, TokenConsumer consumer)
+    {
+        SemanticTokensLegend result;
+        boolean needsFetch;
+        synchronized (this)
+        {
+            needsFetch = isStale;
+            result = legend;
+            if (result != null)
+            {
+                for (int i = findToken(startOffset); i < tokenCount; i++)
+                {
+                    int j = i * 4;
+                    int offset = tokens[j];
+                    if (offset >= endOffset)
+                        break;
+                    int length = tokens[j + 1];
+                    if (offset + length <= startOffset)
+                        continue;
+                    consumer.accept(result, offset, length, tokens[j + 2], tokens[j + 3]);
+                }
+            }
+        }
+        if (needsFetch && fetchJob.getState() == Job.NONE)
+            fetchJob.schedule();
+        return result;
+    }
+
+    /*
+     * Returns the index of the first token that may intersect a range
+     * starting at the given offset. Called under lock.
+     */
+    private int findToken(int offset)
+    {
+        int low = 0, high = tokenCount - 1;
+        while (low <= high)
+        {
+            int mid = (low + high) >>> 1;
+            int j = mid * 4;
+            if (tokens[j] + tokens[j + 1] <= offset)
+                low = mid + 1;
+            else
+                high = mid - 1;
+        }
+        return low;
+    }
+
+    private synchronized void shiftTokens(DocumentEvent event)
+    {
+        if (tokenCount == 0)
+            return;
+
+        int eventStart = event.getOffset();
+        int eventEnd = eventStart + event.getLength();
+        String text = event.getText();
+        int delta = (text == null ? 0 : text.length()) - event.getLength();
+
+        int k = findToken(eventStart) * 4;
+        int n = tokenCount * 4;
+        int w = k;
+        for (; k < n; k += 4)
+        {
+            int offset = tokens[k];
+            if (offset < eventEnd && offset + tokens[k + 1] > eventStart)
+                continue; // the token is damaged by the change; drop it
+            if (offset >= eventEnd)
+                offset += delta;
+            if (w != k)
+            {
+                tokens[w + 1] = tokens[k + 1];
+                tokens[w + 2] = tokens[k + 2];
+                tokens[w + 3] = tokens[k + 3];
+            }
+            tokens[w] = offset;
+            w += 4;
+        }
+        tokenCount = w / 4;
+    }
+
+    private void fetch(IProgressMonitor monitor)
+    {
+        LanguageOperationTarget target = repairer.getTarget();
+        DocumentSemanticTokensProvider provider = null;
+        if (target != null)
+        {
+            LanguageService languageService = target.getLanguageService();
+            provider = languageService.getDocumentMatcher().getBestMatch(
+                languageService.getDocumentSemanticTokensProviders(),
+                DocumentSemanticTokensProvider::getDocumentSelector, target.getDocumentUri(),
+                target.getLanguageId());
+        }
+        if (provider == null)
+        {
+            reset();
+            update(null, null, 0, false);
+            return;
+        }
+
+        long startGeneration;
+        boolean full;
+        synchronized (this)
+        {
+            startGeneration = generation;
+            full = isStale;
+            isStale = false;
+        }
+        if (full || provider != lastProvider)
+            reset();
+
+        SemanticTokensWithRegistrationOptions options = provider.getRegistrationOptions();
+        TextDocumentIdentifier textDocument =
+            DocumentUri.toTextDocumentIdentifier(target.getDocumentUri());
+
+        int[] data = null;
+        String resultId = null;
+        if (supportsFull(options))
+        {
+            if (lastResultId != null && supportsDelta(options))
+            {
+                DocumentSemanticTokensDeltaRequest request =
+                    repairer.newDocumentSemanticTokensDeltaRequest();
+                request.setProvider(provider);
+                request.setParams(new SemanticTokensDeltaParams(textDocument, lastResultId));
+                request.setProgressMonitor(monitor);
+                request.setTimeout(repairer.getSemanticTokensFetchTimeout());
+                request.setMayThrow(false);
+
+                Either<SemanticTokens, SemanticTokensDelta> result = request.sendAndReceive();
+                if (result != null && result.isLeft() && result.getLeft() != null)
+                {
+                    data = SemanticTokensDecoder.toArray(result.getLeft().getData());
+                    resultId = result.getLeft().getResultId();
+                }
+                else if (result != null && result.isRight() && result.getRight() != null)
+                {
+                    data = SemanticTokensDecoder.applyEdits(lastData,
+                        result.getRight().getEdits());
+                    resultId = result.getRight().getResultId();
+                }
+            }
+            else
+            {
+                DocumentSemanticTokensRequest request =
+                    repairer.newDocumentSemanticTokensRequest();
+                request.setProvider(provider);
+                request.setParams(new SemanticTokensParams(textDocument));
+                request.setProgressMonitor(monitor);
+                request.setTimeout(repairer.getSemanticTokensFetchTimeout());
+                request.setMayThrow(false);
+
+                SemanticTokens result = request.sendAndReceive();
+                if (result != null)
+                {
+                    data = SemanticTokensDecoder.toArray(result.getData());
+                    resultId = result.getResultId();
+                }
+            }
+        }
+        else if (supportsRange(options))
+        {
+            Range range;
+            try
+            {
+                range = DocumentUtil.toRange(document, 0, document.getLength());
+            }
+            catch (BadLocationException e)
+            {
+                return; // the document has changed concurrently; a new fetch is scheduled
+            }
+
+            DocumentRangeSemanticTokensRequest request =
+                repairer.newDocumentRangeSemanticTokensRequest();
+            request.setProvider(provider);
+            request.setParams(new SemanticTokensRangeParams(textDocument, range));
+            request.setProgressMonitor(monitor);
+            request.setTimeout(repairer.getSemanticTokensFetchTimeout());
+            request.setMayThrow(false);
+
+            SemanticTokens result = request.sendAndReceive();
+            if (result != null)
+                data = SemanticTokensDecoder.toArray(result.getData());
+        }
+
+        if (data == null)
+        {
+            reset(); // the next fetch will request full tokens
+            return;
+        }
+
+        lastProvider = provider;
+        lastResultId = resultId;
+        lastData = data;
+
+        SemanticTokensLegend tokenLegend = options.getLegend();
+        int[] decoded = SemanticTokensDecoder.decode(document, data,
+            tokenLegend.getTokenTypes().size());
+        if (decoded == null)
+            return; // the document has changed concurrently; a new fetch is scheduled
+
+        synchronized (this)
+        {
+            if (generation != startGeneration)
+                return; // the response is outdated; a new fetch is scheduled
+        }
+        update(decoded, tokenLegend, decoded.length / 4, true);
+    }
+
+    private void update(int[] newTokens, SemanticTokensLegend newLegend, int count,
+        boolean force)
+    {
+        synchronized (this)
+        {
+            if (isDisposed || (!force && legend == null))
+                return;
+
+            tokens = newTokens != null ? newTokens : new int[0];
+            tokenCount = count;
+            legend = newLegend;
+        }
+        onDidUpdate.emit(null, Activator::logError);
+    }
+
+    private void reset()
+    {
+        lastProvider = null;
+        lastResultId = null;
+        lastData = null;
+    }
+
+    private static boolean supportsFull(SemanticTokensWithRegistrationOptions options)
+    {
+        Either<Boolean, SemanticTokensServerFull> full = options.getFull();
+        return full != null && (full.isRight() || Boolean.TRUE.equals(full.getLeft()));
+    }
+
+    private static boolean supportsDelta(SemanticTokensWithRegistrationOptions options)
+    {
+        Either<Boolean, SemanticTokensServerFull> full = options.getFull();
+        return full != null && full.isRight() && Boolean.TRUE.equals(full.getRight().getDelta());
+    }
+
+    private static boolean supportsRange(SemanticTokensWithRegistrationOptions options)
+    {
+        Either<Boolean, Object> range = options.getRange();
+        return range != null && (range.isRight() || Boolean.TRUE.equals(range.getLeft()));
+    }
+
+    /**
+     * Accepts cached semantic tokens.
+     */
+    interface TokenConsumer
+    {
+        /**
+         * Accepts a semantic token.
+         *
+         * @param legend the legend for the token (never <code>null</code>)
+         * @param offset the token offset
+         * @param length the token length
+         * @param tokenType the index of the token type in the legend
+         * @param tokenModifiers the bit set of the token modifiers
+         */
+        void accept(SemanticTokensLegend legend, int offset, int length, int tokenType,
+            int tokenModifiers);
+    }
+}
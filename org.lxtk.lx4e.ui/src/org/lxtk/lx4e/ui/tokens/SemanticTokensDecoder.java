@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Copyright (c) 2026 1C-Soft LLC.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Vladimir Piskarev (1C) - initial API and implementation
+ *******************************************************************************/
+package org.lxtk.lx4e.ui.tokens;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.lsp4j.SemanticTokensEdit;
+
+/**
+ * Decodes semantic tokens data. The data in the relative format of the protocol
+ * are packed into an <code>int</code> array once and then converted to
+ * (offset, length, type, modifiers) quadruples in a single forward pass.
+ */
+final class SemanticTokensDecoder
+{
+    /**
+     * Packs the given semantic tokens data into an <code>int</code> array.
+     * Trailing elements that do not form a complete token are dropped;
+     * <code>null</code> elements are replaced with -1.
+     *
+     * @param data may be <code>null</code>
+     * @return the packed data (never <code>null</code>)
+     */
+    static int[] toArray(List<Integer> data)
+    {
+        if (data == null)
+            return new int[0];
+        int size = data.size() - data.size() % 5;
+        int[] result = new int[size];
+        for (int i = 0; i < size; i++)
+        {
+            Integer value = data.get(i);
+            result[i] = value != null ? value : -1;
+        }
+        return result;
+    }
+
+    /**
+     * Applies the given semantic tokens edits to the given packed data.
+     *
+     * @param data not <code>null</code>
+     * @param edits may be <code>null</code> or empty
+     * @return the edited data (never <code>null</code>)
+     */
+    static int[] applyEdits(int[] data, List<SemanticTokensEdit> edits)
+    {
+        if (edits == null || edits.isEmpty())
+            return data;
+
+        List<SemanticTokensEdit> sortedEdits = new ArrayList<>(edits);
+        sortedEdits.sort(Comparator.comparingInt(SemanticTokensEdit::getStart));
+
+        int insertSize = 0;
+        for (SemanticTokensEdit edit : sortedEdits)
+        {
+            List<Integer> insert = edit.getData();
+            if (insert != null)
+                insertSize += insert.size();
+        }
+
+        int[] result = new int[data.length + insertSize];
+        int from = 0, to = 0;
+        for (SemanticTokensEdit edit : sortedEdits)
+        {
+            int start = Math.min(Math.max(edit.getStart(), from), data.length);
+            System.arraycopy(data, from, result, to, start - from);
+            to += start - from;
+            List<Integer> insert = edit.getData();
+            if (insert != null)
+            {
+                for (int i = 0, size = insert.size(); i < size; i++)
+                {
+                    Integer value = insert.get(i);
+                    result[to++] = value != null ? value : -1;
+                }
+            }
+            from = Math.min(start + Math.max(edit.getDeleteCount(), 0), data.length);
+        }
+        System.arraycopy(data, from, result, to, data.length - from);
+        to += data.length - from;
+        int size = to - to % 5;
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Converts the given packed data to (offset, length, type, modifiers) quadruples
+     * for the given document. Line/character positions are converted to offsets
+     * incrementally, looking up line information only when the line changes.
+     * Tokens with a non-positive length or an unknown type are skipped.
+     *
+     * @param document not <code>null</code>
+     * @param data not <code>null</code>
+     * @param typeCount the number of token types in the legend
+     * @return the decoded tokens, or <code>null</code> if the data
+     *  do not match the document
+     */
+    static int[] decode(IDocument document, int[] data, int typeCount)
+    {
+        int[] result = new int[data.length / 5 * 4];
+        int k = 0;
+        int line = 0, character = 0;
+        int lineOffset, lineLength;
+        try
+        {
+            lineOffset = document.getLineOffset(0);
+            lineLength = document.getLineLength(0);
+            for (int i = 0; i + 4 < data.length; i += 5)
+            {
+                int deltaLine = data[i];
+                int deltaCharacter = data[i + 1];
+                if (deltaLine < 0 || deltaCharacter < 0)
+                    break;
+                if (deltaLine > 0)
+                {
+                    line += deltaLine;
+                    character = 0;
+                    lineOffset = document.getLineOffset(line);
+                    lineLength = document.getLineLength(line);
+                }
+                character += deltaCharacter;
+
+                int length = data[i + 2];
+                int type = data[i + 3];
+                if (length <= 0 || type < 0 || type >= typeCount)
+                    continue;
+
+                result[k++] = lineOffset + Math.min(character, lineLength);
+                result[k++] = length;
+                result[k++] = type;
+                result[k++] = data[i + 4];
+            }
+        }
+        catch (BadLocationException | RuntimeException e)
+        {
+            return null;
+        }
+        return k == result.length ? result : Arrays.copyOf(result, k);
+    }
+
+    private SemanticTokensDecoder()
+    {
+    }
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2021, 2022 1C-Soft LLC.
+ * Copyright (c) 2021, 2026 1C-Soft LLC.
  *
  * This program and the accompanying materials are made available under
  * the terms of the Eclipse Public License 2.0 which is available at
@@ -32,11 +32,16 @@ import org.lxtk.util.SafeRun;
 
 /**
  * Invalidates text presentation of a given text viewer when semantic tokens need to be refreshed.
+ * If a {@link PresentationDamagerRepairer} is given, it is {@link
+ * PresentationDamagerRepairer#install(ITextViewer) installed} on the text viewer,
+ * and its cached tokens are invalidated instead; the repairer then invalidates
+ * text presentation itself when it has updated the tokens.
  */
 public final class SemanticTokensRefreshSupport
     implements Disposable
 {
     private final ITextViewer textViewer;
+    private final PresentationDamagerRepairer damagerRepairer;
     private final Map<Object, Disposable> subscriptions = new HashMap<>();
     private final UIJob refreshJob = new UIJob("Refresh Semantic Tokens") //$NON-NLS-1$
     {
@@ -55,9 +60,25 @@ public final class SemanticTokensRefreshSupport
      * @param textViewer not <code>null</code>
      */
     public SemanticTokensRefreshSupport(ITextViewer textViewer)
+    {
+        this(textViewer, null);
+    }
+
+    /**
+     * Constructor. Must be called in the UI thread if a damager-repairer is given.
+     *
+     * @param textViewer not <code>null</code>
+     * @param damagerRepairer the damager-repairer that computes text presentation
+     *  of the text viewer based on semantic tokens (may be <code>null</code>)
+     */
+    public SemanticTokensRefreshSupport(ITextViewer textViewer,
+        PresentationDamagerRepairer damagerRepairer)
     {
         this.textViewer = Objects.requireNonNull(textViewer);
+        this.damagerRepairer = damagerRepairer;
         refreshJob.setSystem(true);
+        if (damagerRepairer != null)
+            damagerRepairer.install(textViewer);
     }
 
     /**
@@ -70,7 +91,7 @@ public final class SemanticTokensRefreshSupport
         unsubscribe();
         if ((this.target = target) != null)
             subscribe();
-        refreshJob.schedule();
+        refresh();
     }
 
     @Override
@@ -123,7 +144,7 @@ public final class SemanticTokensRefreshSupport
         {
             subscriptions.put(provider,
                 provider.onRefreshSemanticTokens().subscribe(this::onRefreshSemanticTokens));
-            refreshJob.schedule();
+            refresh();
         }
     }
 
@@ -132,14 +153,26 @@ public final class SemanticTokensRefreshSupport
         Disposable subscription = subscriptions.remove(provider);
         if (subscription != null)
         {
-            refreshJob.schedule();
+            refresh();
             subscription.dispose();
         }
     }
 
     private synchronized void onRefreshSemanticTokens(Void x)
     {
+        if (damagerRepairer != null)
+        {
+            damagerRepairer.invalidateTokens();
+            return;
+        }
         refreshJob.cancel();
         refreshJob.schedule(10);
     }
+
+    private void refresh()
+    {
+        if (damagerRepairer != null)
+            damagerRepairer.invalidateTokens();
+        refreshJob.schedule();
+    }
 }
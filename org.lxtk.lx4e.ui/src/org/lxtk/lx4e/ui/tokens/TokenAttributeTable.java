@@ -0,0 +1,138 @@
+/*******************************************************************************
+ * Copyright (c) 2026 1C-Soft LLC.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Vladimir Piskarev (1C) - initial API and implementation
+ *******************************************************************************/
+package org.lxtk.lx4e.ui.tokens;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.eclipse.jface.text.TextAttribute;
+import org.eclipse.lsp4j.SemanticTokensLegend;
+import org.lxtk.lx4e.ui.tokens.PresentationDamagerRepairer.Token;
+
+/**
+ * Maps (token type index, token modifier bits) pairs to text attributes
+ * for a given legend. A text attribute is computed only once per distinct pair,
+ * so that no objects need to be allocated when looking up an attribute
+ * for a token that has already been seen. Not thread-safe.
+ */
+final class TokenAttributeTable
+{
+    private static final Object NONE = new Object();
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final SemanticTokensLegend legend;
+    private final String[] types;
+    private final String[] modifiers;
+    private final Function<Token, TextAttribute> attributeFunction;
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private Object[] values = new Object[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Constructor.
+     *
+     * @param legend not <code>null</code>
+     * @param attributeFunction computes the text attribute for a token
+     *  (not <code>null</code>); may return <code>null</code>
+     */
+    TokenAttributeTable(SemanticTokensLegend legend,
+        Function<Token, TextAttribute> attributeFunction)
+    {
+        this.legend = legend;
+        this.types = toArray(legend.getTokenTypes());
+        this.modifiers = toArray(legend.getTokenModifiers());
+        this.attributeFunction = attributeFunction;
+    }
+
+    /**
+     * Returns the legend of this table.
+     *
+     * @return the legend (never <code>null</code>)
+     */
+    SemanticTokensLegend getLegend()
+    {
+        return legend;
+    }
+
+    /**
+     * Returns the text attribute for the given token type and modifiers.
+     *
+     * @param tokenType a valid token type index
+     * @param tokenModifiers token modifier bits
+     * @return the corresponding text attribute, or <code>null</code> if there is none
+     */
+    TextAttribute get(int tokenType, int tokenModifiers)
+    {
+        // slot values are never null, so 0 is a valid key
+        long key = ((long)tokenType << 32) | (tokenModifiers & 0xFFFFFFFFL);
+        int mask = keys.length - 1;
+        int i = hash(key) & mask;
+        Object value;
+        while ((value = values[i]) != null)
+        {
+            if (keys[i] == key)
+                return value == NONE ? null : (TextAttribute)value;
+            i = (i + 1) & mask;
+        }
+        TextAttribute result = attributeFunction.apply(new Token(types[tokenType],
+            getModifiers(tokenModifiers)));
+        keys[i] = key;
+        values[i] = result == null ? NONE : result;
+        if (++size * 2 > keys.length)
+            rehash();
+        return result;
+    }
+
+    private Set<String> getModifiers(int modifierBits)
+    {
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i < modifiers.length && i < 32; i++)
+        {
+            if ((modifierBits & (1 << i)) != 0)
+                result.add(modifiers[i]);
+        }
+        return result;
+    }
+
+    private void rehash()
+    {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new Object[oldValues.length * 2];
+        int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++)
+        {
+            if (oldValues[j] == null)
+                continue;
+            int i = hash(oldKeys[j]) & mask;
+            while (values[i] != null)
+                i = (i + 1) & mask;
+            keys[i] = oldKeys[j];
+            values[i] = oldValues[j];
+        }
+    }
+
+    private static int hash(long key)
+    {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int)(h ^ (h >>> 32));
+    }
+
+    private static String[] toArray(List<String> list)
+    {
+        return list == null ? new String[0] : list.toArray(new String[0]);
+    }
+}
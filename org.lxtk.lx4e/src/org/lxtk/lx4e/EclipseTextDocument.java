@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019, 2022 1C-Soft LLC.
+ * Copyright (c) 2019, 2026 1C-Soft LLC.
  *
  * This program and the accompanying materials are made available under
  * the terms of the Eclipse Public License 2.0 which is available at
@@ -26,7 +26,7 @@ import org.eclipse.jface.text.IDocumentListener;
 import org.eclipse.jface.text.source.IAnnotationModel;
 import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
-import org.lxtk.DefaultTextDocumentSnapshot;
+import org.lxtk.RopeTextDocumentSnapshot;
 import org.lxtk.TextDocument;
 import org.lxtk.TextDocumentChangeEvent;
 import org.lxtk.TextDocumentSnapshot;
@@ -101,7 +101,7 @@ public final class EclipseTextDocument
         document.addDocumentListener(documentListener);
         lastChange.compareAndSet(null,
             new EclipseTextDocumentChangeEvent(
-                new DefaultTextDocumentSnapshot(this, 0, document.get()), Collections.emptyList(),
+                new RopeTextDocumentSnapshot(this, 0, document.get()), Collections.emptyList(),
                 new DocumentEvent(document, 0, 0, ""))); //$NON-NLS-1$
         buffer.addRef();
     }
@@ -239,15 +239,56 @@ public final class EclipseTextDocument
         DocumentEvent originalEvent, boolean unprocessed)
     {
         TextDocumentChangeEvent lastEvent = lastChange.get();
-        int lastVersion = (lastEvent == null) ? 0 : lastEvent.getSnapshot().getVersion();
-        TextDocumentSnapshot snapshot = new DefaultTextDocumentSnapshot(this,
-            unprocessed ? lastVersion : lastVersion + 1, document.get());
+        TextDocumentSnapshot snapshot;
+        if (lastEvent == null)
+        {
+            snapshot = new RopeTextDocumentSnapshot(this, unprocessed ? 0 : 1, document.get());
+        }
+        else if (unprocessed)
+        {
+            // the document has not been changed yet, so its text is still the text
+            // of the last snapshot
+            snapshot = lastEvent.getSnapshot();
+        }
+        else
+        {
+            snapshot = newSnapshot(lastEvent.getSnapshot(), originalEvent);
+        }
         if (originalEvent.getModificationStamp() != getModificationStamp())
             throw new AssertionError();
         return new EclipseTextDocumentChangeEvent(snapshot, Collections.singletonList(event),
             originalEvent);
     }
 
+    private TextDocumentSnapshot newSnapshot(TextDocumentSnapshot lastSnapshot,
+        DocumentEvent processedEvent)
+    {
+        int version = lastSnapshot.getVersion() + 1;
+        if (lastSnapshot instanceof RopeTextDocumentSnapshot)
+        {
+            // the last snapshot reflects all of the preceding document changes,
+            // so it suffices to check that the change has been applied as expected
+            String text = processedEvent.getText();
+            if (text == null)
+                text = ""; //$NON-NLS-1$
+            int offset = processedEvent.getOffset();
+            try
+            {
+                RopeTextDocumentSnapshot snapshot =
+                    ((RopeTextDocumentSnapshot)lastSnapshot).replace(version, offset,
+                        processedEvent.getLength(), text);
+                if (snapshot.getLength() == document.getLength()
+                    && text.equals(document.get(offset, text.length())))
+                    return snapshot;
+            }
+            catch (IndexOutOfBoundsException | BadLocationException e)
+            {
+                // fall through
+            }
+        }
+        return new RopeTextDocumentSnapshot(this, version, document.get());
+    }
+
     private void checkNotDisposed()
     {
         if (isDisposed)
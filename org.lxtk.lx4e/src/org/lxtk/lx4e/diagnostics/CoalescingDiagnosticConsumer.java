@@ -0,0 +1,184 @@
+/*******************************************************************************
+ * Copyright (c) 2026 1C-Soft LLC.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Vladimir Piskarev (1C) - initial API and implementation
+ *******************************************************************************/
+package org.lxtk.lx4e.diagnostics;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.lsp4j.PublishDiagnosticsParams;
+import org.lxtk.DocumentUri;
+import org.lxtk.lx4e.internal.Activator;
+import org.lxtk.util.Disposable;
+
+/**
+ * A consumer of LSP diagnostics that invokes a given delegate asynchronously,
+ * in a dedicated working thread, coalescing the reports for the same URI.
+ * <p>
+ * Accepted reports are kept pending until the next drain, which happens after
+ * the {@link #setDrainInterval(Duration) drain interval} elapses since the first
+ * report that was accepted after the previous drain. Only the latest pending report
+ * for each URI is passed to the delegate; the earlier ones are dropped and counted
+ * as {@link #getDroppedReportCount() dropped reports}. All of the reports of a drain
+ * are passed to the delegate within a single workspace operation, so that the
+ * resulting marker changes are reported in a single resource change event.
+ * </p>
+ * <p>
+ * This implementation is thread-safe. The delegate need not be thread-safe.
+ * </p>
+ * @see org.lxtk.client.BufferingDiagnosticConsumer
+ */
+public final class CoalescingDiagnosticConsumer
+    implements Consumer<PublishDiagnosticsParams>, Disposable
+{
+    private final Consumer<PublishDiagnosticsParams> delegate;
+    private final IWorkspace workspace = ResourcesPlugin.getWorkspace();
+    private final Map<URI, PublishDiagnosticsParams> pendingReports = new LinkedHashMap<>();
+    private long drainInterval = 200; // ms
+    private long droppedReportCount;
+    private ScheduledExecutorService executor;
+    private boolean drainScheduled;
+    private boolean disposed;
+
+    /**
+     * Constructor.
+     *
+     * @param delegate not <code>null</code>
+     */
+    public CoalescingDiagnosticConsumer(Consumer<PublishDiagnosticsParams> delegate)
+    {
+        this.delegate = Objects.requireNonNull(delegate);
+    }
+
+    /**
+     * Sets the drain interval for this consumer. A longer interval allows more reports
+     * to be coalesced at the cost of a greater delay. The default interval is 200 ms.
+     *
+     * @param interval not <code>null</code>, must not be negative
+     */
+    public synchronized void setDrainInterval(Duration interval)
+    {
+        if (interval.isNegative())
+            throw new IllegalArgumentException();
+        drainInterval = interval.toMillis();
+    }
+
+    /**
+     * Returns the number of reports that have been superseded by a later report
+     * for the same URI before being passed to the delegate.
+     *
+     * @return the number of dropped reports
+     */
+    public synchronized long getDroppedReportCount()
+    {
+        return droppedReportCount;
+    }
+
+    @Override
+    public void dispose()
+    {
+        synchronized (this)
+        {
+            if (disposed)
+                return;
+            disposed = true;
+            pendingReports.clear();
+        }
+
+        if (executor != null)
+        {
+            if (delegate instanceof Disposable)
+                executor.execute(() -> ((Disposable)delegate).dispose());
+
+            executor.shutdown();
+            try
+            {
+                executor.awaitTermination(5, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException e)
+            {
+            }
+        }
+        else if (delegate instanceof Disposable)
+            ((Disposable)delegate).dispose();
+    }
+
+    @Override
+    public synchronized void accept(PublishDiagnosticsParams params)
+    {
+        if (disposed)
+            return;
+
+        if (pendingReports.put(DocumentUri.convert(params.getUri()), params) != null)
+            droppedReportCount++;
+
+        if (drainScheduled)
+            return;
+
+        if (executor == null)
+            executor = Executors.newSingleThreadScheduledExecutor(r ->
+            {
+                Thread thread = new Thread(r, "LXTK Diagnostic Consumer"); //$NON-NLS-1$
+                thread.setDaemon(true);
+                return thread;
+            });
+
+        executor.schedule(this::drain, drainInterval, TimeUnit.MILLISECONDS);
+        drainScheduled = true;
+    }
+
+    private void drain()
+    {
+        List<PublishDiagnosticsParams> reports;
+        synchronized (this)
+        {
+            drainScheduled = false;
+            if (disposed)
+                return;
+            reports = new ArrayList<>(pendingReports.values());
+            pendingReports.clear();
+        }
+        try
+        {
+            workspace.run(monitor ->
+            {
+                for (PublishDiagnosticsParams params : reports)
+                {
+                    try
+                    {
+                        delegate.accept(params);
+                    }
+                    catch (RuntimeException e)
+                    {
+                        Activator.logError(e);
+                    }
+                }
+            }, null, IWorkspace.AVOID_UPDATE, null);
+        }
+        catch (CoreException e)
+        {
+            Activator.logError(e);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/*******************************************************************************
+ * Copyright (c) 2026 1C-Soft LLC.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Vladimir Piskarev (1C) - initial API and implementation
+ *******************************************************************************/
+package org.lxtk.lx4e.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A JFR event for creating or updating markers for diagnostics in {@link DiagnosticMarkers}.
+ */
+@Name("org.lxtk.lx4e.CreateDiagnosticMarkers")
+@Label("Create Diagnostic Markers")
+@Category({ "LXTK", "Diagnostics" })
+@StackTrace(false)
+final class CreateMarkersEvent
+    extends Event
+{
+    @Label("Document URI")
+    String uri;
+
+    @Label("Resource Path")
+    String path;
+
+    @Label("Payload Size")
+    @Description("The number of diagnostics")
+    int payloadSize;
+
+    @Label("Markers Created")
+    int markerCount;
+
+    @Label("Markers Updated")
+    int updatedCount;
+
+    @Label("Markers Reused")
+    @Description("The number of markers kept intact")
+    int reusedCount;
+
+    @Label("Markers Deleted")
+    int deletedCount;
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019, 2021 1C-Soft LLC.
+ * Copyright (c) 2019, 2026 1C-Soft LLC.
  *
  * This program and the accompanying materials are made available under
  * the terms of the Eclipse Public License 2.0 which is available at
@@ -17,6 +17,8 @@ import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
@@ -26,6 +28,7 @@ import java.util.function.Consumer;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IMarkerDelta;
+import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IResourceChangeEvent;
 import org.eclipse.core.resources.IResourceChangeListener;
 import org.eclipse.core.resources.IResourceDelta;
@@ -44,6 +47,7 @@ import org.eclipse.jface.text.IRegion;
 import org.eclipse.lsp4j.Diagnostic;
 import org.eclipse.lsp4j.DiagnosticSeverity;
 import org.eclipse.lsp4j.PublishDiagnosticsParams;
+import org.eclipse.lsp4j.Range;
 import org.lxtk.DocumentUri;
 import org.lxtk.jsonrpc.DefaultGson;
 import org.lxtk.lx4e.DocumentUtil;
@@ -53,6 +57,17 @@ import org.lxtk.util.Disposable;
 /**
  * Manages resource markers representing LSP diagnostics.
  * <p>
+ * Markers are updated incrementally: when new diagnostics are accepted for a URI,
+ * the existing markers whose diagnostics are still present are kept intact, the
+ * markers whose diagnostics are gone are reused for the new diagnostics where
+ * possible, and only the remaining markers are created or deleted. Diagnostics
+ * are matched by range, code, message and severity, as well as by the rest of
+ * the diagnostic data. This keeps the number of marker deltas proportional to
+ * the number of changed diagnostics. The character offsets of the markers that are
+ * kept intact are verified against the document only if the file has been modified
+ * since the offsets were computed.
+ * </p>
+ * <p>
  * This implementation assumes that the given marker type is <b>not</b> persistent.
  * </p>
  * <p>
@@ -89,6 +104,10 @@ public class DiagnosticMarkers
     private final IWorkspace workspace = ResourcesPlugin.getWorkspace();
     private final IResourceChangeListener moveProcessor = new MoveProcessor();
     private final String sourceUuid = UUID.randomUUID().toString();
+    private final Map<IMarker, DiagnosticKey> markerKeys = new HashMap<>();
+    // the modification stamps of the files at the time the offsets of their markers
+    // were computed or verified
+    private final Map<IResource, Long> fileStamps = new HashMap<>();
 
     /**
      * Constructor.
@@ -113,18 +132,8 @@ public class DiagnosticMarkers
     {
         try
         {
-            workspace.run(monitor ->
-            {
-                deleteMarkers(uri);
-                if (diagnostics == null || diagnostics.isEmpty())
-                    return;
-                IFile[] files = workspace.getRoot().findFilesForLocationURI(uri);
-                for (IFile file : files)
-                {
-                    if (file.exists())
-                        createMarkers(file, uri, diagnostics);
-                }
-            }, null, IWorkspace.AVOID_UPDATE, null);
+            workspace.run(monitor -> updateMarkers(uri, diagnostics), null,
+                IWorkspace.AVOID_UPDATE, null);
         }
         catch (CoreException e)
         {
@@ -155,6 +164,8 @@ public class DiagnosticMarkers
             Activator.logError(e);
         }
         markers = null;
+        markerKeys.clear();
+        fileStamps.clear();
     }
 
     /**
@@ -167,14 +178,23 @@ public class DiagnosticMarkers
         Collection<IMarker> markers = getMarkers().remove(uri);
         if (markers != null)
         {
-            try
-            {
-                workspace.deleteMarkers(markers.toArray(NO_MARKERS));
-            }
-            catch (CoreException e)
-            {
-                Activator.logError(e);
-            }
+            markers.forEach(marker -> fileStamps.remove(marker.getResource()));
+            deleteMarkers(markers);
+        }
+    }
+
+    private void deleteMarkers(Collection<IMarker> markers)
+    {
+        if (markers.isEmpty())
+            return;
+        markers.forEach(markerKeys::remove);
+        try
+        {
+            workspace.deleteMarkers(markers.toArray(NO_MARKERS));
+        }
+        catch (CoreException e)
+        {
+            Activator.logError(e);
         }
     }
 
@@ -203,10 +223,25 @@ public class DiagnosticMarkers
 
     private void doCreateMarkers(IFile file, URI uri, Collection<Diagnostic> diagnostics)
     {
+        CreateMarkersEvent event = new CreateMarkersEvent();
+        event.begin();
+        Collection<IMarker> markers = getMarkers().get(uri);
+        int markerCount = markers != null ? markers.size() : 0;
+
         try (IBuffer buffer = getBuffer(file))
         {
             doCreateMarkers(file, uri, diagnostics, buffer != null ? buffer.getDocument() : null);
         }
+
+        if (event.shouldCommit())
+        {
+            event.uri = uri.toString();
+            event.path = file.getFullPath().toString();
+            event.payloadSize = diagnostics.size();
+            markers = getMarkers().get(uri);
+            event.markerCount = (markers != null ? markers.size() : 0) - markerCount;
+            event.commit();
+        }
     }
 
     private static IBuffer getBuffer(IFile file)
@@ -230,35 +265,221 @@ public class DiagnosticMarkers
         {
             try
             {
-                IMarker marker = file.createMarker(markerType);
-                try
+                markers.add(createMarker(file, uri, diagnostic, document));
+            }
+            catch (CoreException e)
+            {
+                if (!file.exists())
+                    return;
+                Activator.logError(e);
+            }
+        }
+    }
+
+    private IMarker createMarker(IFile file, URI uri, Diagnostic diagnostic,
+        IDocument document) throws CoreException
+    {
+        IMarker marker = file.createMarker(markerType);
+        try
+        {
+            setMarkerAttributes(marker, file, uri, diagnostic, document);
+        }
+        catch (Throwable e)
+        {
+            try
+            {
+                marker.delete();
+            }
+            catch (CoreException e2)
+            {
+                e.addSuppressed(e2);
+            }
+            throw e;
+        }
+        return marker;
+    }
+
+    private void setMarkerAttributes(IMarker marker, IFile file, URI uri,
+        Diagnostic diagnostic, IDocument document) throws CoreException
+    {
+        Map<String, Object> attributes = new HashMap<>();
+        fillMarkerAttributes(attributes, file, uri, diagnostic, document);
+        attributes.put(SOURCE_UUID_ATTRIBUTE, sourceUuid);
+        marker.setAttributes(attributes); // replaces all of the existing attributes
+        markerKeys.put(marker, new DiagnosticKey(diagnostic));
+    }
+
+    private void updateMarkers(URI uri, Collection<Diagnostic> diagnostics)
+    {
+        Map<IResource, List<IMarker>> oldMarkers = new HashMap<>();
+        Collection<IMarker> markers = getMarkers().remove(uri);
+        if (markers != null)
+        {
+            for (IMarker marker : markers)
+                oldMarkers.computeIfAbsent(marker.getResource(),
+                    k -> new ArrayList<>()).add(marker);
+        }
+        Collection<IMarker> newMarkers = new ArrayList<>();
+        Collection<IMarker> obsoleteMarkers = new ArrayList<>();
+        try
+        {
+            if (diagnostics != null && !diagnostics.isEmpty())
+            {
+                IFile[] files = workspace.getRoot().findFilesForLocationURI(uri);
+                for (IFile file : files)
+                {
+                    if (file.exists())
+                        updateMarkers(file, uri, diagnostics, oldMarkers.remove(file),
+                            newMarkers, obsoleteMarkers);
+                }
+            }
+        }
+        finally
+        {
+            if (!newMarkers.isEmpty())
+                getMarkers().put(uri, newMarkers);
+            oldMarkers.keySet().forEach(fileStamps::remove); // no markers left on these files
+            oldMarkers.values().forEach(obsoleteMarkers::addAll);
+            deleteMarkers(obsoleteMarkers);
+        }
+    }
+
+    private void updateMarkers(IFile file, URI uri, Collection<Diagnostic> diagnostics,
+        List<IMarker> oldMarkers, Collection<IMarker> newMarkers,
+        Collection<IMarker> obsoleteMarkers)
+    {
+        CreateMarkersEvent event = new CreateMarkersEvent();
+        event.begin();
+
+        // old markers by the key of their diagnostic; the markers with no known key
+        // can only be reused for a changed diagnostic
+        Map<DiagnosticKey, List<IMarker>> unchangedMarkers = new HashMap<>();
+        List<IMarker> reusableMarkers = new ArrayList<>();
+        if (oldMarkers != null)
+        {
+            for (IMarker marker : oldMarkers)
+            {
+                DiagnosticKey key = markerKeys.get(marker);
+                if (key != null && marker.exists())
+                    unchangedMarkers.computeIfAbsent(key, k -> new ArrayList<>(1)).add(marker);
+                else
+                    reusableMarkers.add(marker);
+            }
+        }
+
+        // a marker for an unchanged diagnostic is reused as is, unless its offsets
+        // are out of date, e.g. because the file has been changed externally;
+        // the offsets need to be verified only if the file has been modified
+        // since they were computed
+        long fileStamp = file.getModificationStamp();
+        Long lastFileStamp = fileStamps.get(file);
+        boolean verifyOffsets = lastFileStamp == null || lastFileStamp != fileStamp;
+        List<Diagnostic> changedDiagnostics = new ArrayList<>();
+        Map<IMarker, Diagnostic> unverifiedMarkers = new LinkedHashMap<>();
+        for (Diagnostic diagnostic : diagnostics)
+        {
+            List<IMarker> candidates = unchangedMarkers.get(new DiagnosticKey(diagnostic));
+            if (candidates != null && !candidates.isEmpty())
+            {
+                IMarker marker = candidates.remove(candidates.size() - 1);
+                if (verifyOffsets)
+                    unverifiedMarkers.put(marker, diagnostic);
+                else
                 {
-                    Map<String, Object> attributes = new HashMap<>();
-                    fillMarkerAttributes(attributes, file, uri, diagnostic, document);
-                    attributes.put(SOURCE_UUID_ATTRIBUTE, sourceUuid);
-                    marker.setAttributes(attributes);
+                    newMarkers.add(marker);
+                    event.reusedCount++;
                 }
-                catch (Throwable e)
+            }
+            else
+                changedDiagnostics.add(diagnostic);
+        }
+        unchangedMarkers.values().forEach(reusableMarkers::addAll);
+
+        if (!changedDiagnostics.isEmpty() || !unverifiedMarkers.isEmpty())
+        {
+            try (IBuffer buffer = getBuffer(file))
+            {
+                IDocument document = buffer != null ? buffer.getDocument() : null;
+
+                for (Map.Entry<IMarker, Diagnostic> entry : unverifiedMarkers.entrySet())
                 {
+                    IMarker marker = entry.getKey();
+                    if (hasExpectedOffsets(marker, entry.getValue(), document))
+                    {
+                        newMarkers.add(marker);
+                        event.reusedCount++;
+                    }
+                    else
+                    {
+                        reusableMarkers.add(marker);
+                        changedDiagnostics.add(entry.getValue());
+                    }
+                }
+
+                for (Diagnostic diagnostic : changedDiagnostics)
+                {
+                    IMarker marker = null;
+                    if (!reusableMarkers.isEmpty())
+                        marker = reusableMarkers.remove(reusableMarkers.size() - 1);
                     try
                     {
-                        marker.delete();
+                        if (marker != null && marker.exists())
+                        {
+                            setMarkerAttributes(marker, file, uri, diagnostic, document);
+                            event.updatedCount++;
+                        }
+                        else
+                        {
+                            if (marker != null)
+                                obsoleteMarkers.add(marker);
+                            marker = createMarker(file, uri, diagnostic, document);
+                            event.markerCount++;
+                        }
+                        newMarkers.add(marker);
                     }
-                    catch (CoreException e2)
+                    catch (CoreException e)
                     {
-                        e.addSuppressed(e2);
+                        if (marker != null)
+                            obsoleteMarkers.add(marker);
+                        if (!file.exists())
+                            break;
+                        Activator.logError(e);
                     }
-                    throw e;
                 }
-                markers.add(marker);
             }
-            catch (CoreException e)
+        }
+        fileStamps.put(file, fileStamp);
+        obsoleteMarkers.addAll(reusableMarkers);
+
+        if (event.shouldCommit())
+        {
+            event.uri = uri.toString();
+            event.path = file.getFullPath().toString();
+            event.payloadSize = diagnostics.size();
+            event.deletedCount = reusableMarkers.size();
+            event.commit();
+        }
+    }
+
+    private static boolean hasExpectedOffsets(IMarker marker, Diagnostic diagnostic,
+        IDocument document)
+    {
+        int charStart = -1, charEnd = -1;
+        if (document != null)
+        {
+            try
             {
-                if (!file.exists())
-                    return;
-                Activator.logError(e);
+                IRegion region = DocumentUtil.toRegion(document, diagnostic.getRange());
+                charStart = region.getOffset();
+                charEnd = region.getOffset() + region.getLength();
+            }
+            catch (BadLocationException e)
+            {
+                // the marker is expected to have no offsets
             }
         }
+        return marker.getAttribute(IMarker.CHAR_START, -1) == charStart
+            && marker.getAttribute(IMarker.CHAR_END, -1) == charEnd;
     }
 
     /**
@@ -320,6 +541,53 @@ public class DiagnosticMarkers
         return markers;
     }
 
+    /**
+     * Identifies a diagnostic by its range, code, message and severity. To tell apart
+     * diagnostics that differ only in other properties, the key also includes the hash
+     * code of the whole diagnostic.
+     */
+    private static final class DiagnosticKey
+    {
+        private final int startLine, startCharacter, endLine, endCharacter;
+        private final Object code;
+        private final String message;
+        private final DiagnosticSeverity severity;
+        private final int hash;
+
+        DiagnosticKey(Diagnostic diagnostic)
+        {
+            Range range = diagnostic.getRange();
+            startLine = range.getStart().getLine();
+            startCharacter = range.getStart().getCharacter();
+            endLine = range.getEnd().getLine();
+            endCharacter = range.getEnd().getCharacter();
+            code = diagnostic.getCode() != null ? diagnostic.getCode().get() : null;
+            message = diagnostic.getMessage();
+            severity = diagnostic.getSeverity();
+            hash = diagnostic.hashCode();
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof DiagnosticKey))
+                return false;
+            DiagnosticKey other = (DiagnosticKey)obj;
+            return hash == other.hash && startLine == other.startLine
+                && startCharacter == other.startCharacter && endLine == other.endLine
+                && endCharacter == other.endCharacter && Objects.equals(code, other.code)
+                && Objects.equals(message, other.message) && severity == other.severity;
+        }
+    }
+
     private class MoveProcessor
         implements IResourceChangeListener
     {
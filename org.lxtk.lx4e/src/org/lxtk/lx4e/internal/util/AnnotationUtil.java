@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2020 1C-Soft LLC.
+ * Copyright (c) 2020, 2026 1C-Soft LLC.
  *
  * This program and the accompanying materials are made available under
  * the terms of the Eclipse Public License 2.0 which is available at
@@ -73,7 +73,14 @@ public class AnnotationUtil
         }
     }
 
-    private static Object getLockObject(IAnnotationModel annotationModel)
+    /**
+     * Returns the object that is used to synchronize access to the given
+     * annotation model.
+     *
+     * @param annotationModel not <code>null</code>
+     * @return the lock object (never <code>null</code>)
+     */
+    public static Object getLockObject(IAnnotationModel annotationModel)
     {
         if (annotationModel instanceof ISynchronizable)
         {
@@ -0,0 +1,44 @@
+/*******************************************************************************
+ * Copyright (c) 2026 1C-Soft LLC.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Vladimir Piskarev (1C) - initial API and implementation
+ *******************************************************************************/
+package org.lxtk.lx4e.model.impl;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A JFR event for building the structure of a {@link LanguageSourceFile}.
+ */
+@Name("org.lxtk.lx4e.BuildStructure")
+@Label("Build Structure")
+@Category({ "LXTK", "Model" })
+@StackTrace(false)
+final class BuildStructureEvent
+    extends Event
+{
+    @Label("Document URI")
+    String uri;
+
+    @Label("Working Copy")
+    boolean workingCopy;
+
+    @Label("Payload Size")
+    @Description("The length of the source text, in characters")
+    long payloadSize;
+
+    @Label("Top-Level Symbols")
+    int symbolCount;
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019, 2023 1C-Soft LLC.
+ * Copyright (c) 2019, 2026 1C-Soft LLC.
  *
  * This program and the accompanying materials are made available under
  * the terms of the Eclipse Public License 2.0 which is available at
@@ -328,6 +328,9 @@ public abstract class LanguageSourceFile
     @Override
     public void buildStructure_(IContext context, IProgressMonitor monitor) throws CoreException
     {
+        BuildStructureEvent event = new BuildStructureEvent();
+        event.begin();
+
         SymbolBuilder symbolBuilder = (SymbolBuilder)context.get(SOURCE_AST);
         if (symbolBuilder == null)
         {
@@ -341,6 +344,16 @@ public abstract class LanguageSourceFile
         StructureBuilder structureBuilder = new StructureBuilder(context.get(NEW_ELEMENTS),
             new Document(input.source), input.snapshot);
         structureBuilder.buildStructure(this, input.symbols);
+
+        if (event.shouldCommit())
+        {
+            URI documentUri = getDocumentUri();
+            event.uri = documentUri != null ? documentUri.toString() : null;
+            event.workingCopy = isWorkingCopy_();
+            event.payloadSize = input.source.length();
+            event.symbolCount = input.symbols.size();
+            event.commit();
+        }
     }
 
     @Override
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2020, 2021 1C-Soft LLC.
+ * Copyright (c) 2020, 2026 1C-Soft LLC.
  *
  * This program and the accompanying materials are made available under
  * the terms of the Eclipse Public License 2.0 which is available at
@@ -89,4 +89,12 @@ abstract class LanguageFeatureRequest<R extends LanguageFeatureProvider<?>, S, T
     void initiateProgress(ProgressService progressService)
     {
     }
+
+    @Override
+    void fillEvent(RequestEvent event)
+    {
+        if (provider != null)
+            event.provider = provider.getClass().getName();
+        event.uri = RequestEvent.getDocumentUri(params);
+    }
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2020, 2021 1C-Soft LLC.
+ * Copyright (c) 2020, 2026 1C-Soft LLC.
  *
  * This program and the accompanying materials are made available under
  * the terms of the Eclipse Public License 2.0 which is available at
@@ -18,7 +18,12 @@ import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
 import org.eclipse.core.runtime.ILog;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -28,6 +33,7 @@ import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubMonitor;
 import org.lxtk.PartialResultProgress;
 import org.lxtk.WorkDoneProgress;
+import org.lxtk.WorkDoneProgressState;
 import org.lxtk.lx4e.ProgressSupport;
 import org.lxtk.lx4e.internal.Activator;
 import org.lxtk.lx4e.util.FutureSupport;
@@ -276,7 +282,58 @@ public abstract class Request<T>
      */
     public T sendAndReceive()
     {
-        return getHandler().sendAndReceive();
+        RequestEvent event = new RequestEvent();
+        event.begin();
+        Throwable thrown = null;
+        try
+        {
+            return getHandler().sendAndReceive();
+        }
+        catch (RuntimeException | Error e)
+        {
+            thrown = e;
+            throw e;
+        }
+        finally
+        {
+            if (event.shouldCommit())
+                commit(event, thrown);
+        }
+    }
+
+    /**
+     * Sends this request and returns a future that will be completed with
+     * the result when a response is received. Unlike {@link #sendAndReceive()},
+     * this method does not block the calling thread; otherwise, it follows
+     * the same policies with regard to the timeout, the progress monitor,
+     * and the handling of errors. In particular, if {@link #mayThrow()}
+     * is <code>false</code>, the returned future will be completed with
+     * the {@link #getDefaultResult() default result} when an error occurs.
+     * Cancelling the returned future cancels the request.
+     *
+     * @return the result future (never <code>null</code>)
+     */
+    public CompletableFuture<T> sendAsync()
+    {
+        RequestEvent event = new RequestEvent();
+        event.begin();
+        CompletableFuture<T> result;
+        try
+        {
+            result = getHandler().sendAsync();
+        }
+        catch (RuntimeException | Error e)
+        {
+            if (event.shouldCommit())
+                commit(event, e);
+            throw e;
+        }
+        result.whenComplete((r, e) ->
+        {
+            if (event.shouldCommit())
+                commit(event, e);
+        });
+        return result;
     }
 
     /**
@@ -298,6 +355,38 @@ public abstract class Request<T>
      */
     protected abstract CompletableFuture<T> send();
 
+    /**
+     * Fills in the request-specific fields of the given event.
+     *
+     * @param event never <code>null</code>
+     */
+    void fillEvent(RequestEvent event)
+    {
+    }
+
+    private void commit(RequestEvent event, Throwable thrown)
+    {
+        event.request = getClass().getName();
+        event.title = title;
+        if (timeout != null)
+            event.timeout = timeout.toMillis();
+        CompletableFuture<T> future = getHandler().getFuture();
+        boolean cancelled = future != null && future.isCancelled();
+        if (thrown instanceof OperationCanceledException
+            || thrown instanceof CancellationException)
+            event.outcome = RequestEvent.CANCELLED;
+        else if (thrown != null)
+            event.outcome = thrown instanceof CompletionException
+                && thrown.getCause() instanceof TimeoutException ? RequestEvent.TIMED_OUT
+                    : RequestEvent.FAILED;
+        else if (getErrorMessage() == null)
+            event.outcome = cancelled ? RequestEvent.CANCELLED : RequestEvent.COMPLETED;
+        else // the error has been suppressed; a timed out request gets cancelled
+            event.outcome = cancelled ? RequestEvent.TIMED_OUT : RequestEvent.FAILED;
+        fillEvent(event);
+        event.commit();
+    }
+
     /**
      * A customizable template for sending a request and receiving a response.
      *
@@ -305,6 +394,19 @@ public abstract class Request<T>
      */
     public static class Handler<T>
     {
+        private static final long MONITOR_PERIOD = 100;
+        private static final ScheduledThreadPoolExecutor SCHEDULER;
+        static
+        {
+            SCHEDULER = new ScheduledThreadPoolExecutor(1, r ->
+            {
+                Thread thread = new Thread(r, "LXTK Request Scheduler"); //$NON-NLS-1$
+                thread.setDaemon(true);
+                return thread;
+            });
+            SCHEDULER.setRemoveOnCancelPolicy(true);
+        }
+
         private Request<T> request;
         private CompletableFuture<T> future;
         private String errorMessage;
@@ -350,6 +452,44 @@ public abstract class Request<T>
             return receive();
         }
 
+        /**
+         * Sends the request and returns a future that will be completed
+         * with the result when a response is received.
+         *
+         * @return the result future (never <code>null</code>)
+         * @see Request#sendAsync()
+         */
+        public CompletableFuture<T> sendAsync()
+        {
+            try
+            {
+                setErrorMessage(null);
+                setFuture(request.send());
+            }
+            catch (Throwable e)
+            {
+                CompletableFuture<T> result = new CompletableFuture<>();
+                complete(result, () -> handle(e));
+                return result;
+            }
+            return receiveAsync();
+        }
+
+        /**
+         * Returns a future that will be completed with the result when
+         * a response is received. The timeout and the progress monitor of
+         * the request are checked by a shared scheduler thread; no thread is
+         * blocked waiting for the response. The same <code>handle</code> methods
+         * as in {@link #receive()} are used to handle errors.
+         *
+         * @return the result future (never <code>null</code>)
+         */
+        protected CompletableFuture<T> receiveAsync()
+        {
+            setErrorMessage(null);
+            return new AsyncReceiver().start();
+        }
+
         /**
          * Returns the error message (if any).
          * The error message is reset each time {@link #sendAndReceive()}
@@ -639,11 +779,155 @@ public abstract class Request<T>
             }
         }
 
+        private static <R> void complete(CompletableFuture<R> future, Supplier<R> outcome)
+        {
+            try
+            {
+                future.complete(outcome.get());
+            }
+            catch (Throwable e)
+            {
+                future.completeExceptionally(e);
+            }
+        }
+
         private static OperationCanceledException toOCE(Throwable cause)
         {
             OperationCanceledException e = new OperationCanceledException();
             e.initCause(cause);
             return e;
         }
+
+        private class AsyncReceiver
+        {
+            private final CompletableFuture<T> future = getFuture();
+            private final CompletableFuture<T> result = new CompletableFuture<>();
+            private final AtomicBoolean isSettled = new AtomicBoolean();
+            private final IProgressMonitor monitor = request.getProgressMonitor();
+            private final Duration timeout = request.getTimeout();
+            private final long startTime = System.currentTimeMillis();
+            private volatile ScheduledFuture<?> tick;
+            private String lastMessage;
+
+            CompletableFuture<T> start()
+            {
+                result.whenComplete((r, e) ->
+                {
+                    if (result.isCancelled() && isSettled.compareAndSet(false, true))
+                    {
+                        stopTicking();
+                        cancel();
+                    }
+                });
+                future.whenComplete((r, e) ->
+                {
+                    if (e == null)
+                        settle(() -> r);
+                    else
+                    {
+                        Throwable cause = e instanceof CompletionException && e.getCause() != null
+                            ? e.getCause() : e;
+                        if (cause instanceof CancellationException)
+                            settle(() -> handle((CancellationException)cause));
+                        else
+                            settle(() -> handle(new ExecutionException(cause)));
+                    }
+                });
+                scheduleTick();
+                return result;
+            }
+
+            private void settle(Supplier<T> outcome)
+            {
+                if (!isSettled.compareAndSet(false, true))
+                    return;
+                stopTicking();
+                complete(result, outcome);
+            }
+
+            private void scheduleTick()
+            {
+                long delay;
+                if (monitor != null)
+                    delay = MONITOR_PERIOD;
+                else if (timeout != null)
+                    delay = Math.max(getTimeoutStart() + timeout.toMillis()
+                        - System.currentTimeMillis(), 0);
+                else
+                    return;
+                tick = SCHEDULER.schedule(this::tick, delay, TimeUnit.MILLISECONDS);
+                if (isSettled.get())
+                    stopTicking();
+            }
+
+            private void stopTicking()
+            {
+                ScheduledFuture<?> tick = this.tick;
+                if (tick != null)
+                    tick.cancel(false);
+            }
+
+            private void tick()
+            {
+                if (isSettled.get())
+                    return;
+                try
+                {
+                    if (monitor != null)
+                    {
+                        WorkDoneProgressState state = getWorkDoneProgressState();
+                        if (monitor.isCanceled() && (state == null
+                            || !Boolean.FALSE.equals(state.getCancellable())))
+                        {
+                            settle(() -> handle(new OperationCanceledException()));
+                            return;
+                        }
+                        String message = state == null ? null : state.getMessage();
+                        if (message != null && !message.equals(lastMessage))
+                        {
+                            monitor.subTask(message);
+                            lastMessage = message;
+                        }
+                    }
+                    if (timeout != null && System.currentTimeMillis()
+                        - getTimeoutStart() >= timeout.toMillis())
+                    {
+                        settle(() -> handle(new TimeoutException()));
+                        return;
+                    }
+                }
+                catch (Throwable e)
+                {
+                    settle(() -> handle(e));
+                    return;
+                }
+                scheduleTick();
+            }
+
+            private WorkDoneProgressState getWorkDoneProgressState()
+            {
+                WorkDoneProgress workDoneProgress = request.getWorkDoneProgress();
+                return workDoneProgress == null ? null : workDoneProgress.getState();
+            }
+
+            /*
+             * In non-strict mode, the timeout is counted from the last progress update.
+             */
+            private long getTimeoutStart()
+            {
+                long start = startTime;
+                if (!request.isStrictTimeout())
+                {
+                    WorkDoneProgress workDoneProgress = request.getWorkDoneProgress();
+                    if (workDoneProgress != null)
+                        start = Math.max(start, workDoneProgress.getLastUpdated());
+                    PartialResultProgress partialResultProgress =
+                        request.getPartialResultProgress();
+                    if (partialResultProgress != null)
+                        start = Math.max(start, partialResultProgress.getLastUpdated());
+                }
+                return start;
+            }
+        }
     }
 }
@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (c) 2026 1C-Soft LLC.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Vladimir Piskarev (1C) - initial API and implementation
+ *******************************************************************************/
+package org.lxtk.lx4e.requests;
+
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.eclipse.lsp4j.TextDocumentPositionParams;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A JFR event for {@link Request#sendAndReceive()} and {@link Request#sendAsync()}.
+ */
+@Name("org.lxtk.lx4e.Request")
+@Label("Request")
+@Category({ "LXTK", "Requests" })
+@StackTrace(false)
+final class RequestEvent
+    extends Event
+{
+    static final String COMPLETED = "completed"; //$NON-NLS-1$
+    static final String TIMED_OUT = "timed out"; //$NON-NLS-1$
+    static final String CANCELLED = "cancelled"; //$NON-NLS-1$
+    static final String FAILED = "failed"; //$NON-NLS-1$
+
+    @Label("Request")
+    String request;
+
+    @Label("Title")
+    String title;
+
+    @Label("Provider")
+    String provider;
+
+    @Label("Document URI")
+    String uri;
+
+    @Label("Timeout")
+    @Timespan(Timespan.MILLISECONDS)
+    long timeout;
+
+    @Label("Outcome")
+    String outcome;
+
+    /**
+     * Returns the URI of the text document the given request parameters refer to.
+     * Called only when the event is to be committed.
+     *
+     * @param params may be <code>null</code>
+     * @return the document URI, or <code>null</code> if none
+     */
+    static String getDocumentUri(Object params)
+    {
+        if (params instanceof TextDocumentPositionParams)
+            return ((TextDocumentPositionParams)params).getTextDocument().getUri();
+        if (params == null)
+            return null;
+        try
+        {
+            // the parameters of text document requests have no common supertype
+            Object textDocument = params.getClass().getMethod("getTextDocument").invoke( //$NON-NLS-1$
+                params);
+            if (textDocument instanceof TextDocumentIdentifier)
+                return ((TextDocumentIdentifier)textDocument).getUri();
+        }
+        catch (ReflectiveOperationException | RuntimeException e)
+        {
+            // no text document
+        }
+        return null;
+    }
+}
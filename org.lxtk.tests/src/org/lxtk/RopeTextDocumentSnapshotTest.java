@@ -0,0 +1,196 @@
+/*******************************************************************************
+ * Copyright (c) 2026 1C-Soft LLC.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Vladimir Piskarev (1C) - initial API and implementation
+ *******************************************************************************/
+package org.lxtk;
+
+import java.net.URI;
+import java.util.Random;
+
+import org.lxtk.util.EventStream;
+
+import junit.framework.TestCase;
+
+public class RopeTextDocumentSnapshotTest
+    extends TestCase
+{
+    private static final TextDocument DOCUMENT = new TestDocument();
+
+    public void testText() throws Exception
+    {
+        RopeTextDocumentSnapshot snapshot = new RopeTextDocumentSnapshot(DOCUMENT, 1, ""); //$NON-NLS-1$
+        assertSame(DOCUMENT, snapshot.getDocument());
+        assertEquals(1, snapshot.getVersion());
+        assertEquals(0, snapshot.getLength());
+        assertEquals("", snapshot.getText()); //$NON-NLS-1$
+
+        String text = newText(5000);
+        snapshot = new RopeTextDocumentSnapshot(DOCUMENT, 0, text);
+        assertEquals(text.length(), snapshot.getLength());
+        assertEquals(text, snapshot.getText());
+    }
+
+    public void testReplace() throws Exception
+    {
+        String text = newText(5000);
+        RopeTextDocumentSnapshot snapshot = new RopeTextDocumentSnapshot(DOCUMENT, 0, text);
+        int[] offsets = { 0, 1, 1023, 1024, 1025, 2500, 4999, 5000 };
+        for (int offset : offsets)
+        {
+            for (int length : new int[] { 0, 1, 2000 })
+            {
+                if (offset + length > text.length())
+                    continue;
+                for (String replacement : new String[] { "", "x", newText(3000) }) //$NON-NLS-1$ //$NON-NLS-2$
+                {
+                    RopeTextDocumentSnapshot result =
+                        snapshot.replace(1, offset, length, replacement);
+                    String expected = text.substring(0, offset) + replacement
+                        + text.substring(offset + length);
+                    assertEquals(1, result.getVersion());
+                    assertSame(DOCUMENT, result.getDocument());
+                    assertEquals(expected.length(), result.getLength());
+                    assertEquals(expected, result.getText());
+                }
+            }
+        }
+        assertEquals(text, snapshot.getText()); // the original snapshot is unaffected
+    }
+
+    public void testReplaceInvalid() throws Exception
+    {
+        RopeTextDocumentSnapshot snapshot = new RopeTextDocumentSnapshot(DOCUMENT, 0, "abc"); //$NON-NLS-1$
+        try
+        {
+            snapshot.replace(1, 2, 2, ""); //$NON-NLS-1$
+            fail();
+        }
+        catch (IndexOutOfBoundsException e)
+        {
+        }
+        try
+        {
+            snapshot.replace(1, -1, 1, ""); //$NON-NLS-1$
+            fail();
+        }
+        catch (IndexOutOfBoundsException e)
+        {
+        }
+    }
+
+    public void testSurrogatePairs() throws Exception
+    {
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < 5000)
+            sb.append("a\ud83d\ude00"); //$NON-NLS-1$
+        String text = sb.toString();
+        RopeTextDocumentSnapshot snapshot = new RopeTextDocumentSnapshot(DOCUMENT, 0, text);
+        assertEquals(text, snapshot.getText());
+        // splitting within a surrogate pair must not lose any characters
+        RopeTextDocumentSnapshot result = snapshot.replace(1, 2, 0, "b"); //$NON-NLS-1$
+        assertEquals(text.substring(0, 2) + "b" + text.substring(2), result.getText()); //$NON-NLS-1$
+    }
+
+    public void testReplaceRandom() throws Exception
+    {
+        Random random = new Random(0);
+        StringBuilder text = new StringBuilder(newText(100000));
+        RopeTextDocumentSnapshot snapshot =
+            new RopeTextDocumentSnapshot(DOCUMENT, 0, text.toString());
+        for (int i = 1; i <= 2000; i++)
+        {
+            int offset = random.nextInt(text.length() + 1);
+            int length = random.nextInt(Math.min(100, text.length() - offset) + 1);
+            String replacement = newText(random.nextInt(random.nextInt(10) == 0 ? 3000 : 20));
+            text.replace(offset, offset + length, replacement);
+            snapshot = snapshot.replace(i, offset, length, replacement);
+            assertEquals(text.length(), snapshot.getLength());
+            assertBalanced(snapshot);
+            if (i % 100 == 0)
+                assertEquals(text.toString(), snapshot.getText());
+        }
+        assertEquals(text.toString(), snapshot.getText());
+    }
+
+    public void testAppend() throws Exception
+    {
+        StringBuilder text = new StringBuilder();
+        RopeTextDocumentSnapshot snapshot = new RopeTextDocumentSnapshot(DOCUMENT, 0, ""); //$NON-NLS-1$
+        for (int i = 1; i <= 5000; i++)
+        {
+            String chunk = newText(i % 7 == 0 ? 2000 : 10);
+            text.append(chunk);
+            snapshot = snapshot.replace(i, snapshot.getLength(), 0, chunk);
+            assertBalanced(snapshot);
+        }
+        assertEquals(text.toString(), snapshot.getText());
+
+        for (int i = 1; i <= 5000; i++)
+        {
+            String chunk = newText(10);
+            text.insert(0, chunk);
+            snapshot = snapshot.replace(i, 0, 0, chunk);
+            assertBalanced(snapshot);
+        }
+        assertEquals(text.toString(), snapshot.getText());
+    }
+
+    private static void assertBalanced(RopeTextDocumentSnapshot snapshot)
+    {
+        // the height of an AVL tree with n nodes is less than 1.45 * log2(n + 2);
+        // the number of leaves of the rope is at most the length of its text
+        double maxHeight = 1.45 * Math.log(snapshot.getLength() + 2) / Math.log(2);
+        assertTrue(snapshot.getHeight() + " > " + maxHeight, //$NON-NLS-1$
+            snapshot.getHeight() <= maxHeight);
+    }
+
+    private static String newText(int length)
+    {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++)
+            sb.append((char)('a' + (i * 7 + length) % 26));
+        return sb.toString();
+    }
+
+    private static class TestDocument
+        implements TextDocument
+    {
+        @Override
+        public URI getUri()
+        {
+            return URI.create("file:///test.txt"); //$NON-NLS-1$
+        }
+
+        @Override
+        public String getLanguageId()
+        {
+            return "plaintext"; //$NON-NLS-1$
+        }
+
+        @Override
+        public TextDocumentChangeEvent getLastChange()
+        {
+            return null;
+        }
+
+        @Override
+        public EventStream<TextDocumentChangeEvent> onWillChange()
+        {
+            return null;
+        }
+
+        @Override
+        public EventStream<TextDocumentChangeEvent> onDidChange()
+        {
+            return null;
+        }
+    }
+}
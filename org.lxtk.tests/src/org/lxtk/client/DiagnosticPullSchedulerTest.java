@@ -0,0 +1,241 @@
+/*******************************************************************************
+ * Copyright (c) 2026 1C-Soft LLC.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Vladimir Piskarev (1C) - initial API and implementation
+ *******************************************************************************/
+package org.lxtk.client;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.lsp4j.DocumentDiagnosticParams;
+import org.eclipse.lsp4j.DocumentDiagnosticReport;
+import org.lxtk.DocumentUri;
+import org.lxtk.TextDocument;
+import org.lxtk.TextDocumentChangeEvent;
+import org.lxtk.util.EventStream;
+
+import junit.framework.TestCase;
+
+public class DiagnosticPullSchedulerTest
+    extends TestCase
+{
+    private final List<String> sent = Collections.synchronizedList(new ArrayList<>());
+    private final Map<String, CompletableFuture<DocumentDiagnosticReport>> inFlight =
+        Collections.synchronizedMap(new LinkedHashMap<>());
+    private final List<List<TextDocument>> interFilePulls =
+        Collections.synchronizedList(new ArrayList<>());
+    private final CountDownLatch interFilePullDone = new CountDownLatch(1);
+    private final List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+    private DiagnosticPullScheduler scheduler;
+
+    @Override
+    protected void setUp() throws Exception
+    {
+        super.setUp();
+        scheduler = new DiagnosticPullScheduler(documents ->
+        {
+            interFilePulls.add(documents);
+            interFilePullDone.countDown();
+        }, errors::add);
+    }
+
+    @Override
+    protected void tearDown() throws Exception
+    {
+        scheduler.dispose();
+        assertEquals(Collections.emptyList(), errors);
+        super.tearDown();
+    }
+
+    public void testMaxConcurrentRequests() throws Exception
+    {
+        scheduler.setMaxConcurrentRequests(2);
+        List<CompletableFuture<DocumentDiagnosticReport>> results = new ArrayList<>();
+        for (String name : List.of("a", "b", "c", "d", "e")) //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+            results.add(submit(newDocument(name)));
+        assertEquals(List.of(uri("a"), uri("b")), sent); //$NON-NLS-1$ //$NON-NLS-2$
+
+        complete(uri("b")); //$NON-NLS-1$
+        assertEquals(List.of(uri("a"), uri("b"), uri("c")), sent); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        assertEquals(2, inFlight.size());
+
+        complete(uri("a")); //$NON-NLS-1$
+        complete(uri("c")); //$NON-NLS-1$
+        assertEquals(2, inFlight.size());
+        complete(uri("d")); //$NON-NLS-1$
+        complete(uri("e")); //$NON-NLS-1$
+        assertEquals(5, sent.size());
+        assertTrue(inFlight.isEmpty());
+        for (CompletableFuture<DocumentDiagnosticReport> result : results)
+            assertTrue(result.isDone() && !result.isCompletedExceptionally());
+
+        // all of the slots are free again
+        submit(newDocument("f")); //$NON-NLS-1$
+        submit(newDocument("g")); //$NON-NLS-1$
+        assertEquals(2, inFlight.size());
+    }
+
+    public void testActiveDocumentFirst() throws Exception
+    {
+        scheduler.setMaxConcurrentRequests(1);
+        TextDocument active = newDocument("c"); //$NON-NLS-1$
+        scheduler.setActiveDocumentSupplier(() -> active);
+        submit(newDocument("a")); //$NON-NLS-1$
+        submit(newDocument("b")); //$NON-NLS-1$
+        submit(active);
+        submit(newDocument("d")); //$NON-NLS-1$
+        assertEquals(List.of(uri("a")), sent); //$NON-NLS-1$
+
+        complete(uri("a")); //$NON-NLS-1$
+        assertEquals(List.of(uri("a"), uri("c")), sent); //$NON-NLS-1$ //$NON-NLS-2$
+
+        // the other requests are sent in the order they were submitted
+        complete(uri("c")); //$NON-NLS-1$
+        complete(uri("b")); //$NON-NLS-1$
+        assertEquals(List.of(uri("a"), uri("c"), uri("b"), uri("d")), sent); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+    }
+
+    public void testCancelQueuedRequest() throws Exception
+    {
+        scheduler.setMaxConcurrentRequests(1);
+        submit(newDocument("a")); //$NON-NLS-1$
+        CompletableFuture<DocumentDiagnosticReport> b = submit(newDocument("b")); //$NON-NLS-1$
+        submit(newDocument("c")); //$NON-NLS-1$
+        b.cancel(true);
+
+        complete(uri("a")); //$NON-NLS-1$
+        assertEquals(List.of(uri("a"), uri("c")), sent); //$NON-NLS-1$ //$NON-NLS-2$
+        complete(uri("c")); //$NON-NLS-1$
+        assertEquals(List.of(uri("a"), uri("c")), sent); //$NON-NLS-1$ //$NON-NLS-2$
+        assertTrue(b.isCancelled());
+        assertTrue(inFlight.isEmpty());
+    }
+
+    public void testCancelSentRequest() throws Exception
+    {
+        scheduler.setMaxConcurrentRequests(1);
+        CompletableFuture<DocumentDiagnosticReport> a = submit(newDocument("a")); //$NON-NLS-1$
+        submit(newDocument("b")); //$NON-NLS-1$
+        CompletableFuture<DocumentDiagnosticReport> future = inFlight.get(uri("a")); //$NON-NLS-1$
+        a.cancel(true);
+        // the cancellation is propagated to the request that has been sent,
+        // and the slot it frees is taken by the queued request
+        assertTrue(future.isCancelled());
+        assertEquals(List.of(uri("a"), uri("b")), sent); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    public void testInterFilePull() throws Exception
+    {
+        TextDocument a = newDocument("a"); //$NON-NLS-1$
+        TextDocument b = newDocument("b"); //$NON-NLS-1$
+        TextDocument c = newDocument("c"); //$NON-NLS-1$
+        scheduler.setInterFileDelay(Duration.ofMillis(50));
+        scheduler.setActiveDocumentSupplier(() -> c);
+        scheduler.scheduleInterFilePull(List.of(a, b));
+        scheduler.scheduleInterFilePull(List.of(c, a));
+        assertTrue(interFilePullDone.await(10, TimeUnit.SECONDS));
+        // the pulls are debounced, with the active document first
+        assertEquals(List.of(List.of(c, a, b)), interFilePulls);
+    }
+
+    public void testInterFilePullSuperseded() throws Exception
+    {
+        TextDocument a = newDocument("a"); //$NON-NLS-1$
+        TextDocument b = newDocument("b"); //$NON-NLS-1$
+        TextDocument c = newDocument("c"); //$NON-NLS-1$
+        scheduler.setInterFileDelay(Duration.ofMillis(50));
+        scheduler.scheduleInterFilePull(List.of(a, b, c));
+        // b has changed and is going to be pulled on its own
+        scheduler.cancelInterFilePull(b);
+        assertTrue(interFilePullDone.await(10, TimeUnit.SECONDS));
+        assertEquals(List.of(List.of(a, c)), interFilePulls);
+    }
+
+    private CompletableFuture<DocumentDiagnosticReport> submit(TextDocument document)
+    {
+        DocumentDiagnosticParams params =
+            new DocumentDiagnosticParams(DocumentUri.toTextDocumentIdentifier(document.getUri()));
+        return scheduler.submit(params, p ->
+        {
+            String uri = p.getTextDocument().getUri();
+            CompletableFuture<DocumentDiagnosticReport> future = new CompletableFuture<>();
+            assertNull(inFlight.put(uri, future));
+            sent.add(uri);
+            return future;
+        });
+    }
+
+    private void complete(String uri)
+    {
+        CompletableFuture<DocumentDiagnosticReport> future = inFlight.remove(uri);
+        assertNotNull(uri, future);
+        future.complete(null);
+    }
+
+    private static String uri(String name)
+    {
+        return DocumentUri.convert(newDocument(name).getUri());
+    }
+
+    private static TextDocument newDocument(String name)
+    {
+        return new TestDocument(URI.create("file:///" + name + ".txt")); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    private static class TestDocument
+        implements TextDocument
+    {
+        private final URI uri;
+
+        TestDocument(URI uri)
+        {
+            this.uri = uri;
+        }
+
+        @Override
+        public URI getUri()
+        {
+            return uri;
+        }
+
+        @Override
+        public String getLanguageId()
+        {
+            return "plaintext"; //$NON-NLS-1$
+        }
+
+        @Override
+        public TextDocumentChangeEvent getLastChange()
+        {
+            return null;
+        }
+
+        @Override
+        public EventStream<TextDocumentChangeEvent> onWillChange()
+        {
+            return null;
+        }
+
+        @Override
+        public EventStream<TextDocumentChangeEvent> onDidChange()
+        {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) 2026 1C-Soft LLC.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Vladimir Piskarev (1C) - initial API and implementation
+ *******************************************************************************/
+package org.lxtk.jsonrpc;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.Pipe;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.lsp4j.jsonrpc.json.JsonRpcMethod;
+import org.eclipse.lsp4j.jsonrpc.json.MessageJsonHandler;
+import org.eclipse.lsp4j.jsonrpc.messages.NotificationMessage;
+
+import junit.framework.TestCase;
+
+public class ChannelMessageConsumerTest
+    extends TestCase
+{
+    private static final String METHOD = "test"; //$NON-NLS-1$
+    private static final MessageJsonHandler JSON_HANDLER = new MessageJsonHandler(
+        Map.of(METHOD, JsonRpcMethod.notification(METHOD, String.class)));
+
+    private static final String[] TEXTS = { "", "abc", "\u00e9\u20ac", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        "\ud83d\ude00", "a\ud800b", "a\udc00b", "\udc00\ud800", "a\ud83d", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+        "\ud83d\ud83d\ude00\ude00" }; //$NON-NLS-1$
+
+    public void testContentLength() throws Exception
+    {
+        for (String text : TEXTS)
+        {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ChannelMessageConsumer consumer =
+                new ChannelMessageConsumer(Channels.newChannel(out), JSON_HANDLER);
+            consumer.consume(newMessage(text));
+
+            byte[] bytes = out.toByteArray();
+            String output = new String(bytes, StandardCharsets.ISO_8859_1);
+            int headerEnd = output.indexOf("\r\n\r\n") + 4; //$NON-NLS-1$
+            String header = output.substring(0, headerEnd);
+            // the content length must match the encoded bytes, unpaired surrogates included
+            assertEquals(text, "Content-Length: " + (bytes.length - headerEnd) + "\r\n\r\n", //$NON-NLS-1$ //$NON-NLS-2$
+                header);
+        }
+    }
+
+    public void testRoundTrip() throws Exception
+    {
+        List<String> expected = new ArrayList<>();
+        for (String text : TEXTS)
+            expected.add(replaceUnpairedSurrogates(text));
+        String large = "\u20ac".repeat(ByteBufferPool.BUFFER_SIZE) + "\ud83d\ude00"; //$NON-NLS-1$ //$NON-NLS-2$
+        expected.add(large);
+
+        for (boolean autoFlush : new boolean[] { true, false })
+        {
+            Pipe pipe = Pipe.open();
+            List<String> received = Collections.synchronizedList(new ArrayList<>());
+            Thread reader = ChannelMessageProducerTest.startReader(pipe, received);
+            ChannelMessageConsumer consumer =
+                new ChannelMessageConsumer(pipe.sink(), JSON_HANDLER);
+            consumer.setAutoFlush(autoFlush);
+            for (String text : TEXTS)
+                consumer.consume(newMessage(text));
+            consumer.consume(newMessage(large));
+            consumer.flush();
+            pipe.sink().close();
+            ChannelMessageProducerTest.join(reader);
+            assertEquals(expected, received);
+        }
+    }
+
+    private static NotificationMessage newMessage(String text)
+    {
+        NotificationMessage message = new NotificationMessage();
+        message.setMethod(METHOD);
+        message.setParams(text);
+        return message;
+    }
+
+    private static String replaceUnpairedSurrogates(String text)
+    {
+        // the encoder replaces unpaired surrogates with '?', as String.getBytes does
+        return new String(text.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,194 @@
+/*******************************************************************************
+ * Copyright (c) 2026 1C-Soft LLC.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Vladimir Piskarev (1C) - initial API and implementation
+ *******************************************************************************/
+package org.lxtk.jsonrpc;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.lsp4j.jsonrpc.json.JsonRpcMethod;
+import org.eclipse.lsp4j.jsonrpc.json.MessageJsonHandler;
+import org.eclipse.lsp4j.jsonrpc.messages.NotificationMessage;
+
+import junit.framework.TestCase;
+
+public class ChannelMessageProducerTest
+    extends TestCase
+{
+    private static final String METHOD = "test"; //$NON-NLS-1$
+    private static final MessageJsonHandler JSON_HANDLER = new MessageJsonHandler(
+        Map.of(METHOD, JsonRpcMethod.notification(METHOD, String.class)));
+
+    private static final String EMOJI = "\ud83d\ude00"; // 4 bytes in UTF-8 //$NON-NLS-1$
+
+    public void testMultiByteCharacterAcrossBufferBoundary() throws Exception
+    {
+        for (int shift = 1; shift < 4; shift++)
+        {
+            // the character starts shift bytes before the end of the first buffer-full
+            String prefix = "{\"jsonrpc\":\"2.0\",\"method\":\"test\",\"params\":\""; //$NON-NLS-1$
+            String suffix = "\"}"; //$NON-NLS-1$
+            // the content length has the same number of digits as the buffer size
+            int fillerLength = ByteBufferPool.BUFFER_SIZE - shift - prefix.length()
+                - headerLength(ByteBufferPool.BUFFER_SIZE);
+            String text = "a".repeat(fillerLength) + EMOJI + "b".repeat(10); //$NON-NLS-1$ //$NON-NLS-2$
+            byte[] message = frame(prefix + text + suffix);
+            assertEquals(ByteBufferPool.BUFFER_SIZE - shift,
+                indexOf(message, EMOJI.getBytes(StandardCharsets.UTF_8)));
+            assertEquals(List.of(text), receive(message));
+        }
+    }
+
+    public void testMultiByteCharacterAcrossReads() throws Exception
+    {
+        String text = "x" + EMOJI + "\u20ac\u00e9y"; //$NON-NLS-1$ //$NON-NLS-2$
+        byte[] message = frame(newContent(text));
+        int split = indexOf(message, EMOJI.getBytes(StandardCharsets.UTF_8)) + 2;
+        Pipe pipe = Pipe.open();
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        Thread reader = startReader(pipe, received);
+        write(pipe, slice(message, 0, split));
+        Thread.sleep(100); // let the reader see the incomplete character
+        write(pipe, slice(message, split, message.length));
+        pipe.sink().close();
+        join(reader);
+        assertEquals(List.of(text), received);
+    }
+
+    public void testSeveralMessagesInOneRead() throws Exception
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(frame(newContent("a"))); //$NON-NLS-1$
+        out.write(frame(newContent("\u00e9\u20ac" + EMOJI))); //$NON-NLS-1$
+        out.write(frame(newContent(""))); //$NON-NLS-1$
+        assertEquals(List.of("a", "\u00e9\u20ac" + EMOJI, ""), receive(out.toByteArray())); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    }
+
+    public void testMissingContentLength() throws Exception
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(ascii("Content-Type: application/vscode-jsonrpc; charset=utf-8\r\n\r\n")); //$NON-NLS-1$
+        out.write(frame(newContent("a"))); //$NON-NLS-1$
+        assertEquals(List.of("a"), receive(out.toByteArray())); //$NON-NLS-1$
+    }
+
+    public void testInvalidContentLength() throws Exception
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(ascii("Content-Length: abc\r\n\r\n")); //$NON-NLS-1$
+        out.write(frame(newContent("a"))); //$NON-NLS-1$
+        out.write(ascii("Content-Length: -1\r\n\r\n")); //$NON-NLS-1$
+        out.write(frame(newContent("b"))); //$NON-NLS-1$
+        assertEquals(List.of("a", "b"), receive(out.toByteArray())); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    public void testTruncatedContent() throws Exception
+    {
+        byte[] message = frame(newContent("abc")); //$NON-NLS-1$
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(frame(newContent("a"))); //$NON-NLS-1$
+        out.write(message, 0, message.length - 1);
+        assertEquals(List.of("a"), receive(out.toByteArray())); //$NON-NLS-1$
+    }
+
+    static String newContent(String text)
+    {
+        NotificationMessage message = new NotificationMessage();
+        message.setJsonrpc("2.0"); //$NON-NLS-1$
+        message.setMethod(METHOD);
+        message.setParams(text);
+        return JSON_HANDLER.serialize(message);
+    }
+
+    static List<String> receive(byte[] bytes) throws Exception
+    {
+        Pipe pipe = Pipe.open();
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        Thread reader = startReader(pipe, received);
+        write(pipe, bytes);
+        pipe.sink().close();
+        join(reader);
+        return received;
+    }
+
+    static Thread startReader(Pipe pipe, List<String> received)
+    {
+        ChannelMessageProducer producer =
+            new ChannelMessageProducer(pipe.source(), JSON_HANDLER);
+        Thread reader = new Thread(() -> producer.listen(
+            message -> received.add((String)((NotificationMessage)message).getParams())));
+        reader.setDaemon(true);
+        reader.start();
+        return reader;
+    }
+
+    static void join(Thread reader) throws InterruptedException
+    {
+        reader.join(10000);
+        assertFalse(reader.isAlive());
+    }
+
+    private static void write(Pipe pipe, byte[] bytes) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining())
+            pipe.sink().write(buffer);
+    }
+
+    private static byte[] frame(String content)
+    {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        byte[] header = ascii("Content-Length: " + bytes.length + "\r\n\r\n"); //$NON-NLS-1$ //$NON-NLS-2$
+        byte[] result = new byte[header.length + bytes.length];
+        System.arraycopy(header, 0, result, 0, header.length);
+        System.arraycopy(bytes, 0, result, header.length, bytes.length);
+        return result;
+    }
+
+    private static int headerLength(int contentLength)
+    {
+        return ("Content-Length: " + contentLength + "\r\n\r\n").length(); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    private static byte[] ascii(String s)
+    {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] slice(byte[] bytes, int from, int to)
+    {
+        byte[] result = new byte[to - from];
+        System.arraycopy(bytes, from, result, 0, result.length);
+        return result;
+    }
+
+    private static int indexOf(byte[] bytes, byte[] pattern)
+    {
+        outer: for (int i = 0; i <= bytes.length - pattern.length; i++)
+        {
+            for (int j = 0; j < pattern.length; j++)
+            {
+                if (bytes[i + j] != pattern[j])
+                    continue outer;
+            }
+            return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) 2026 1C-Soft LLC.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Vladimir Piskarev (1C) - initial API and implementation
+ *******************************************************************************/
+package org.lxtk.jsonrpc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+
+import com.google.gson.Gson;
+
+import junit.framework.TestCase;
+
+public class DeepCopierTest
+    extends TestCase
+{
+    private final DeepCopier copier = new DeepCopier(new Gson());
+
+    public void testImmutable() throws Exception
+    {
+        assertNull(copier.copy(null));
+        String s = "abc"; //$NON-NLS-1$
+        assertSame(s, copier.copy(s));
+        Integer i = 1000;
+        assertSame(i, copier.copy(i));
+        assertSame(Kind.A, copier.copy(Kind.A));
+    }
+
+    public void testStructure() throws Exception
+    {
+        Item item = new Item();
+        item.name = "a"; //$NON-NLS-1$
+        item.count = 1;
+        Item child = new Item();
+        child.name = "b"; //$NON-NLS-1$
+        item.children = new ArrayList<>(Arrays.asList(child));
+        item.data = new HashMap<>();
+        item.data.put("c", child); //$NON-NLS-1$
+        item.either = Either.forRight(child);
+        item.array = new Item[] { child };
+        item.ints = new int[] { 1, 2 };
+        item.cache = "x"; //$NON-NLS-1$
+
+        Item copy = (Item)copier.copy(item);
+        assertNotSame(item, copy);
+        assertEquals("a", copy.name); //$NON-NLS-1$
+        assertEquals(1, copy.count);
+        assertNull(copy.cache);
+        assertEquals(1, copy.children.size());
+        assertNotSame(child, copy.children.get(0));
+        assertEquals("b", copy.children.get(0).name); //$NON-NLS-1$
+        assertNotSame(child, copy.data.get("c")); //$NON-NLS-1$
+        assertEquals("b", copy.data.get("c").name); //$NON-NLS-1$ //$NON-NLS-2$
+        assertTrue(copy.either.isRight());
+        assertNotSame(child, copy.either.getRight());
+        assertEquals("b", copy.either.getRight().name); //$NON-NLS-1$
+        assertNotSame(child, copy.array[0]);
+        assertEquals("b", copy.array[0].name); //$NON-NLS-1$
+        assertNotSame(item.ints, copy.ints);
+        assertTrue(Arrays.equals(item.ints, copy.ints));
+    }
+
+    public void testSortedCollections() throws Exception
+    {
+        Comparator<String> reverse = Collections.reverseOrder();
+        SortedSet<String> set = new TreeSet<>(reverse);
+        set.addAll(Arrays.asList("a", "c", "b")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        Object setCopy = copier.copy(set);
+        assertTrue(setCopy instanceof TreeSet);
+        assertSame(reverse, ((TreeSet<?>)setCopy).comparator());
+        assertEquals(new ArrayList<>(set), new ArrayList<>((TreeSet<?>)setCopy));
+
+        TreeMap<String, Integer> map = new TreeMap<>(reverse);
+        map.put("a", 1); //$NON-NLS-1$
+        map.put("b", 2); //$NON-NLS-1$
+        Object mapCopy = copier.copy(map);
+        assertTrue(mapCopy instanceof TreeMap);
+        assertSame(reverse, ((TreeMap<?, ?>)mapCopy).comparator());
+        assertEquals(map, mapCopy);
+    }
+
+    public void testEnumCollections() throws Exception
+    {
+        EnumSet<Kind> set = EnumSet.of(Kind.B);
+        Object setCopy = copier.copy(set);
+        assertTrue(setCopy instanceof EnumSet);
+        assertNotSame(set, setCopy);
+        assertEquals(set, setCopy);
+
+        EnumMap<Kind, List<String>> map = new EnumMap<>(Kind.class);
+        map.put(Kind.A, new ArrayList<>(Arrays.asList("a"))); //$NON-NLS-1$
+        Object mapCopy = copier.copy(map);
+        assertTrue(mapCopy instanceof EnumMap);
+        assertEquals(map, mapCopy);
+        assertNotSame(map.get(Kind.A), ((EnumMap<?, ?>)mapCopy).get(Kind.A));
+    }
+
+    public void testDeclaredCollectionTypes() throws Exception
+    {
+        Typed typed = new Typed();
+        typed.kinds = EnumSet.of(Kind.A, Kind.B);
+        typed.names = new TreeSet<>(Arrays.asList("b", "a")); //$NON-NLS-1$ //$NON-NLS-2$
+        typed.sorted = new TreeMap<>();
+        typed.sorted.put("a", 1); //$NON-NLS-1$
+        typed.linked = new LinkedList<>(Arrays.asList("x")); //$NON-NLS-1$
+
+        Typed copy = (Typed)copier.copy(typed);
+        assertEquals(typed.kinds, copy.kinds);
+        assertEquals(typed.names, copy.names);
+        assertEquals(typed.sorted, copy.sorted);
+        assertEquals(typed.linked, copy.linked);
+        assertNotSame(typed.linked, copy.linked);
+    }
+
+    enum Kind
+    {
+        A, B
+    }
+
+    static class Item
+    {
+        String name;
+        int count;
+        List<Item> children;
+        Map<String, Item> data;
+        Either<String, Item> either;
+        Item[] array;
+        int[] ints;
+        transient String cache;
+    }
+
+    static class Typed
+    {
+        EnumSet<Kind> kinds;
+        TreeSet<String> names;
+        TreeMap<String, Integer> sorted;
+        LinkedList<String> linked;
+    }
+}
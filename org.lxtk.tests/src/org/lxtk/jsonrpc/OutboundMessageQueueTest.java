@@ -0,0 +1,243 @@
+/*******************************************************************************
+ * Copyright (c) 2026 1C-Soft LLC.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Vladimir Piskarev (1C) - initial API and implementation
+ *******************************************************************************/
+package org.lxtk.jsonrpc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.eclipse.lsp4j.jsonrpc.JsonRpcException;
+import org.eclipse.lsp4j.jsonrpc.MessageConsumer;
+import org.eclipse.lsp4j.jsonrpc.messages.CancelParams;
+import org.eclipse.lsp4j.jsonrpc.messages.Message;
+import org.eclipse.lsp4j.jsonrpc.messages.NotificationMessage;
+import org.eclipse.lsp4j.jsonrpc.messages.RequestMessage;
+
+import junit.framework.TestCase;
+
+public class OutboundMessageQueueTest
+    extends TestCase
+{
+    private static final String CANCEL = "$/cancelRequest"; //$NON-NLS-1$
+
+    private final List<String> written = Collections.synchronizedList(new ArrayList<>());
+    private final CountDownLatch writerReleased = new CountDownLatch(1);
+    private final AtomicInteger flushes = new AtomicInteger();
+    private volatile boolean blockWriter;
+
+    public void testOrder() throws Exception
+    {
+        OutboundMessageQueue queue = newQueue();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++)
+        {
+            String method = "m" + i; //$NON-NLS-1$
+            expected.add(method);
+            queue.consume(newMessage(method));
+        }
+        waitUntil(() -> queue.getWrittenCount() == 100);
+        assertEquals(expected, written);
+        assertEquals(0, queue.getQueueDepth());
+    }
+
+    public void testPriority() throws Exception
+    {
+        blockWriter = true;
+        OutboundMessageQueue queue = newQueue();
+        queue.consume(newMessage("first")); //$NON-NLS-1$
+        waitUntil(() -> queue.getQueueDepth() == 0); // the writer is blocked on the first message
+        queue.consume(newMessage("a")); //$NON-NLS-1$
+        queue.consume(newMessage("b")); //$NON-NLS-1$
+        queue.consume(newMessage(CANCEL));
+        queue.consume(newMessage("c")); //$NON-NLS-1$
+        queue.consume(newMessage(CANCEL));
+        writerReleased.countDown();
+        waitUntil(() -> queue.getWrittenCount() == 6);
+        assertEquals(List.of("first", CANCEL, CANCEL, "a", "b", "c"), written); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+    }
+
+    public void testCancelQueuedRequest() throws Exception
+    {
+        blockWriter = true;
+        OutboundMessageQueue queue = newQueue();
+        queue.consume(newMessage("first")); //$NON-NLS-1$
+        waitUntil(() -> queue.getQueueDepth() == 0);
+        queue.consume(newRequest("1", "a")); //$NON-NLS-1$ //$NON-NLS-2$
+        queue.consume(newMessage("b")); //$NON-NLS-1$
+        queue.consume(newRequest("2", "c")); //$NON-NLS-1$ //$NON-NLS-2$
+        queue.consume(newCancel("2")); //$NON-NLS-1$
+        queue.consume(newCancel("1")); //$NON-NLS-1$
+        queue.consume(newCancel("0")); // the request is not queued //$NON-NLS-1$
+        assertEquals(6, queue.getQueueDepth());
+        writerReleased.countDown();
+        waitUntil(() -> queue.getWrittenCount() == 7);
+        // a cancellation is written right after the queued request it cancels
+        assertEquals(List.of("first", CANCEL + " 0", "a", CANCEL + " 1", "b", "c", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+            CANCEL + " 2"), written); //$NON-NLS-1$
+        assertEquals(0, queue.getQueueDepth());
+    }
+
+    public void testPriorityMethods() throws Exception
+    {
+        blockWriter = true;
+        OutboundMessageQueue queue = newQueue();
+        queue.setPriorityMethods(Collections.emptySet());
+        queue.consume(newMessage("first")); //$NON-NLS-1$
+        waitUntil(() -> queue.getQueueDepth() == 0);
+        queue.consume(newMessage("a")); //$NON-NLS-1$
+        queue.consume(newMessage(CANCEL));
+        writerReleased.countDown();
+        waitUntil(() -> queue.getWrittenCount() == 3);
+        assertEquals(List.of("first", "a", CANCEL), written); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    public void testBackpressure() throws Exception
+    {
+        blockWriter = true;
+        OutboundMessageQueue queue = newQueue();
+        queue.setWaterMarks(2, 4);
+        queue.consume(newMessage("first")); //$NON-NLS-1$
+        waitUntil(() -> queue.getQueueDepth() == 0);
+
+        Thread sender = new Thread(() ->
+        {
+            for (int i = 0; i < 10; i++)
+                queue.consume(newMessage("m" + i)); //$NON-NLS-1$
+        });
+        sender.setDaemon(true);
+        sender.start();
+        waitUntil(() -> sender.getState() == Thread.State.WAITING);
+        assertEquals(4, queue.getQueueDepth());
+
+        // priority messages are never blocked
+        queue.consume(newMessage(CANCEL));
+        assertEquals(5, queue.getQueueDepth());
+
+        writerReleased.countDown();
+        sender.join(10000);
+        assertFalse(sender.isAlive());
+        waitUntil(() -> queue.getWrittenCount() == 12);
+        assertTrue(queue.getMaxQueueDepth() <= 5);
+        assertEquals("first", written.get(0)); //$NON-NLS-1$
+        assertEquals(CANCEL, written.get(1));
+        for (int i = 0; i < 10; i++)
+            assertEquals("m" + i, written.get(i + 2)); //$NON-NLS-1$
+    }
+
+    public void testFlush() throws Exception
+    {
+        blockWriter = true;
+        OutboundMessageQueue queue = newQueue();
+        queue.consume(newMessage("first")); //$NON-NLS-1$
+        waitUntil(() -> queue.getQueueDepth() == 0);
+        for (int i = 0; i < 50; i++)
+            queue.consume(newMessage("m" + i)); //$NON-NLS-1$
+        writerReleased.countDown();
+        waitUntil(() -> queue.getWrittenCount() == 51);
+        // the burst is written with a single flush
+        assertEquals(1, flushes.get());
+        assertEquals(1, queue.getFlushCount());
+    }
+
+    public void testFailure() throws Exception
+    {
+        OutboundMessageQueue queue = new OutboundMessageQueue(message ->
+        {
+            throw new IllegalStateException();
+        }, null);
+        queue.consume(newMessage("a")); //$NON-NLS-1$
+        waitUntil(() ->
+        {
+            try
+            {
+                queue.consume(newMessage("b")); //$NON-NLS-1$
+                return false;
+            }
+            catch (JsonRpcException e)
+            {
+                return true;
+            }
+        });
+        assertEquals(0, queue.getQueueDepth());
+        assertEquals(0, queue.getWrittenCount());
+    }
+
+    private OutboundMessageQueue newQueue()
+    {
+        MessageConsumer writer = message ->
+        {
+            if (blockWriter)
+            {
+                try
+                {
+                    writerReleased.await();
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            written.add(describe(message));
+        };
+        return new OutboundMessageQueue(writer, () -> flushes.incrementAndGet());
+    }
+
+    private static Message newMessage(String method)
+    {
+        NotificationMessage message = new NotificationMessage();
+        message.setMethod(method);
+        return message;
+    }
+
+    private static Message newRequest(String id, String method)
+    {
+        RequestMessage message = new RequestMessage();
+        message.setId(id);
+        message.setMethod(method);
+        return message;
+    }
+
+    private static Message newCancel(String id)
+    {
+        NotificationMessage message = new NotificationMessage();
+        message.setMethod(CANCEL);
+        message.setParams(new CancelParams(id));
+        return message;
+    }
+
+    private static String describe(Message message)
+    {
+        if (message instanceof RequestMessage)
+            return ((RequestMessage)message).getMethod();
+        NotificationMessage notification = (NotificationMessage)message;
+        if (notification.getParams() instanceof CancelParams)
+            return notification.getMethod() + ' '
+                + ((CancelParams)notification.getParams()).getId();
+        return notification.getMethod();
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException
+    {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean())
+        {
+            if (System.nanoTime() > deadline)
+                fail("Timed out"); //$NON-NLS-1$
+            Thread.sleep(1);
+        }
+    }
+}
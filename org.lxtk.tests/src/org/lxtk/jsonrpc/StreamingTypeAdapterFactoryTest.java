@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * Copyright (c) 2026 1C-Soft LLC.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Vladimir Piskarev (1C) - initial API and implementation
+ *******************************************************************************/
+package org.lxtk.jsonrpc;
+
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.lsp4j.CompletionItem;
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.DocumentSymbol;
+import org.eclipse.lsp4j.Location;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.SemanticTokens;
+import org.eclipse.lsp4j.TextEdit;
+import org.eclipse.lsp4j.jsonrpc.json.MessageJsonHandler;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParser;
+import com.google.gson.reflect.TypeToken;
+
+import junit.framework.TestCase;
+
+public class StreamingTypeAdapterFactoryTest
+    extends TestCase
+{
+    private static final Gson REFLECTIVE =
+        new MessageJsonHandler(Collections.emptyMap()).getGson();
+    private static final Gson STREAMING =
+        new StreamingMessageJsonHandler(Collections.emptyMap()).getGson();
+
+    private static final String RANGE =
+        "{'start':{'line':1,'character':2},'end':{'line':3,'character':4}}"; //$NON-NLS-1$
+
+    public void testPosition() throws Exception
+    {
+        assertEquivalent(Position.class, "{'line':1,'character':2}"); //$NON-NLS-1$
+        assertEquivalent(Position.class, "{'character':2,'line':1,'unknown':[1,{}]}"); //$NON-NLS-1$
+        assertEquivalent(Position.class, "{}"); //$NON-NLS-1$
+        assertEquivalent(Position.class, "null"); //$NON-NLS-1$
+    }
+
+    public void testRange() throws Exception
+    {
+        assertEquivalent(Range.class, RANGE);
+        assertEquivalent(Range.class, "{'end':{'line':3,'character':4}}"); //$NON-NLS-1$
+    }
+
+    public void testLocation() throws Exception
+    {
+        assertEquivalent(Location.class, "{'uri':'file:///a.txt','range':" + RANGE + '}'); //$NON-NLS-1$
+        assertEquivalent(new TypeToken<List<Location>>()
+        {
+        }.getType(), "[{'uri':'file:///a.txt','range':" + RANGE + "},{'uri':'file:///b.txt'}]"); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    public void testTextEdit() throws Exception
+    {
+        assertEquivalent(TextEdit.class, "{'range':" + RANGE + ",'newText':'a\\nb'}"); //$NON-NLS-1$ //$NON-NLS-2$
+        assertEquivalent(TextEdit.class, "{'newText':''}"); //$NON-NLS-1$
+    }
+
+    public void testSemanticTokens() throws Exception
+    {
+        assertEquivalent(SemanticTokens.class, "{'resultId':'1','data':[0,1,2,3,4,1,0,2,1,0]}"); //$NON-NLS-1$
+        assertEquivalent(SemanticTokens.class, "{'data':[]}"); //$NON-NLS-1$
+    }
+
+    public void testDiagnostic() throws Exception
+    {
+        assertEquivalent(Diagnostic.class, "{'range':" + RANGE //$NON-NLS-1$
+            + ",'severity':2,'code':'E1','codeDescription':{'href':'https://example.com'}," //$NON-NLS-1$
+            + "'source':'test','message':'message','tags':[1,2]," //$NON-NLS-1$
+            + "'relatedInformation':[{'location':{'uri':'file:///a.txt','range':" + RANGE //$NON-NLS-1$
+            + "},'message':'related'}],'data':{'a':[1,'b',null]}}"); //$NON-NLS-1$
+        assertEquivalent(Diagnostic.class, "{'range':" + RANGE + ",'code':42,'message':'m'}"); //$NON-NLS-1$ //$NON-NLS-2$
+        assertEquivalent(Diagnostic.class, "{'range':" + RANGE //$NON-NLS-1$
+            + ",'message':'m','data':'d','unknown':{'x':1}}"); //$NON-NLS-1$
+    }
+
+    public void testDocumentSymbol() throws Exception
+    {
+        String child = "{'name':'child','kind':12,'range':" + RANGE + ",'selectionRange':" //$NON-NLS-1$ //$NON-NLS-2$
+            + RANGE + '}';
+        assertEquivalent(DocumentSymbol.class, "{'name':'parent','detail':'detail','kind':5," //$NON-NLS-1$
+            + "'tags':[1],'deprecated':true,'range':" + RANGE + ",'selectionRange':" + RANGE //$NON-NLS-1$ //$NON-NLS-2$
+            + ",'children':[" + child + ',' + child + "]}"); //$NON-NLS-1$ //$NON-NLS-2$
+        assertEquivalent(DocumentSymbol.class, child);
+    }
+
+    public void testCompletionItem() throws Exception
+    {
+        assertEquivalent(CompletionItem.class, "{'label':'label'," //$NON-NLS-1$
+            + "'labelDetails':{'detail':'(x)','description':'desc'},'kind':3,'tags':[1]," //$NON-NLS-1$
+            + "'detail':'detail','documentation':'doc','deprecated':false,'preselect':true," //$NON-NLS-1$
+            + "'sortText':'a','filterText':'label','insertText':'label($1)'," //$NON-NLS-1$
+            + "'insertTextFormat':2,'insertTextMode':1,'textEdit':{'range':" + RANGE //$NON-NLS-1$
+            + ",'newText':'label($1)'},'additionalTextEdits':[{'range':" + RANGE //$NON-NLS-1$
+            + ",'newText':'import x;'}],'commitCharacters':['.','(']," //$NON-NLS-1$
+            + "'command':{'title':'t','command':'c','arguments':[1,'a']},'data':[1,2]}"); //$NON-NLS-1$
+        assertEquivalent(CompletionItem.class, "{'label':'label'," //$NON-NLS-1$
+            + "'documentation':{'kind':'markdown','value':'**doc**'}," //$NON-NLS-1$
+            + "'textEdit':{'newText':'label','insert':" + RANGE + ",'replace':" + RANGE //$NON-NLS-1$ //$NON-NLS-2$
+            + "},'textEditText':'label','unknown':true}"); //$NON-NLS-1$
+        assertEquivalent(new TypeToken<List<CompletionItem>>()
+        {
+        }.getType(), "[{'label':'a'},{'label':'b','kind':1}]"); //$NON-NLS-1$
+    }
+
+    private static void assertEquivalent(Type type, String json)
+    {
+        json = json.replace('\'', '"');
+        Object expected = REFLECTIVE.fromJson(json, type);
+        Object actual = STREAMING.fromJson(json, type);
+        assertEquals(json, expected, actual);
+        assertEquals(json, JsonParser.parseString(REFLECTIVE.toJson(expected, type)),
+            JsonParser.parseString(STREAMING.toJson(actual, type)));
+    }
+}
@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * Copyright (c) 2026 1C-Soft LLC.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Vladimir Piskarev (1C) - initial API and implementation
+ *******************************************************************************/
+package org.lxtk.util.completion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import junit.framework.TestCase;
+
+public class BatchMatcherTest
+    extends TestCase
+{
+    private static final List<String> CANDIDATES = Arrays.asList("getFoo", "getfoo", //$NON-NLS-1$ //$NON-NLS-2$
+        "GetFoo", "get_foo_bar", "getFooBar", "FOO_BAR", "fooBarBaz", "foo", "Foo", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$
+        "toString", "setUTF8Value", "HTMLParser", "a1b2", "x", "", "\u00e9t\u00e9", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$
+        "\u00c9t\u00e9Value"); //$NON-NLS-1$
+
+    private static final List<String> PATTERNS = Arrays.asList("", "g", "get", "getFoo", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        "GETFOO", "gF", "gFB", "GF", "foo", "bar", "fb", "FB", "fBB", "ts", "tS", "sUV", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$ //$NON-NLS-9$ //$NON-NLS-10$ //$NON-NLS-11$ //$NON-NLS-12$
+        "utf", "HTMLP", "hp", "parser", "a1", "b2", "xyz", "\u00e9t", "\u00e9v", "value"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$ //$NON-NLS-9$ //$NON-NLS-10$
+
+    public void testEquivalence() throws Exception
+    {
+        assertEquivalent(new DefaultMatcher(), CANDIDATES, PATTERNS);
+    }
+
+    public void testSubclassOptions() throws Exception
+    {
+        for (int options = 0; options < 8; options++)
+        {
+            boolean camelCase = (options & 1) != 0;
+            boolean substring = (options & 2) != 0;
+            boolean subword = (options & 4) != 0;
+            DefaultMatcher matcher = new DefaultMatcher()
+            {
+                @Override
+                protected boolean isCamelCaseMatching()
+                {
+                    return camelCase;
+                }
+
+                @Override
+                protected boolean isSubstringMatching()
+                {
+                    return substring;
+                }
+
+                @Override
+                protected boolean isSubwordMatching()
+                {
+                    return subword;
+                }
+            };
+            assertEquivalent(matcher, CANDIDATES, PATTERNS);
+        }
+    }
+
+    public void testEquivalenceRandom() throws Exception
+    {
+        String alphabet = "aAbBcC_1"; //$NON-NLS-1$
+        Random random = new Random(0);
+        List<String> candidates = new ArrayList<>();
+        for (int i = 0; i < 500; i++)
+            candidates.add(randomString(random, alphabet, 12));
+        List<String> patterns = new ArrayList<>();
+        for (int i = 0; i < 50; i++)
+            patterns.add(randomString(random, alphabet, 4));
+        assertEquivalent(new DefaultMatcher(), candidates, patterns);
+    }
+
+    public void testParallel() throws Exception
+    {
+        List<String> candidates = new ArrayList<>();
+        for (int i = 0; i < 5000; i++)
+            candidates.addAll(CANDIDATES);
+        BatchMatcher batchMatcher = new BatchMatcher(new DefaultMatcher(), candidates);
+        int[] expected = new int[candidates.size()];
+        int[] scores = new int[candidates.size()];
+        for (String pattern : PATTERNS)
+        {
+            int expectedCount = batchMatcher.match(pattern, expected);
+            assertEquals(expectedCount, batchMatcher.match(pattern, scores,
+                ForkJoinPool.commonPool()));
+            assertTrue(Arrays.equals(expected, scores));
+        }
+    }
+
+    public void testOverriddenMatch() throws Exception
+    {
+        DefaultMatcher matcher = new DefaultMatcher()
+        {
+            @Override
+            public MatchResult match(String pattern, String string)
+            {
+                if (!string.endsWith(pattern))
+                    return null;
+                return new DefaultMatchResult(new int[] { string.length() - pattern.length(),
+                    pattern.length() }, 1);
+            }
+        };
+        BatchMatcher batchMatcher = new BatchMatcher(matcher, Arrays.asList("getFoo", "foo")); //$NON-NLS-1$ //$NON-NLS-2$
+        int[] scores = new int[2];
+        assertEquals(2, batchMatcher.match("oo", scores)); //$NON-NLS-1$
+        assertEquals(1, scores[0]);
+        assertEquals(1, scores[1]);
+        assertEquals(0, batchMatcher.match("get", scores)); //$NON-NLS-1$
+        assertEquals(BatchMatcher.NO_MATCH, scores[0]);
+    }
+
+    private static void assertEquivalent(DefaultMatcher matcher, List<String> candidates,
+        List<String> patterns)
+    {
+        BatchMatcher batchMatcher = new BatchMatcher(matcher, candidates);
+        assertEquals(candidates.size(), batchMatcher.size());
+        int[] scores = new int[candidates.size()];
+        for (String pattern : patterns)
+        {
+            int count = batchMatcher.match(pattern, scores);
+            int expectedCount = 0;
+            for (int i = 0; i < candidates.size(); i++)
+            {
+                String candidate = candidates.get(i);
+                MatchResult expected = matcher.match(pattern, candidate);
+                String message = pattern + " / " + candidate; //$NON-NLS-1$
+                if (expected == null)
+                {
+                    assertEquals(message, BatchMatcher.NO_MATCH, scores[i]);
+                    assertNull(message, batchMatcher.getMatchResult(pattern, i));
+                }
+                else
+                {
+                    expectedCount++;
+                    assertEquals(message, expected.getScore(), scores[i]);
+                    assertTrue(message, Arrays.equals(expected.getMatchingRegions(),
+                        batchMatcher.getMatchResult(pattern, i).getMatchingRegions()));
+                }
+            }
+            assertEquals(pattern, expectedCount, count);
+        }
+    }
+
+    private static String randomString(Random random, String alphabet, int maxLength)
+    {
+        StringBuilder sb = new StringBuilder();
+        for (int i = random.nextInt(maxLength + 1); i > 0; i--)
+            sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        return sb.toString();
+    }
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2021 1C-Soft LLC.
+ * Copyright (c) 2021, 2026 1C-Soft LLC.
  *
  * This program and the accompanying materials are made available under
  * the terms of the Eclipse Public License 2.0 which is available at
@@ -86,10 +86,15 @@ public abstract class AbstractPartialResultProgress<T>
     protected final void doAccept(ProgressParams params)
     {
         Object value = params.getValue().getRight();
-        if (!(value instanceof JsonElement))
+        if (value == null)
             return;
 
-        onAccept(gson.fromJson(((JsonElement)value), type));
+        JsonElement json;
+        if (value instanceof JsonElement)
+            json = (JsonElement)value;
+        else
+            json = gson.toJsonTree(value); // e.g. over an in-process connection
+        onAccept(gson.fromJson(json, type));
     }
 
     /**
@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (c) 2026 1C-Soft LLC.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Vladimir Piskarev (1C) - initial API and implementation
+ *******************************************************************************/
+package org.lxtk;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.eclipse.lsp4j.DocumentFilter;
+
+/**
+ * An implementation of the {@link DocumentMatcher} interface that delegates
+ * to another document matcher and memoizes the match score for a document
+ * selector and a document. Thread-safe if the delegate is thread-safe.
+ * <p>
+ * The match score is a pure function of the document selector and the URI
+ * and language id of the document, so the memoized scores never become stale
+ * and need not be invalidated. Only a bounded number of the most recently used
+ * scores is retained.
+ * </p>
+ */
+public final class CachingDocumentMatcher
+    implements DocumentMatcher
+{
+    private static final int MAX_MEMO_SIZE = 10000;
+
+    private final DocumentMatcher delegate;
+    private final Map<MatchKey, Integer> memo = new LinkedHashMap<MatchKey, Integer>(16,
+        0.75f, true) // guarded by itself
+    {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<MatchKey, Integer> eldest)
+        {
+            return size() > MAX_MEMO_SIZE;
+        }
+    };
+
+    /**
+     * Constructor. Delegates to the {@link DefaultDocumentMatcher}.
+     */
+    public CachingDocumentMatcher()
+    {
+        this(DefaultDocumentMatcher.INSTANCE);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param delegate not <code>null</code>
+     */
+    public CachingDocumentMatcher(DocumentMatcher delegate)
+    {
+        this.delegate = Objects.requireNonNull(delegate);
+    }
+
+    @Override
+    public int match(DocumentFilter filter, URI documentUri, String documentLanguageId)
+    {
+        return delegate.match(filter, documentUri, documentLanguageId);
+    }
+
+    @Override
+    public int match(Iterable<DocumentFilter> selector, URI documentUri, String documentLanguageId)
+    {
+        if (selector == null)
+            return 0;
+
+        MatchKey key = new MatchKey(selector, documentUri, documentLanguageId);
+        Integer result;
+        synchronized (memo)
+        {
+            result = memo.get(key);
+        }
+        if (result == null)
+        {
+            result = delegate.match(selector, documentUri, documentLanguageId);
+            synchronized (memo)
+            {
+                memo.put(key, result);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean isMatch(Iterable<DocumentFilter> selector, URI documentUri,
+        String documentLanguageId)
+    {
+        return match(selector, documentUri, documentLanguageId) > 0;
+    }
+
+    private static final class MatchKey
+    {
+        private final Iterable<DocumentFilter> selector;
+        private final URI documentUri;
+        private final String documentLanguageId;
+        private final int hashCode;
+
+        MatchKey(Iterable<DocumentFilter> selector, URI documentUri, String documentLanguageId)
+        {
+            this.selector = selector;
+            this.documentUri = documentUri;
+            this.documentLanguageId = documentLanguageId;
+            this.hashCode = Objects.hash(selector, documentUri, documentLanguageId);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof MatchKey))
+                return false;
+            MatchKey other = (MatchKey)obj;
+            return hashCode == other.hashCode && documentUri.equals(other.documentUri)
+                && Objects.equals(documentLanguageId, other.documentLanguageId)
+                && selector.equals(other.selector);
+        }
+    }
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019, 2020 1C-Soft LLC.
+ * Copyright (c) 2019, 2026 1C-Soft LLC.
  *
  * This program and the accompanying materials are made available under
  * the terms of the Eclipse Public License 2.0 which is available at
@@ -13,8 +13,13 @@
 package org.lxtk;
 
 import java.net.URI;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
 import java.nio.file.Path;
+import java.nio.file.PathMatcher;
 import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.lsp4j.DocumentFilter;
 
@@ -34,6 +39,9 @@ public final class DefaultDocumentMatcher
 
     private static final String ASTERISK = "*"; //$NON-NLS-1$
 
+    // compiled glob patterns for the default file system
+    private final Map<String, PathMatcher> globMatchers = new ConcurrentHashMap<>();
+
     @Override
     public int match(DocumentFilter filter, URI documentUri, String documentLanguage)
     {
@@ -74,11 +82,21 @@ public final class DefaultDocumentMatcher
         return result;
     }
 
-    private static boolean matchGlobPattern(String pattern, URI uri)
+    private boolean matchGlobPattern(String pattern, URI uri)
     {
         Path path = Paths.get(uri);
-        return path.getFileSystem().getPathMatcher("glob:" //$NON-NLS-1$
-            + pattern).matches(path);
+        FileSystem fileSystem = path.getFileSystem();
+        PathMatcher matcher;
+        if (fileSystem == FileSystems.getDefault())
+            matcher = globMatchers.computeIfAbsent(pattern, p -> newGlobMatcher(fileSystem, p));
+        else
+            matcher = newGlobMatcher(fileSystem, pattern);
+        return matcher.matches(path);
+    }
+
+    private static PathMatcher newGlobMatcher(FileSystem fileSystem, String pattern)
+    {
+        return fileSystem.getPathMatcher("glob:" + pattern); //$NON-NLS-1$
     }
 
     private DefaultDocumentMatcher()
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019, 2021 1C-Soft LLC.
+ * Copyright (c) 2019, 2026 1C-Soft LLC.
  *
  * This program and the accompanying materials are made available under
  * the terms of the Eclipse Public License 2.0 which is available at
@@ -36,6 +36,7 @@ import org.lxtk.util.UriUtil.Normalization;
 public class DefaultDocumentService
     implements DocumentService
 {
+    private final CachingDocumentMatcher documentMatcher = new CachingDocumentMatcher();
     private final Map<URI, TextDocument> textDocuments = new ConcurrentHashMap<>();
     private final EventEmitter<TextDocument> onDidAddTextDocument = new EventEmitter<>();
     private final EventEmitter<TextDocument> onDidRemoveTextDocument = new EventEmitter<>();
@@ -44,6 +45,18 @@ public class DefaultDocumentService
     private final EventEmitter<TextDocumentChangeEvent> onDidChangeTextDocument =
         new EventEmitter<>();
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation returns a {@link CachingDocumentMatcher}.
+     * </p>
+     */
+    @Override
+    public DocumentMatcher getDocumentMatcher()
+    {
+        return documentMatcher;
+    }
+
     @Override
     public Disposable addTextDocument(TextDocument document)
     {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019, 2022 1C-Soft LLC.
+ * Copyright (c) 2019, 2026 1C-Soft LLC.
  *
  * This program and the accompanying materials are made available under
  * the terms of the Eclipse Public License 2.0 which is available at
@@ -84,6 +84,7 @@ import org.lxtk.util.Registry;
 public class DefaultLanguageService
     implements LanguageService
 {
+    private final CachingDocumentMatcher documentMatcher = new CachingDocumentMatcher();
     private final Registry<CallHierarchyProvider> callHierarchyProviders = newRegistry();
     private final Registry<CodeActionProvider> codeActionProviders = newRegistry();
     private final Registry<CodeLensProvider> codeLensProviders = newRegistry();
@@ -109,6 +110,18 @@ public class DefaultLanguageService
     private final Registry<TypeHierarchyProvider> typeHierarchyProviders = newRegistry();
     private final Registry<WorkspaceSymbolProvider> workspaceSymbolProviders = newRegistry();
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation returns a {@link CachingDocumentMatcher}.
+     * </p>
+     */
+    @Override
+    public DocumentMatcher getDocumentMatcher()
+    {
+        return documentMatcher;
+    }
+
     @Override
     public CallHierarchyCapabilities getCallHierarchyCapabilities()
     {
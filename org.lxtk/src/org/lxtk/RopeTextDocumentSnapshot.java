@@ -0,0 +1,300 @@
+/*******************************************************************************
+ * Copyright (c) 2026 1C-Soft LLC.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Vladimir Piskarev (1C) - initial API and implementation
+ *******************************************************************************/
+package org.lxtk;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+
+/**
+ * An implementation of the {@link TextDocumentSnapshot} interface that is
+ * backed by a persistent rope. Snapshots derived from one another via
+ * {@link #replace(int, int, int, String)} share the unchanged parts of their
+ * text, so deriving a snapshot takes time and space that are logarithmic
+ * in the length of the text rather than linear. The text is turned into
+ * a <code>String</code> only on the first call to {@link #getText()}.
+ * <p>
+ * This implementation is thread-safe.
+ * </p>
+ */
+public final class RopeTextDocumentSnapshot
+    implements TextDocumentSnapshot
+{
+    private static final int MAX_LEAF_LENGTH = 1024;
+
+    private final TextDocument document;
+    private final int version;
+    private final Node root;
+    private volatile String text;
+
+    /**
+     * Constructor.
+     *
+     * @param document the snapshot's document (not <code>null</code>)
+     * @param version the snapshot's version (non-negative)
+     * @param text the snapshot's text (not <code>null</code>)
+     */
+    public RopeTextDocumentSnapshot(TextDocument document, int version, String text)
+    {
+        this(document, version, build(Objects.requireNonNull(text), 0, text.length()));
+        this.text = text;
+    }
+
+    private RopeTextDocumentSnapshot(TextDocument document, int version, Node root)
+    {
+        this.document = Objects.requireNonNull(document);
+        if (version < 0)
+            throw new IllegalArgumentException();
+        this.version = version;
+        this.root = root;
+    }
+
+    /**
+     * Returns a new snapshot of the same document with the given version
+     * and the text obtained by replacing the specified range of this snapshot's
+     * text with the given string. The returned snapshot shares the unchanged
+     * parts of the text with this snapshot.
+     *
+     * @param version the new snapshot's version (non-negative)
+     * @param offset the offset of the range to replace (non-negative)
+     * @param length the length of the range to replace (non-negative)
+     * @param replacement the replacement string (not <code>null</code>)
+     * @return the new snapshot (never <code>null</code>)
+     * @throws IndexOutOfBoundsException if the specified range is not
+     *  within this snapshot's text
+     */
+    public RopeTextDocumentSnapshot replace(int version, int offset, int length,
+        String replacement)
+    {
+        Objects.checkFromIndexSize(offset, length, root.length);
+        Objects.requireNonNull(replacement);
+        Node[] head = split(root, offset);
+        Node[] tail = split(head[1], length);
+        Node result = concat(concat(head[0], build(replacement, 0, replacement.length())),
+            tail[1]);
+        return new RopeTextDocumentSnapshot(document, version, result);
+    }
+
+    /**
+     * Returns the length of the snapshot's text. This method does not need
+     * to {@link #getText() materialize} the text.
+     *
+     * @return the length of the snapshot's text
+     */
+    public int getLength()
+    {
+        return root.length;
+    }
+
+    /*
+     * Returns the height of the rope; the rope is balanced if the height
+     * is logarithmic in the number of leaves. For testing purposes only.
+     */
+    int getHeight()
+    {
+        return root.height;
+    }
+
+    @Override
+    public TextDocument getDocument()
+    {
+        return document;
+    }
+
+    @Override
+    public int getVersion()
+    {
+        return version;
+    }
+
+    @Override
+    public String getText()
+    {
+        String result = text;
+        if (result == null)
+        {
+            StringBuilder sb = new StringBuilder(root.length);
+            Deque<Node> stack = new ArrayDeque<>();
+            stack.push(root);
+            while (!stack.isEmpty())
+            {
+                Node node = stack.pop();
+                if (node instanceof Leaf)
+                {
+                    Leaf leaf = (Leaf)node;
+                    sb.append(leaf.source, leaf.start, leaf.start + leaf.length);
+                }
+                else
+                {
+                    Branch branch = (Branch)node;
+                    stack.push(branch.right);
+                    stack.push(branch.left);
+                }
+            }
+            text = result = sb.toString();
+        }
+        return result;
+    }
+
+    private static Node build(String source, int start, int end)
+    {
+        int length = end - start;
+        if (length <= MAX_LEAF_LENGTH)
+            return new Leaf(source, start, length);
+        int middle = start + length / 2;
+        if (Character.isHighSurrogate(source.charAt(middle - 1)))
+            middle++; // keep surrogate pairs within a leaf
+        return new Branch(build(source, start, middle), build(source, middle, end));
+    }
+
+    /*
+     * Returns a pair of nodes such that the first node contains the given number
+     * of leading characters of the given node and the second node contains
+     * the remaining characters.
+     */
+    private static Node[] split(Node node, int offset)
+    {
+        if (offset == 0)
+            return new Node[] { Leaf.EMPTY, node };
+        if (offset == node.length)
+            return new Node[] { node, Leaf.EMPTY };
+        if (node instanceof Leaf)
+        {
+            Leaf leaf = (Leaf)node;
+            return new Node[] { new Leaf(leaf.source, leaf.start, offset),
+                new Leaf(leaf.source, leaf.start + offset, leaf.length - offset) };
+        }
+        Branch branch = (Branch)node;
+        int leftLength = branch.left.length;
+        if (offset < leftLength)
+        {
+            Node[] pair = split(branch.left, offset);
+            return new Node[] { pair[0], concat(pair[1], branch.right) };
+        }
+        if (offset > leftLength)
+        {
+            Node[] pair = split(branch.right, offset - leftLength);
+            return new Node[] { concat(branch.left, pair[0]), pair[1] };
+        }
+        return new Node[] { branch.left, branch.right };
+    }
+
+    /*
+     * Concatenates the given nodes into a height-balanced node. This is the
+     * AVL join without a middle key, which runs in time proportional to
+     * the difference in heights of the given nodes.
+     */
+    private static Node concat(Node left, Node right)
+    {
+        if (left.length == 0)
+            return right;
+        if (right.length == 0)
+            return left;
+        if (left instanceof Leaf && right instanceof Leaf
+            && left.length + right.length <= MAX_LEAF_LENGTH)
+        {
+            return ((Leaf)left).append((Leaf)right);
+        }
+        if (left.height > right.height + 1)
+            return concatRight((Branch)left, right);
+        if (right.height > left.height + 1)
+            return concatLeft(left, (Branch)right);
+        return new Branch(left, right);
+    }
+
+    private static Node concatRight(Branch left, Node right)
+    {
+        Node node = concat(left.right, right);
+        if (node.height <= left.left.height + 1)
+            return new Branch(left.left, node);
+        // node.height == left.left.height + 2, so node is a branch
+        Branch branch = (Branch)node;
+        if (branch.left.height > branch.right.height)
+            branch = rotateRight(branch);
+        return rotateLeft(new Branch(left.left, branch));
+    }
+
+    private static Node concatLeft(Node left, Branch right)
+    {
+        Node node = concat(left, right.left);
+        if (node.height <= right.right.height + 1)
+            return new Branch(node, right.right);
+        // node.height == right.right.height + 2, so node is a branch
+        Branch branch = (Branch)node;
+        if (branch.right.height > branch.left.height)
+            branch = rotateLeft(branch);
+        return rotateRight(new Branch(branch, right.right));
+    }
+
+    private static Branch rotateLeft(Branch node)
+    {
+        Branch right = (Branch)node.right;
+        return new Branch(new Branch(node.left, right.left), right.right);
+    }
+
+    private static Branch rotateRight(Branch node)
+    {
+        Branch left = (Branch)node.left;
+        return new Branch(left.left, new Branch(left.right, node.right));
+    }
+
+    private abstract static class Node
+    {
+        final int length;
+        final int height;
+
+        Node(int length, int height)
+        {
+            this.length = length;
+            this.height = height;
+        }
+    }
+
+    private static final class Leaf
+        extends Node
+    {
+        static final Leaf EMPTY = new Leaf("", 0, 0); //$NON-NLS-1$
+
+        final String source;
+        final int start;
+
+        Leaf(String source, int start, int length)
+        {
+            super(length, 0);
+            this.source = source;
+            this.start = start;
+        }
+
+        Leaf append(Leaf other)
+        {
+            StringBuilder sb = new StringBuilder(length + other.length);
+            sb.append(source, start, start + length);
+            sb.append(other.source, other.start, other.start + other.length);
+            return new Leaf(sb.toString(), 0, sb.length());
+        }
+    }
+
+    private static final class Branch
+        extends Node
+    {
+        final Node left;
+        final Node right;
+
+        Branch(Node left, Node right)
+        {
+            super(left.length + right.length, Math.max(left.height, right.height) + 1);
+            this.left = left;
+            this.right = right;
+        }
+    }
+}
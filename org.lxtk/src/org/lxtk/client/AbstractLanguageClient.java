@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019, 2022 1C-Soft LLC.
+ * Copyright (c) 2019, 2026 1C-Soft LLC.
  *
  * This program and the accompanying materials are made available under
  * the terms of the Eclipse Public License 2.0 which is available at
@@ -12,6 +12,7 @@
  *******************************************************************************/
 package org.lxtk.client;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -69,6 +70,8 @@ public abstract class AbstractLanguageClient<S extends LanguageServer>
     private final Map<String, DynamicFeature<? super S>> dynamicFeatures = new HashMap<>();
     private final EventEmitter<Void> onRefreshSemanticTokens = new EventEmitter<>();
     private final EventEmitter<Void> onRefreshDiagnostics = new EventEmitter<>();
+    private final RequestCoalescer requestCoalescer = new RequestCoalescer();
+    private final List<Disposable> subscriptions = new ArrayList<>();
     private S languageServer;
     private ServerInfo serverInfo;
     private List<DocumentFilter> documentSelector;
@@ -105,6 +108,10 @@ public abstract class AbstractLanguageClient<S extends LanguageServer>
                 for (String method : methods)
                     dynamicFeatures.put(method, dynamicFeature);
             }
+            if (feature instanceof TextDocumentSyncFeature)
+                subscriptions.add(((TextDocumentSyncFeature)feature).onDidFlushPendingChange()
+                    .subscribe(event -> requestCoalescer.invalidate(
+                        event.getDocument().getUri())));
         }
     }
 
@@ -183,6 +190,18 @@ public abstract class AbstractLanguageClient<S extends LanguageServer>
         return onRefreshDiagnostics;
     }
 
+    /**
+     * Returns the request coalescer of this client. Requests sent to the server
+     * by the client's features are coalesced as specified by the returned object,
+     * which also provides hit/miss counters.
+     *
+     * @return the request coalescer (never <code>null</code>)
+     */
+    public final RequestCoalescer getRequestCoalescer()
+    {
+        return requestCoalescer;
+    }
+
     @Override
     public void fillInitializeParams(InitializeParams params)
     {
@@ -208,6 +227,8 @@ public abstract class AbstractLanguageClient<S extends LanguageServer>
     @Override
     public Endpoint adviseServerEndpoint(Endpoint endpoint)
     {
+        // the coalescer must see requests after pending changes have been flushed
+        endpoint = requestCoalescer.wrap(endpoint);
         for (Feature<? super S> feature : featureSet)
         {
             endpoint = feature.adviseServerEndpoint(endpoint);
@@ -339,6 +360,8 @@ public abstract class AbstractLanguageClient<S extends LanguageServer>
     @Override
     public void dispose()
     {
+        Disposable.disposeAll(subscriptions);
+        requestCoalescer.invalidate();
         Disposable.disposeAll(featureSet);
     }
 
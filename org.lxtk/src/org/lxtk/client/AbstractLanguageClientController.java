@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019, 2020 1C-Soft LLC.
+ * Copyright (c) 2019, 2026 1C-Soft LLC.
  *
  * This program and the accompanying materials are made available under
  * the terms of the Eclipse Public License 2.0 which is available at
@@ -15,13 +15,18 @@ package org.lxtk.client;
 import java.time.Duration;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.function.BooleanSupplier;
+import java.util.function.Function;
 
 import org.eclipse.lsp4j.ClientCapabilities;
 import org.eclipse.lsp4j.DocumentFilter;
@@ -29,13 +34,23 @@ import org.eclipse.lsp4j.InitializeParams;
 import org.eclipse.lsp4j.InitializeResult;
 import org.eclipse.lsp4j.InitializedParams;
 import org.eclipse.lsp4j.jsonrpc.Endpoint;
+import org.eclipse.lsp4j.jsonrpc.MessageConsumer;
+import org.eclipse.lsp4j.jsonrpc.RemoteEndpoint;
+import org.eclipse.lsp4j.jsonrpc.messages.Message;
+import org.eclipse.lsp4j.jsonrpc.messages.RequestMessage;
+import org.eclipse.lsp4j.jsonrpc.messages.ResponseMessage;
 import org.eclipse.lsp4j.jsonrpc.services.ServiceEndpoints;
 import org.eclipse.lsp4j.services.LanguageServer;
+import org.lxtk.DocumentService;
+import org.lxtk.TextDocument;
 import org.lxtk.jsonrpc.JsonRpcConnection;
 import org.lxtk.jsonrpc.JsonRpcConnectionFactory;
+import org.lxtk.jsonrpc.JsonRpcMetrics;
+import org.lxtk.util.Disposable;
 import org.lxtk.util.Policy;
 import org.lxtk.util.SafeRun;
 import org.lxtk.util.connect.AbstractConnectable;
+import org.lxtk.util.connect.Connectable;
 
 /**
  * Provides API and partial implementation for controlling a language client
@@ -51,6 +66,78 @@ public abstract class AbstractLanguageClientController<S extends LanguageServer>
 {
     private BooleanSupplier autoReconnect =
         Policy.upTo(5).in(Duration.ofSeconds(180)).thenReset()::check; // like in VS Code
+    private JsonRpcMetrics metrics; // guarded by this
+    private Disposable metricsRegistration; // guarded by this
+    private LazyActivation lazyActivation; // guarded by this
+
+    @Override
+    public void dispose()
+    {
+        synchronized (this)
+        {
+            if (lazyActivation != null)
+                lazyActivation.dispose();
+        }
+
+        super.dispose();
+
+        synchronized (this)
+        {
+            if (metricsRegistration != null)
+            {
+                metricsRegistration.dispose();
+                metricsRegistration = null;
+            }
+        }
+    }
+
+    /**
+     * Enables lazy activation of this controller. While lazy activation is enabled,
+     * the controller {@link #connect() connects} itself when a text document matching
+     * the {@link #getDocumentSelector() document selector} is added to the given
+     * document service (or if such a document is already present at the time of the
+     * call), and {@link #disconnect() disconnects} itself once the connection has been
+     * idle for the given period, i.e. there have been no text documents matching the
+     * document selector and no messages exchanged with the server, and there have
+     * been no requests in flight.
+     * <p>
+     * On resume, the currently open documents are synchronized with the server
+     * by a new instance of {@link TextDocumentSyncFeature} as part of the regular
+     * initialization of the {@link #getLanguageClient() language client}, provided
+     * that the feature is created along with the language client.
+     * </p>
+     * <p>
+     * The controller does not activate itself while there is an {@link
+     * #getErrorMessage() error message} reported by a previous connection attempt;
+     * an explicit call to <code>connect()</code> is required in that case.
+     * Note that the language features provided by the server (including those
+     * that are not tied to text documents, such as workspace symbols) are not
+     * available while the controller is disconnected.
+     * </p>
+     *
+     * @param documentService not <code>null</code>
+     * @param idleTimeout the idle period after which the controller is to
+     *  disconnect itself (a positive duration)
+     * @return a disposable that disables lazy activation (never <code>null</code>).
+     *  Disabling lazy activation does not change the connection state
+     * @throws IllegalStateException if lazy activation is already enabled
+     */
+    public final Disposable enableLazyActivation(DocumentService documentService,
+        Duration idleTimeout)
+    {
+        Objects.requireNonNull(documentService);
+        if (idleTimeout.isNegative() || idleTimeout.isZero())
+            throw new IllegalArgumentException();
+        LazyActivation activation = new LazyActivation(documentService, idleTimeout);
+        synchronized (this)
+        {
+            if (lazyActivation != null)
+                throw new IllegalStateException("Lazy activation is already enabled"); //$NON-NLS-1$
+            lazyActivation = activation;
+        }
+        activation.start();
+        return activation;
+    }
 
     /**
      * Sets the auto-reconnect policy. In case the current connection to the
@@ -78,6 +165,70 @@ public abstract class AbstractLanguageClientController<S extends LanguageServer>
         return autoReconnect.getAsBoolean();
     }
 
+    /**
+     * Returns the JSON-RPC metrics collected for the connections to the server,
+     * or <code>null</code> if {@link #isMetricsEnabled() metrics are disabled}.
+     * The metrics are accumulated across connections, and are registered with JMX
+     * under the {@link #getMetricsName() metrics name}, if any.
+     *
+     * @return the JSON-RPC metrics, or <code>null</code> if metrics are disabled
+     * @see JsonRpcMetrics#getMethodStatistics()
+     */
+    public final synchronized JsonRpcMetrics getMetrics()
+    {
+        if (metrics == null && isMetricsEnabled())
+        {
+            metrics = new JsonRpcMetrics();
+            String name = getMetricsName();
+            if (name != null)
+            {
+                try
+                {
+                    metricsRegistration = metrics.registerMBean(name);
+                }
+                catch (IllegalStateException e)
+                {
+                    log().error("Could not register JSON-RPC metrics with JMX", e); //$NON-NLS-1$
+                }
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * Returns whether JSON-RPC metrics are to be collected for the connections
+     * to the server.
+     * <p>
+     * Default implementation returns <code>false</code>.
+     * Subclasses may override.
+     * </p>
+     *
+     * @return <code>true</code> if metrics are to be collected,
+     *  and <code>false</code> otherwise
+     * @see #getMetrics()
+     */
+    protected boolean isMetricsEnabled()
+    {
+        return false;
+    }
+
+    /**
+     * Returns the name under which the JSON-RPC metrics are to be registered
+     * with JMX. Called only if {@link #isMetricsEnabled()} returns <code>true</code>.
+     * <p>
+     * Default implementation returns the string representation of this controller.
+     * Subclasses may override, e.g. to return a name that identifies the server.
+     * </p>
+     *
+     * @return the metrics name, or <code>null</code> if the metrics are not to be
+     *  registered with JMX
+     * @see JsonRpcMetrics#registerMBean(String)
+     */
+    protected String getMetricsName()
+    {
+        return toString();
+    }
+
     /**
      * Returns the timeout for the 'initialize' request.
      *
@@ -182,8 +333,24 @@ public abstract class AbstractLanguageClientController<S extends LanguageServer>
                     ExecutorService messageListener = Executors.newSingleThreadExecutor();
                     rollback.add(() -> messageListener.shutdown());
 
+                    JsonRpcMetrics metrics = getMetrics();
+                    JsonRpcMetrics.ConnectionTracker tracker =
+                        metrics != null ? metrics.newConnectionTracker() : null;
+                    if (tracker != null)
+                        rollback.add(() -> tracker.dispose());
+
+                    Function<MessageConsumer, MessageConsumer> wrapper = tracker;
+                    ActivityTracker activityTracker = newActivityTracker();
+                    if (activityTracker != null)
+                    {
+                        // the direction must be determined by the original consumer
+                        wrapper = consumer -> activityTracker.wrap(
+                            tracker != null ? tracker.apply(consumer) : consumer,
+                            consumer instanceof RemoteEndpoint);
+                    }
+
                     JsonRpcConnection<S> connection = getConnectionFactory().newConnection(client,
-                        getServerInterface(), messageListener, null);
+                        getServerInterface(), messageListener, wrapper);
                     rollback.add(() -> connection.dispose());
 
                     S server = connection.getRemoteProxy();
@@ -245,4 +412,192 @@ public abstract class AbstractLanguageClientController<S extends LanguageServer>
             }
         };
     }
+
+    private synchronized ActivityTracker newActivityTracker()
+    {
+        if (lazyActivation == null)
+            return null;
+        return lazyActivation.activityTracker = new ActivityTracker();
+    }
+
+    private class LazyActivation
+        implements Disposable
+    {
+        private final DocumentService documentService;
+        private final long idleTimeout; // ns
+        private final ScheduledExecutorService scheduler;
+        private Disposable subscriptions; // guarded by controller
+        private ScheduledFuture<?> idleCheck; // guarded by controller
+        volatile ActivityTracker activityTracker;
+
+        LazyActivation(DocumentService documentService, Duration idleTimeout)
+        {
+            this.documentService = documentService;
+            this.idleTimeout = idleTimeout.toNanos();
+            scheduler = Executors.newSingleThreadScheduledExecutor(r ->
+            {
+                Thread thread = new Thread(r, "LXTK Idle Shutdown"); //$NON-NLS-1$
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        void start()
+        {
+            Disposable onDidAdd = documentService.onDidAddTextDocument().subscribe(document ->
+            {
+                if (isMatch(document))
+                    activate();
+            });
+            Disposable onDidRemove =
+                documentService.onDidRemoveTextDocument().subscribe(document ->
+                {
+                    if (isMatch(document))
+                        scheduleIdleCheck(idleTimeout);
+                });
+            Disposable onDidChangeState = onDidChangeConnectionState().subscribe(c ->
+            {
+                if (c.getConnectionState() == Connectable.ConnectionState.CONNECTED)
+                    scheduleIdleCheck(idleTimeout);
+            });
+            Disposable subscriptions =
+                () -> Disposable.disposeAll(onDidAdd, onDidRemove, onDidChangeState);
+            synchronized (AbstractLanguageClientController.this)
+            {
+                if (lazyActivation != this)
+                {
+                    subscriptions.dispose();
+                    return;
+                }
+                this.subscriptions = subscriptions;
+            }
+
+            if (hasMatchingDocuments())
+                activate();
+            else
+                scheduleIdleCheck(idleTimeout);
+        }
+
+        @Override
+        public void dispose()
+        {
+            synchronized (AbstractLanguageClientController.this)
+            {
+                if (lazyActivation != this)
+                    return;
+                lazyActivation = null;
+                if (subscriptions != null)
+                    subscriptions.dispose();
+                if (idleCheck != null)
+                    idleCheck.cancel(false);
+                scheduler.shutdown();
+            }
+        }
+
+        private void activate()
+        {
+            synchronized (AbstractLanguageClientController.this)
+            {
+                if (lazyActivation != this || getErrorMessage() != null)
+                    return;
+                connect();
+            }
+        }
+
+        private void scheduleIdleCheck(long delay)
+        {
+            synchronized (AbstractLanguageClientController.this)
+            {
+                if (lazyActivation != this)
+                    return;
+                if (idleCheck != null)
+                    idleCheck.cancel(false);
+                idleCheck = scheduler.schedule(this::checkIdle, delay, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        private void checkIdle()
+        {
+            if (getConnectionState() != Connectable.ConnectionState.CONNECTED
+                || hasMatchingDocuments())
+                return; // will be checked again when the state changes or a document is removed
+
+            ActivityTracker tracker = activityTracker;
+            long delay = tracker == null ? 0 : tracker.getRemainingIdleTime(idleTimeout);
+            if (delay > 0)
+            {
+                scheduleIdleCheck(delay);
+                return;
+            }
+            synchronized (AbstractLanguageClientController.this)
+            {
+                if (lazyActivation != this)
+                    return;
+                log().info("Disconnecting after being idle"); //$NON-NLS-1$
+                disconnect();
+            }
+        }
+
+        private boolean hasMatchingDocuments()
+        {
+            for (TextDocument document : documentService.getTextDocuments())
+            {
+                if (isMatch(document))
+                    return true;
+            }
+            return false;
+        }
+
+        private boolean isMatch(TextDocument document)
+        {
+            List<DocumentFilter> documentSelector = getDocumentSelector();
+            return documentSelector != null && documentService.getDocumentMatcher().isMatch(
+                documentSelector, document.getUri(), document.getLanguageId());
+        }
+    }
+
+    /*
+     * Observes the messages of a connection to determine whether it is idle.
+     */
+    private static class ActivityTracker
+    {
+        // requests sent and received, respectively, by their id
+        private final Set<String> outgoingRequests = ConcurrentHashMap.newKeySet();
+        private final Set<String> incomingRequests = ConcurrentHashMap.newKeySet();
+        private volatile long lastActivityTime = System.nanoTime();
+
+        MessageConsumer wrap(MessageConsumer consumer, boolean incoming)
+        {
+            return message ->
+            {
+                record(message, incoming);
+                consumer.consume(message);
+            };
+        }
+
+        long getRemainingIdleTime(long idleTimeout)
+        {
+            if (!outgoingRequests.isEmpty() || !incomingRequests.isEmpty())
+                return idleTimeout;
+            return lastActivityTime + idleTimeout - System.nanoTime();
+        }
+
+        private void record(Message message, boolean incoming)
+        {
+            lastActivityTime = System.nanoTime();
+            if (message instanceof RequestMessage)
+            {
+                String id = ((RequestMessage)message).getId();
+                if (id != null)
+                    (incoming ? incomingRequests : outgoingRequests).add(id);
+            }
+            else if (message instanceof ResponseMessage)
+            {
+                String id = ((ResponseMessage)message).getId();
+                // a response is received for an outgoing request and vice versa
+                if (id != null)
+                    (incoming ? outgoingRequests : incomingRequests).remove(id);
+            }
+        }
+    }
 }
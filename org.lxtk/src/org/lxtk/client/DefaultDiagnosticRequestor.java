@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2022 1C-Soft LLC.
+ * Copyright (c) 2022, 2026 1C-Soft LLC.
  *
  * This program and the accompanying materials are made available under
  * the terms of the Eclipse Public License 2.0 which is available at
@@ -24,10 +24,12 @@ import java.util.function.BiConsumer;
 import org.eclipse.lsp4j.DiagnosticServerCancellationData;
 import org.eclipse.lsp4j.DocumentDiagnosticParams;
 import org.eclipse.lsp4j.DocumentDiagnosticReport;
+import org.eclipse.lsp4j.FullDocumentDiagnosticReport;
 import org.eclipse.lsp4j.RelatedFullDocumentDiagnosticReport;
 import org.eclipse.lsp4j.RelatedUnchangedDocumentDiagnosticReport;
 import org.eclipse.lsp4j.TextDocumentIdentifier;
 import org.eclipse.lsp4j.jsonrpc.ResponseErrorException;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
 import org.eclipse.lsp4j.jsonrpc.messages.ResponseError;
 import org.eclipse.lsp4j.jsonrpc.messages.ResponseErrorCode;
 import org.lxtk.DefaultDocumentMatcher;
@@ -57,6 +59,7 @@ public final class DefaultDiagnosticRequestor
     private final Log log;
     private final Map<URI, SequenceData> sequences = new HashMap<>();
     private DocumentMatcher documentMatcher = DefaultDocumentMatcher.INSTANCE;
+    private DiagnosticResultStore resultStore;
 
     /**
      * Constructor.
@@ -83,11 +86,48 @@ public final class DefaultDiagnosticRequestor
         this.documentMatcher = Objects.requireNonNull(documentMatcher);
     }
 
+    /**
+     * Sets an optional store for the last full diagnostic reports. The store allows this
+     * requestor to report the previous result id for a document to the language server
+     * across pull sequences and sessions, so that the server can respond with an
+     * <i>unchanged</i> report if the diagnostics for the document did not change.
+     * When the server responds with an unchanged report for a document whose diagnostics
+     * have not yet been passed to the diagnostic consumer in the current pull sequence,
+     * the stored report is passed to the consumer instead. The store is flushed when
+     * this requestor is disposed.
+     * <p>
+     * The store should be set before the first document diagnostic pull is triggered.
+     * It may be shared with the {@link DefaultWorkspaceDiagnosticRequestor} for the same
+     * diagnostic provider, but not with requestors for other diagnostic providers.
+     * By default, no store is set.
+     * </p>
+     *
+     * @param resultStore a diagnostic result store
+     */
+    public synchronized void setResultStore(DiagnosticResultStore resultStore)
+    {
+        this.resultStore = resultStore;
+    }
+
     @Override
     public synchronized void dispose()
     {
         try
         {
+            if (resultStore != null)
+            {
+                try
+                {
+                    resultStore.flush();
+                }
+                catch (Throwable t)
+                {
+                    log.error(Messages.getString(
+                        "DefaultDiagnosticRequestor.Error.ResultStoreFlushFailed"), //$NON-NLS-1$
+                        t);
+                }
+                resultStore = null;
+            }
             for (SequenceData sequence : sequences.values())
             {
                 RequestData request = sequence.request;
@@ -152,7 +192,7 @@ public final class DefaultDiagnosticRequestor
         SequenceData sequence = sequences.computeIfAbsent(documentUri,
             k -> documentMatcher.isMatch(
                 diagnosticProvider.getRegistrationOptions().getDocumentSelector(), documentUri,
-                document.getLanguageId()) ? new SequenceData() : null);
+                document.getLanguageId()) ? newSequenceData(documentUri) : null);
         if (sequence == null)
             return;
 
@@ -172,6 +212,19 @@ public final class DefaultDiagnosticRequestor
         }
     }
 
+    private SequenceData newSequenceData(URI documentUri)
+    {
+        SequenceData sequence = new SequenceData();
+        if (resultStore != null)
+        {
+            FullDocumentDiagnosticReport stored =
+                resultStore.get(DocumentUri.convert(documentUri));
+            if (stored != null)
+                sequence.resultId = stored.getResultId();
+        }
+        return sequence;
+    }
+
     private synchronized void triggerPullRequest(URI documentUri, SequenceData sequence)
     {
         RequestData request = sequence.request;
@@ -184,9 +237,15 @@ public final class DefaultDiagnosticRequestor
         params.setIdentifier(diagnosticProvider.getRegistrationOptions().getIdentifier());
         params.setPreviousResultId(sequence.resultId);
 
+        DiagnosticPullEvent event = new DiagnosticPullEvent();
+        event.begin();
+
         request.future = diagnosticProvider.getDocumentDiagnostics(params);
         request.future.whenCompleteAsync((DocumentDiagnosticReport result, Throwable e) ->
         {
+            if (event.shouldCommit())
+                commit(event, params, result, e);
+
             try
             {
                 synchronized (DefaultDiagnosticRequestor.this)
@@ -205,6 +264,10 @@ public final class DefaultDiagnosticRequestor
                                 {
                                     diagnosticConsumer.accept(documentUri, report);
                                     sequence.resultId = report.getResultId();
+                                    sequence.reported = true;
+                                    if (resultStore != null)
+                                        resultStore.put(DocumentUri.convert(documentUri),
+                                            report);
                                 }
                                 catch (Throwable t)
                                 {
@@ -217,6 +280,19 @@ public final class DefaultDiagnosticRequestor
                             {
                                 RelatedUnchangedDocumentDiagnosticReport report = result.getRight();
                                 sequence.resultId = report.getResultId();
+                                if (resultStore != null && !sequence.reported)
+                                {
+                                    try
+                                    {
+                                        reportStoredDiagnostics(documentUri, sequence);
+                                    }
+                                    catch (Throwable t)
+                                    {
+                                        log.error(MessageFormat.format(Messages.getString(
+                                            "DefaultDiagnosticRequestor.Error.AcceptingDiagnosticsFailed"), //$NON-NLS-1$
+                                            documentUri), t);
+                                    }
+                                }
                             }
                         }
                         else if (e != null)
@@ -278,6 +354,54 @@ public final class DefaultDiagnosticRequestor
         });
     }
 
+    private void reportStoredDiagnostics(URI documentUri, SequenceData sequence)
+    {
+        FullDocumentDiagnosticReport stored = resultStore.get(DocumentUri.convert(documentUri));
+        if (stored == null || !stored.getResultId().equals(sequence.resultId))
+        {
+            // nothing to report; request a full report next time
+            sequence.resultId = null;
+            return;
+        }
+        RelatedFullDocumentDiagnosticReport report =
+            new RelatedFullDocumentDiagnosticReport(stored.getItems());
+        report.setResultId(stored.getResultId());
+        diagnosticConsumer.accept(documentUri, report);
+        sequence.reported = true;
+    }
+
+    private static void commit(DiagnosticPullEvent event, DocumentDiagnosticParams params,
+        DocumentDiagnosticReport result, Throwable e)
+    {
+        event.uri = params.getTextDocument().getUri();
+        event.identifier = params.getIdentifier();
+        if (e != null)
+            event.outcome = DiagnosticPullEvent.outcomeOf(e);
+        else if (result != null && result.isLeft())
+        {
+            RelatedFullDocumentDiagnosticReport report = result.getLeft();
+            event.outcome = DiagnosticPullEvent.FULL;
+            event.reportCount = 1;
+            event.payloadSize = report.getItems().size();
+            if (report.getRelatedDocuments() != null)
+            {
+                for (Either<FullDocumentDiagnosticReport, ?> relatedReport : report
+                    .getRelatedDocuments().values())
+                {
+                    event.reportCount++;
+                    if (relatedReport.isLeft())
+                        event.payloadSize += relatedReport.getLeft().getItems().size();
+                }
+            }
+        }
+        else
+        {
+            event.outcome = DiagnosticPullEvent.UNCHANGED;
+            event.reportCount = result != null ? 1 : 0;
+        }
+        event.commit();
+    }
+
     static DiagnosticServerCancellationData getDiagnosticServerCancellationData(Object data)
     {
         if (data instanceof DiagnosticServerCancellationData)
@@ -302,6 +426,7 @@ public final class DefaultDiagnosticRequestor
     private static class SequenceData
     {
         String resultId;
+        boolean reported; // whether diagnostics have been passed to the consumer
         final RequestData request = new RequestData();
     }
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2022 1C-Soft LLC.
+ * Copyright (c) 2022, 2026 1C-Soft LLC.
  *
  * This program and the accompanying materials are made available under
  * the terms of the Eclipse Public License 2.0 which is available at
@@ -16,9 +16,11 @@ import java.text.MessageFormat;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
@@ -28,6 +30,7 @@ import java.util.function.Consumer;
 import java.util.function.Function;
 
 import org.eclipse.lsp4j.DiagnosticServerCancellationData;
+import org.eclipse.lsp4j.FullDocumentDiagnosticReport;
 import org.eclipse.lsp4j.PreviousResultId;
 import org.eclipse.lsp4j.WorkspaceDiagnosticParams;
 import org.eclipse.lsp4j.WorkspaceDiagnosticReport;
@@ -40,6 +43,7 @@ import org.eclipse.lsp4j.jsonrpc.messages.ResponseError;
 import org.eclipse.lsp4j.jsonrpc.messages.ResponseErrorCode;
 import org.lxtk.AbstractPartialResultProgress;
 import org.lxtk.DiagnosticProvider;
+import org.lxtk.DocumentUri;
 import org.lxtk.PartialResultProgress;
 import org.lxtk.ProgressService;
 import org.lxtk.util.DisposableObject;
@@ -60,9 +64,12 @@ public final class DefaultWorkspaceDiagnosticRequestor
     private final Log log;
     private final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1);
     private final Map<String, String> resultIds = new HashMap<>();
+    // URIs for which diagnostics have been passed to the consumer
+    private final Set<String> reportedUris = new HashSet<>();
     private final RequestData request = new RequestData();
     private AutoRetriggerData autoRetrigger;
     private Function<Throwable, Boolean> errorPolicy;
+    private DiagnosticResultStore resultStore;
 
     /**
      * Constructor.
@@ -123,12 +130,39 @@ public final class DefaultWorkspaceDiagnosticRequestor
         this.errorPolicy = errorPolicy;
     }
 
+    /**
+     * Sets an optional store for the last full diagnostic reports. The store allows this
+     * requestor to report the previous result ids to the language server across sessions,
+     * so that the server can respond with <i>unchanged</i> reports for the documents whose
+     * diagnostics did not change. When the server responds with an unchanged report for
+     * a document whose diagnostics have not yet been passed to the diagnostic consumer,
+     * the stored report is passed to the consumer instead. The store is flushed when
+     * this requestor is disposed.
+     * <p>
+     * The store should be set before the first workspace diagnostic pull is triggered.
+     * It may be shared with the {@link DefaultDiagnosticRequestor} for the same diagnostic
+     * provider, but not with requestors for other diagnostic providers. By default,
+     * no store is set.
+     * </p>
+     *
+     * @param resultStore a diagnostic result store
+     */
+    public synchronized void setResultStore(DiagnosticResultStore resultStore)
+    {
+        this.resultStore = resultStore;
+        if (resultStore != null)
+            resultStore.getResultIds().forEach(resultIds::putIfAbsent);
+    }
+
     @Override
     public synchronized void dispose()
     {
         try
         {
+            flushResultStore();
+            resultStore = null;
             resultIds.clear();
+            reportedUris.clear();
             if (request.future != null)
             {
                 request.retrigger = false;
@@ -214,6 +248,9 @@ public final class DefaultWorkspaceDiagnosticRequestor
                 params.setPartialResultToken(partialResultProgress.getToken());
             }
 
+            DiagnosticPullEvent event = new DiagnosticPullEvent();
+            event.begin();
+
             request.future = diagnosticProvider.getWorkspaceDiagnostics(params);
 
             if (partialResultProgress != null)
@@ -221,6 +258,9 @@ public final class DefaultWorkspaceDiagnosticRequestor
 
             request.future.whenCompleteAsync((WorkspaceDiagnosticReport result, Throwable e) ->
             {
+                if (event.shouldCommit())
+                    commit(event, params, result, e);
+
                 try
                 {
                     synchronized (DefaultWorkspaceDiagnosticRequestor.this)
@@ -319,6 +359,28 @@ public final class DefaultWorkspaceDiagnosticRequestor
         }
     }
 
+    private static void commit(DiagnosticPullEvent event, WorkspaceDiagnosticParams params,
+        WorkspaceDiagnosticReport result, Throwable e)
+    {
+        event.identifier = params.getIdentifier();
+        if (e != null)
+            event.outcome = DiagnosticPullEvent.outcomeOf(e);
+        else
+        {
+            event.outcome = DiagnosticPullEvent.FULL;
+            if (result != null)
+            {
+                for (WorkspaceDocumentDiagnosticReport item : result.getItems())
+                {
+                    event.reportCount++;
+                    if (item.isLeft())
+                        event.payloadSize += item.getLeft().getItems().size();
+                }
+            }
+        }
+        event.commit();
+    }
+
     private void processWorkspaceDiagnosticReport(List<WorkspaceDocumentDiagnosticReport> items)
     {
         for (WorkspaceDocumentDiagnosticReport item : items)
@@ -329,7 +391,11 @@ public final class DefaultWorkspaceDiagnosticRequestor
                 try
                 {
                     diagnosticConsumer.accept(report);
-                    resultIds.put(report.getUri(), report.getResultId());
+                    String uri = normalizeUri(report.getUri());
+                    resultIds.put(uri, report.getResultId());
+                    reportedUris.add(uri);
+                    if (resultStore != null)
+                        resultStore.put(uri, report);
                 }
                 catch (Throwable t)
                 {
@@ -342,11 +408,75 @@ public final class DefaultWorkspaceDiagnosticRequestor
             else if (item.isRight())
             {
                 WorkspaceUnchangedDocumentDiagnosticReport report = item.getRight();
-                resultIds.put(report.getUri(), report.getResultId());
+                String uri = normalizeUri(report.getUri());
+                resultIds.put(uri, report.getResultId());
+                if (resultStore != null && !reportedUris.contains(uri))
+                {
+                    try
+                    {
+                        reportStoredDiagnostics(uri, report);
+                    }
+                    catch (Throwable t)
+                    {
+                        log.error(MessageFormat.format(
+                            Messages.getString(
+                                "DefaultWorkspaceDiagnosticRequestor.Error.AcceptingDiagnosticsFailed"), //$NON-NLS-1$
+                            report.getUri()), t);
+                    }
+                }
             }
         }
     }
 
+    private void reportStoredDiagnostics(String uri,
+        WorkspaceUnchangedDocumentDiagnosticReport unchanged)
+    {
+        FullDocumentDiagnosticReport stored = resultStore.get(uri);
+        if (stored == null || !stored.getResultId().equals(unchanged.getResultId()))
+        {
+            // nothing to report; request a full report next time
+            resultIds.remove(uri);
+            return;
+        }
+        WorkspaceFullDocumentDiagnosticReport report = new WorkspaceFullDocumentDiagnosticReport(
+            stored.getItems(), unchanged.getUri(), unchanged.getVersion());
+        report.setResultId(stored.getResultId());
+        diagnosticConsumer.accept(report);
+        reportedUris.add(uri);
+    }
+
+    /*
+     * Returns the given document URI in the form used by DefaultDiagnosticRequestor,
+     * so that the reports for a document have the same key in a shared result store.
+     */
+    private static String normalizeUri(String uri)
+    {
+        try
+        {
+            return DocumentUri.convert(DocumentUri.convert(uri));
+        }
+        catch (IllegalArgumentException e)
+        {
+            return uri;
+        }
+    }
+
+    private void flushResultStore()
+    {
+        if (resultStore == null)
+            return;
+        try
+        {
+            resultStore.flush();
+        }
+        catch (Throwable t)
+        {
+            log.error(Messages.getString(
+                "DefaultWorkspaceDiagnosticRequestor.Error.ResultStoreFlushFailed"), //$NON-NLS-1$
+                t);
+        }
+    }
+
     private List<PreviousResultId> getPreviousResultIds()
     {
         List<PreviousResultId> previousResultIds = new ArrayList<>();
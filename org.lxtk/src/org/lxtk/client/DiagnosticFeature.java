@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2022 1C-Soft LLC.
+ * Copyright (c) 2022, 2026 1C-Soft LLC.
  *
  * This program and the accompanying materials are made available under
  * the terms of the Eclipse Public License 2.0 which is available at
@@ -12,6 +12,7 @@
  *******************************************************************************/
 package org.lxtk.client;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -59,6 +60,13 @@ import com.google.gson.JsonElement;
 /**
  * Provides support for diagnostic pulls.
  * <p>
+ * Diagnostic pulls for visible documents caused by a change to another document
+ * are debounced for the {@link #setInterFilePullDelay(Duration) inter-file pull
+ * delay}, and the number of concurrent document diagnostic requests is {@link
+ * #setMaxConcurrentPulls(int) capped}; in both cases, the active document
+ * is pulled first.
+ * </p>
+ * <p>
  * This implementation is thread-safe.
  * </p>
  */
@@ -75,6 +83,8 @@ public final class DiagnosticFeature
         WorkspaceDiagnosticRequestor> workspaceDiagnosticRequestorFactory;
     private final EventEmitter<Set<TextDocument>> onRefreshDiagnostics = new EventEmitter<>();
     private final Set<TextDocument> trackedDocuments = new HashSet<>();
+    private final DiagnosticPullScheduler pullScheduler =
+        new DiagnosticPullScheduler(this::triggerInterFilePull, this::logError);
 
     private DocumentMatcher documentMatcher = DefaultDocumentMatcher.INSTANCE;
     private AbstractLanguageClient<? extends LanguageServer> languageClient;
@@ -116,6 +126,30 @@ public final class DiagnosticFeature
         this.documentMatcher = Objects.requireNonNull(documentMatcher);
     }
 
+    /**
+     * Sets the delay for debouncing diagnostic pulls for visible documents
+     * caused by a change to another document. Default value is 1 second.
+     *
+     * @param delay not <code>null</code>
+     */
+    public void setInterFilePullDelay(Duration delay)
+    {
+        pullScheduler.setInterFileDelay(delay);
+    }
+
+    /**
+     * Sets the maximum number of concurrent document diagnostic requests
+     * to the language server. Default value is 4.
+     *
+     * @param max a positive number
+     */
+    public void setMaxConcurrentPulls(int max)
+    {
+        if (max <= 0)
+            throw new IllegalArgumentException();
+        pullScheduler.setMaxConcurrentRequests(max);
+    }
+
     @Override
     public void setLanguageClient(AbstractLanguageClient<? extends LanguageServer> client)
     {
@@ -184,6 +218,7 @@ public final class DiagnosticFeature
             registrations = null;
             pendingRegistrations = null;
             trackedDocuments.clear();
+            pullScheduler.dispose();
         }
     }
 
@@ -332,7 +367,8 @@ public final class DiagnosticFeature
             public CompletableFuture<DocumentDiagnosticReport> getDocumentDiagnostics(
                 DocumentDiagnosticParams params)
             {
-                return languageServer.getTextDocumentService().diagnostic(params);
+                return pullScheduler.submit(params,
+                    languageServer.getTextDocumentService()::diagnostic);
             }
 
             @Override
@@ -387,6 +423,8 @@ public final class DiagnosticFeature
 
     synchronized void cancelDocumentPull(TextDocument document)
     {
+        pullScheduler.cancelInterFilePull(document);
+
         if (trackedDocuments.contains(document))
         {
             List<DiagnosticRequestor> diagnosticRequestors =
@@ -398,6 +436,8 @@ public final class DiagnosticFeature
 
     synchronized void endDocumentPullSequence(TextDocument document)
     {
+        pullScheduler.cancelInterFilePull(document);
+
         if (trackedDocuments.remove(document))
         {
             List<DiagnosticRequestor> diagnosticRequestors =
@@ -407,6 +447,30 @@ public final class DiagnosticFeature
         }
     }
 
+    private synchronized void triggerInterFilePull(List<TextDocument> documents)
+    {
+        UiDocumentService uiDocumentService = uiDocumentServiceFuture.getNow(null);
+        if (uiDocumentService == null || registrations == null)
+            return;
+
+        // the documents may have been hidden or closed in the meantime
+        Set<TextDocument> visibleDocuments =
+            new HashSet<>(uiDocumentService.getVisibleTextDocuments());
+        for (TextDocument document : documents)
+        {
+            if (visibleDocuments.contains(document))
+                triggerDocumentPull(document, TriggeringContexts.INTERFILE_CHANGE);
+        }
+    }
+
+    private void logError(Throwable e)
+    {
+        if (logger != null)
+            logger.accept(e);
+        else // should never happen
+            e.printStackTrace();
+    }
+
     private List<DiagnosticRequestor> getDiagnosticRequestors(TextDocument document,
         boolean createIfNecessary)
     {
@@ -431,6 +495,8 @@ public final class DiagnosticFeature
 
     private Disposable startDiagnosticPull(UiDocumentService uiDocumentService)
     {
+        pullScheduler.setActiveDocumentSupplier(uiDocumentService::getActiveTextDocument);
+
         return SafeRun.runWithResult(rollback ->
         {
             Disposable disposable = uiDocumentService.onDidCloseTextDocument().subscribe(document ->
@@ -440,8 +506,8 @@ public final class DiagnosticFeature
                     endDocumentPullSequence(document);
 
                     // the closed document may had been dirty; update to the saved content
-                    for (TextDocument visibleDocument : uiDocumentService.getVisibleTextDocuments())
-                        triggerDocumentPull(visibleDocument, TriggeringContexts.INTERFILE_CHANGE);
+                    pullScheduler.scheduleInterFilePull(
+                        uiDocumentService.getVisibleTextDocuments());
                 }
             });
             rollback.add(disposable::dispose);
@@ -465,11 +531,15 @@ public final class DiagnosticFeature
                     // the changed document may have been closed in the meantime
                     if (uiDocumentService.getOpenTextDocuments().contains(event.getDocument()))
                     {
+                        // supersedes any pending inter-file pull for the changed document
+                        pullScheduler.cancelInterFilePull(event.getDocument());
                         triggerDocumentPull(event.getDocument(), TriggeringContexts.CONTENT_CHANGE);
 
+                        List<TextDocument> documents = new ArrayList<>();
                         for (TextDocument document : uiDocumentService.getVisibleTextDocuments())
                             if (!document.equals(event.getDocument()))
-                                triggerDocumentPull(document, TriggeringContexts.INTERFILE_CHANGE);
+                                documents.add(document);
+                        pullScheduler.scheduleInterFilePull(documents);
                     }
                 }
             });
@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2026 1C-Soft LLC.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Vladimir Piskarev (1C) - initial API and implementation
+ *******************************************************************************/
+package org.lxtk.client;
+
+import java.util.concurrent.CancellationException;
+
+import org.eclipse.lsp4j.jsonrpc.ResponseErrorException;
+import org.eclipse.lsp4j.jsonrpc.messages.ResponseErrorCode;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A JFR event for a diagnostic pull round in {@link DefaultDiagnosticRequestor}
+ * or {@link DefaultWorkspaceDiagnosticRequestor}, from sending the request
+ * to receiving the response.
+ */
+@Name("org.lxtk.DiagnosticPull")
+@Label("Diagnostic Pull")
+@Category({ "LXTK", "Diagnostics" })
+@StackTrace(false)
+final class DiagnosticPullEvent
+    extends Event
+{
+    static final String FULL = "full"; //$NON-NLS-1$
+    static final String UNCHANGED = "unchanged"; //$NON-NLS-1$
+    static final String CANCELLED = "cancelled"; //$NON-NLS-1$
+    static final String FAILED = "failed"; //$NON-NLS-1$
+
+    @Label("Document URI")
+    @Description("The document URI, or null for a workspace pull")
+    String uri;
+
+    @Label("Identifier")
+    String identifier;
+
+    @Label("Outcome")
+    String outcome;
+
+    @Label("Reports")
+    @Description("The number of document reports received")
+    int reportCount;
+
+    @Label("Payload Size")
+    @Description("The number of diagnostics received")
+    int payloadSize;
+
+    /**
+     * Returns the outcome for the given exception.
+     *
+     * @param e not <code>null</code>
+     * @return the outcome (never <code>null</code>)
+     */
+    static String outcomeOf(Throwable e)
+    {
+        if (e instanceof CancellationException)
+            return CANCELLED;
+        if (e instanceof ResponseErrorException)
+        {
+            int code = ((ResponseErrorException)e).getResponseError().getCode();
+            if (code == ResponseErrorCode.RequestCancelled.getValue()
+                || code == ResponseErrorCode.ServerCancelled.getValue())
+                return CANCELLED;
+        }
+        return FAILED;
+    }
+}
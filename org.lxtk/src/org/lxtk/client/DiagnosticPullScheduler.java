@@ -0,0 +1,294 @@
+/*******************************************************************************
+ * Copyright (c) 2026 1C-Soft LLC.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Vladimir Piskarev (1C) - initial API and implementation
+ *******************************************************************************/
+package org.lxtk.client;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.eclipse.lsp4j.DocumentDiagnosticParams;
+import org.eclipse.lsp4j.DocumentDiagnosticReport;
+import org.lxtk.DocumentUri;
+import org.lxtk.TextDocument;
+import org.lxtk.util.Disposable;
+
+/**
+ * Schedules document diagnostic pulls on behalf of a {@link DiagnosticFeature}.
+ * <ul>
+ * <li>Pulls caused by a change to another document are debounced: they are
+ * collected per document and run together once no such pull has been
+ * scheduled for the inter-file delay, with the active document first.</li>
+ * <li>The number of concurrent document diagnostic requests is capped. Excess
+ * requests are queued and sent as soon as a slot becomes free, the request for
+ * the active document first. A queued request that gets cancelled, e.g. because
+ * a newer version of the document has been flushed, is never sent.</li>
+ * </ul>
+ * <p>
+ * This implementation is thread-safe.
+ * </p>
+ */
+final class DiagnosticPullScheduler
+    implements Disposable
+{
+    private final Consumer<List<TextDocument>> interFilePullCallback;
+    private final Consumer<Throwable> logger;
+    private volatile long interFileDelay = 1000; // ms
+    private volatile int maxConcurrentRequests = 4;
+    private volatile Supplier<TextDocument> activeDocumentSupplier = () -> null;
+    // documents awaiting an inter-file pull, in the order they were scheduled
+    private final Set<TextDocument> interFileDocuments = new LinkedHashSet<>();
+    private ScheduledExecutorService executor;
+    private ScheduledFuture<?> interFilePull;
+    // requests awaiting a free slot, in the order they were submitted
+    private final List<QueuedRequest> queue = new ArrayList<>();
+    private int activeRequestCount;
+    private boolean disposed;
+
+    /**
+     * Constructor.
+     *
+     * @param interFilePullCallback called with the documents for which
+     *  an inter-file pull is due (not <code>null</code>)
+     * @param logger not <code>null</code>
+     */
+    DiagnosticPullScheduler(Consumer<List<TextDocument>> interFilePullCallback,
+        Consumer<Throwable> logger)
+    {
+        this.interFilePullCallback = Objects.requireNonNull(interFilePullCallback);
+        this.logger = Objects.requireNonNull(logger);
+    }
+
+    void setInterFileDelay(Duration delay)
+    {
+        interFileDelay = delay.toMillis();
+    }
+
+    void setMaxConcurrentRequests(int max)
+    {
+        maxConcurrentRequests = max;
+    }
+
+    void setActiveDocumentSupplier(Supplier<TextDocument> supplier)
+    {
+        activeDocumentSupplier = Objects.requireNonNull(supplier);
+    }
+
+    @Override
+    public void dispose()
+    {
+        List<QueuedRequest> requests;
+        synchronized (this)
+        {
+            if (disposed)
+                return;
+            disposed = true;
+            interFileDocuments.clear();
+            if (executor != null)
+                executor.shutdownNow();
+            requests = new ArrayList<>(queue);
+            queue.clear();
+        }
+        for (QueuedRequest request : requests)
+            request.result.cancel(true);
+    }
+
+    synchronized void scheduleInterFilePull(Iterable<TextDocument> documents)
+    {
+        if (disposed)
+            return;
+
+        for (TextDocument document : documents)
+            interFileDocuments.add(document);
+
+        if (interFileDocuments.isEmpty())
+            return;
+
+        if (interFilePull != null)
+            interFilePull.cancel(false);
+
+        if (executor == null)
+            executor = Executors.newSingleThreadScheduledExecutor(r ->
+            {
+                Thread thread = new Thread(r, "LXTK Diagnostic Pull Scheduler"); //$NON-NLS-1$
+                thread.setDaemon(true);
+                return thread;
+            });
+
+        interFilePull =
+            executor.schedule(this::runInterFilePull, interFileDelay, TimeUnit.MILLISECONDS);
+    }
+
+    synchronized void cancelInterFilePull(TextDocument document)
+    {
+        interFileDocuments.remove(document);
+    }
+
+    CompletableFuture<DocumentDiagnosticReport> submit(DocumentDiagnosticParams params,
+        Function<DocumentDiagnosticParams, CompletableFuture<DocumentDiagnosticReport>> sender)
+    {
+        QueuedRequest request = new QueuedRequest(params, sender);
+        synchronized (this)
+        {
+            if (!disposed && activeRequestCount >= maxConcurrentRequests)
+            {
+                queue.add(request);
+                request.result.whenComplete((r, e) ->
+                {
+                    if (request.result.isCancelled())
+                    {
+                        synchronized (DiagnosticPullScheduler.this)
+                        {
+                            queue.remove(request);
+                        }
+                    }
+                });
+                return request.result;
+            }
+            activeRequestCount++;
+        }
+        send(request);
+        return request.result;
+    }
+
+    private void send(QueuedRequest request)
+    {
+        CompletableFuture<DocumentDiagnosticReport> future;
+        try
+        {
+            future = request.sender.apply(request.params);
+        }
+        catch (Throwable e)
+        {
+            future = CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<DocumentDiagnosticReport> f = future;
+        request.result.whenComplete((r, e) ->
+        {
+            if (request.result.isCancelled())
+                f.cancel(true);
+        });
+        f.whenComplete((r, e) ->
+        {
+            if (e == null)
+                request.result.complete(r);
+            else
+                request.result.completeExceptionally(
+                    e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+
+            release();
+        });
+    }
+
+    private void release()
+    {
+        String activeUri = getActiveUri();
+        QueuedRequest next;
+        synchronized (this)
+        {
+            next = poll(activeUri);
+            if (next == null)
+            {
+                activeRequestCount--;
+                return;
+            }
+        }
+        send(next);
+    }
+
+    private QueuedRequest poll(String activeUri)
+    {
+        QueuedRequest result = null;
+        Iterator<QueuedRequest> it = queue.iterator();
+        while (it.hasNext())
+        {
+            QueuedRequest request = it.next();
+            if (request.result.isDone())
+                it.remove(); // cancelled while queued
+            else if (result == null
+                || (activeUri != null && activeUri.equals(request.params.getTextDocument().getUri())
+                    && !activeUri.equals(result.params.getTextDocument().getUri())))
+                result = request;
+        }
+        if (result != null)
+            queue.remove(result);
+        return result;
+    }
+
+    private void runInterFilePull()
+    {
+        List<TextDocument> documents;
+        synchronized (this)
+        {
+            if (disposed)
+                return;
+            documents = new ArrayList<>(interFileDocuments);
+            interFileDocuments.clear();
+            interFilePull = null;
+        }
+        try
+        {
+            TextDocument activeDocument = activeDocumentSupplier.get();
+            if (activeDocument != null && documents.remove(activeDocument))
+                documents.add(0, activeDocument);
+
+            interFilePullCallback.accept(documents);
+        }
+        catch (Throwable e)
+        {
+            logger.accept(e);
+        }
+    }
+
+    private String getActiveUri()
+    {
+        try
+        {
+            TextDocument activeDocument = activeDocumentSupplier.get();
+            if (activeDocument != null)
+                return DocumentUri.convert(activeDocument.getUri());
+        }
+        catch (Throwable e)
+        {
+            logger.accept(e);
+        }
+        return null;
+    }
+
+    private static class QueuedRequest
+    {
+        final DocumentDiagnosticParams params;
+        final Function<DocumentDiagnosticParams,
+            CompletableFuture<DocumentDiagnosticReport>> sender;
+        final CompletableFuture<DocumentDiagnosticReport> result = new CompletableFuture<>();
+
+        QueuedRequest(DocumentDiagnosticParams params,
+            Function<DocumentDiagnosticParams, CompletableFuture<DocumentDiagnosticReport>> sender)
+        {
+            this.params = params;
+            this.sender = sender;
+        }
+    }
+}
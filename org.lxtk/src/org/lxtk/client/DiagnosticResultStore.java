@@ -0,0 +1,80 @@
+/*******************************************************************************
+ * Copyright (c) 2026 1C-Soft LLC.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Vladimir Piskarev (1C) - initial API and implementation
+ *******************************************************************************/
+package org.lxtk.client;
+
+import java.util.Map;
+
+import org.eclipse.lsp4j.FullDocumentDiagnosticReport;
+
+/**
+ * Stores the last full diagnostic report for each document on behalf of a
+ * diagnostic requestor, so that the requestor can report the previous result id
+ * to the language server after a restart and receive an <i>unchanged</i> report
+ * instead of a full report for the documents whose diagnostics did not change.
+ * <p>
+ * A store is bound to a specific language server: result ids are opaque values
+ * that only make sense to the server that produced them. Implementations are
+ * responsible for discarding the stored reports when the server identity or
+ * version changes.
+ * </p>
+ * <p>
+ * Implementations of this interface must be thread-safe.
+ * </p>
+ *
+ * @see FileDiagnosticResultStore
+ * @see DefaultDiagnosticRequestor#setResultStore(DiagnosticResultStore)
+ * @see DefaultWorkspaceDiagnosticRequestor#setResultStore(DiagnosticResultStore)
+ */
+public interface DiagnosticResultStore
+{
+    /**
+     * Returns the last stored report for the given document.
+     *
+     * @param uri not <code>null</code>
+     * @return the stored report, or <code>null</code> if none.
+     *  The result id of the returned report is never <code>null</code>
+     */
+    FullDocumentDiagnosticReport get(String uri);
+
+    /**
+     * Returns the result ids of all stored reports.
+     *
+     * @return a snapshot of the stored result ids keyed by document URI
+     *  (never <code>null</code>)
+     */
+    Map<String, String> getResultIds();
+
+    /**
+     * Stores the given report for the given document, replacing the previously
+     * stored report, if any. If the result id of the given report is <code>null</code>,
+     * the previously stored report is removed instead.
+     *
+     * @param uri not <code>null</code>
+     * @param report not <code>null</code>
+     */
+    void put(String uri, FullDocumentDiagnosticReport report);
+
+    /**
+     * Removes the stored report for the given document, if any.
+     *
+     * @param uri not <code>null</code>
+     */
+    void remove(String uri);
+
+    /**
+     * Writes any pending changes to the underlying storage.
+     * Implementations may throw unchecked exceptions if the changes
+     * could not be written.
+     */
+    void flush();
+}
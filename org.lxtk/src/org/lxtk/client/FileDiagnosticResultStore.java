@@ -0,0 +1,392 @@
+/*******************************************************************************
+ * Copyright (c) 2026 1C-Soft LLC.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Vladimir Piskarev (1C) - initial API and implementation
+ *******************************************************************************/
+package org.lxtk.client;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.FullDocumentDiagnosticReport;
+import org.lxtk.jsonrpc.DefaultGson;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * A {@link DiagnosticResultStore} that keeps the stored reports in a local file.
+ * <p>
+ * The file is a gzip-compressed JSON document that records the identity and version
+ * of the language server along with the stored reports. The contents of the file
+ * are loaded in the background as soon as the store is created, so that no file I/O
+ * is done when the store is accessed, e.g. by a diagnostic requestor. Until the contents
+ * are {@link #whenLoaded() loaded}, the store only contains the reports stored since
+ * it was created; reports stored or removed before the contents are loaded take
+ * precedence over the loaded ones. If the file does not exist, cannot be read,
+ * or was written for a different server name or version, the store starts out empty
+ * and the file is overwritten on the next {@link #flush() flush}. The diagnostics
+ * of each stored report are kept in memory in their serialized form and are only
+ * deserialized on {@link #get(String)}.
+ * </p>
+ * <p>
+ * Since {@link DefaultWorkspaceDiagnosticRequestor} takes a snapshot of the stored
+ * result ids when the store is set, the contents should be loaded by then, e.g.
+ * <code>store.whenLoaded().thenRun(() -&gt; requestor.setResultStore(store))</code>.
+ * </p>
+ * <p>
+ * The file should be specific to the language server and the workspace it serves,
+ * e.g. it can be located in the plug-in state area and named after the server.
+ * Different instances of this class must not use the same file concurrently.
+ * </p>
+ * <p>
+ * This implementation is thread-safe.
+ * </p>
+ */
+public final class FileDiagnosticResultStore
+    implements DiagnosticResultStore
+{
+    private static final int FORMAT_VERSION = 1;
+    private static final Type DIAGNOSTICS_TYPE = new TypeToken<List<Diagnostic>>()
+    {
+    }.getType();
+
+    private final Path file;
+    private final String serverName;
+    private final String serverVersion;
+    private final Object flushLock = new Object();
+    private final Map<String, Entry> entries = new HashMap<>(); // guarded by this
+    // the documents whose reports were stored or removed while loading; guarded by this
+    private final Set<String> changedWhileLoading = new HashSet<>();
+    private final CompletableFuture<Void> loaded;
+    private boolean contentsLoaded, dirty; // guarded by this
+
+    /**
+     * Constructor. Starts loading the contents of the file in the background.
+     *
+     * @param file the path to the file of the store (not <code>null</code>)
+     * @param serverName the name of the language server, e.g. as reported in the
+     *  <code>serverInfo</code> property of the initialize result (may be <code>null</code>)
+     * @param serverVersion the version of the language server, e.g. as reported in the
+     *  <code>serverInfo</code> property of the initialize result (may be <code>null</code>)
+     */
+    public FileDiagnosticResultStore(Path file, String serverName, String serverVersion)
+    {
+        this.file = Objects.requireNonNull(file);
+        this.serverName = serverName;
+        this.serverVersion = serverVersion;
+        loaded = CompletableFuture.runAsync(this::load);
+    }
+
+    /**
+     * Returns the path to the file of this store.
+     *
+     * @return the file path (never <code>null</code>)
+     */
+    public Path getFile()
+    {
+        return file;
+    }
+
+    /**
+     * Returns a future that completes when the contents of the file have been loaded.
+     * The future never completes exceptionally: if the contents cannot be loaded,
+     * the store starts out empty.
+     *
+     * @return the future (never <code>null</code>)
+     */
+    public CompletableFuture<Void> whenLoaded()
+    {
+        return loaded.copy(); // don't let callers complete it
+    }
+
+    @Override
+    public synchronized FullDocumentDiagnosticReport get(String uri)
+    {
+        Entry entry = entries.get(uri);
+        if (entry == null)
+            return null;
+        List<Diagnostic> items;
+        try
+        {
+            items = DefaultGson.INSTANCE.fromJson(entry.items, DIAGNOSTICS_TYPE);
+        }
+        catch (JsonParseException e)
+        {
+            entries.remove(uri);
+            changed(uri);
+            return null;
+        }
+        FullDocumentDiagnosticReport report = new FullDocumentDiagnosticReport(items);
+        report.setResultId(entry.resultId);
+        return report;
+    }
+
+    @Override
+    public synchronized Map<String, String> getResultIds()
+    {
+        Map<String, String> result = new HashMap<>(entries.size());
+        entries.forEach((uri, entry) -> result.put(uri, entry.resultId));
+        return result;
+    }
+
+    @Override
+    public void put(String uri, FullDocumentDiagnosticReport report)
+    {
+        Objects.requireNonNull(uri);
+        String resultId = report.getResultId();
+        if (resultId == null)
+        {
+            remove(uri);
+            return;
+        }
+        String items = DefaultGson.INSTANCE.toJson(report.getItems(), DIAGNOSTICS_TYPE);
+        synchronized (this)
+        {
+            Entry entry = entries.get(uri);
+            if (entry != null && entry.resultId.equals(resultId) && entry.items.equals(items))
+                return;
+            entries.put(uri, new Entry(resultId, items));
+            changed(uri);
+        }
+    }
+
+    @Override
+    public synchronized void remove(String uri)
+    {
+        Objects.requireNonNull(uri);
+        if (entries.remove(uri) != null || !contentsLoaded)
+            changed(uri);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Waits for the contents of the file to be loaded, so that
+     * the reports that have not been loaded yet are not lost.
+     * </p>
+     *
+     * @throws UncheckedIOException if an I/O error occurs
+     */
+    @Override
+    public void flush()
+    {
+        loaded.join();
+        synchronized (flushLock)
+        {
+            Map<String, Entry> snapshot;
+            synchronized (this)
+            {
+                if (!dirty)
+                    return;
+                snapshot = new LinkedHashMap<>(entries);
+                dirty = false;
+            }
+            try
+            {
+                write(snapshot);
+            }
+            catch (IOException | RuntimeException e)
+            {
+                synchronized (this)
+                {
+                    dirty = true;
+                }
+                if (e instanceof IOException)
+                    throw new UncheckedIOException((IOException)e);
+                throw (RuntimeException)e;
+            }
+        }
+    }
+
+    private void changed(String uri) // guarded by this
+    {
+        dirty = true;
+        if (!contentsLoaded)
+            changedWhileLoading.add(uri);
+    }
+
+    private void load()
+    {
+        Map<String, Entry> result = new HashMap<>();
+        try
+        {
+            read(result);
+        }
+        catch (NoSuchFileException e)
+        {
+            // the store is empty
+        }
+        catch (IOException | RuntimeException e)
+        {
+            // the store is a cache; start out empty and overwrite the file on next flush
+            result.clear();
+        }
+        synchronized (this)
+        {
+            result.forEach((uri, entry) ->
+            {
+                if (!changedWhileLoading.contains(uri))
+                    entries.put(uri, entry);
+            });
+            changedWhileLoading.clear();
+            contentsLoaded = true;
+        }
+    }
+
+    private void read(Map<String, Entry> result) throws IOException
+    {
+        try (JsonReader reader = new JsonReader(new BufferedReader(new InputStreamReader(
+            new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))))
+        {
+            int formatVersion = 0;
+            String name = null, version = null;
+            reader.beginObject();
+            while (reader.hasNext())
+            {
+                switch (reader.nextName())
+                {
+                case "format": //$NON-NLS-1$
+                    formatVersion = reader.nextInt();
+                    break;
+                case "serverName": //$NON-NLS-1$
+                    name = nextNullableString(reader);
+                    break;
+                case "serverVersion": //$NON-NLS-1$
+                    version = nextNullableString(reader);
+                    break;
+                case "entries": //$NON-NLS-1$
+                    if (formatVersion != FORMAT_VERSION || !Objects.equals(name, serverName)
+                        || !Objects.equals(version, serverVersion))
+                        return; // obsolete; the header is always written before the entries
+                    readEntries(reader, result);
+                    break;
+                default:
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+    }
+
+    private static void readEntries(JsonReader reader, Map<String, Entry> result)
+        throws IOException
+    {
+        reader.beginObject();
+        while (reader.hasNext())
+        {
+            String uri = reader.nextName();
+            String resultId = null, items = null;
+            reader.beginObject();
+            while (reader.hasNext())
+            {
+                switch (reader.nextName())
+                {
+                case "resultId": //$NON-NLS-1$
+                    resultId = nextNullableString(reader);
+                    break;
+                case "items": //$NON-NLS-1$
+                    items = JsonParser.parseReader(reader).toString();
+                    break;
+                default:
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            if (resultId != null && items != null)
+                result.put(uri, new Entry(resultId, items));
+        }
+        reader.endObject();
+    }
+
+    private void write(Map<String, Entry> snapshot) throws IOException
+    {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null)
+            Files.createDirectories(parent);
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp"); //$NON-NLS-1$
+        try (JsonWriter writer = new JsonWriter(new BufferedWriter(new OutputStreamWriter(
+            new GZIPOutputStream(Files.newOutputStream(tempFile)), StandardCharsets.UTF_8))))
+        {
+            writer.setSerializeNulls(true);
+            writer.beginObject();
+            writer.name("format").value(FORMAT_VERSION); //$NON-NLS-1$
+            writer.name("serverName").value(serverName); //$NON-NLS-1$
+            writer.name("serverVersion").value(serverVersion); //$NON-NLS-1$
+            writer.name("entries").beginObject(); //$NON-NLS-1$
+            for (Map.Entry<String, Entry> e : snapshot.entrySet())
+            {
+                writer.name(e.getKey()).beginObject();
+                writer.name("resultId").value(e.getValue().resultId); //$NON-NLS-1$
+                writer.name("items").jsonValue(e.getValue().items); //$NON-NLS-1$
+                writer.endObject();
+            }
+            writer.endObject();
+            writer.endObject();
+        }
+        try
+        {
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (AtomicMoveNotSupportedException e)
+        {
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static String nextNullableString(JsonReader reader) throws IOException
+    {
+        if (reader.peek() == JsonToken.NULL)
+        {
+            reader.nextNull();
+            return null;
+        }
+        return reader.nextString();
+    }
+
+    private static class Entry
+    {
+        final String resultId;
+        final String items; // JSON array of diagnostics
+
+        Entry(String resultId, String items)
+        {
+            this.resultId = resultId;
+            this.items = items;
+        }
+    }
+}
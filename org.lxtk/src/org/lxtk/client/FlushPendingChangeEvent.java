@@ -0,0 +1,45 @@
+/*******************************************************************************
+ * Copyright (c) 2026 1C-Soft LLC.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Vladimir Piskarev (1C) - initial API and implementation
+ *******************************************************************************/
+package org.lxtk.client;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A JFR event for sending a pending document change to the server
+ * in {@link TextDocumentSyncFeature}.
+ */
+@Name("org.lxtk.FlushPendingChange")
+@Label("Flush Pending Change")
+@Category({ "LXTK", "Text Synchronization" })
+@StackTrace(false)
+final class FlushPendingChangeEvent
+    extends Event
+{
+    @Label("Document URI")
+    String uri;
+
+    @Label("Version")
+    int version;
+
+    @Label("Payload Size")
+    @Description("The total length of the text of the content changes, in characters")
+    long payloadSize;
+
+    @Label("Content Changes")
+    int changeCount;
+}
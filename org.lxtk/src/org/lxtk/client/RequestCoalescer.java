@@ -0,0 +1,375 @@
+/*******************************************************************************
+ * Copyright (c) 2026 1C-Soft LLC.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Vladimir Piskarev (1C) - initial API and implementation
+ *******************************************************************************/
+package org.lxtk.client;
+
+import java.net.URI;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.lsp4j.DidCloseTextDocumentParams;
+import org.eclipse.lsp4j.DidOpenTextDocumentParams;
+import org.eclipse.lsp4j.DocumentHighlightParams;
+import org.eclipse.lsp4j.DocumentLinkParams;
+import org.eclipse.lsp4j.DocumentSymbolParams;
+import org.eclipse.lsp4j.FoldingRangeRequestParams;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.eclipse.lsp4j.jsonrpc.Endpoint;
+import org.lxtk.DocumentUri;
+
+/**
+ * Coalesces identical requests sent by a language client to the language server.
+ * A request for one of the {@link #setMethods(Set) coalesced methods} shares
+ * the response with an identical request that is still in flight or has
+ * already completed, as long as the document has not been {@link #invalidate(URI)
+ * invalidated} in between, e.g. because pending changes to the document have
+ * been flushed, or because the document has been opened or closed.
+ * <p>
+ * Only document-local requests, whose result depends on the contents of a single
+ * document, can be coalesced: <code>textDocument/documentHighlight</code>,
+ * <code>textDocument/documentSymbol</code>, <code>textDocument/foldingRange</code>
+ * and <code>textDocument/documentLink</code>. Requests whose result may depend on
+ * other documents, such as <code>textDocument/hover</code> or
+ * <code>textDocument/codeLens</code>, are never coalesced, since the shared
+ * response could go stale after a change to another document. Requests are
+ * considered identical if they have the same method, document URI and,
+ * where applicable, position.
+ * The work done token is ignored; requests with a partial result token
+ * are never coalesced.
+ * </p>
+ * <p>
+ * Note that coalesced requests share the result object, so the result
+ * must not be modified by the receiver. A coalesced request that is cancelled
+ * does not affect the other requests it has been coalesced with; the request
+ * sent to the server is cancelled only when all of them are cancelled.
+ * </p>
+ * <p>
+ * This implementation is thread-safe.
+ * </p>
+ *
+ * @see AbstractLanguageClient#getRequestCoalescer()
+ */
+public final class RequestCoalescer
+{
+    /**
+     * The methods that are coalesced by default. These are all of the methods
+     * that can be coalesced.
+     */
+    public static final Set<String> DEFAULT_METHODS = Set.of(
+        "textDocument/documentHighlight", //$NON-NLS-1$
+        "textDocument/documentSymbol", //$NON-NLS-1$
+        "textDocument/foldingRange", //$NON-NLS-1$
+        "textDocument/documentLink"); //$NON-NLS-1$
+
+    private static final int MAX_SIZE = 256;
+
+    private final Map<Key, Entry> entries = new LinkedHashMap<>(); // guarded by this
+    private volatile Set<String> methods = DEFAULT_METHODS;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * Sets the methods to coalesce. Methods that are not contained in
+     * {@link #DEFAULT_METHODS} are never coalesced.
+     *
+     * @param methods not <code>null</code>, may be empty
+     * @see #DEFAULT_METHODS
+     */
+    public void setMethods(Set<String> methods)
+    {
+        this.methods = Set.copyOf(methods);
+        invalidate();
+    }
+
+    /**
+     * Returns the number of requests that were coalesced with an earlier request.
+     *
+     * @return the hit count
+     */
+    public long getHitCount()
+    {
+        return hitCount.get();
+    }
+
+    /**
+     * Returns the number of requests for the coalesced methods
+     * that had to be sent to the server.
+     *
+     * @return the miss count
+     */
+    public long getMissCount()
+    {
+        return missCount.get();
+    }
+
+    /**
+     * Discards all shared responses, so that subsequent requests will be sent
+     * to the server. Requests in flight are not affected.
+     */
+    public synchronized void invalidate()
+    {
+        entries.clear();
+    }
+
+    /**
+     * Discards all shared responses for the given document, so that subsequent
+     * requests for the document will be sent to the server. Requests in flight
+     * are not affected.
+     *
+     * @param uri not <code>null</code>
+     */
+    public synchronized void invalidate(URI uri)
+    {
+        Objects.requireNonNull(uri);
+        entries.values().removeIf(entry -> uri.equals(entry.uri));
+    }
+
+    /**
+     * Returns an endpoint that coalesces requests sent to the given endpoint.
+     *
+     * @param endpoint not <code>null</code>
+     * @return the coalescing endpoint (never <code>null</code>)
+     */
+    Endpoint wrap(Endpoint endpoint)
+    {
+        Objects.requireNonNull(endpoint);
+        return new Endpoint()
+        {
+            @Override
+            public CompletableFuture<?> request(String method, Object parameter)
+            {
+                if (!methods.contains(method))
+                    return endpoint.request(method, parameter);
+
+                Key key = getKey(method, parameter);
+                if (key == null)
+                    return endpoint.request(method, parameter);
+
+                Entry entry;
+                boolean isNew = false;
+                synchronized (RequestCoalescer.this)
+                {
+                    entry = entries.get(key);
+                    if (entry == null || entry.isFailed())
+                    {
+                        entry = new Entry(key);
+                        entries.remove(key);
+                        entries.put(key, entry);
+                        isNew = true;
+
+                        if (entries.size() > MAX_SIZE)
+                        {
+                            Iterator<Entry> it = entries.values().iterator();
+                            it.next();
+                            it.remove();
+                        }
+                    }
+                    entry.waiters++;
+                }
+                if (isNew)
+                {
+                    missCount.incrementAndGet();
+                    entry.send(endpoint, method, parameter);
+                }
+                else
+                    hitCount.incrementAndGet();
+                return entry.newWaiter();
+            }
+
+            @Override
+            public void notify(String method, Object parameter)
+            {
+                endpoint.notify(method, parameter);
+                // changes are accounted for on flush; see AbstractLanguageClient
+                if (parameter instanceof DidOpenTextDocumentParams)
+                    invalidate(((DidOpenTextDocumentParams)parameter).getTextDocument().getUri());
+                else if (parameter instanceof DidCloseTextDocumentParams)
+                    invalidate(((DidCloseTextDocumentParams)parameter).getTextDocument().getUri());
+            }
+        };
+    }
+
+    private void invalidate(String uri)
+    {
+        try
+        {
+            invalidate(DocumentUri.convert(uri));
+        }
+        catch (IllegalArgumentException e)
+        {
+            invalidate();
+        }
+    }
+
+    private synchronized void release(Entry entry)
+    {
+        if (--entry.waiters > 0 || entry.future.isDone())
+            return;
+        if (entries.get(entry.key) == entry)
+            entries.remove(entry.key);
+        entry.future.cancel(true);
+    }
+
+    private static Key getKey(String method, Object parameter)
+    {
+        TextDocumentIdentifier textDocument;
+        Position position = null;
+        if (parameter instanceof DocumentHighlightParams)
+        {
+            DocumentHighlightParams params = (DocumentHighlightParams)parameter;
+            if (params.getPartialResultToken() != null)
+                return null;
+            textDocument = params.getTextDocument();
+            position = params.getPosition();
+        }
+        else if (parameter instanceof DocumentSymbolParams)
+        {
+            DocumentSymbolParams params = (DocumentSymbolParams)parameter;
+            if (params.getPartialResultToken() != null)
+                return null;
+            textDocument = params.getTextDocument();
+        }
+        else if (parameter instanceof FoldingRangeRequestParams)
+        {
+            FoldingRangeRequestParams params = (FoldingRangeRequestParams)parameter;
+            if (params.getPartialResultToken() != null)
+                return null;
+            textDocument = params.getTextDocument();
+        }
+        else if (parameter instanceof DocumentLinkParams)
+        {
+            DocumentLinkParams params = (DocumentLinkParams)parameter;
+            if (params.getPartialResultToken() != null)
+                return null;
+            textDocument = params.getTextDocument();
+        }
+        else
+            return null;
+
+        if (textDocument == null || textDocument.getUri() == null)
+            return null;
+
+        URI uri;
+        try
+        {
+            uri = DocumentUri.convert(textDocument.getUri());
+        }
+        catch (IllegalArgumentException e)
+        {
+            return null;
+        }
+        return new Key(method, uri, position != null ? position.getLine() : -1,
+            position != null ? position.getCharacter() : -1);
+    }
+
+    private static final class Key
+    {
+        final String method;
+        final URI uri;
+        final int line, character;
+
+        Key(String method, URI uri, int line, int character)
+        {
+            this.method = method;
+            this.uri = uri;
+            this.line = line;
+            this.character = character;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(method, uri, line, character);
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof Key))
+                return false;
+            Key other = (Key)obj;
+            return line == other.line && character == other.character
+                && method.equals(other.method) && uri.equals(other.uri);
+        }
+    }
+
+    private class Entry
+    {
+        final Key key;
+        final URI uri;
+        final CompletableFuture<Object> future = new CompletableFuture<>();
+        int waiters; // guarded by RequestCoalescer.this
+
+        Entry(Key key)
+        {
+            this.key = key;
+            this.uri = key.uri;
+        }
+
+        boolean isFailed()
+        {
+            return future.isCompletedExceptionally();
+        }
+
+        void send(Endpoint endpoint, String method, Object parameter)
+        {
+            CompletableFuture<?> request;
+            try
+            {
+                request = endpoint.request(method, parameter);
+            }
+            catch (RuntimeException e)
+            {
+                future.completeExceptionally(e);
+                return;
+            }
+            request.whenComplete((result, e) ->
+            {
+                if (e != null)
+                    future.completeExceptionally(e);
+                else
+                    future.complete(result);
+            });
+            future.whenComplete((result, e) ->
+            {
+                if (future.isCancelled())
+                    request.cancel(true);
+            });
+        }
+
+        CompletableFuture<Object> newWaiter()
+        {
+            CompletableFuture<Object> waiter = new CompletableFuture<>();
+            future.whenComplete((result, e) ->
+            {
+                if (e != null)
+                    waiter.completeExceptionally(e);
+                else
+                    waiter.complete(result);
+            });
+            waiter.whenComplete((result, e) ->
+            {
+                if (waiter.isCancelled())
+                    release(this);
+            });
+            return waiter;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+/*******************************************************************************
+ * Copyright (c) 2026 1C-Soft LLC.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Vladimir Piskarev (1C) - initial API and implementation
+ *******************************************************************************/
+package org.lxtk.client;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.lxtk.DefaultWorkspaceService;
+import org.lxtk.WorkspaceFolder;
+import org.lxtk.WorkspaceService;
+import org.lxtk.util.Disposable;
+import org.lxtk.util.UriUtil;
+
+/**
+ * Maintains a reference-counted collection of workspace folders on behalf
+ * of a single language client that serves many workspace folders, such as
+ * all of the projects of a given language in the workspace.
+ * <p>
+ * Each {@link #attach(WorkspaceFolder) attached} folder is added to the
+ * collection of workspace folders managed by the underlying {@link
+ * #getWorkspaceService() workspace service} when it is attached for the first
+ * time, and is removed from that collection when the last attachment is
+ * disposed. This allows several independent clients of a language client
+ * (e.g. the editors of the projects that share the language server) to attach
+ * and detach folders lazily and without coordinating with each other.
+ * </p>
+ * <p>
+ * The language client is expected to contain a {@link WorkspaceFoldersFeature}
+ * for the underlying workspace service, so that the language server is notified
+ * about the folders attached or detached after the connection is established.
+ * Note that the document selector of the language client is fixed for the
+ * duration of a connection; therefore, it is recommended to use a document
+ * selector that is not tied to specific folders, such as a selector that
+ * matches documents by language and scheme, and to attach the folder
+ * containing a document no later than the document is opened.
+ * </p>
+ * <p>
+ * This implementation is thread-safe.
+ * </p>
+ */
+public final class SharedWorkspaceFolders
+{
+    private final WorkspaceService workspaceService;
+    private final Map<String, Entry> entries = new LinkedHashMap<>(); // guarded by this
+
+    /**
+     * Creates a new instance backed by a new {@link DefaultWorkspaceService}.
+     */
+    public SharedWorkspaceFolders()
+    {
+        this(new DefaultWorkspaceService());
+    }
+
+    /**
+     * Creates a new instance backed by the given workspace service.
+     * The collection of workspace folders of the given service is to be
+     * managed exclusively by the created instance.
+     *
+     * @param workspaceService not <code>null</code>
+     */
+    public SharedWorkspaceFolders(WorkspaceService workspaceService)
+    {
+        this.workspaceService = Objects.requireNonNull(workspaceService);
+    }
+
+    /**
+     * Returns the workspace service that manages the attached folders.
+     *
+     * @return the workspace service (never <code>null</code>)
+     */
+    public WorkspaceService getWorkspaceService()
+    {
+        return workspaceService;
+    }
+
+    /**
+     * Attaches the given workspace folder. The folder remains attached until all
+     * of the attachments for the folder's URI are disposed. If a folder with the
+     * same URI is already attached, the given folder only increments its
+     * reference count; the name of the previously attached folder is retained.
+     *
+     * @param folder not <code>null</code>
+     * @return a disposable that detaches the folder (never <code>null</code>).
+     *  Disposing it more than once has no effect
+     */
+    public Disposable attach(WorkspaceFolder folder)
+    {
+        String key = getKey(folder.getUri());
+        synchronized (this)
+        {
+            Entry entry = entries.get(key);
+            if (entry == null)
+            {
+                entries.put(key, new Entry(folder));
+                try
+                {
+                    update();
+                }
+                catch (RuntimeException e)
+                {
+                    entries.remove(key);
+                    throw e;
+                }
+            }
+            else
+                entry.refCount++;
+        }
+        return new Disposable()
+        {
+            private boolean disposed; // guarded by SharedWorkspaceFolders.this
+
+            @Override
+            public void dispose()
+            {
+                synchronized (SharedWorkspaceFolders.this)
+                {
+                    if (disposed)
+                        return;
+                    disposed = true;
+                    detach(key);
+                }
+            }
+        };
+    }
+
+    /**
+     * Returns whether a workspace folder with the given URI is attached.
+     *
+     * @param uri not <code>null</code>
+     * @return <code>true</code> if a folder with the given URI is attached,
+     *  and <code>false</code> otherwise
+     */
+    public synchronized boolean isAttached(URI uri)
+    {
+        return entries.containsKey(getKey(uri));
+    }
+
+    /**
+     * Returns whether no workspace folder is attached.
+     *
+     * @return <code>true</code> if no folder is attached,
+     *  and <code>false</code> otherwise
+     */
+    public synchronized boolean isEmpty()
+    {
+        return entries.isEmpty();
+    }
+
+    /**
+     * Returns a snapshot of the attached workspace folders,
+     * in the order they were first attached.
+     *
+     * @return the attached folders (never <code>null</code>)
+     */
+    public synchronized Collection<WorkspaceFolder> getWorkspaceFolders()
+    {
+        Collection<WorkspaceFolder> result = new ArrayList<>(entries.size());
+        for (Entry entry : entries.values())
+            result.add(entry.folder);
+        return result;
+    }
+
+    private void detach(String key)
+    {
+        Entry entry = entries.get(key);
+        if (entry != null && --entry.refCount == 0)
+        {
+            entries.remove(key);
+            update();
+        }
+    }
+
+    private void update()
+    {
+        workspaceService.setWorkspaceFolders(getWorkspaceFolders());
+    }
+
+    private static String getKey(URI uri)
+    {
+        String key = UriUtil.normalize(uri).toString();
+        if (key.charAt(key.length() - 1) != '/')
+            key += '/';
+        return key;
+    }
+
+    private static class Entry
+    {
+        final WorkspaceFolder folder;
+        int refCount = 1;
+
+        Entry(WorkspaceFolder folder)
+        {
+            this.folder = folder;
+        }
+    }
+}
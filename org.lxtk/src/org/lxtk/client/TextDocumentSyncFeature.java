@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019, 2022 1C-Soft LLC.
+ * Copyright (c) 2019, 2026 1C-Soft LLC.
  *
  * This program and the accompanying materials are made available under
  * the terms of the Eclipse Public License 2.0 which is available at
@@ -17,6 +17,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -190,6 +191,22 @@ public final class TextDocumentSyncFeature
         pendingChangeManager.setDelay(delay);
     }
 
+    /**
+     * Sets the maximum total size of pending changes. If the total size of
+     * pending changes for all documents exceeds the given limit, the oldest
+     * pending changes will be flushed until the limit is no longer exceeded.
+     * The size of a pending change is estimated as the number of characters
+     * it holds on to.
+     *
+     * @param size a positive number
+     */
+    public void setMaxPendingChangeSize(int size)
+    {
+        if (size <= 0)
+            throw new IllegalArgumentException();
+        pendingChangeManager.setMaxSize(size);
+    }
+
     /**
      * Sets the strategy for change event merging.
      *
@@ -234,14 +251,14 @@ public final class TextDocumentSyncFeature
             @Override
             public CompletableFuture<?> request(String method, Object parameter)
             {
-                flushPendingChange();
+                flushPendingChanges();
                 return endpoint.request(method, parameter);
             }
 
             @Override
             public void notify(String method, Object parameter)
             {
-                flushPendingChange();
+                flushPendingChanges();
                 endpoint.notify(method, parameter);
             }
         };
@@ -432,9 +449,10 @@ public final class TextDocumentSyncFeature
     @Override
     public synchronized void dispose()
     {
-        registrations = null;
-        Collection<Disposable> disposables = new ArrayList<>(subscriptions.values());
+        // flush pending changes while the registrations are still in place
+        Collection<Disposable> disposables = new ArrayList<>();
         disposables.add(pendingChangeManager);
+        disposables.addAll(subscriptions.values());
         subscriptions.clear();
         try
         {
@@ -442,6 +460,7 @@ public final class TextDocumentSyncFeature
         }
         finally
         {
+            registrations = null;
             syncedDocumentVersions.clear();
         }
     }
@@ -509,14 +528,21 @@ public final class TextDocumentSyncFeature
         pendingChangeManager.addChange(event, registrationOptions.getSyncKind());
     }
 
-    private synchronized void flushPendingChange()
+    private synchronized void flushPendingChanges()
+    {
+        for (TextDocument document : pendingChangeManager.getDocuments())
+            flushPendingChange(document);
+    }
+
+    private synchronized void flushPendingChange(TextDocument document)
     {
-        PendingChange change = pendingChangeManager.removeChange();
+        FlushPendingChangeEvent event = new FlushPendingChangeEvent();
+        event.begin();
+
+        PendingChange change = pendingChangeManager.removeChange(document);
         if (change == null)
             return;
 
-        TextDocument document = change.getDocument();
-
         Integer syncedDocumentVersion = syncedDocumentVersions.get(document);
         if (syncedDocumentVersion == null)
             return;
@@ -552,6 +578,16 @@ public final class TextDocumentSyncFeature
         languageServer.getTextDocumentService().didChange(params);
         syncedDocumentVersions.put(document, version);
 
+        if (event.shouldCommit())
+        {
+            event.uri = params.getTextDocument().getUri();
+            event.version = version;
+            for (TextDocumentContentChangeEvent contentChange : params.getContentChanges())
+                event.payloadSize += contentChange.getText().length();
+            event.changeCount = params.getContentChanges().size();
+            event.commit();
+        }
+
         onDidFlushPendingChange.emit(changeEvent, logger);
     }
 
@@ -665,6 +701,8 @@ public final class TextDocumentSyncFeature
 
         boolean isEmpty(); // this is orthogonal to whether getEvent() returns null
 
+        long getSize(); // estimated number of characters held on to by the change
+
         TextDocumentChangeEvent getEvent();
 
         void add(TextDocumentChangeEvent event);
@@ -698,6 +736,12 @@ public final class TextDocumentSyncFeature
             return false; // full change is never empty
         }
 
+        @Override
+        public long getSize()
+        {
+            return 0; // full change does not hold on to any text
+        }
+
         @Override
         public TextDocumentChangeEvent getEvent()
         {
@@ -716,6 +760,7 @@ public final class TextDocumentSyncFeature
         private final TextDocument document;
         private final List<TextDocumentContentChangeEvent> contentChanges = new ArrayList<>();
         private TextDocumentSnapshot snapshot;
+        private long size;
 
         AccumulatingChange(TextDocument document)
         {
@@ -740,6 +785,12 @@ public final class TextDocumentSyncFeature
             return snapshot == null;
         }
 
+        @Override
+        public long getSize()
+        {
+            return size;
+        }
+
         @Override
         public TextDocumentChangeEvent getEvent()
         {
@@ -754,6 +805,7 @@ public final class TextDocumentSyncFeature
         {
             contentChanges.addAll(event.getContentChanges());
             snapshot = event.getSnapshot();
+            size += sizeOf(event);
         }
     }
 
@@ -762,6 +814,7 @@ public final class TextDocumentSyncFeature
     {
         private final TextDocument document;
         private final TextDocumentChangeEventMergeBuilder builder;
+        private long size;
 
         MergingChange(TextDocument document, TextDocumentChangeEventMergeBuilder builder)
         {
@@ -787,6 +840,12 @@ public final class TextDocumentSyncFeature
             return !builder.hasResult();
         }
 
+        @Override
+        public long getSize()
+        {
+            return size;
+        }
+
         @Override
         public TextDocumentChangeEvent getEvent()
         {
@@ -797,19 +856,34 @@ public final class TextDocumentSyncFeature
         public void add(TextDocumentChangeEvent event)
         {
             builder.merge(event);
+            size += sizeOf(event);
         }
     }
 
+    private static long sizeOf(TextDocumentChangeEvent event)
+    {
+        long size = 0;
+        for (TextDocumentContentChangeEvent contentChange : event.getContentChanges())
+        {
+            String text = contentChange.getText();
+            if (text != null)
+                size += text.length();
+        }
+        return size;
+    }
+
     private static class PendingChangeManager
         implements Disposable
     {
-        private final Runnable flushCallback;
+        private final Consumer<TextDocument> flushCallback;
         private long delay = 500;
-        private ScheduledChange change;
+        private long maxSize = 8 * 1024 * 1024;
+        // pending changes in the order in which they were started
+        private final Map<TextDocument, ScheduledChange> changes = new LinkedHashMap<>();
         private ScheduledExecutorService executor;
         private TextDocumentChangeEventMergeStrategy eventMergeStrategy;
 
-        PendingChangeManager(Runnable flushCallback)
+        PendingChangeManager(Consumer<TextDocument> flushCallback)
         {
             this.flushCallback = Objects.requireNonNull(flushCallback);
         }
@@ -819,6 +893,11 @@ public final class TextDocumentSyncFeature
             this.delay = delay.toMillis();
         }
 
+        void setMaxSize(long maxSize)
+        {
+            this.maxSize = maxSize;
+        }
+
         void setEventMergeStrategy(TextDocumentChangeEventMergeStrategy eventMergeStrategy)
         {
             this.eventMergeStrategy = eventMergeStrategy;
@@ -828,22 +907,16 @@ public final class TextDocumentSyncFeature
         // or not called at all (if the document does not support willChange notifications)
         void willAddChange(TextDocumentChangeEvent event, TextDocumentSyncKind syncKind)
         {
+            TextDocument document = event.getDocument();
+            ScheduledChange change = changes.get(document);
             if (change != null)
             {
                 change.cancel();
-
-                if (change.getDocument() != event.getDocument())
-                {
-                    flushCallback.run();
-                    change = null;
-                }
             }
-
-            if (change == null && syncKind != TextDocumentSyncKind.Full
-                && eventMergeStrategy != null)
+            else if (syncKind != TextDocumentSyncKind.Full && eventMergeStrategy != null)
             {
-                change = new ScheduledChange(new MergingChange(event.getDocument(),
-                    eventMergeStrategy.startMerging(event.getSnapshot().getText())));
+                changes.put(document, new ScheduledChange(new MergingChange(document,
+                    eventMergeStrategy.startMerging(event.getSnapshot().getText()))));
             }
         }
 
@@ -851,22 +924,17 @@ public final class TextDocumentSyncFeature
         // the corresponding willAddChange might not have been called
         void addChange(TextDocumentChangeEvent event, TextDocumentSyncKind syncKind)
         {
+            TextDocument document = event.getDocument();
+            ScheduledChange change = changes.get(document);
             if (change != null)
             {
                 change.cancel();
-
-                if (change.getDocument() != event.getDocument())
-                {
-                    flushCallback.run();
-                    change = null;
-                }
             }
-
-            if (change == null)
+            else
             {
-                change = new ScheduledChange(
-                    syncKind == TextDocumentSyncKind.Full ? new FullChange(event.getDocument())
-                        : new AccumulatingChange(event.getDocument()));
+                change = new ScheduledChange(syncKind == TextDocumentSyncKind.Full
+                    ? new FullChange(document) : new AccumulatingChange(document));
+                changes.put(document, change);
             }
 
             change.add(event);
@@ -874,33 +942,68 @@ public final class TextDocumentSyncFeature
             if (executor == null)
                 executor = Executors.newSingleThreadScheduledExecutor();
 
-            change.future = executor.schedule(flushCallback, delay, TimeUnit.MILLISECONDS);
+            change.future = executor.schedule(() -> flushCallback.accept(document), delay,
+                TimeUnit.MILLISECONDS);
+
+            trimToSize();
+        }
+
+        List<TextDocument> getDocuments()
+        {
+            return new ArrayList<>(changes.keySet());
         }
 
-        PendingChange removeChange()
+        PendingChange removeChange(TextDocument document)
         {
+            ScheduledChange change = changes.get(document);
             if (change == null || change.isEmpty())
                 return null;
 
-            PendingChange result = change;
-            change = null;
-            return result;
+            change.cancel();
+            changes.remove(document);
+            return change;
         }
 
         @Override
         public void dispose()
         {
-            if (change != null)
-            {
+            for (ScheduledChange change : changes.values())
                 change.cancel();
-
-                flushCallback.run();
-                change = null;
+            try
+            {
+                for (TextDocument document : getDocuments())
+                    flushCallback.accept(document);
             }
-            if (executor != null)
+            finally
             {
-                executor.shutdown();
-                executor = null;
+                changes.clear();
+                if (executor != null)
+                {
+                    executor.shutdown();
+                    executor = null;
+                }
+            }
+        }
+
+        private void trimToSize()
+        {
+            long size = 0;
+            for (ScheduledChange change : changes.values())
+                size += change.getSize();
+            if (size <= maxSize)
+                return;
+
+            // flush the oldest pending changes first
+            for (TextDocument document : getDocuments())
+            {
+                ScheduledChange change = changes.get(document);
+                if (change == null || change.isEmpty())
+                    continue;
+
+                size -= change.getSize();
+                flushCallback.accept(document);
+                if (size <= maxSize)
+                    break;
             }
         }
 
@@ -933,6 +1036,12 @@ public final class TextDocumentSyncFeature
                 return delegate.isEmpty();
             }
 
+            @Override
+            public long getSize()
+            {
+                return delegate.getSize();
+            }
+
             @Override
             public TextDocumentChangeEvent getEvent()
             {
@@ -0,0 +1,251 @@
+/*******************************************************************************
+ * Copyright (c) 2026 1C-Soft LLC.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Vladimir Piskarev (1C) - initial API and implementation
+ *******************************************************************************/
+package org.lxtk.jsonrpc;
+
+import java.io.Flushable;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import org.eclipse.lsp4j.jsonrpc.ConcurrentMessageProcessor;
+import org.eclipse.lsp4j.jsonrpc.Endpoint;
+import org.eclipse.lsp4j.jsonrpc.Launcher;
+import org.eclipse.lsp4j.jsonrpc.MessageConsumer;
+import org.eclipse.lsp4j.jsonrpc.RemoteEndpoint;
+import org.eclipse.lsp4j.jsonrpc.StandardLauncher;
+import org.eclipse.lsp4j.jsonrpc.json.JsonRpcMethod;
+import org.eclipse.lsp4j.jsonrpc.json.JsonRpcMethodProvider;
+import org.eclipse.lsp4j.jsonrpc.json.MessageJsonHandler;
+import org.eclipse.lsp4j.jsonrpc.services.ServiceEndpoints;
+import org.lxtk.util.connect.ChannelBasedConnection;
+
+/**
+ * Partial implementation of a {@link JsonRpcConnectionFactory} that creates
+ * JSON-RPC connections on top of {@link ChannelBasedConnection}s.
+ * <p>
+ * Messages are read and written via {@link ChannelMessageProducer} and
+ * {@link ChannelMessageConsumer}, which frame messages directly from and to
+ * pooled direct buffers. Otherwise, the created connections behave the same as
+ * the connections created by {@link AbstractJsonRpcConnectionFactory}.
+ * </p>
+ *
+ * @param <T> remote interface type
+ */
+public abstract class AbstractChannelJsonRpcConnectionFactory<T>
+    implements JsonRpcConnectionFactory<T>
+{
+    @Override
+    public JsonRpcConnection<T> newConnection(Object localService, Class<T> remoteInterface,
+        ExecutorService executorService, Function<MessageConsumer, MessageConsumer> wrapper)
+    {
+        ChannelBasedConnection c = newChannelBasedConnection();
+        try
+        {
+            Launcher<T> launcher = newLauncher(localService, remoteInterface,
+                c.getReadableChannel(), c.getWritableChannel(), executorService, wrapper);
+            Future<?> future = launcher.startListening();
+            return new JsonRpcConnection<>()
+            {
+                @Override
+                public T getRemoteProxy()
+                {
+                    return launcher.getRemoteProxy();
+                }
+
+                @Override
+                public Endpoint getRemoteEndpoint()
+                {
+                    return launcher.getRemoteEndpoint();
+                }
+
+                @Override
+                public boolean isClosed()
+                {
+                    return c.isClosed() || future.isDone();
+                }
+
+                @Override
+                public void dispose()
+                {
+                    c.dispose();
+                }
+
+                @Override
+                public CompletionStage<?> onDispose()
+                {
+                    return c.onDispose();
+                }
+            };
+        }
+        catch (Throwable t)
+        {
+            try
+            {
+                c.dispose();
+            }
+            catch (Throwable t2)
+            {
+                t.addSuppressed(t2);
+            }
+            throw t;
+        }
+    }
+
+    /**
+     * Returns a new {@link Launcher}.
+     *
+     * @param localService the object that receives method calls from the remote service
+     *  (not <code>null</code>)
+     * @param remoteInterface an interface on which RPC methods are looked up
+     *  (not <code>null</code>)
+     * @param in channel to listen for incoming messages
+     *  (not <code>null</code>)
+     * @param out channel to send outgoing messages
+     *  (not <code>null</code>)
+     * @param executorService the executor service used to start threads
+     *  (may be <code>null</code>)
+     * @param wrapper a function for plugging in additional message consumers
+     *  (may be <code>null</code>)
+     * @return a new launcher (never <code>null</code>)
+     */
+    protected Launcher<T> newLauncher(Object localService, Class<T> remoteInterface,
+        ReadableByteChannel in, WritableByteChannel out, ExecutorService executorService,
+        Function<MessageConsumer, MessageConsumer> wrapper)
+    {
+        // same as Launcher.createIoLauncher, but with channel-based reader and writer
+        MessageJsonHandler jsonHandler =
+            newJsonHandler(getSupportedMethods(localService, remoteInterface));
+        ChannelMessageConsumer writer = new ChannelMessageConsumer(out, jsonHandler);
+        MessageConsumer outgoingMessageStream = writer;
+        if (useOutboundMessageQueue())
+        {
+            writer.setAutoFlush(false);
+            outgoingMessageStream = newOutboundMessageQueue(writer, writer);
+        }
+        if (wrapper != null)
+            outgoingMessageStream = wrapper.apply(outgoingMessageStream);
+        RemoteEndpoint remoteEndpoint = new RemoteEndpoint(outgoingMessageStream,
+            ServiceEndpoints.toEndpoint(localService));
+        jsonHandler.setMethodProvider(remoteEndpoint);
+        T remoteProxy = ServiceEndpoints.toServiceObject(remoteEndpoint, remoteInterface);
+        ChannelMessageProducer reader = new ChannelMessageProducer(in, jsonHandler,
+            remoteEndpoint);
+        MessageConsumer messageConsumer =
+            wrapper != null ? wrapper.apply(remoteEndpoint) : remoteEndpoint;
+        ConcurrentMessageProcessor msgProcessor =
+            new ConcurrentMessageProcessor(reader, messageConsumer);
+        return new StandardLauncher<>(executorService != null ? executorService
+            : Executors.newCachedThreadPool(), remoteProxy, remoteEndpoint, msgProcessor);
+    }
+
+    /**
+     * Returns a new {@link MessageJsonHandler} for the given supported methods.
+     * <p>
+     * Default implementation returns a {@link StreamingMessageJsonHandler}
+     * if {@link #useStreamingTypeAdapters()} returns <code>true</code>,
+     * and a default <code>MessageJsonHandler</code> otherwise.
+     * </p>
+     *
+     * @param supportedMethods never <code>null</code>
+     * @return a new JSON handler (never <code>null</code>)
+     */
+    protected MessageJsonHandler newJsonHandler(Map<String, JsonRpcMethod> supportedMethods)
+    {
+        if (useStreamingTypeAdapters())
+            return new StreamingMessageJsonHandler(supportedMethods);
+        return new MessageJsonHandler(supportedMethods);
+    }
+
+    /**
+     * Returns whether the launchers created by this factory should use
+     * hand-written streaming type adapters for the protocol types that tend
+     * to occur in large numbers in protocol messages, instead of the reflective
+     * type adapters used by default.
+     * <p>
+     * Default implementation returns <code>false</code>.
+     * Subclasses may override.
+     * </p>
+     *
+     * @return <code>true</code> if the streaming type adapters should be used,
+     *  and <code>false</code> otherwise
+     * @see StreamingTypeAdapterFactory
+     */
+    protected boolean useStreamingTypeAdapters()
+    {
+        return false;
+    }
+
+    /**
+     * Returns whether the launchers created by this factory should write
+     * outgoing messages via an {@link OutboundMessageQueue}, rather than
+     * synchronously on the threads sending the messages.
+     * <p>
+     * Default implementation returns <code>false</code>.
+     * Subclasses may override.
+     * </p>
+     *
+     * @return <code>true</code> if outgoing messages should be queued,
+     *  and <code>false</code> otherwise
+     * @see #newOutboundMessageQueue(MessageConsumer, Flushable)
+     */
+    protected boolean useOutboundMessageQueue()
+    {
+        return false;
+    }
+
+    /**
+     * Returns a new {@link OutboundMessageQueue} for the given writer.
+     * Called only if {@link #useOutboundMessageQueue()} returns <code>true</code>.
+     * <p>
+     * Default implementation returns a queue with default settings.
+     * Subclasses may override, e.g. to configure the queue or to keep
+     * a reference to the queue for the purpose of monitoring.
+     * </p>
+     *
+     * @param writer the message consumer that writes messages to the underlying
+     *  output (never <code>null</code>)
+     * @param flushable flushes the underlying output (never <code>null</code>)
+     * @return a new outbound message queue (never <code>null</code>)
+     */
+    protected OutboundMessageQueue newOutboundMessageQueue(MessageConsumer writer,
+        Flushable flushable)
+    {
+        return new OutboundMessageQueue(writer, flushable);
+    }
+
+    /**
+     * Returns a new {@link ChannelBasedConnection}. The returned connection
+     * will be used for creating a JSON-RPC connection.
+     *
+     * @return a new channel-based connection (never <code>null</code>)
+     */
+    protected abstract ChannelBasedConnection newChannelBasedConnection();
+
+    private static Map<String, JsonRpcMethod> getSupportedMethods(Object localService,
+        Class<?> remoteInterface)
+    {
+        Map<String, JsonRpcMethod> supportedMethods = new LinkedHashMap<>();
+        supportedMethods.putAll(ServiceEndpoints.getSupportedMethods(remoteInterface));
+        if (localService instanceof JsonRpcMethodProvider)
+            supportedMethods.putAll(((JsonRpcMethodProvider)localService).supportedMethods());
+        else
+            supportedMethods.putAll(ServiceEndpoints.getSupportedMethods(localService.getClass()));
+        return supportedMethods;
+    }
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019, 2021 1C-Soft LLC.
+ * Copyright (c) 2019, 2026 1C-Soft LLC.
  *
  * This program and the accompanying materials are made available under
  * the terms of the Eclipse Public License 2.0 which is available at
@@ -12,6 +12,9 @@
  *******************************************************************************/
 package org.lxtk.jsonrpc;
 
+import java.io.BufferedOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.concurrent.CompletionStage;
@@ -22,6 +25,8 @@ import java.util.function.Function;
 import org.eclipse.lsp4j.jsonrpc.Endpoint;
 import org.eclipse.lsp4j.jsonrpc.Launcher;
 import org.eclipse.lsp4j.jsonrpc.MessageConsumer;
+import org.eclipse.lsp4j.jsonrpc.json.MessageJsonHandler;
+import org.eclipse.lsp4j.jsonrpc.json.StreamMessageConsumer;
 import org.lxtk.util.connect.StreamBasedConnection;
 
 /**
@@ -92,6 +97,12 @@ public abstract class AbstractJsonRpcConnectionFactory<T>
 
     /**
      * Returns a new {@link Launcher}.
+     * <p>
+     * If {@link #useStreamingTypeAdapters()} returns <code>true</code>,
+     * the launcher will use a {@link StreamingMessageJsonHandler}. If {@link
+     * #useOutboundMessageQueue()} returns <code>true</code>, the launcher will
+     * write outgoing messages via an {@link OutboundMessageQueue}.
+     * </p>
      *
      * @param localService the object that receives method calls from the remote service
      *  (not <code>null</code>)
@@ -111,8 +122,97 @@ public abstract class AbstractJsonRpcConnectionFactory<T>
         OutputStream out, ExecutorService executorService,
         Function<MessageConsumer, MessageConsumer> wrapper)
     {
-        return Launcher.createIoLauncher(localService, remoteInterface, in, out, executorService,
-            wrapper);
+        OutputStream output = out;
+        Function<MessageConsumer, MessageConsumer> messageWrapper = wrapper;
+        if (useOutboundMessageQueue())
+        {
+            DeferredFlushOutputStream stream = new DeferredFlushOutputStream(out);
+            output = stream;
+            messageWrapper = consumer ->
+            {
+                // the wrapper is applied to both outgoing and incoming message streams
+                MessageConsumer result = consumer instanceof StreamMessageConsumer
+                    ? newOutboundMessageQueue(consumer, stream::flushBuffer) : consumer;
+                return wrapper != null ? wrapper.apply(result) : result;
+            };
+        }
+
+        if (!useStreamingTypeAdapters())
+            return Launcher.createIoLauncher(localService, remoteInterface, in, output,
+                executorService, messageWrapper);
+
+        Launcher.Builder<T> builder = new Launcher.Builder<T>()
+        {
+            @Override
+            protected MessageJsonHandler createJsonHandler()
+            {
+                return new StreamingMessageJsonHandler(getSupportedMethods());
+            }
+        };
+        return builder.setLocalService(localService)
+            .setRemoteInterface(remoteInterface)
+            .setInput(in)
+            .setOutput(output)
+            .setExecutorService(executorService)
+            .wrapMessages(messageWrapper)
+            .create();
+    }
+
+    /**
+     * Returns whether the launchers created by this factory should use
+     * hand-written streaming type adapters for the protocol types that tend
+     * to occur in large numbers in protocol messages, instead of the reflective
+     * type adapters used by default.
+     * <p>
+     * Default implementation returns <code>false</code>.
+     * Subclasses may override.
+     * </p>
+     *
+     * @return <code>true</code> if the streaming type adapters should be used,
+     *  and <code>false</code> otherwise
+     * @see StreamingTypeAdapterFactory
+     */
+    protected boolean useStreamingTypeAdapters()
+    {
+        return false;
+    }
+
+    /**
+     * Returns whether the launchers created by this factory should write
+     * outgoing messages via an {@link OutboundMessageQueue}, rather than
+     * synchronously on the threads sending the messages.
+     * <p>
+     * Default implementation returns <code>false</code>.
+     * Subclasses may override.
+     * </p>
+     *
+     * @return <code>true</code> if outgoing messages should be queued,
+     *  and <code>false</code> otherwise
+     * @see #newOutboundMessageQueue(MessageConsumer, Flushable)
+     */
+    protected boolean useOutboundMessageQueue()
+    {
+        return false;
+    }
+
+    /**
+     * Returns a new {@link OutboundMessageQueue} for the given writer.
+     * Called only if {@link #useOutboundMessageQueue()} returns <code>true</code>.
+     * <p>
+     * Default implementation returns a queue with default settings.
+     * Subclasses may override, e.g. to configure the queue or to keep
+     * a reference to the queue for the purpose of monitoring.
+     * </p>
+     *
+     * @param writer the message consumer that writes messages to the underlying
+     *  output (never <code>null</code>)
+     * @param flushable flushes the underlying output (never <code>null</code>)
+     * @return a new outbound message queue (never <code>null</code>)
+     */
+    protected OutboundMessageQueue newOutboundMessageQueue(MessageConsumer writer,
+        Flushable flushable)
+    {
+        return new OutboundMessageQueue(writer, flushable);
     }
 
     /**
@@ -122,4 +222,34 @@ public abstract class AbstractJsonRpcConnectionFactory<T>
      * @return a new stream-based connection (never <code>null</code>)
      */
     protected abstract StreamBasedConnection newStreamBasedConnection();
+
+    /*
+     * Defers flushing the output to the outbound message queue,
+     * which flushes it only after all of the queued messages have been written.
+     */
+    private static class DeferredFlushOutputStream
+        extends BufferedOutputStream
+    {
+        DeferredFlushOutputStream(OutputStream out)
+        {
+            super(out);
+        }
+
+        @Override
+        public void flush()
+        {
+        }
+
+        void flushBuffer() throws IOException
+        {
+            super.flush();
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            flushBuffer();
+            super.close();
+        }
+    }
 }
@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright (c) 2026 1C-Soft LLC.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Vladimir Piskarev (1C) - initial API and implementation
+ *******************************************************************************/
+package org.lxtk.jsonrpc;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of direct byte buffers of a fixed size, shared by all channel-based
+ * message producers and consumers. Direct buffers are relatively expensive
+ * to allocate and are not reclaimed promptly, so they are reused rather than
+ * allocated per connection or per message.
+ * <p>
+ * This class is thread-safe.
+ * </p>
+ */
+final class ByteBufferPool
+{
+    /**
+     * The capacity of the pooled buffers.
+     */
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final int MAX_POOLED = 16;
+
+    private static final Queue<ByteBuffer> POOL = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger POOLED = new AtomicInteger();
+
+    /**
+     * Returns a cleared direct buffer from the pool, allocating a new buffer
+     * if the pool is empty.
+     *
+     * @return a direct buffer of {@link #BUFFER_SIZE} capacity (never <code>null</code>)
+     */
+    static ByteBuffer acquire()
+    {
+        ByteBuffer buffer = POOL.poll();
+        if (buffer == null)
+            return ByteBuffer.allocateDirect(BUFFER_SIZE);
+        POOLED.decrementAndGet();
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Returns the given buffer to the pool. The buffer must have been
+     * obtained via {@link #acquire()} and must not be used after this call.
+     *
+     * @param buffer not <code>null</code>
+     */
+    static void release(ByteBuffer buffer)
+    {
+        if (POOLED.incrementAndGet() > MAX_POOLED)
+        {
+            POOLED.decrementAndGet();
+            return; // let it be reclaimed
+        }
+        POOL.offer(buffer);
+    }
+
+    private ByteBufferPool()
+    {
+    }
+}
@@ -0,0 +1,190 @@
+/*******************************************************************************
+ * Copyright (c) 2026 1C-Soft LLC.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Vladimir Piskarev (1C) - initial API and implementation
+ *******************************************************************************/
+package org.lxtk.jsonrpc;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+import org.eclipse.lsp4j.jsonrpc.JsonRpcException;
+import org.eclipse.lsp4j.jsonrpc.MessageConsumer;
+import org.eclipse.lsp4j.jsonrpc.json.MessageJsonHandler;
+import org.eclipse.lsp4j.jsonrpc.messages.Message;
+
+/**
+ * A {@link MessageConsumer} that writes messages framed with the
+ * <code>Content-Length</code> header to a {@link WritableByteChannel}.
+ * <p>
+ * The content is encoded in UTF-8 straight into a pooled direct buffer, which is
+ * written to the channel each time it fills up; the content length is computed
+ * in advance from the serialized message, so that no intermediate byte arrays
+ * are needed. The channel must be in blocking mode.
+ * </p>
+ * <p>
+ * By default, each message is written to the channel as soon as it is consumed.
+ * If {@link #setAutoFlush(boolean) auto flush} is disabled, messages are
+ * accumulated in the buffer until it fills up or is {@link #flush() flushed},
+ * so that several small messages can be written to the channel at once.
+ * </p>
+ * <p>
+ * This implementation is thread-safe.
+ * </p>
+ */
+public class ChannelMessageConsumer
+    implements MessageConsumer, Flushable
+{
+    private static final String CONTENT_LENGTH_HEADER = "Content-Length: "; //$NON-NLS-1$
+    private static final String CRLF = "\r\n"; //$NON-NLS-1$
+
+    private final WritableByteChannel channel;
+    private final MessageJsonHandler jsonHandler;
+    // guarded by this
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder().onMalformedInput(
+        CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private ByteBuffer buffer; // guarded by this
+    private boolean autoFlush = true; // guarded by this
+
+    /**
+     * Constructor.
+     *
+     * @param channel not <code>null</code>
+     * @param jsonHandler not <code>null</code>
+     */
+    public ChannelMessageConsumer(WritableByteChannel channel, MessageJsonHandler jsonHandler)
+    {
+        this.channel = Objects.requireNonNull(channel);
+        this.jsonHandler = Objects.requireNonNull(jsonHandler);
+    }
+
+    /**
+     * Sets whether each message is to be written to the channel as soon as
+     * it is consumed. If auto flush is disabled, consumed messages may remain
+     * in the buffer until the buffer fills up or {@link #flush()} is called.
+     * By default, auto flush is enabled.
+     *
+     * @param autoFlush whether auto flush is enabled
+     */
+    public synchronized void setAutoFlush(boolean autoFlush)
+    {
+        this.autoFlush = autoFlush;
+    }
+
+    @Override
+    public void consume(Message message)
+    {
+        String content = jsonHandler.serialize(message);
+        String header = CONTENT_LENGTH_HEADER + utf8Length(content) + CRLF + CRLF;
+        try
+        {
+            synchronized (this)
+            {
+                if (buffer == null)
+                    buffer = ByteBufferPool.acquire();
+
+                if (buffer.remaining() < header.length())
+                    writeFully(buffer);
+                for (int i = 0, n = header.length(); i < n; i++)
+                    buffer.put((byte)header.charAt(i)); // ASCII
+
+                encoder.reset();
+                CharBuffer chars = CharBuffer.wrap(content);
+                while (true)
+                {
+                    CoderResult result = encoder.encode(chars, buffer, true);
+                    if (result.isUnderflow())
+                        break;
+                    writeFully(buffer); // overflow
+                }
+                while (encoder.flush(buffer).isOverflow())
+                    writeFully(buffer);
+
+                if (autoFlush)
+                    flush();
+            }
+        }
+        catch (IOException e)
+        {
+            throw new JsonRpcException(e);
+        }
+    }
+
+    /**
+     * Writes any buffered messages to the channel.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public synchronized void flush() throws IOException
+    {
+        if (buffer == null)
+            return;
+        try
+        {
+            writeFully(buffer);
+        }
+        finally
+        {
+            ByteBufferPool.release(buffer);
+            buffer = null;
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException
+    {
+        buffer.flip();
+        try
+        {
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+        }
+        finally
+        {
+            buffer.clear();
+        }
+    }
+
+    /*
+     * Returns the number of bytes in the UTF-8 encoding of the given string,
+     * assuming malformed surrogates are replaced with '?', as the encoder does.
+     */
+    private static int utf8Length(String s)
+    {
+        int length = 0;
+        for (int i = 0, n = s.length(); i < n; i++)
+        {
+            char c = s.charAt(i);
+            if (c < 0x80)
+                length++;
+            else if (c < 0x800)
+                length += 2;
+            else if (Character.isHighSurrogate(c) && i + 1 < n
+                && Character.isLowSurrogate(s.charAt(i + 1)))
+            {
+                length += 4;
+                i++;
+            }
+            else if (Character.isSurrogate(c))
+                length++; // replaced with '?'
+            else
+                length += 3;
+        }
+        return length;
+    }
+}
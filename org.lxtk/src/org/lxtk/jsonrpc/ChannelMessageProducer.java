@@ -0,0 +1,368 @@
+/*******************************************************************************
+ * Copyright (c) 2026 1C-Soft LLC.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Vladimir Piskarev (1C) - initial API and implementation
+ *******************************************************************************/
+package org.lxtk.jsonrpc;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.eclipse.lsp4j.jsonrpc.JsonRpcException;
+import org.eclipse.lsp4j.jsonrpc.MessageConsumer;
+import org.eclipse.lsp4j.jsonrpc.MessageIssueException;
+import org.eclipse.lsp4j.jsonrpc.MessageIssueHandler;
+import org.eclipse.lsp4j.jsonrpc.MessageProducer;
+import org.eclipse.lsp4j.jsonrpc.json.MessageJsonHandler;
+import org.eclipse.lsp4j.jsonrpc.messages.Message;
+
+/**
+ * A {@link MessageProducer} that reads messages framed with the
+ * <code>Content-Length</code> header from a {@link ReadableByteChannel}.
+ * <p>
+ * The bytes are read into a pooled direct buffer; the headers are parsed
+ * in place, and the content is decoded from the buffer as it arrives into
+ * a reusable character buffer, which is then parsed directly, without
+ * intermediate byte arrays or strings. The channel must be in blocking mode.
+ * </p>
+ * <p>
+ * Behaves like lsp4j's <code>StreamMessageProducer</code> otherwise:
+ * messages that cannot be parsed are logged and skipped, and issues
+ * found when parsing a message are reported to the issue handler.
+ * </p>
+ */
+public class ChannelMessageProducer
+    implements MessageProducer, Closeable
+{
+    private static final Logger LOG = Logger.getLogger(ChannelMessageProducer.class.getName());
+
+    private static final String CONTENT_LENGTH_HEADER = "Content-Length"; //$NON-NLS-1$
+    private static final String CONTENT_TYPE_HEADER = "Content-Type"; //$NON-NLS-1$
+    private static final String CHARSET_PARAM = "charset="; //$NON-NLS-1$
+
+    /*
+     * The character buffer is retained between messages only if it is not
+     * larger than this, so that a single huge message does not pin its memory.
+     */
+    private static final int MAX_RETAINED_CHARS = 1024 * 1024;
+
+    private final ReadableByteChannel channel;
+    private final MessageJsonHandler jsonHandler;
+    private final MessageIssueHandler issueHandler;
+    private final CharsetDecoder utf8Decoder = newDecoder(StandardCharsets.UTF_8);
+    private final StringBuilder line = new StringBuilder();
+    private CharBuffer chars;
+    private volatile boolean keepRunning;
+
+    /**
+     * Constructor.
+     *
+     * @param channel not <code>null</code>
+     * @param jsonHandler not <code>null</code>
+     */
+    public ChannelMessageProducer(ReadableByteChannel channel, MessageJsonHandler jsonHandler)
+    {
+        this(channel, jsonHandler, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param channel not <code>null</code>
+     * @param jsonHandler not <code>null</code>
+     * @param issueHandler may be <code>null</code>
+     */
+    public ChannelMessageProducer(ReadableByteChannel channel, MessageJsonHandler jsonHandler,
+        MessageIssueHandler issueHandler)
+    {
+        this.channel = Objects.requireNonNull(channel);
+        this.jsonHandler = Objects.requireNonNull(jsonHandler);
+        this.issueHandler = issueHandler;
+    }
+
+    @Override
+    public void listen(MessageConsumer callback)
+    {
+        if (keepRunning)
+            throw new IllegalStateException("This producer is already listening."); //$NON-NLS-1$
+
+        keepRunning = true;
+        ByteBuffer buffer = ByteBufferPool.acquire();
+        try
+        {
+            buffer.flip(); // nothing has been read yet
+            while (keepRunning)
+            {
+                if (!readMessage(buffer, callback))
+                    return; // end of stream
+            }
+        }
+        catch (ClosedChannelException e)
+        {
+            // the channel has been closed (asynchronously)
+        }
+        catch (IOException e)
+        {
+            if (keepRunning)
+                throw new JsonRpcException(e);
+        }
+        finally
+        {
+            keepRunning = false;
+            chars = null;
+            ByteBufferPool.release(buffer);
+        }
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        keepRunning = false;
+        channel.close();
+    }
+
+    private boolean readMessage(ByteBuffer buffer, MessageConsumer callback) throws IOException
+    {
+        int contentLength = -1;
+        Charset charset = StandardCharsets.UTF_8;
+        boolean hasHeaders = false;
+        while (true)
+        {
+            if (!readLine(buffer))
+                return false;
+            if (line.length() == 0)
+            {
+                if (contentLength >= 0)
+                    break; // end of headers
+                if (hasHeaders)
+                {
+                    fireError(new IllegalStateException("Missing header " //$NON-NLS-1$
+                        + CONTENT_LENGTH_HEADER + " in input")); //$NON-NLS-1$
+                    hasHeaders = false;
+                    charset = StandardCharsets.UTF_8;
+                }
+                continue;
+            }
+            hasHeaders = true;
+            int colon = line.indexOf(":"); //$NON-NLS-1$
+            if (colon < 0)
+                continue;
+            String name = line.substring(0, colon).trim();
+            if (CONTENT_LENGTH_HEADER.equalsIgnoreCase(name))
+            {
+                try
+                {
+                    contentLength = Integer.parseInt(line.substring(colon + 1).trim());
+                }
+                catch (NumberFormatException e)
+                {
+                    fireError(new IllegalStateException(
+                        "Invalid Content-Length header: " + line)); //$NON-NLS-1$
+                    contentLength = -1;
+                }
+            }
+            else if (CONTENT_TYPE_HEADER.equalsIgnoreCase(name))
+            {
+                int index = line.indexOf(CHARSET_PARAM, colon);
+                if (index >= 0)
+                {
+                    String charsetName = line.substring(index + CHARSET_PARAM.length()).trim();
+                    try
+                    {
+                        charset = Charset.forName(charsetName);
+                    }
+                    catch (IllegalArgumentException e)
+                    {
+                        fireError(e);
+                    }
+                }
+            }
+        }
+
+        CharBuffer content = readContent(buffer, contentLength, charset);
+        if (content == null)
+            return false;
+        handleMessage(content, callback);
+        if (chars.capacity() > MAX_RETAINED_CHARS)
+            chars = null;
+        return true;
+    }
+
+    /*
+     * Reads the next header line into the line builder, without the line terminator.
+     * Returns false on end of stream.
+     */
+    private boolean readLine(ByteBuffer buffer) throws IOException
+    {
+        line.setLength(0);
+        while (true)
+        {
+            while (buffer.hasRemaining())
+            {
+                char c = (char)(buffer.get() & 0xff); // headers are ASCII
+                if (c == '\n')
+                {
+                    int length = line.length();
+                    if (length > 0 && line.charAt(length - 1) == '\r')
+                        line.setLength(length - 1);
+                    return true;
+                }
+                line.append(c);
+            }
+            if (!fill(buffer))
+                return false;
+        }
+    }
+
+    /*
+     * Decodes the given number of content bytes into the character buffer,
+     * as the bytes are read from the channel. Returns null on end of stream.
+     */
+    private CharBuffer readContent(ByteBuffer buffer, int contentLength, Charset charset)
+        throws IOException
+    {
+        CharsetDecoder decoder =
+            StandardCharsets.UTF_8.equals(charset) ? utf8Decoder : newDecoder(charset);
+        decoder.reset();
+        int maxChars = (int)Math.ceil(contentLength * (double)decoder.maxCharsPerByte());
+        if (chars == null || chars.capacity() < maxChars)
+            chars = CharBuffer.allocate(maxChars);
+        chars.clear();
+
+        int remaining = contentLength;
+        while (true)
+        {
+            int n = Math.min(buffer.remaining(), remaining);
+            int limit = buffer.limit();
+            int start = buffer.position();
+            buffer.limit(start + n);
+            CoderResult result = decoder.decode(buffer, chars, n == remaining);
+            buffer.limit(limit);
+            if (result.isError())
+                result.throwException(); // cannot happen with REPLACE
+            remaining -= buffer.position() - start;
+            if (remaining == 0)
+                break;
+            // either the buffer has been drained, or an incomplete character remains in it
+            if (!fill(buffer))
+                return null;
+        }
+        decoder.flush(chars);
+        chars.flip();
+        return chars;
+    }
+
+    /*
+     * Compacts the buffer and reads more bytes into it. Returns false on end of stream.
+     */
+    private boolean fill(ByteBuffer buffer) throws IOException
+    {
+        buffer.compact();
+        try
+        {
+            int n;
+            do
+            {
+                if (!keepRunning)
+                    throw new AsynchronousCloseException();
+                n = channel.read(buffer);
+            }
+            while (n == 0);
+            return n > 0;
+        }
+        finally
+        {
+            buffer.flip();
+        }
+    }
+
+    private void handleMessage(CharBuffer content, MessageConsumer callback)
+    {
+        try
+        {
+            Message message = jsonHandler.parseMessage(new CharBufferReader(content));
+            callback.consume(message);
+        }
+        catch (MessageIssueException e)
+        {
+            if (issueHandler != null)
+                issueHandler.handle(e.getRpcMessage(), e.getIssues());
+            else
+                fireError(e);
+        }
+        catch (Exception e)
+        {
+            // keep the thread alive in case of a parse error or an error in the consumer
+            fireError(e);
+        }
+    }
+
+    private static void fireError(Throwable error)
+    {
+        String message = error.getMessage() != null ? error.getMessage()
+            : "An error occurred while processing an incoming message"; //$NON-NLS-1$
+        LOG.log(Level.SEVERE, message, error);
+    }
+
+    private static CharsetDecoder newDecoder(Charset charset)
+    {
+        // same as new String(bytes, charset)
+        return charset.newDecoder().onMalformedInput(
+            CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    private static class CharBufferReader
+        extends Reader
+    {
+        private final CharBuffer buffer;
+
+        CharBufferReader(CharBuffer buffer)
+        {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len)
+        {
+            if (len == 0)
+                return 0;
+            if (!buffer.hasRemaining())
+                return -1;
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(cbuf, off, n);
+            return n;
+        }
+
+        @Override
+        public int read()
+        {
+            return buffer.hasRemaining() ? buffer.get() : -1;
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+}
@@ -0,0 +1,319 @@
+/*******************************************************************************
+ * Copyright (c) 2026 1C-Soft LLC.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Vladimir Piskarev (1C) - initial API and implementation
+ *******************************************************************************/
+package org.lxtk.jsonrpc;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.eclipse.lsp4j.jsonrpc.messages.Either3;
+import org.eclipse.lsp4j.jsonrpc.messages.Tuple;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+
+/**
+ * Makes deep copies of objects of the types used in protocol messages
+ * by copying their structure directly, without a JSON round trip.
+ * <p>
+ * Immutable values (strings, boxed primitives and enums) are shared.
+ * Lists, sets, maps and arrays are copied element by element. Sorted sets
+ * and maps are copied into a {@link TreeSet} or {@link TreeMap} with the same
+ * comparator, enum sets and maps into an {@link EnumSet} or {@link EnumMap};
+ * other lists, sets and maps are copied into an {@link ArrayList},
+ * {@link LinkedHashSet} or {@link LinkedHashMap}. If the copied collection
+ * does not match the declared type of the field it is assigned to, the value
+ * of the field is copied via a JSON round trip instead.
+ * Other objects are copied field by field, skipping static and transient
+ * fields (the same fields that are serialized by Gson). The fields
+ * and the no-arg constructor of a class are looked up once, and cached
+ * as method handles; subsequent copies involve no reflective lookups.
+ * Objects of a class that cannot be copied structurally (e.g. because
+ * it has no no-arg constructor) are copied via a JSON round trip.
+ * </p>
+ */
+final class DeepCopier
+{
+    private static final MethodType GETTER_TYPE =
+        MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE =
+        MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+
+    private final Gson gson;
+    private final ClassValue<ClassCopier> copiers = new ClassValue<ClassCopier>()
+    {
+        @Override
+        protected ClassCopier computeValue(Class<?> type)
+        {
+            return newClassCopier(type);
+        }
+    };
+
+    /**
+     * Constructor.
+     *
+     * @param gson the {@link Gson} instance to use for a JSON round trip
+     *  (not <code>null</code>)
+     */
+    DeepCopier(Gson gson)
+    {
+        this.gson = gson;
+    }
+
+    /**
+     * Makes a deep copy of the given object.
+     *
+     * @param o may be <code>null</code>
+     * @return a deep copy of the given object (<code>null</code> if the given
+     *  object is <code>null</code>)
+     */
+    Object copy(Object o)
+    {
+        if (o == null || isImmutable(o.getClass()))
+            return o;
+        if (o instanceof JsonElement)
+            return ((JsonElement)o).deepCopy();
+        if (o instanceof Either)
+            return copyEither((Either<?, ?>)o);
+        if (o instanceof Tuple.Two)
+        {
+            Tuple.Two<?, ?> two = (Tuple.Two<?, ?>)o;
+            return new Tuple.Two<>(copy(two.getFirst()), copy(two.getSecond()));
+        }
+        if (o instanceof List)
+        {
+            List<?> list = (List<?>)o;
+            List<Object> result = new ArrayList<>(list.size());
+            for (Object element : list)
+                result.add(copy(element));
+            return result;
+        }
+        if (o instanceof EnumSet)
+            return ((EnumSet<?>)o).clone(); // enums are immutable
+        if (o instanceof Set)
+        {
+            Set<?> set = (Set<?>)o;
+            Set<Object> result;
+            if (set instanceof SortedSet)
+                result = new TreeSet<>(comparator((SortedSet<?>)set));
+            else
+                result = new LinkedHashSet<>(set.size() * 4 / 3 + 1);
+            for (Object element : set)
+                result.add(copy(element));
+            return result;
+        }
+        if (o instanceof Map)
+        {
+            Map<?, ?> map = (Map<?, ?>)o;
+            Map<Object, Object> result;
+            if (map instanceof EnumMap)
+                result = newEnumMap((EnumMap<?, ?>)map); // the values are replaced below
+            else if (map instanceof SortedMap)
+                result = new TreeMap<>(comparator((SortedMap<?, ?>)map));
+            else
+                result = new LinkedHashMap<>(map.size() * 4 / 3 + 1);
+            map.forEach((key, value) -> result.put(copy(key), copy(value)));
+            return result;
+        }
+        if (o.getClass().isArray())
+        {
+            int length = Array.getLength(o);
+            Object result = Array.newInstance(o.getClass().getComponentType(), length);
+            if (o.getClass().getComponentType().isPrimitive())
+                System.arraycopy(o, 0, result, 0, length);
+            else
+            {
+                Object[] source = (Object[])o;
+                Object[] target = (Object[])result;
+                for (int i = 0; i < length; i++)
+                    target[i] = copy(source[i]);
+            }
+            return result;
+        }
+        return copiers.get(o.getClass()).copy(o);
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Map<Object, Object> newEnumMap(EnumMap<?, ?> map)
+    {
+        return new EnumMap(map);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparator<Object> comparator(SortedSet<?> set)
+    {
+        return (Comparator<Object>)set.comparator();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparator<Object> comparator(SortedMap<?, ?> map)
+    {
+        return (Comparator<Object>)map.comparator();
+    }
+
+    private Object copyEither(Either<?, ?> either)
+    {
+        if (either instanceof Either3)
+        {
+            Either3<?, ?, ?> either3 = (Either3<?, ?, ?>)either;
+            if (either3.isFirst())
+                return Either3.forFirst(copy(either3.getFirst()));
+            if (either3.isSecond())
+                return Either3.forSecond(copy(either3.getSecond()));
+            return Either3.forThird(copy(either3.getThird()));
+        }
+        return either.isLeft() ? Either.forLeft(copy(either.getLeft()))
+            : Either.forRight(copy(either.getRight()));
+    }
+
+    private static boolean isImmutable(Class<?> type)
+    {
+        return type == String.class || type == Integer.class || type == Boolean.class
+            || type == Long.class || type == Double.class || type == Character.class
+            || type == Float.class || type == Short.class || type == Byte.class
+            || type.isEnum() || (type.getSuperclass() != null && type.getSuperclass().isEnum());
+    }
+
+    private ClassCopier newClassCopier(Class<?> type)
+    {
+        if (Collection.class.isAssignableFrom(type) || type.isInterface()
+            || Modifier.isAbstract(type.getModifiers()))
+            return new JsonCopier(type);
+        try
+        {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            Constructor<?> constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            MethodHandle newInstance =
+                lookup.unreflectConstructor(constructor).asType(CONSTRUCTOR_TYPE);
+
+            List<MethodHandle> getters = new ArrayList<>();
+            List<MethodHandle> setters = new ArrayList<>();
+            List<Field> collectionFields = new ArrayList<>();
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass())
+            {
+                for (Field field : c.getDeclaredFields())
+                {
+                    int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)
+                        || field.isSynthetic())
+                        continue;
+                    field.setAccessible(true);
+                    getters.add(lookup.unreflectGetter(field).asType(GETTER_TYPE));
+                    setters.add(lookup.unreflectSetter(field).asType(SETTER_TYPE));
+                    Class<?> fieldType = field.getType();
+                    collectionFields.add(Collection.class.isAssignableFrom(fieldType)
+                        || Map.class.isAssignableFrom(fieldType) ? field : null);
+                }
+            }
+            return new StructuralCopier(newInstance, getters.toArray(new MethodHandle[0]),
+                setters.toArray(new MethodHandle[0]), collectionFields.toArray(new Field[0]));
+        }
+        catch (ReflectiveOperationException | RuntimeException e)
+        {
+            return new JsonCopier(type);
+        }
+    }
+
+    private interface ClassCopier
+    {
+        Object copy(Object o);
+    }
+
+    private class StructuralCopier
+        implements ClassCopier
+    {
+        private final MethodHandle newInstance;
+        private final MethodHandle[] getters;
+        private final MethodHandle[] setters;
+        // collection and map fields, to check the type of the copied value; null for others
+        private final Field[] collectionFields;
+
+        StructuralCopier(MethodHandle newInstance, MethodHandle[] getters,
+            MethodHandle[] setters, Field[] collectionFields)
+        {
+            this.newInstance = newInstance;
+            this.getters = getters;
+            this.setters = setters;
+            this.collectionFields = collectionFields;
+        }
+
+        @Override
+        public Object copy(Object o)
+        {
+            try
+            {
+                Object result = (Object)newInstance.invokeExact();
+                for (int i = 0; i < getters.length; i++)
+                {
+                    Object value = (Object)getters[i].invokeExact(o);
+                    Object copy = DeepCopier.this.copy(value);
+                    Field field = collectionFields[i];
+                    if (field != null && copy != null && !field.getType().isInstance(copy))
+                    {
+                        // the declared type is more specific than the copied collection;
+                        // let Gson create the collection of the declared type
+                        copy = gson.fromJson(gson.toJsonTree(value), field.getGenericType());
+                    }
+                    setters[i].invokeExact(result, copy);
+                }
+                return result;
+            }
+            catch (RuntimeException | Error e)
+            {
+                throw e;
+            }
+            catch (Throwable e)
+            {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private class JsonCopier
+        implements ClassCopier
+    {
+        private final Class<?> type;
+
+        JsonCopier(Class<?> type)
+        {
+            this.type = type;
+        }
+
+        @Override
+        public Object copy(Object o)
+        {
+            return gson.fromJson(gson.toJson(o), type);
+        }
+    }
+}
@@ -0,0 +1,521 @@
+/*******************************************************************************
+ * Copyright (c) 2026 1C-Soft LLC.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Vladimir Piskarev (1C) - initial API and implementation
+ *******************************************************************************/
+package org.lxtk.jsonrpc;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.eclipse.lsp4j.jsonrpc.Endpoint;
+import org.eclipse.lsp4j.jsonrpc.JsonRpcException;
+import org.eclipse.lsp4j.jsonrpc.MessageConsumer;
+import org.eclipse.lsp4j.jsonrpc.RemoteEndpoint;
+import org.eclipse.lsp4j.jsonrpc.ResponseErrorException;
+import org.eclipse.lsp4j.jsonrpc.messages.CancelParams;
+import org.eclipse.lsp4j.jsonrpc.messages.Message;
+import org.eclipse.lsp4j.jsonrpc.messages.NotificationMessage;
+import org.eclipse.lsp4j.jsonrpc.messages.RequestMessage;
+import org.eclipse.lsp4j.jsonrpc.messages.ResponseError;
+import org.eclipse.lsp4j.jsonrpc.messages.ResponseErrorCode;
+import org.eclipse.lsp4j.jsonrpc.messages.ResponseMessage;
+import org.eclipse.lsp4j.jsonrpc.services.ServiceEndpoints;
+import org.lxtk.util.DisposableObject;
+
+/**
+ * Partial implementation of a {@link JsonRpcConnectionFactory} that connects
+ * the local service directly to a remote service running in the same JVM,
+ * bypassing JSON serialization altogether.
+ * <p>
+ * Method calls are dispatched via {@link ServiceEndpoints}. To preserve the
+ * semantics of a wire connection, calls in each direction are dispatched
+ * one at a time, in the order they were made: calls to the remote service are
+ * dispatched on the executor returned by {@link #newRemoteExecutor()}, and
+ * calls to the local service, as well as the completion of the futures returned
+ * to the local service, happen on the executor given to {@link #newConnection
+ * newConnection} (or on a dedicated thread if none is given). Exceptions are
+ * reported to the caller as {@link ResponseErrorException}s, as they would be
+ * over the wire.
+ * </p>
+ * <p>
+ * Parameters and results are {@link #copy(Object) copied} on their way
+ * across the connection, so that neither side can observe the other side's
+ * mutations. Immutable values are not copied. Note that values of type
+ * <code>Object</code> in protocol messages (such as registration options
+ * or partial results) arrive as Java objects rather than JSON elements.
+ * </p>
+ * <p>
+ * The connection is considered closed once the remote service has handled
+ * the <code>exit</code> notification, or when the connection is disposed.
+ * </p>
+ * <p>
+ * Although no messages are exchanged, the message wrapper given to
+ * <code>newConnection</code> is applied to synthetic message streams that
+ * mirror the calls made across the connection: each call is reported as
+ * a request or notification message, each reply as a response message,
+ * and the cancellation of a request as a <code>$/cancelRequest</code>
+ * notification. As with a wire connection, the wrapper is applied both to
+ * the outgoing and to the incoming message stream, and the consumer of the
+ * incoming message stream is a {@link RemoteEndpoint}. The consumers of the
+ * synthetic streams do nothing but observe the messages; parameters and
+ * results in the messages are Java objects rather than JSON elements.
+ * </p>
+ *
+ * @param <T> remote interface type
+ */
+public abstract class InProcessJsonRpcConnectionFactory<T>
+    implements JsonRpcConnectionFactory<T>
+{
+    private static final Logger LOG =
+        Logger.getLogger(InProcessJsonRpcConnectionFactory.class.getName());
+
+    private static final String EXIT = "exit"; //$NON-NLS-1$
+    private static final String CANCEL_REQUEST = "$/cancelRequest"; //$NON-NLS-1$
+
+    @Override
+    public JsonRpcConnection<T> newConnection(Object localService, Class<T> remoteInterface,
+        ExecutorService executorService, Function<MessageConsumer, MessageConsumer> wrapper)
+    {
+        return new InProcessConnection(localService, remoteInterface, executorService,
+            wrapper);
+    }
+
+    /**
+     * Returns a new remote service connected to the given endpoint.
+     * The remote service is expected to call the local service via
+     * the given endpoint, e.g. by means of a proxy created with
+     * {@link ServiceEndpoints#toServiceObject(Endpoint, Class)}.
+     *
+     * @param localEndpoint the endpoint for calling the local service
+     *  (never <code>null</code>)
+     * @return a new remote service (not <code>null</code>). The returned object
+     *  is expected to implement the remote interface or have methods annotated
+     *  with the JSON-RPC annotations of the remote interface
+     */
+    protected abstract Object newRemoteService(Endpoint localEndpoint);
+
+    /**
+     * Returns a new executor service for dispatching calls to the remote service.
+     * Calls are dispatched one at a time regardless of the number of threads
+     * of the executor service. The returned executor service is owned by the
+     * connection and will be shut down when the connection is disposed.
+     * <p>
+     * Default implementation returns a single-thread executor with a daemon thread.
+     * Subclasses may override.
+     * </p>
+     *
+     * @return a new executor service (not <code>null</code>)
+     */
+    protected ExecutorService newRemoteExecutor()
+    {
+        return newSingleThreadExecutor("LXTK In-Process Server"); //$NON-NLS-1$
+    }
+
+    /**
+     * Returns a copy of the given parameter or result that is about to cross
+     * the connection, so that the receiving side cannot observe mutations made
+     * by the sending side and vice versa.
+     * <p>
+     * Default implementation returns a {@link JsonUtil#deepCopy(Object) deep copy}
+     * of the given object. Subclasses may override, e.g. to return the given
+     * object as is if both sides are known not to retain or mutate the objects
+     * passed across the connection.
+     * </p>
+     *
+     * @param object may be <code>null</code>
+     * @return a copy of the given object (<code>null</code> if the given object
+     *  is <code>null</code>)
+     */
+    protected Object copy(Object object)
+    {
+        if (object == null)
+            return null;
+        return JsonUtil.deepCopy(object);
+    }
+
+    private static ExecutorService newSingleThreadExecutor(String threadName)
+    {
+        return Executors.newSingleThreadExecutor(runnable ->
+        {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static Throwable toResponseError(Throwable e, String method)
+    {
+        if (e instanceof CompletionException && e.getCause() != null)
+            e = e.getCause();
+        if (e instanceof ResponseErrorException)
+            return e;
+        if (e instanceof CancellationException)
+            return new ResponseErrorException(new ResponseError(
+                ResponseErrorCode.RequestCancelled, "The request (method: '" + method //$NON-NLS-1$
+                    + "') has been cancelled", null)); //$NON-NLS-1$
+        return new ResponseErrorException(RemoteEndpoint.DEFAULT_EXCEPTION_HANDLER.apply(e));
+    }
+
+    private class InProcessConnection
+        extends DisposableObject
+        implements JsonRpcConnection<T>
+    {
+        private final ExecutorService remoteExecutor;
+        private final ExecutorService localExecutor;
+        private final Endpoint remoteEndpoint;
+        private final T remoteProxy;
+        private volatile boolean exited;
+
+        InProcessConnection(Object localService, Class<T> remoteInterface,
+            ExecutorService executorService, Function<MessageConsumer, MessageConsumer> wrapper)
+        {
+            remoteExecutor = newRemoteExecutor();
+            localExecutor = executorService != null ? executorService
+                : newSingleThreadExecutor("LXTK In-Process Client"); //$NON-NLS-1$
+            onDispose().thenRun(() ->
+            {
+                remoteExecutor.shutdown();
+                if (executorService == null)
+                    localExecutor.shutdown();
+            });
+            try
+            {
+                SerialExecutor remote = new SerialExecutor(remoteExecutor);
+                SerialExecutor local = new SerialExecutor(localExecutor);
+                Endpoint localServiceEndpoint = ServiceEndpoints.toEndpoint(localService);
+                MessageConsumer outgoing = message ->
+                {
+                };
+                MessageConsumer incoming = new IncomingMessageStream(localServiceEndpoint);
+                if (wrapper != null)
+                {
+                    outgoing = wrapper.apply(outgoing);
+                    incoming = wrapper.apply(incoming);
+                }
+                Endpoint localEndpoint = new DispatchingEndpoint(localServiceEndpoint, local,
+                    remote, false, incoming, outgoing);
+                remoteEndpoint = new DispatchingEndpoint(
+                    ServiceEndpoints.toEndpoint(newRemoteService(localEndpoint)), remote, local,
+                    true, outgoing, incoming);
+                remoteProxy = ServiceEndpoints.toServiceObject(remoteEndpoint, remoteInterface);
+            }
+            catch (Throwable t)
+            {
+                dispose();
+                throw t;
+            }
+        }
+
+        @Override
+        public T getRemoteProxy()
+        {
+            return remoteProxy;
+        }
+
+        @Override
+        public Endpoint getRemoteEndpoint()
+        {
+            return remoteEndpoint;
+        }
+
+        @Override
+        public boolean isClosed()
+        {
+            return exited || onDispose().toCompletableFuture().isDone();
+        }
+
+        /*
+         * Dispatches calls to the target endpoint on the target executor,
+         * and completes the returned futures on the reply executor.
+         * Calls are reported to the call stream, and replies to the reply stream.
+         */
+        private class DispatchingEndpoint
+            implements Endpoint
+        {
+            private final Endpoint target;
+            private final Executor targetExecutor;
+            private final Executor replyExecutor;
+            private final boolean remote;
+            private final MessageConsumer callStream;
+            private final MessageConsumer replyStream;
+            private final AtomicLong nextRequestId = new AtomicLong();
+
+            DispatchingEndpoint(Endpoint target, Executor targetExecutor,
+                Executor replyExecutor, boolean remote, MessageConsumer callStream,
+                MessageConsumer replyStream)
+            {
+                this.target = target;
+                this.targetExecutor = targetExecutor;
+                this.replyExecutor = replyExecutor;
+                this.remote = remote;
+                this.callStream = callStream;
+                this.replyStream = replyStream;
+            }
+
+            @Override
+            public CompletableFuture<?> request(String method, Object parameter)
+            {
+                CompletableFuture<Object> result = new CompletableFuture<>();
+                if (isClosed())
+                {
+                    result.completeExceptionally(newClosedException());
+                    return result;
+                }
+                Object param = copy(parameter);
+                String id = String.valueOf(nextRequestId.incrementAndGet());
+                RequestMessage request = new RequestMessage();
+                request.setId(id);
+                request.setMethod(method);
+                request.setParams(param);
+                callStream.consume(request);
+                AtomicReference<CompletableFuture<?>> dispatched = new AtomicReference<>();
+                result.whenComplete((r, e) ->
+                {
+                    if (!result.isCancelled())
+                        return;
+                    // report the cancellation before the reply it may cause
+                    callStream.consume(newNotification(CANCEL_REQUEST, new CancelParams(id)));
+                    CompletableFuture<?> f = dispatched.get();
+                    if (f != null)
+                        f.cancel(true);
+                });
+                try
+                {
+                    targetExecutor.execute(() ->
+                    {
+                        if (result.isDone())
+                        {
+                            // cancelled before being dispatched
+                            reply(result, id, method, null, new CancellationException());
+                            return;
+                        }
+
+                        CompletableFuture<?> future;
+                        try
+                        {
+                            future = target.request(method, param);
+                        }
+                        catch (Throwable e)
+                        {
+                            future = CompletableFuture.failedFuture(e);
+                        }
+                        dispatched.set(future);
+                        if (result.isCancelled())
+                            future.cancel(true);
+                        future.whenComplete((r, e) -> reply(result, id, method, r, e));
+                    });
+                }
+                catch (RejectedExecutionException e)
+                {
+                    Throwable error = toResponseError(newClosedException(), method);
+                    replyStream.consume(newResponse(id, null, error));
+                    result.completeExceptionally(newClosedException());
+                }
+                return result;
+            }
+
+            @Override
+            public void notify(String method, Object parameter)
+            {
+                if (isClosed())
+                    return;
+                Object param = copy(parameter);
+                callStream.consume(newNotification(method, param));
+                try
+                {
+                    targetExecutor.execute(() ->
+                    {
+                        try
+                        {
+                            target.notify(method, param);
+                        }
+                        catch (Exception e)
+                        {
+                            LOG.log(Level.WARNING, "Notification threw an exception: " //$NON-NLS-1$
+                                + method, e);
+                        }
+                        finally
+                        {
+                            if (remote && EXIT.equals(method))
+                                exited = true;
+                        }
+                    });
+                }
+                catch (RejectedExecutionException e)
+                {
+                    // the connection has been disposed
+                }
+            }
+
+            private void reply(CompletableFuture<Object> result, String id, String method,
+                Object value, Throwable error)
+            {
+                Object copy = null;
+                if (error == null)
+                {
+                    try
+                    {
+                        copy = copy(value); // copy right away, before it can be mutated
+                    }
+                    catch (Throwable e)
+                    {
+                        error = e;
+                    }
+                }
+                Object r = copy;
+                Throwable e = error == null ? null : toResponseError(error, method);
+                try
+                {
+                    replyExecutor.execute(() ->
+                    {
+                        replyStream.consume(newResponse(id, r, e));
+                        if (e == null)
+                            result.complete(r);
+                        else
+                            result.completeExceptionally(e);
+                    });
+                }
+                catch (RejectedExecutionException e2)
+                {
+                    replyStream.consume(newResponse(id, null,
+                        toResponseError(newClosedException(), method)));
+                    result.completeExceptionally(newClosedException());
+                }
+            }
+
+            private Throwable newClosedException()
+            {
+                return new JsonRpcException(
+                    new IOException("The connection is closed")); //$NON-NLS-1$
+            }
+        }
+    }
+
+    private static Message newNotification(String method, Object params)
+    {
+        NotificationMessage message = new NotificationMessage();
+        message.setMethod(method);
+        message.setParams(params);
+        return message;
+    }
+
+    private static Message newResponse(String id, Object result, Throwable error)
+    {
+        ResponseMessage message = new ResponseMessage();
+        message.setId(id);
+        if (error == null)
+            message.setResult(result);
+        else
+            message.setError(((ResponseErrorException)error).getResponseError());
+        return message;
+    }
+
+    /*
+     * The consumer of the synthetic incoming message stream. Like the consumer
+     * of the incoming message stream of a wire connection, it is a RemoteEndpoint,
+     * so that message wrappers can tell the direction of the stream, but it does
+     * nothing with the messages, since the calls are dispatched directly.
+     */
+    private static class IncomingMessageStream
+        extends RemoteEndpoint
+    {
+        IncomingMessageStream(Endpoint localEndpoint)
+        {
+            super(message ->
+            {
+            }, localEndpoint);
+        }
+
+        @Override
+        public void consume(Message message)
+        {
+        }
+    }
+
+    /*
+     * Runs the given tasks one at a time, in the order they were submitted,
+     * on the underlying executor.
+     */
+    private static class SerialExecutor
+        implements Executor
+    {
+        private final Executor executor;
+        private final ArrayDeque<Runnable> tasks = new ArrayDeque<>(); // guarded by this
+        private boolean scheduled; // guarded by this
+
+        SerialExecutor(Executor executor)
+        {
+            this.executor = executor;
+        }
+
+        @Override
+        public void execute(Runnable task)
+        {
+            synchronized (this)
+            {
+                tasks.add(task);
+                if (scheduled)
+                    return;
+                scheduled = true;
+            }
+            try
+            {
+                executor.execute(this::run);
+            }
+            catch (RejectedExecutionException e)
+            {
+                synchronized (this)
+                {
+                    tasks.clear();
+                    scheduled = false;
+                }
+                throw e;
+            }
+        }
+
+        private void run()
+        {
+            while (true)
+            {
+                Runnable task;
+                synchronized (this)
+                {
+                    task = tasks.poll();
+                    if (task == null)
+                    {
+                        scheduled = false;
+                        return;
+                    }
+                }
+                try
+                {
+                    task.run();
+                }
+                catch (RuntimeException e)
+                {
+                    LOG.log(Level.SEVERE, e.getMessage(), e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,241 @@
+/*******************************************************************************
+ * Copyright (c) 2026 1C-Soft LLC.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Vladimir Piskarev (1C) - initial API and implementation
+ *******************************************************************************/
+package org.lxtk.jsonrpc;
+
+import java.util.Map;
+
+/**
+ * A snapshot of the statistics collected by {@link JsonRpcMetrics}
+ * for a JSON-RPC method.
+ * <p>
+ * Instances of this class are immutable.
+ * </p>
+ */
+public final class JsonRpcMethodStatistics
+{
+    private final String method;
+    private final long requestCount;
+    private final long notificationCount;
+    private final long responseCount;
+    private final long inFlightCount;
+    private final long cancelledCount;
+    private final long slowResponseCount;
+    private final Map<Integer, Long> errorCounts;
+    private final long totalLatency; // ns
+    private final long maxLatency; // ns
+    private final long[] latencyHistogram;
+    private final long totalMessageSize;
+    private final long maxMessageSize;
+
+    JsonRpcMethodStatistics(String method, long requestCount, long notificationCount,
+        long responseCount, long inFlightCount, long cancelledCount, long slowResponseCount,
+        Map<Integer, Long> errorCounts, long totalLatency, long maxLatency,
+        long[] latencyHistogram, long totalMessageSize, long maxMessageSize)
+    {
+        this.method = method;
+        this.requestCount = requestCount;
+        this.notificationCount = notificationCount;
+        this.responseCount = responseCount;
+        this.inFlightCount = inFlightCount;
+        this.cancelledCount = cancelledCount;
+        this.slowResponseCount = slowResponseCount;
+        this.errorCounts = Map.copyOf(errorCounts);
+        this.totalLatency = totalLatency;
+        this.maxLatency = maxLatency;
+        this.latencyHistogram = latencyHistogram;
+        this.totalMessageSize = totalMessageSize;
+        this.maxMessageSize = maxMessageSize;
+    }
+
+    /**
+     * Returns the method name.
+     *
+     * @return the method name (never <code>null</code>)
+     */
+    public String getMethod()
+    {
+        return method;
+    }
+
+    /**
+     * Returns the number of requests for the method.
+     *
+     * @return the request count
+     */
+    public long getRequestCount()
+    {
+        return requestCount;
+    }
+
+    /**
+     * Returns the number of notifications for the method.
+     *
+     * @return the notification count
+     */
+    public long getNotificationCount()
+    {
+        return notificationCount;
+    }
+
+    /**
+     * Returns the number of responses to requests for the method,
+     * including error responses.
+     *
+     * @return the response count
+     */
+    public long getResponseCount()
+    {
+        return responseCount;
+    }
+
+    /**
+     * Returns the number of requests for the method that have not received
+     * a response yet.
+     *
+     * @return the in-flight count
+     */
+    public long getInFlightCount()
+    {
+        return inFlightCount;
+    }
+
+    /**
+     * Returns the number of requests for the method that have been cancelled.
+     *
+     * @return the cancelled count
+     */
+    public long getCancelledCount()
+    {
+        return cancelledCount;
+    }
+
+    /**
+     * Returns the number of requests for the method that have received a response
+     * (or have been cancelled) only after the {@link
+     * JsonRpcMetrics#setSlowResponseThreshold(java.time.Duration) slow response threshold}.
+     *
+     * @return the slow response count
+     */
+    public long getSlowResponseCount()
+    {
+        return slowResponseCount;
+    }
+
+    /**
+     * Returns the number of error responses to requests for the method.
+     *
+     * @return the error count
+     */
+    public long getErrorCount()
+    {
+        long result = 0;
+        for (Long count : errorCounts.values())
+            result += count;
+        return result;
+    }
+
+    /**
+     * Returns the number of error responses to requests for the method
+     * by error code.
+     *
+     * @return the error counts by error code (never <code>null</code>)
+     */
+    public Map<Integer, Long> getErrorCounts()
+    {
+        return errorCounts;
+    }
+
+    /**
+     * Returns the average time from sending (or receiving) a request
+     * for the method to receiving (or sending) a response.
+     *
+     * @return the average latency in milliseconds
+     */
+    public double getAverageLatencyMillis()
+    {
+        return responseCount == 0 ? 0 : totalLatency / 1e6 / responseCount;
+    }
+
+    /**
+     * Returns the maximum latency of requests for the method.
+     *
+     * @return the maximum latency in milliseconds
+     * @see #getAverageLatencyMillis()
+     */
+    public double getMaxLatencyMillis()
+    {
+        return maxLatency / 1e6;
+    }
+
+    /**
+     * Returns the upper bounds of the buckets of the {@link #getLatencyHistogram()
+     * latency histogram}, except for the last bucket, which has no upper bound.
+     *
+     * @return the upper bounds of the histogram buckets in milliseconds
+     *  (never <code>null</code>)
+     */
+    public long[] getLatencyBucketBoundsMillis()
+    {
+        return JsonRpcMetrics.getLatencyBucketBoundsMillis();
+    }
+
+    /**
+     * Returns the latency histogram for the method. The <i>i</i>-th element of the
+     * returned array is the number of responses with latency less than the
+     * <i>i</i>-th {@link #getLatencyBucketBoundsMillis() bucket bound} and not less
+     * than the previous bucket bound; the last element is the number of responses
+     * with latency not less than the last bucket bound.
+     *
+     * @return the latency histogram (never <code>null</code>)
+     */
+    public long[] getLatencyHistogram()
+    {
+        return latencyHistogram.clone();
+    }
+
+    /**
+     * Returns the total size of the messages for the method, in characters
+     * of the serialized content. Message sizes are only measured if {@link
+     * JsonRpcMetrics#setMeasureMessageSizes(boolean) enabled}.
+     *
+     * @return the total message size
+     */
+    public long getTotalMessageSize()
+    {
+        return totalMessageSize;
+    }
+
+    /**
+     * Returns the maximum size of a message for the method.
+     *
+     * @return the maximum message size
+     * @see #getTotalMessageSize()
+     */
+    public long getMaxMessageSize()
+    {
+        return maxMessageSize;
+    }
+
+    @Override
+    public String toString()
+    {
+        return method + " [requests=" + requestCount //$NON-NLS-1$
+            + ", notifications=" + notificationCount //$NON-NLS-1$
+            + ", inFlight=" + inFlightCount //$NON-NLS-1$
+            + ", cancelled=" + cancelledCount //$NON-NLS-1$
+            + ", slowResponses=" + slowResponseCount //$NON-NLS-1$
+            + ", errors=" + errorCounts //$NON-NLS-1$
+            + ", avgLatencyMs=" + getAverageLatencyMillis() //$NON-NLS-1$
+            + ", maxLatencyMs=" + getMaxLatencyMillis() + ']'; //$NON-NLS-1$
+    }
+}
@@ -0,0 +1,427 @@
+/*******************************************************************************
+ * Copyright (c) 2026 1C-Soft LLC.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Vladimir Piskarev (1C) - initial API and implementation
+ *******************************************************************************/
+package org.lxtk.jsonrpc;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.eclipse.lsp4j.jsonrpc.MessageConsumer;
+import org.eclipse.lsp4j.jsonrpc.RemoteEndpoint;
+import org.eclipse.lsp4j.jsonrpc.json.MessageJsonHandler;
+import org.eclipse.lsp4j.jsonrpc.messages.CancelParams;
+import org.eclipse.lsp4j.jsonrpc.messages.Message;
+import org.eclipse.lsp4j.jsonrpc.messages.NotificationMessage;
+import org.eclipse.lsp4j.jsonrpc.messages.RequestMessage;
+import org.eclipse.lsp4j.jsonrpc.messages.ResponseError;
+import org.eclipse.lsp4j.jsonrpc.messages.ResponseErrorCode;
+import org.eclipse.lsp4j.jsonrpc.messages.ResponseMessage;
+import org.lxtk.util.Disposable;
+
+/**
+ * Collects per-method statistics of JSON-RPC messages: request and notification
+ * counts, request latencies, in-flight requests, cancelled requests, slow responses,
+ * error responses by error code, and (optionally) message sizes.
+ * <p>
+ * Messages are observed via {@link ConnectionTracker}s, which plug into
+ * the message streams of a connection as the message wrapper passed to
+ * {@link JsonRpcConnectionFactory#newConnection JsonRpcConnectionFactory.newConnection}.
+ * The statistics can be obtained {@link #getMethodStatistics() programmatically}
+ * or via JMX (see {@link #registerMBean(String)}).
+ * </p>
+ * <p>
+ * This implementation is thread-safe.
+ * </p>
+ */
+public final class JsonRpcMetrics
+    implements JsonRpcMetricsMXBean
+{
+    /**
+     * The slow response threshold by default.
+     */
+    public static final Duration DEFAULT_SLOW_RESPONSE_THRESHOLD = Duration.ofSeconds(2);
+
+    private static final String CANCEL_REQUEST = "$/cancelRequest"; //$NON-NLS-1$
+    private static final String JMX_DOMAIN = "org.lxtk"; //$NON-NLS-1$
+
+    private static final long[] LATENCY_BUCKET_BOUNDS =
+        { 1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000 }; // ms
+
+    private final Map<String, MethodRecorder> recorders = new ConcurrentHashMap<>();
+    private volatile long slowResponseThreshold = DEFAULT_SLOW_RESPONSE_THRESHOLD.toNanos();
+    private volatile boolean measureMessageSizes;
+
+    /**
+     * Returns a new tracker for a connection. The tracker is to be passed
+     * as the message wrapper to {@link JsonRpcConnectionFactory#newConnection
+     * JsonRpcConnectionFactory.newConnection}, and disposed when the connection
+     * is closed.
+     *
+     * @return a new connection tracker (never <code>null</code>)
+     */
+    public ConnectionTracker newConnectionTracker()
+    {
+        return new ConnectionTracker();
+    }
+
+    /**
+     * Sets the slow response threshold. A request is counted as having received
+     * a slow response if it receives a response (or gets cancelled) only after
+     * this amount of time. Note that this says nothing about whether the request
+     * has timed out on the client side: a response may be received long after
+     * the client has stopped waiting for it.
+     *
+     * @param threshold a positive duration
+     * @see #DEFAULT_SLOW_RESPONSE_THRESHOLD
+     */
+    public void setSlowResponseThreshold(Duration threshold)
+    {
+        if (threshold.isNegative() || threshold.isZero())
+            throw new IllegalArgumentException();
+        slowResponseThreshold = threshold.toNanos();
+    }
+
+    @Override
+    public long getSlowResponseThresholdMillis()
+    {
+        return Duration.ofNanos(slowResponseThreshold).toMillis();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Measuring a message size involves serializing the message once again,
+     * so it is disabled by default.
+     * </p>
+     */
+    @Override
+    public void setMeasureMessageSizes(boolean value)
+    {
+        measureMessageSizes = value;
+    }
+
+    @Override
+    public boolean isMeasureMessageSizes()
+    {
+        return measureMessageSizes;
+    }
+
+    @Override
+    public List<JsonRpcMethodStatistics> getMethodStatistics()
+    {
+        List<JsonRpcMethodStatistics> result = new ArrayList<>(recorders.size());
+        for (MethodRecorder recorder : recorders.values())
+            result.add(recorder.snapshot());
+        result.sort(Comparator.comparing(JsonRpcMethodStatistics::getMethod));
+        return result;
+    }
+
+    /**
+     * Returns a snapshot of the statistics for the given method.
+     *
+     * @param method not <code>null</code>
+     * @return the method statistics, or <code>null</code> if the method
+     *  has not been seen so far
+     */
+    public JsonRpcMethodStatistics getMethodStatistics(String method)
+    {
+        MethodRecorder recorder = recorders.get(method);
+        if (recorder == null)
+            return null;
+        return recorder.snapshot();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The requests that are currently in flight remain counted as such.
+     * </p>
+     */
+    @Override
+    public void reset()
+    {
+        for (MethodRecorder recorder : recorders.values())
+            recorder.reset();
+    }
+
+    /**
+     * Registers this object with the platform MBean server under the name
+     * <code>org.lxtk:type=JsonRpcMetrics,name=</code><i>name</i>.
+     *
+     * @param name not <code>null</code>
+     * @return a disposable that unregisters this object from the MBean server
+     *  (never <code>null</code>)
+     * @throws IllegalStateException if this object could not be registered
+     *  (e.g. because the name is already in use)
+     */
+    public Disposable registerMBean(String name)
+    {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName objectName;
+        try
+        {
+            objectName = new ObjectName(JMX_DOMAIN + ":type=JsonRpcMetrics,name=" //$NON-NLS-1$
+                + ObjectName.quote(name));
+            server.registerMBean(this, objectName);
+        }
+        catch (JMException e)
+        {
+            throw new IllegalStateException(e);
+        }
+        return () ->
+        {
+            try
+            {
+                server.unregisterMBean(objectName);
+            }
+            catch (JMException e)
+            {
+                // already unregistered
+            }
+        };
+    }
+
+    static long[] getLatencyBucketBoundsMillis()
+    {
+        return LATENCY_BUCKET_BOUNDS.clone();
+    }
+
+    private MethodRecorder getRecorder(String method)
+    {
+        return recorders.computeIfAbsent(method, MethodRecorder::new);
+    }
+
+    private int sizeOf(Message message)
+    {
+        if (!measureMessageSizes)
+            return -1;
+        return MessageJsonHandler.toString(message).length();
+    }
+
+    /**
+     * Observes the messages of a connection, and records their statistics
+     * in the {@link JsonRpcMetrics} that created this tracker.
+     * <p>
+     * The tracker is applied both to the outgoing message stream and to the
+     * incoming message stream; the incoming message stream is recognized
+     * by the consumer being a {@link RemoteEndpoint}, as is the case with
+     * the connections created by LXTK factories.
+     * </p>
+     *
+     * @see JsonRpcMetrics#newConnectionTracker()
+     */
+    public final class ConnectionTracker
+        implements Function<MessageConsumer, MessageConsumer>, Disposable
+    {
+        // requests sent and received, respectively, by their id
+        private final Map<String, PendingRequest> outgoingRequests = new ConcurrentHashMap<>();
+        private final Map<String, PendingRequest> incomingRequests = new ConcurrentHashMap<>();
+
+        ConnectionTracker()
+        {
+        }
+
+        @Override
+        public MessageConsumer apply(MessageConsumer consumer)
+        {
+            boolean incoming = consumer instanceof RemoteEndpoint;
+            return message ->
+            {
+                record(message, incoming);
+                consumer.consume(message);
+            };
+        }
+
+        /**
+         * Stops tracking the requests that are still in flight.
+         */
+        @Override
+        public void dispose()
+        {
+            abandon(outgoingRequests);
+            abandon(incomingRequests);
+        }
+
+        private void record(Message message, boolean incoming)
+        {
+            long now = System.nanoTime();
+            Map<String, PendingRequest> requests = incoming ? incomingRequests : outgoingRequests;
+            if (message instanceof RequestMessage)
+            {
+                RequestMessage request = (RequestMessage)message;
+                MethodRecorder recorder = getRecorder(request.getMethod());
+                recorder.request(sizeOf(message));
+                String id = request.getId();
+                if (id != null)
+                    requests.put(id, new PendingRequest(recorder, now));
+            }
+            else if (message instanceof NotificationMessage)
+            {
+                NotificationMessage notification = (NotificationMessage)message;
+                getRecorder(notification.getMethod()).notification(sizeOf(message));
+                if (CANCEL_REQUEST.equals(notification.getMethod())
+                    && notification.getParams() instanceof CancelParams)
+                {
+                    // a request is cancelled by the side that sent it
+                    PendingRequest request =
+                        requests.get(((CancelParams)notification.getParams()).getId());
+                    if (request != null)
+                        request.cancelled = true;
+                }
+            }
+            else if (message instanceof ResponseMessage)
+            {
+                ResponseMessage response = (ResponseMessage)message;
+                String id = response.getId();
+                // a response is received for an outgoing request and vice versa
+                PendingRequest request = id == null ? null
+                    : (incoming ? outgoingRequests : incomingRequests).remove(id);
+                if (request != null)
+                {
+                    ResponseError error = response.getError();
+                    request.recorder.response(now - request.startTime, sizeOf(message),
+                        error == null ? null : error.getCode(),
+                        request.cancelled || (error != null
+                            && error.getCode() == ResponseErrorCode.RequestCancelled.getValue()),
+                        slowResponseThreshold);
+                }
+            }
+        }
+
+        private void abandon(Map<String, PendingRequest> requests)
+        {
+            for (PendingRequest request : requests.values())
+                request.recorder.abandon();
+            requests.clear();
+        }
+    }
+
+    private static class PendingRequest
+    {
+        final MethodRecorder recorder;
+        final long startTime;
+        volatile boolean cancelled;
+
+        PendingRequest(MethodRecorder recorder, long startTime)
+        {
+            this.recorder = recorder;
+            this.startTime = startTime;
+        }
+    }
+
+    private static class MethodRecorder
+    {
+        private final String method;
+        // guarded by this
+        private long requestCount;
+        private long notificationCount;
+        private long responseCount;
+        private long inFlightCount;
+        private long cancelledCount;
+        private long slowResponseCount;
+        private final Map<Integer, Long> errorCounts = new HashMap<>();
+        private long totalLatency;
+        private long maxLatency;
+        private final long[] latencyHistogram = new long[LATENCY_BUCKET_BOUNDS.length + 1];
+        private long totalMessageSize;
+        private long maxMessageSize;
+
+        MethodRecorder(String method)
+        {
+            this.method = method;
+        }
+
+        synchronized void request(int size)
+        {
+            requestCount++;
+            inFlightCount++;
+            size(size);
+        }
+
+        synchronized void notification(int size)
+        {
+            notificationCount++;
+            size(size);
+        }
+
+        synchronized void response(long latency, int size, Integer errorCode, boolean cancelled,
+            long slowResponseThreshold)
+        {
+            responseCount++;
+            if (inFlightCount > 0)
+                inFlightCount--;
+            if (cancelled)
+                cancelledCount++;
+            if (latency >= slowResponseThreshold)
+                slowResponseCount++;
+            if (errorCode != null)
+                errorCounts.merge(errorCode, 1L, Long::sum);
+            totalLatency += latency;
+            maxLatency = Math.max(maxLatency, latency);
+            long millis = latency / 1_000_000;
+            int bucket = 0;
+            while (bucket < LATENCY_BUCKET_BOUNDS.length && millis >= LATENCY_BUCKET_BOUNDS[bucket])
+                bucket++;
+            latencyHistogram[bucket]++;
+            size(size);
+        }
+
+        synchronized void abandon()
+        {
+            if (inFlightCount > 0)
+                inFlightCount--;
+        }
+
+        synchronized void reset()
+        {
+            requestCount = 0;
+            notificationCount = 0;
+            responseCount = 0;
+            cancelledCount = 0;
+            slowResponseCount = 0;
+            errorCounts.clear();
+            totalLatency = 0;
+            maxLatency = 0;
+            for (int i = 0; i < latencyHistogram.length; i++)
+                latencyHistogram[i] = 0;
+            totalMessageSize = 0;
+            maxMessageSize = 0;
+        }
+
+        synchronized JsonRpcMethodStatistics snapshot()
+        {
+            return new JsonRpcMethodStatistics(method, requestCount, notificationCount,
+                responseCount, inFlightCount, cancelledCount, slowResponseCount, errorCounts,
+                totalLatency, maxLatency, latencyHistogram.clone(), totalMessageSize,
+                maxMessageSize);
+        }
+
+        private void size(int size) // guarded by this
+        {
+            if (size < 0)
+                return;
+            totalMessageSize += size;
+            maxMessageSize = Math.max(maxMessageSize, size);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*******************************************************************************
+ * Copyright (c) 2026 1C-Soft LLC.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Vladimir Piskarev (1C) - initial API and implementation
+ *******************************************************************************/
+package org.lxtk.jsonrpc;
+
+import java.util.List;
+
+/**
+ * The management interface of {@link JsonRpcMetrics}.
+ *
+ * @see JsonRpcMetrics#registerMBean(String)
+ */
+public interface JsonRpcMetricsMXBean
+{
+    /**
+     * Returns a snapshot of the statistics for each of the methods
+     * seen so far.
+     *
+     * @return the method statistics (never <code>null</code>)
+     */
+    List<JsonRpcMethodStatistics> getMethodStatistics();
+
+    /**
+     * Returns the slow response threshold.
+     *
+     * @return the slow response threshold in milliseconds
+     */
+    long getSlowResponseThresholdMillis();
+
+    /**
+     * Returns whether message sizes are measured.
+     *
+     * @return <code>true</code> if message sizes are measured,
+     *  and <code>false</code> otherwise
+     */
+    boolean isMeasureMessageSizes();
+
+    /**
+     * Sets whether message sizes are to be measured.
+     *
+     * @param value <code>true</code> if message sizes are to be measured,
+     *  and <code>false</code> otherwise
+     */
+    void setMeasureMessageSizes(boolean value);
+
+    /**
+     * Resets the collected statistics.
+     */
+    void reset();
+}
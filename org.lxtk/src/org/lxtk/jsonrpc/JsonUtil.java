@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2022 1C-Soft LLC.
+ * Copyright (c) 2022, 2026 1C-Soft LLC.
  *
  * This program and the accompanying materials are made available under
  * the terms of the Eclipse Public License 2.0 which is available at
@@ -20,10 +20,18 @@ import com.google.gson.Gson;
 public class JsonUtil
 {
     private static final Gson GSON = DefaultGson.INSTANCE;
+    private static final DeepCopier COPIER = new DeepCopier(GSON);
 
     /**
-     * Makes a deep copy of the given object by first serializing it to JSON
-     * and then deserializing it.
+     * Makes a deep copy of the given object.
+     * <p>
+     * The object is copied structurally: immutable values (such as strings,
+     * boxed primitives and enums) are shared, collections and arrays are copied
+     * element by element, and other objects are copied field by field, skipping
+     * static and transient fields. Objects that cannot be copied structurally
+     * (e.g. objects of a class without a no-arg constructor) are copied
+     * by first serializing them to JSON and then deserializing them.
+     * </p>
      *
      * @param <T> object type
      * @param o an object (not <code>null</code>)
@@ -32,7 +40,7 @@ public class JsonUtil
     public static <T> T deepCopy(T o)
     {
         @SuppressWarnings("unchecked")
-        T deepCopy = (T)GSON.fromJson(GSON.toJson(o), o.getClass());
+        T deepCopy = (T)COPIER.copy(o);
         return deepCopy;
     }
 
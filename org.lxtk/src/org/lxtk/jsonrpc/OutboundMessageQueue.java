@@ -0,0 +1,417 @@
+/*******************************************************************************
+ * Copyright (c) 2026 1C-Soft LLC.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Vladimir Piskarev (1C) - initial API and implementation
+ *******************************************************************************/
+package org.lxtk.jsonrpc;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.eclipse.lsp4j.jsonrpc.JsonRpcException;
+import org.eclipse.lsp4j.jsonrpc.MessageConsumer;
+import org.eclipse.lsp4j.jsonrpc.messages.CancelParams;
+import org.eclipse.lsp4j.jsonrpc.messages.Message;
+import org.eclipse.lsp4j.jsonrpc.messages.NotificationMessage;
+import org.eclipse.lsp4j.jsonrpc.messages.RequestMessage;
+
+/**
+ * Queues outgoing messages and writes them on a dedicated writer thread,
+ * so that the threads sending messages are not blocked by a slow connection.
+ * <p>
+ * Messages are written in the order they were queued, except that messages for the
+ * {@link #setPriorityMethods(Set) priority methods} are written ahead of all queued
+ * messages for other methods. Therefore, only methods whose messages do not depend
+ * on the order relative to other messages, such as <code>$/cancelRequest</code>,
+ * may be priority methods. In particular, document synchronization notifications
+ * such as <code>textDocument/didChange</code> must never be priority methods:
+ * a request made against a given version of a document must reach the server
+ * before a subsequent change to the document.
+ * </p>
+ * <p>
+ * A <code>$/cancelRequest</code> notification for a request that is still queued
+ * is never written ahead of the request, since the server would ignore it;
+ * instead, it is written right after the request.
+ * </p>
+ * <p>
+ * The writer writes all of the queued messages before flushing the underlying
+ * output, so that a burst of messages results in a single flush.
+ * </p>
+ * <p>
+ * When the number of queued messages reaches the {@link #setWaterMarks(int, int)
+ * high-water mark}, threads sending messages other than priority messages
+ * are blocked until the number of queued messages drops to the low-water mark.
+ * </p>
+ * <p>
+ * If writing a message fails, the queued messages are discarded, and any
+ * subsequent attempt to send a message fails with a {@link JsonRpcException}.
+ * </p>
+ * <p>
+ * This implementation is thread-safe.
+ * </p>
+ */
+public final class OutboundMessageQueue
+    implements MessageConsumer
+{
+    private static final String CANCEL_REQUEST = "$/cancelRequest"; //$NON-NLS-1$
+
+    /**
+     * The priority methods by default.
+     */
+    public static final Set<String> DEFAULT_PRIORITY_METHODS = Set.of(CANCEL_REQUEST);
+
+    /**
+     * The high-water mark by default.
+     */
+    public static final int DEFAULT_HIGH_WATER_MARK = 1024;
+
+    /**
+     * The low-water mark by default.
+     */
+    public static final int DEFAULT_LOW_WATER_MARK = 512;
+
+    private static final Logger LOG = Logger.getLogger(OutboundMessageQueue.class.getName());
+
+    private final MessageConsumer writer;
+    private final Flushable flushable;
+    private final ThreadPoolExecutor executor;
+    private final ArrayDeque<Entry> priorityLane = new ArrayDeque<>(); // guarded by this
+    private final ArrayDeque<Entry> normalLane = new ArrayDeque<>(); // guarded by this
+    // the ids of the requests in the normal lane; guarded by this
+    private final Set<String> queuedRequestIds = new HashSet<>();
+    // cancel notifications held until the request is written, by request id; guarded by this
+    private final Map<String, Entry> deferredCancels = new HashMap<>();
+    private boolean writerScheduled; // guarded by this
+    private Throwable failure; // guarded by this
+    private volatile Set<String> priorityMethods = DEFAULT_PRIORITY_METHODS;
+    private volatile int highWaterMark = DEFAULT_HIGH_WATER_MARK;
+    private volatile int lowWaterMark = DEFAULT_LOW_WATER_MARK;
+
+    // metrics; guarded by this
+    private int maxQueueDepth;
+    private long writtenCount;
+    private long flushCount;
+    private long totalLatency;
+    private long maxLatency;
+
+    /**
+     * Constructor.
+     *
+     * @param writer the message consumer that writes messages to the underlying
+     *  output (not <code>null</code>). Messages are passed to the writer
+     *  on the writer thread, one at a time
+     * @param flushable flushes the underlying output after the queued messages
+     *  have been written (may be <code>null</code> if the writer flushes the output
+     *  on its own)
+     */
+    public OutboundMessageQueue(MessageConsumer writer, Flushable flushable)
+    {
+        this.writer = Objects.requireNonNull(writer);
+        this.flushable = flushable;
+        executor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), runnable ->
+            {
+                Thread thread = new Thread(runnable, "LXTK JSON-RPC Writer"); //$NON-NLS-1$
+                thread.setDaemon(true);
+                return thread;
+            });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Sets the methods whose messages are written ahead of other messages.
+     * Only methods whose messages do not depend on the order relative to
+     * other messages may be priority methods.
+     *
+     * @param methods not <code>null</code>, may be empty
+     * @see #DEFAULT_PRIORITY_METHODS
+     */
+    public void setPriorityMethods(Set<String> methods)
+    {
+        priorityMethods = Set.copyOf(methods);
+    }
+
+    /**
+     * Sets the water marks for the number of queued messages.
+     *
+     * @param lowWaterMark a positive number not greater than the high-water mark
+     * @param highWaterMark a positive number
+     * @see #DEFAULT_LOW_WATER_MARK
+     * @see #DEFAULT_HIGH_WATER_MARK
+     */
+    public synchronized void setWaterMarks(int lowWaterMark, int highWaterMark)
+    {
+        if (lowWaterMark <= 0 || lowWaterMark > highWaterMark)
+            throw new IllegalArgumentException();
+        this.lowWaterMark = lowWaterMark;
+        this.highWaterMark = highWaterMark;
+        notifyAll();
+    }
+
+    /**
+     * Returns the number of currently queued messages.
+     *
+     * @return the queue depth
+     */
+    public synchronized int getQueueDepth()
+    {
+        return priorityLane.size() + normalLane.size() + deferredCancels.size();
+    }
+
+    /**
+     * Returns the maximum number of messages that have been queued at once.
+     *
+     * @return the maximum queue depth
+     */
+    public synchronized int getMaxQueueDepth()
+    {
+        return maxQueueDepth;
+    }
+
+    /**
+     * Returns the number of messages that have been written.
+     *
+     * @return the written count
+     */
+    public synchronized long getWrittenCount()
+    {
+        return writtenCount;
+    }
+
+    /**
+     * Returns the number of times the underlying output has been flushed.
+     *
+     * @return the flush count
+     */
+    public synchronized long getFlushCount()
+    {
+        return flushCount;
+    }
+
+    /**
+     * Returns the average write latency, i.e. the average time from queuing
+     * a message to flushing the underlying output after the message was written.
+     *
+     * @return the average write latency (never <code>null</code>)
+     */
+    public synchronized Duration getAverageWriteLatency()
+    {
+        return Duration.ofNanos(writtenCount == 0 ? 0 : totalLatency / writtenCount);
+    }
+
+    /**
+     * Returns the maximum write latency.
+     *
+     * @return the maximum write latency (never <code>null</code>)
+     * @see #getAverageWriteLatency()
+     */
+    public synchronized Duration getMaxWriteLatency()
+    {
+        return Duration.ofNanos(maxLatency);
+    }
+
+    @Override
+    public void consume(Message message)
+    {
+        boolean priority = isPriority(message);
+        synchronized (this)
+        {
+            if (!priority)
+            {
+                boolean interrupted = false;
+                if (getQueueDepth() >= highWaterMark)
+                {
+                    while (failure == null && getQueueDepth() > lowWaterMark)
+                    {
+                        try
+                        {
+                            wait();
+                        }
+                        catch (InterruptedException e)
+                        {
+                            interrupted = true; // don't lose the message
+                        }
+                    }
+                }
+                if (interrupted)
+                    Thread.currentThread().interrupt();
+            }
+            if (failure != null)
+                throw new JsonRpcException(failure);
+
+            Entry entry = new Entry(message, System.nanoTime());
+            if (priority)
+            {
+                String cancelledId = getCancelledRequestId(message);
+                if (cancelledId != null && queuedRequestIds.contains(cancelledId))
+                    deferredCancels.put(cancelledId, entry);
+                else
+                    priorityLane.add(entry);
+            }
+            else
+            {
+                normalLane.add(entry);
+                String id = getRequestId(message);
+                if (id != null)
+                    queuedRequestIds.add(id);
+            }
+            maxQueueDepth = Math.max(maxQueueDepth, getQueueDepth());
+
+            if (!writerScheduled)
+            {
+                writerScheduled = true;
+                executor.execute(this::write);
+            }
+        }
+    }
+
+    private void write()
+    {
+        long sumOfQueueTimes = 0;
+        long minQueueTime = Long.MAX_VALUE;
+        int count = 0;
+        while (true)
+        {
+            Entry entry;
+            synchronized (this)
+            {
+                entry = poll();
+                if (entry == null && count == 0)
+                {
+                    writerScheduled = false;
+                    return;
+                }
+            }
+            try
+            {
+                if (entry != null)
+                {
+                    writer.consume(entry.message);
+                    sumOfQueueTimes += entry.queueTime;
+                    minQueueTime = Math.min(minQueueTime, entry.queueTime);
+                    count++;
+                    continue;
+                }
+                // all of the queued messages have been written
+                if (flushable != null)
+                    flushable.flush();
+            }
+            catch (IOException | RuntimeException e)
+            {
+                fail(e);
+                return;
+            }
+            long now = System.nanoTime();
+            synchronized (this)
+            {
+                writtenCount += count;
+                flushCount++;
+                totalLatency += count * now - sumOfQueueTimes;
+                maxLatency = Math.max(maxLatency, now - minQueueTime);
+            }
+            sumOfQueueTimes = 0;
+            minQueueTime = Long.MAX_VALUE;
+            count = 0;
+        }
+    }
+
+    private Entry poll() // guarded by this
+    {
+        Entry entry = priorityLane.poll();
+        if (entry == null)
+        {
+            entry = normalLane.poll();
+            String id = entry == null ? null : getRequestId(entry.message);
+            if (id != null && queuedRequestIds.remove(id))
+            {
+                Entry cancel = deferredCancels.remove(id);
+                if (cancel != null)
+                    priorityLane.addFirst(cancel); // to be written right after the request
+            }
+        }
+        if (entry != null && getQueueDepth() <= lowWaterMark)
+            notifyAll();
+        return entry;
+    }
+
+    private void fail(Throwable e)
+    {
+        LOG.log(Level.SEVERE, "An error occurred while writing an outgoing message", //$NON-NLS-1$
+            e);
+        synchronized (this)
+        {
+            failure = e;
+            priorityLane.clear();
+            normalLane.clear();
+            queuedRequestIds.clear();
+            deferredCancels.clear();
+            writerScheduled = false;
+            notifyAll();
+        }
+    }
+
+    private boolean isPriority(Message message)
+    {
+        String method = getMethod(message);
+        return method != null && priorityMethods.contains(method);
+    }
+
+    private static String getRequestId(Message message)
+    {
+        if (message instanceof RequestMessage)
+            return ((RequestMessage)message).getId();
+        return null;
+    }
+
+    private static String getCancelledRequestId(Message message)
+    {
+        if (message instanceof NotificationMessage)
+        {
+            NotificationMessage notification = (NotificationMessage)message;
+            if (CANCEL_REQUEST.equals(notification.getMethod())
+                && notification.getParams() instanceof CancelParams)
+                return ((CancelParams)notification.getParams()).getId();
+        }
+        return null;
+    }
+
+    private static String getMethod(Message message)
+    {
+        if (message instanceof NotificationMessage)
+            return ((NotificationMessage)message).getMethod();
+        if (message instanceof RequestMessage)
+            return ((RequestMessage)message).getMethod();
+        return null;
+    }
+
+    private static class Entry
+    {
+        final Message message;
+        final long queueTime;
+
+        Entry(Message message, long queueTime)
+        {
+            this.message = message;
+            this.queueTime = queueTime;
+        }
+    }
+}
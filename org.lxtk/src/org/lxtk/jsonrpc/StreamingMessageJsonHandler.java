@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * Copyright (c) 2026 1C-Soft LLC.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Vladimir Piskarev (1C) - initial API and implementation
+ *******************************************************************************/
+package org.lxtk.jsonrpc;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.eclipse.lsp4j.jsonrpc.json.JsonRpcMethod;
+import org.eclipse.lsp4j.jsonrpc.json.MessageJsonHandler;
+
+import com.google.gson.GsonBuilder;
+
+/**
+ * A {@link MessageJsonHandler} that uses hand-written streaming type adapters
+ * for the protocol types that tend to occur in large numbers in protocol messages,
+ * instead of the reflective adapters used by default.
+ * <p>
+ * The {@link #getGson() Gson} instance of this handler may also be used for
+ * deserializing partial results (see {@link
+ * org.lxtk.AbstractPartialResultProgress#setGson(com.google.gson.Gson)
+ * AbstractPartialResultProgress.setGson}).
+ * </p>
+ *
+ * @see StreamingTypeAdapterFactory
+ * @see AbstractJsonRpcConnectionFactory#useStreamingTypeAdapters()
+ */
+public class StreamingMessageJsonHandler
+    extends MessageJsonHandler
+{
+    private static final StreamingTypeAdapterFactory FACTORY = new StreamingTypeAdapterFactory();
+
+    /**
+     * Constructor.
+     *
+     * @param supportedMethods not <code>null</code>
+     */
+    public StreamingMessageJsonHandler(Map<String, JsonRpcMethod> supportedMethods)
+    {
+        super(supportedMethods);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param supportedMethods not <code>null</code>
+     * @param configureGson a function for additional configuration of the
+     *  {@link GsonBuilder} (not <code>null</code>)
+     */
+    public StreamingMessageJsonHandler(Map<String, JsonRpcMethod> supportedMethods,
+        Consumer<GsonBuilder> configureGson)
+    {
+        super(supportedMethods, configureGson);
+    }
+
+    @Override
+    public GsonBuilder getDefaultGsonBuilder()
+    {
+        // note that this method is called from the superclass constructor
+        return super.getDefaultGsonBuilder().registerTypeAdapterFactory(FACTORY);
+    }
+}
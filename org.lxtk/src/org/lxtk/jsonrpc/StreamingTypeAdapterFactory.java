@@ -0,0 +1,857 @@
+/*******************************************************************************
+ * Copyright (c) 2026 1C-Soft LLC.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Vladimir Piskarev (1C) - initial API and implementation
+ *******************************************************************************/
+package org.lxtk.jsonrpc;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.eclipse.lsp4j.Command;
+import org.eclipse.lsp4j.CompletionItem;
+import org.eclipse.lsp4j.CompletionItemKind;
+import org.eclipse.lsp4j.CompletionItemLabelDetails;
+import org.eclipse.lsp4j.CompletionItemTag;
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.DiagnosticCodeDescription;
+import org.eclipse.lsp4j.DiagnosticRelatedInformation;
+import org.eclipse.lsp4j.DiagnosticSeverity;
+import org.eclipse.lsp4j.DiagnosticTag;
+import org.eclipse.lsp4j.DocumentSymbol;
+import org.eclipse.lsp4j.InsertReplaceEdit;
+import org.eclipse.lsp4j.InsertTextFormat;
+import org.eclipse.lsp4j.InsertTextMode;
+import org.eclipse.lsp4j.Location;
+import org.eclipse.lsp4j.MarkupContent;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.SemanticTokens;
+import org.eclipse.lsp4j.SymbolKind;
+import org.eclipse.lsp4j.SymbolTag;
+import org.eclipse.lsp4j.TextEdit;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * A {@link TypeAdapterFactory} that provides hand-written streaming type adapters
+ * for the protocol types that tend to occur in large numbers in protocol messages:
+ * {@link CompletionItem}, {@link Location}, {@link Diagnostic}, {@link SemanticTokens},
+ * {@link DocumentSymbol}, {@link TextEdit}, as well as {@link Range} and
+ * {@link Position}.
+ * <p>
+ * The adapters read the properties they know about directly from the JSON stream
+ * and set them via the corresponding setters, without any reflective access.
+ * The rare properties they do not know about (e.g. ones introduced in a newer
+ * version of the protocol) are collected and deserialized by the reflective
+ * adapter that would otherwise be used for the type, so that no information
+ * is lost. The adapters for {@link Position}, {@link Range}, {@link Location},
+ * {@link TextEdit} and {@link SemanticTokens} also serialize objects of these
+ * exact types directly to the JSON stream; the other objects are serialized
+ * by the reflective adapters.
+ * </p>
+ * <p>
+ * This factory is stateless and can be registered with any {@link
+ * com.google.gson.GsonBuilder GsonBuilder} that has been configured for
+ * protocol messages, such as the one provided by {@link StreamingMessageJsonHandler}.
+ * </p>
+ */
+public final class StreamingTypeAdapterFactory
+    implements TypeAdapterFactory
+{
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type)
+    {
+        Class<? super T> rawType = type.getRawType();
+        if (rawType == Position.class)
+            return (TypeAdapter<T>)new PositionAdapter(gson, this);
+        if (rawType == Range.class)
+            return (TypeAdapter<T>)new RangeAdapter(gson, this);
+        if (rawType == Location.class)
+            return (TypeAdapter<T>)new LocationAdapter(gson, this);
+        if (rawType == TextEdit.class)
+            return (TypeAdapter<T>)new TextEditAdapter(gson, this);
+        if (rawType == SemanticTokens.class)
+            return (TypeAdapter<T>)new SemanticTokensAdapter(gson, this);
+        if (rawType == Diagnostic.class)
+            return (TypeAdapter<T>)new DiagnosticAdapter(gson, this);
+        if (rawType == DocumentSymbol.class)
+            return (TypeAdapter<T>)new DocumentSymbolAdapter(gson, this);
+        if (rawType == CompletionItem.class)
+            return (TypeAdapter<T>)new CompletionItemAdapter(gson, this);
+        return null;
+    }
+
+    private static String readString(JsonReader in) throws IOException
+    {
+        // same as the default Gson adapter for strings
+        if (in.peek() == JsonToken.BOOLEAN)
+            return Boolean.toString(in.nextBoolean());
+        return in.nextString();
+    }
+
+    private static Boolean readBoolean(JsonReader in) throws IOException
+    {
+        // same as the default Gson adapter for booleans
+        if (in.peek() == JsonToken.STRING)
+            return Boolean.parseBoolean(in.nextString());
+        return in.nextBoolean();
+    }
+
+    private static JsonElement readJsonElement(JsonReader in)
+    {
+        return JsonParser.parseReader(in);
+    }
+
+    private static <V> void copy(V value, Consumer<V> setter)
+    {
+        // setters of protocol objects may reject null values
+        if (value != null)
+            setter.accept(value);
+    }
+
+    /**
+     * Base class of the streaming adapters for protocol objects.
+     *
+     * @param <T> the object type
+     */
+    private abstract static class ObjectAdapter<T>
+        extends TypeAdapter<T>
+    {
+        final Gson gson;
+        private final Class<T> type;
+        private final TypeAdapter<T> delegate;
+
+        ObjectAdapter(Gson gson, TypeAdapterFactory factory, Class<T> type)
+        {
+            this.gson = gson;
+            this.type = type;
+            this.delegate = gson.getDelegateAdapter(factory, TypeToken.get(type));
+        }
+
+        @Override
+        public final T read(JsonReader in) throws IOException
+        {
+            if (in.peek() == JsonToken.NULL)
+            {
+                in.nextNull();
+                return null;
+            }
+            T result = newInstance();
+            JsonObject unknown = null;
+            in.beginObject();
+            while (in.hasNext())
+            {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL)
+                {
+                    in.nextNull();
+                    continue;
+                }
+                if (!readProperty(in, name, result))
+                {
+                    if (unknown == null)
+                        unknown = new JsonObject();
+                    unknown.add(name, readJsonElement(in));
+                }
+            }
+            in.endObject();
+            if (unknown == null)
+                return result;
+            T other = delegate.fromJsonTree(unknown);
+            copyProperties(result, other);
+            return other;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public final void write(JsonWriter out, T value) throws IOException
+        {
+            if (value == null)
+                out.nullValue();
+            else if (value.getClass() != type) // a subtype might have additional properties
+                ((TypeAdapter<T>)gson.getAdapter(value.getClass())).write(out, value);
+            else
+                writeObject(out, value);
+        }
+
+        /**
+         * Serializes the given object. Default implementation uses the adapter
+         * this adapter has been registered in front of.
+         *
+         * @param out never <code>null</code>
+         * @param value never <code>null</code>
+         * @throws IOException if an I/O error occurs
+         */
+        void writeObject(JsonWriter out, T value) throws IOException
+        {
+            delegate.write(out, value);
+        }
+
+        /**
+         * Returns a new instance of the object type.
+         *
+         * @return a new instance (never <code>null</code>)
+         */
+        abstract T newInstance();
+
+        /**
+         * Reads the value of the property with the given name into the given object,
+         * if the property is known to this adapter. The value is never a JSON null.
+         *
+         * @param in never <code>null</code>
+         * @param name never <code>null</code>
+         * @param target never <code>null</code>
+         * @return <code>true</code> if the property has been read, and
+         *  <code>false</code> if the property is unknown to this adapter
+         * @throws IOException if an I/O error occurs
+         */
+        abstract boolean readProperty(JsonReader in, String name, T target)
+            throws IOException;
+
+        /**
+         * Copies the values of all properties known to this adapter
+         * from the source to the target object.
+         *
+         * @param source never <code>null</code>
+         * @param target never <code>null</code>
+         */
+        abstract void copyProperties(T source, T target);
+    }
+
+    private static class PositionAdapter
+        extends ObjectAdapter<Position>
+    {
+        PositionAdapter(Gson gson, TypeAdapterFactory factory)
+        {
+            super(gson, factory, Position.class);
+        }
+
+        @Override
+        Position newInstance()
+        {
+            return new Position();
+        }
+
+        @Override
+        boolean readProperty(JsonReader in, String name, Position target) throws IOException
+        {
+            switch (name)
+            {
+            case "line": //$NON-NLS-1$
+                target.setLine(in.nextInt());
+                return true;
+            case "character": //$NON-NLS-1$
+                target.setCharacter(in.nextInt());
+                return true;
+            default:
+                return false;
+            }
+        }
+
+        @Override
+        void copyProperties(Position source, Position target)
+        {
+            target.setLine(source.getLine());
+            target.setCharacter(source.getCharacter());
+        }
+
+        @Override
+        void writeObject(JsonWriter out, Position value) throws IOException
+        {
+            out.beginObject();
+            out.name("line").value(value.getLine()); //$NON-NLS-1$
+            out.name("character").value(value.getCharacter()); //$NON-NLS-1$
+            out.endObject();
+        }
+    }
+
+    private static class RangeAdapter
+        extends ObjectAdapter<Range>
+    {
+        private final TypeAdapter<Position> positionAdapter;
+
+        RangeAdapter(Gson gson, TypeAdapterFactory factory)
+        {
+            super(gson, factory, Range.class);
+            positionAdapter = gson.getAdapter(Position.class);
+        }
+
+        @Override
+        Range newInstance()
+        {
+            return new Range();
+        }
+
+        @Override
+        boolean readProperty(JsonReader in, String name, Range target) throws IOException
+        {
+            switch (name)
+            {
+            case "start": //$NON-NLS-1$
+                target.setStart(positionAdapter.read(in));
+                return true;
+            case "end": //$NON-NLS-1$
+                target.setEnd(positionAdapter.read(in));
+                return true;
+            default:
+                return false;
+            }
+        }
+
+        @Override
+        void copyProperties(Range source, Range target)
+        {
+            copy(source.getStart(), target::setStart);
+            copy(source.getEnd(), target::setEnd);
+        }
+
+        @Override
+        void writeObject(JsonWriter out, Range value) throws IOException
+        {
+            out.beginObject();
+            out.name("start"); //$NON-NLS-1$
+            positionAdapter.write(out, value.getStart());
+            out.name("end"); //$NON-NLS-1$
+            positionAdapter.write(out, value.getEnd());
+            out.endObject();
+        }
+    }
+
+    private static class LocationAdapter
+        extends ObjectAdapter<Location>
+    {
+        private final TypeAdapter<Range> rangeAdapter;
+
+        LocationAdapter(Gson gson, TypeAdapterFactory factory)
+        {
+            super(gson, factory, Location.class);
+            rangeAdapter = gson.getAdapter(Range.class);
+        }
+
+        @Override
+        Location newInstance()
+        {
+            return new Location();
+        }
+
+        @Override
+        boolean readProperty(JsonReader in, String name, Location target) throws IOException
+        {
+            switch (name)
+            {
+            case "uri": //$NON-NLS-1$
+                target.setUri(readString(in));
+                return true;
+            case "range": //$NON-NLS-1$
+                target.setRange(rangeAdapter.read(in));
+                return true;
+            default:
+                return false;
+            }
+        }
+
+        @Override
+        void copyProperties(Location source, Location target)
+        {
+            copy(source.getUri(), target::setUri);
+            copy(source.getRange(), target::setRange);
+        }
+
+        @Override
+        void writeObject(JsonWriter out, Location value) throws IOException
+        {
+            out.beginObject();
+            out.name("uri").value(value.getUri()); //$NON-NLS-1$
+            out.name("range"); //$NON-NLS-1$
+            rangeAdapter.write(out, value.getRange());
+            out.endObject();
+        }
+    }
+
+    private static class TextEditAdapter
+        extends ObjectAdapter<TextEdit>
+    {
+        private final TypeAdapter<Range> rangeAdapter;
+
+        TextEditAdapter(Gson gson, TypeAdapterFactory factory)
+        {
+            super(gson, factory, TextEdit.class);
+            rangeAdapter = gson.getAdapter(Range.class);
+        }
+
+        @Override
+        TextEdit newInstance()
+        {
+            return new TextEdit();
+        }
+
+        @Override
+        boolean readProperty(JsonReader in, String name, TextEdit target) throws IOException
+        {
+            switch (name)
+            {
+            case "range": //$NON-NLS-1$
+                target.setRange(rangeAdapter.read(in));
+                return true;
+            case "newText": //$NON-NLS-1$
+                target.setNewText(readString(in));
+                return true;
+            default:
+                return false;
+            }
+        }
+
+        @Override
+        void copyProperties(TextEdit source, TextEdit target)
+        {
+            copy(source.getRange(), target::setRange);
+            copy(source.getNewText(), target::setNewText);
+        }
+
+        @Override
+        void writeObject(JsonWriter out, TextEdit value) throws IOException
+        {
+            out.beginObject();
+            out.name("range"); //$NON-NLS-1$
+            rangeAdapter.write(out, value.getRange());
+            out.name("newText").value(value.getNewText()); //$NON-NLS-1$
+            out.endObject();
+        }
+    }
+
+    private static class SemanticTokensAdapter
+        extends ObjectAdapter<SemanticTokens>
+    {
+        SemanticTokensAdapter(Gson gson, TypeAdapterFactory factory)
+        {
+            super(gson, factory, SemanticTokens.class);
+        }
+
+        @Override
+        SemanticTokens newInstance()
+        {
+            return new SemanticTokens();
+        }
+
+        @Override
+        boolean readProperty(JsonReader in, String name, SemanticTokens target)
+            throws IOException
+        {
+            switch (name)
+            {
+            case "resultId": //$NON-NLS-1$
+                target.setResultId(readString(in));
+                return true;
+            case "data": //$NON-NLS-1$
+                List<Integer> data = new ArrayList<>();
+                in.beginArray();
+                while (in.hasNext())
+                    data.add(in.nextInt());
+                in.endArray();
+                target.setData(data);
+                return true;
+            default:
+                return false;
+            }
+        }
+
+        @Override
+        void copyProperties(SemanticTokens source, SemanticTokens target)
+        {
+            copy(source.getResultId(), target::setResultId);
+            copy(source.getData(), target::setData);
+        }
+
+        @Override
+        void writeObject(JsonWriter out, SemanticTokens value) throws IOException
+        {
+            out.beginObject();
+            out.name("resultId").value(value.getResultId()); //$NON-NLS-1$
+            List<Integer> data = value.getData();
+            if (data != null)
+            {
+                out.name("data"); //$NON-NLS-1$
+                out.beginArray();
+                for (Integer i : data)
+                    out.value(i);
+                out.endArray();
+            }
+            out.endObject();
+        }
+    }
+
+    private static class DiagnosticAdapter
+        extends ObjectAdapter<Diagnostic>
+    {
+        private final TypeAdapter<Range> rangeAdapter;
+        private final TypeAdapter<DiagnosticSeverity> severityAdapter;
+        private final TypeAdapter<Either<String, Integer>> codeAdapter;
+        private final TypeAdapter<DiagnosticCodeDescription> codeDescriptionAdapter;
+        private final TypeAdapter<List<DiagnosticTag>> tagsAdapter;
+        private final TypeAdapter<List<DiagnosticRelatedInformation>> relatedInformationAdapter;
+
+        DiagnosticAdapter(Gson gson, TypeAdapterFactory factory)
+        {
+            super(gson, factory, Diagnostic.class);
+            rangeAdapter = gson.getAdapter(Range.class);
+            severityAdapter = gson.getAdapter(DiagnosticSeverity.class);
+            codeAdapter = gson.getAdapter(new TypeToken<Either<String, Integer>>()
+            {
+            });
+            codeDescriptionAdapter = gson.getAdapter(DiagnosticCodeDescription.class);
+            tagsAdapter = gson.getAdapter(new TypeToken<List<DiagnosticTag>>()
+            {
+            });
+            relatedInformationAdapter =
+                gson.getAdapter(new TypeToken<List<DiagnosticRelatedInformation>>()
+                {
+                });
+        }
+
+        @Override
+        Diagnostic newInstance()
+        {
+            return new Diagnostic();
+        }
+
+        @Override
+        boolean readProperty(JsonReader in, String name, Diagnostic target) throws IOException
+        {
+            switch (name)
+            {
+            case "range": //$NON-NLS-1$
+                target.setRange(rangeAdapter.read(in));
+                return true;
+            case "severity": //$NON-NLS-1$
+                target.setSeverity(severityAdapter.read(in));
+                return true;
+            case "code": //$NON-NLS-1$
+                target.setCode(codeAdapter.read(in));
+                return true;
+            case "codeDescription": //$NON-NLS-1$
+                target.setCodeDescription(codeDescriptionAdapter.read(in));
+                return true;
+            case "source": //$NON-NLS-1$
+                target.setSource(readString(in));
+                return true;
+            case "message": //$NON-NLS-1$
+                target.setMessage(readString(in));
+                return true;
+            case "tags": //$NON-NLS-1$
+                target.setTags(tagsAdapter.read(in));
+                return true;
+            case "relatedInformation": //$NON-NLS-1$
+                target.setRelatedInformation(relatedInformationAdapter.read(in));
+                return true;
+            case "data": //$NON-NLS-1$
+                target.setData(readJsonElement(in));
+                return true;
+            default:
+                return false;
+            }
+        }
+
+        @Override
+        void copyProperties(Diagnostic source, Diagnostic target)
+        {
+            copy(source.getRange(), target::setRange);
+            copy(source.getSeverity(), target::setSeverity);
+            copy(source.getCode(), target::setCode);
+            copy(source.getCodeDescription(), target::setCodeDescription);
+            copy(source.getSource(), target::setSource);
+            copy(source.getMessage(), target::setMessage);
+            copy(source.getTags(), target::setTags);
+            copy(source.getRelatedInformation(), target::setRelatedInformation);
+            copy(source.getData(), target::setData);
+        }
+    }
+
+    private static class DocumentSymbolAdapter
+        extends ObjectAdapter<DocumentSymbol>
+    {
+        private final TypeAdapter<SymbolKind> kindAdapter;
+        private final TypeAdapter<List<SymbolTag>> tagsAdapter;
+        private final TypeAdapter<Range> rangeAdapter;
+        private final TypeAdapter<List<DocumentSymbol>> childrenAdapter;
+
+        DocumentSymbolAdapter(Gson gson, TypeAdapterFactory factory)
+        {
+            super(gson, factory, DocumentSymbol.class);
+            kindAdapter = gson.getAdapter(SymbolKind.class);
+            tagsAdapter = gson.getAdapter(new TypeToken<List<SymbolTag>>()
+            {
+            });
+            rangeAdapter = gson.getAdapter(Range.class);
+            childrenAdapter = gson.getAdapter(new TypeToken<List<DocumentSymbol>>()
+            {
+            });
+        }
+
+        @Override
+        DocumentSymbol newInstance()
+        {
+            return new DocumentSymbol();
+        }
+
+        @SuppressWarnings("deprecation")
+        @Override
+        boolean readProperty(JsonReader in, String name, DocumentSymbol target)
+            throws IOException
+        {
+            switch (name)
+            {
+            case "name": //$NON-NLS-1$
+                target.setName(readString(in));
+                return true;
+            case "detail": //$NON-NLS-1$
+                target.setDetail(readString(in));
+                return true;
+            case "kind": //$NON-NLS-1$
+                target.setKind(kindAdapter.read(in));
+                return true;
+            case "tags": //$NON-NLS-1$
+                target.setTags(tagsAdapter.read(in));
+                return true;
+            case "deprecated": //$NON-NLS-1$
+                target.setDeprecated(readBoolean(in));
+                return true;
+            case "range": //$NON-NLS-1$
+                target.setRange(rangeAdapter.read(in));
+                return true;
+            case "selectionRange": //$NON-NLS-1$
+                target.setSelectionRange(rangeAdapter.read(in));
+                return true;
+            case "children": //$NON-NLS-1$
+                target.setChildren(childrenAdapter.read(in));
+                return true;
+            default:
+                return false;
+            }
+        }
+
+        @SuppressWarnings("deprecation")
+        @Override
+        void copyProperties(DocumentSymbol source, DocumentSymbol target)
+        {
+            copy(source.getName(), target::setName);
+            copy(source.getDetail(), target::setDetail);
+            copy(source.getKind(), target::setKind);
+            copy(source.getTags(), target::setTags);
+            copy(source.getDeprecated(), target::setDeprecated);
+            copy(source.getRange(), target::setRange);
+            copy(source.getSelectionRange(), target::setSelectionRange);
+            copy(source.getChildren(), target::setChildren);
+        }
+    }
+
+    private static class CompletionItemAdapter
+        extends ObjectAdapter<CompletionItem>
+    {
+        private final TypeAdapter<CompletionItemLabelDetails> labelDetailsAdapter;
+        private final TypeAdapter<CompletionItemKind> kindAdapter;
+        private final TypeAdapter<List<CompletionItemTag>> tagsAdapter;
+        private final TypeAdapter<Either<String, MarkupContent>> documentationAdapter;
+        private final TypeAdapter<InsertTextFormat> insertTextFormatAdapter;
+        private final TypeAdapter<InsertTextMode> insertTextModeAdapter;
+        private final TypeAdapter<Range> rangeAdapter;
+        private final TypeAdapter<List<TextEdit>> textEditsAdapter;
+        private final TypeAdapter<List<String>> stringsAdapter;
+        private final TypeAdapter<Command> commandAdapter;
+
+        CompletionItemAdapter(Gson gson, TypeAdapterFactory factory)
+        {
+            super(gson, factory, CompletionItem.class);
+            labelDetailsAdapter = gson.getAdapter(CompletionItemLabelDetails.class);
+            kindAdapter = gson.getAdapter(CompletionItemKind.class);
+            tagsAdapter = gson.getAdapter(new TypeToken<List<CompletionItemTag>>()
+            {
+            });
+            documentationAdapter = gson.getAdapter(new TypeToken<Either<String, MarkupContent>>()
+            {
+            });
+            insertTextFormatAdapter = gson.getAdapter(InsertTextFormat.class);
+            insertTextModeAdapter = gson.getAdapter(InsertTextMode.class);
+            rangeAdapter = gson.getAdapter(Range.class);
+            textEditsAdapter = gson.getAdapter(new TypeToken<List<TextEdit>>()
+            {
+            });
+            stringsAdapter = gson.getAdapter(new TypeToken<List<String>>()
+            {
+            });
+            commandAdapter = gson.getAdapter(Command.class);
+        }
+
+        @Override
+        CompletionItem newInstance()
+        {
+            return new CompletionItem();
+        }
+
+        @SuppressWarnings("deprecation")
+        @Override
+        boolean readProperty(JsonReader in, String name, CompletionItem target)
+            throws IOException
+        {
+            switch (name)
+            {
+            case "label": //$NON-NLS-1$
+                target.setLabel(readString(in));
+                return true;
+            case "labelDetails": //$NON-NLS-1$
+                target.setLabelDetails(labelDetailsAdapter.read(in));
+                return true;
+            case "kind": //$NON-NLS-1$
+                target.setKind(kindAdapter.read(in));
+                return true;
+            case "tags": //$NON-NLS-1$
+                target.setTags(tagsAdapter.read(in));
+                return true;
+            case "detail": //$NON-NLS-1$
+                target.setDetail(readString(in));
+                return true;
+            case "documentation": //$NON-NLS-1$
+                target.setDocumentation(documentationAdapter.read(in));
+                return true;
+            case "deprecated": //$NON-NLS-1$
+                target.setDeprecated(readBoolean(in));
+                return true;
+            case "preselect": //$NON-NLS-1$
+                target.setPreselect(readBoolean(in));
+                return true;
+            case "sortText": //$NON-NLS-1$
+                target.setSortText(readString(in));
+                return true;
+            case "filterText": //$NON-NLS-1$
+                target.setFilterText(readString(in));
+                return true;
+            case "insertText": //$NON-NLS-1$
+                target.setInsertText(readString(in));
+                return true;
+            case "insertTextFormat": //$NON-NLS-1$
+                target.setInsertTextFormat(insertTextFormatAdapter.read(in));
+                return true;
+            case "insertTextMode": //$NON-NLS-1$
+                target.setInsertTextMode(insertTextModeAdapter.read(in));
+                return true;
+            case "textEdit": //$NON-NLS-1$
+                target.setTextEdit(readTextEdit(in));
+                return true;
+            case "textEditText": //$NON-NLS-1$
+                target.setTextEditText(readString(in));
+                return true;
+            case "additionalTextEdits": //$NON-NLS-1$
+                target.setAdditionalTextEdits(textEditsAdapter.read(in));
+                return true;
+            case "commitCharacters": //$NON-NLS-1$
+                target.setCommitCharacters(stringsAdapter.read(in));
+                return true;
+            case "command": //$NON-NLS-1$
+                target.setCommand(commandAdapter.read(in));
+                return true;
+            case "data": //$NON-NLS-1$
+                target.setData(readJsonElement(in));
+                return true;
+            default:
+                return false;
+            }
+        }
+
+        /*
+         * Reads either a TextEdit or an InsertReplaceEdit, telling them apart
+         * by the presence of the 'range' property, like the adapter
+         * declared for the property in CompletionItem.
+         */
+        private Either<TextEdit, InsertReplaceEdit> readTextEdit(JsonReader in)
+            throws IOException
+        {
+            String newText = null;
+            Range range = null, insert = null, replace = null;
+            in.beginObject();
+            while (in.hasNext())
+            {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL)
+                {
+                    in.nextNull();
+                    continue;
+                }
+                switch (name)
+                {
+                case "newText": //$NON-NLS-1$
+                    newText = readString(in);
+                    break;
+                case "range": //$NON-NLS-1$
+                    range = rangeAdapter.read(in);
+                    break;
+                case "insert": //$NON-NLS-1$
+                    insert = rangeAdapter.read(in);
+                    break;
+                case "replace": //$NON-NLS-1$
+                    replace = rangeAdapter.read(in);
+                    break;
+                default:
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            if (range == null && (insert != null || replace != null))
+            {
+                InsertReplaceEdit edit = new InsertReplaceEdit();
+                copy(newText, edit::setNewText);
+                copy(insert, edit::setInsert);
+                copy(replace, edit::setReplace);
+                return Either.forRight(edit);
+            }
+            TextEdit edit = new TextEdit();
+            copy(range, edit::setRange);
+            copy(newText, edit::setNewText);
+            return Either.forLeft(edit);
+        }
+
+        @SuppressWarnings("deprecation")
+        @Override
+        void copyProperties(CompletionItem source, CompletionItem target)
+        {
+            copy(source.getLabel(), target::setLabel);
+            copy(source.getLabelDetails(), target::setLabelDetails);
+            copy(source.getKind(), target::setKind);
+            copy(source.getTags(), target::setTags);
+            copy(source.getDetail(), target::setDetail);
+            copy(source.getDocumentation(), target::setDocumentation);
+            copy(source.getDeprecated(), target::setDeprecated);
+            copy(source.getPreselect(), target::setPreselect);
+            copy(source.getSortText(), target::setSortText);
+            copy(source.getFilterText(), target::setFilterText);
+            copy(source.getInsertText(), target::setInsertText);
+            copy(source.getInsertTextFormat(), target::setInsertTextFormat);
+            copy(source.getInsertTextMode(), target::setInsertTextMode);
+            copy(source.getTextEdit(), target::setTextEdit);
+            copy(source.getTextEditText(), target::setTextEditText);
+            copy(source.getAdditionalTextEdits(), target::setAdditionalTextEdits);
+            copy(source.getCommitCharacters(), target::setCommitCharacters);
+            copy(source.getCommand(), target::setCommand);
+            copy(source.getData(), target::setData);
+        }
+    }
+}
@@ -0,0 +1,444 @@
+/*******************************************************************************
+ * Copyright (c) 2026 1C-Soft LLC.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Vladimir Piskarev (1C) - initial API and implementation
+ *******************************************************************************/
+package org.lxtk.util.completion;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Matches a fixed array of candidate strings against patterns in batch.
+ * <p>
+ * If the given matcher is exactly a {@link DefaultMatcher} (not a subclass),
+ * per-candidate data (characters, their lower case equivalents, character
+ * classes and word boundaries) are computed once, when the batch matcher
+ * is created, and stored in flat arrays. Matching the candidates against
+ * a pattern then allocates nothing per candidate, and produces the same scores
+ * as {@link DefaultMatcher#match(String, String)} would produce for each
+ * candidate individually. (Case-insensitive comparisons are based on
+ * {@link Character#toLowerCase(char)} throughout, which may only make
+ * a difference for characters whose case mapping is not one-to-one.)
+ * Matching regions are only computed on demand, via
+ * {@link #getMatchResult(String, int)}.
+ * </p>
+ * <p>
+ * A subclass of <code>DefaultMatcher</code> may override the matching logic,
+ * so for a subclass, each candidate is matched by invoking the given matcher.
+ * </p>
+ * <p>
+ * This class is immutable and thread-safe, provided that the given default
+ * matcher is thread-safe.
+ * </p>
+ */
+public final class BatchMatcher
+{
+    /**
+     * The score assigned to a candidate that does not match the pattern.
+     */
+    public static final int NO_MATCH = Integer.MIN_VALUE;
+
+    private static final int PARALLEL_THRESHOLD = 2048;
+
+    private static final byte IDENTIFIER_PART = 1;
+    private static final byte UPPER_CASE = 2;
+    private static final byte DIGIT = 4;
+    private static final byte WORD_BOUNDARY = 8;
+
+    private static final int SEPARATOR = 0;
+    private static final int LOWER = 1;
+    private static final int UPPER = 2;
+
+    private final DefaultMatcher matcher;
+    private final boolean precomputed; // the matcher is exactly a DefaultMatcher
+    private final String[] candidates;
+    private final int[] starts;
+    private final char[] chars;
+    private final char[] lowerChars;
+    private final byte[] flags;
+
+    /**
+     * Constructor.
+     *
+     * @param matcher the matcher whose scoring to follow (not <code>null</code>)
+     * @param candidates the candidate strings (not <code>null</code>,
+     *  must not contain <code>null</code> elements)
+     */
+    public BatchMatcher(DefaultMatcher matcher, List<String> candidates)
+    {
+        this.matcher = Objects.requireNonNull(matcher);
+        this.candidates = candidates.toArray(new String[0]);
+        precomputed = matcher.getClass() == DefaultMatcher.class;
+
+        int n = precomputed ? this.candidates.length : 0;
+        starts = new int[n + 1];
+        int total = 0;
+        for (int i = 0; i < n; i++)
+        {
+            starts[i] = total;
+            total += this.candidates[i].length();
+        }
+        starts[n] = total;
+
+        chars = new char[total];
+        lowerChars = new char[total];
+        flags = new byte[total];
+        for (int i = 0; i < n; i++)
+        {
+            String candidate = this.candidates[i];
+            int start = starts[i];
+            candidate.getChars(0, candidate.length(), chars, start);
+            for (int j = start, end = starts[i + 1]; j < end; j++)
+            {
+                char c = chars[j];
+                lowerChars[j] = Character.toLowerCase(c);
+                byte f = 0;
+                if (Character.isUnicodeIdentifierPart(c))
+                    f |= IDENTIFIER_PART;
+                if (Character.isUpperCase(c))
+                    f |= UPPER_CASE;
+                if (Character.isDigit(c))
+                    f |= DIGIT;
+                if (isWordBoundary(caseAt(j - 1, start, end), caseAt(j, start, end),
+                    caseAt(j + 1, start, end)))
+                {
+                    f |= WORD_BOUNDARY;
+                }
+                flags[j] = f;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of candidates.
+     *
+     * @return the number of candidates
+     */
+    public int size()
+    {
+        return candidates.length;
+    }
+
+    /**
+     * Returns the candidate at the given index.
+     *
+     * @param index a valid candidate index
+     * @return the candidate (never <code>null</code>)
+     */
+    public String getCandidate(int index)
+    {
+        return candidates[index];
+    }
+
+    /**
+     * Matches all of the candidates against the given pattern.
+     *
+     * @param pattern not <code>null</code>
+     * @param scores receives the score of each candidate, or {@link #NO_MATCH}
+     *  if the candidate does not match (not <code>null</code>, must have
+     *  at least {@link #size()} elements)
+     * @return the number of matching candidates
+     */
+    public int match(String pattern, int[] scores)
+    {
+        return match(pattern, scores, null);
+    }
+
+    /**
+     * Matches all of the candidates against the given pattern. If a pool is given
+     * and there are many candidates, the work is spread over the pool.
+     *
+     * @param pattern not <code>null</code>
+     * @param scores receives the score of each candidate, or {@link #NO_MATCH}
+     *  if the candidate does not match (not <code>null</code>, must have
+     *  at least {@link #size()} elements)
+     * @param pool may be <code>null</code>
+     * @return the number of matching candidates
+     */
+    public int match(String pattern, int[] scores, ForkJoinPool pool)
+    {
+        Objects.checkFromIndexSize(0, candidates.length, scores.length);
+        char[] p = pattern.toCharArray();
+        char[] lowerP = new char[p.length];
+        for (int i = 0; i < p.length; i++)
+            lowerP[i] = Character.toLowerCase(p[i]);
+
+        if (pool == null || candidates.length < PARALLEL_THRESHOLD)
+            return match(pattern, p, lowerP, scores, 0, candidates.length);
+
+        MatchTask task = new MatchTask(pattern, p, lowerP, scores, 0, candidates.length);
+        pool.invoke(task);
+        return task.count;
+    }
+
+    /**
+     * Returns the result of matching the candidate at the given index against
+     * the given pattern. The result is equivalent to that of
+     * {@link DefaultMatcher#match(String, String)}.
+     *
+     * @param pattern not <code>null</code>
+     * @param index a valid candidate index
+     * @return the match result if there is a match, or <code>null</code> if there is no match
+     */
+    public MatchResult getMatchResult(String pattern, int index)
+    {
+        return matcher.match(pattern, candidates[index]);
+    }
+
+    private int match(String pattern, char[] p, char[] lowerP, int[] scores, int from, int to)
+    {
+        int count = 0;
+        for (int i = from; i < to; i++)
+        {
+            int score;
+            if (precomputed)
+                score = score(p, lowerP, starts[i], starts[i + 1]);
+            else
+            {
+                MatchResult result = matcher.match(pattern, candidates[i]);
+                score = result != null ? result.getScore() : NO_MATCH;
+            }
+            scores[i] = score;
+            if (score != NO_MATCH)
+                count++;
+        }
+        return count;
+    }
+
+    private int score(char[] p, char[] lowerP, int start, int end)
+    {
+        int patternLength = p.length;
+        int length = end - start;
+        if (patternLength == 0 || patternLength > length)
+            return NO_MATCH;
+
+        boolean prefix = regionEquals(chars, start, p);
+        if (prefix && patternLength == length)
+            return DefaultMatcher.S_EXACT + DefaultMatcher.S_CASE;
+        boolean prefixIgnoreCase = prefix || regionEquals(lowerChars, start, lowerP);
+        if (prefixIgnoreCase && patternLength == length)
+            return DefaultMatcher.S_EXACT;
+        if (prefix)
+            return DefaultMatcher.S_PREFIX + DefaultMatcher.S_CASE;
+        if (prefixIgnoreCase)
+            return DefaultMatcher.S_PREFIX;
+        // all of the matching options are enabled in DefaultMatcher
+        if (isCamelCaseMatch(p, start, end))
+            return DefaultMatcher.S_CAMELCASE;
+        if (isSubstringMatch(lowerP, start, end))
+            return DefaultMatcher.S_SUBSTRING;
+        if (isSubwordMatch(p, lowerP, start, end))
+            return DefaultMatcher.S_SUBWORD;
+        return NO_MATCH;
+    }
+
+    private static boolean regionEquals(char[] array, int start, char[] p)
+    {
+        for (int i = 0; i < p.length; i++)
+        {
+            if (array[start + i] != p[i])
+                return false;
+        }
+        return true;
+    }
+
+    /*
+     * Allocation-free equivalent of CharOperation.getCamelCaseMatchingRegions(
+     * pattern, 0, -1, name, 0, -1, false) != null.
+     */
+    private boolean isCamelCaseMatch(char[] p, int start, int end)
+    {
+        if (chars[start] != p[0])
+            return false;
+
+        int iPattern = 0;
+        int iName = start;
+        while (true)
+        {
+            iPattern++;
+            iName++;
+
+            if (iPattern == p.length)
+                return true;
+
+            if (iName == end)
+                return false;
+
+            char patternChar = p[iPattern];
+            if (patternChar == chars[iName])
+                continue;
+
+            if (Character.isUnicodeIdentifierPart(patternChar)
+                && !Character.isUpperCase(patternChar) && !Character.isDigit(patternChar))
+                return false;
+
+            while (true)
+            {
+                if (iName == end)
+                    return false;
+
+                byte f = flags[iName];
+                if ((f & IDENTIFIER_PART) != 0 && (f & UPPER_CASE) == 0)
+                    iName++;
+                else if ((f & DIGIT) != 0)
+                {
+                    if (patternChar == chars[iName])
+                        break;
+                    iName++;
+                }
+                else if (patternChar != chars[iName])
+                    return false;
+                else
+                    break;
+            }
+        }
+    }
+
+    /*
+     * Allocation-free equivalent of CharOperation.indexOf(pattern, name, false) >= 0.
+     */
+    private boolean isSubstringMatch(char[] lowerP, int start, int end)
+    {
+        int patternLength = lowerP.length;
+        outer: for (int i = start, max = end - patternLength; i <= max; i++)
+        {
+            for (int j = 0; j < patternLength; j++)
+            {
+                if (lowerChars[i + j] != lowerP[j])
+                    continue outer;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /*
+     * Allocation-free equivalent of CharOperation.getSubWordMatchingRegions(
+     * pattern, name) != null.
+     */
+    private boolean isSubwordMatch(char[] p, char[] lowerP, int start, int end)
+    {
+        int iName = start - 1;
+        int iPatternWordStart = 0;
+        for (int iPattern = 0; iPattern < p.length; iPattern++)
+        {
+            iName++;
+            if (iName == end)
+                return false;
+
+            if (p[iPattern] == chars[iName])
+                continue;
+            if ((flags[iName] & WORD_BOUNDARY) == 0 && lowerP[iPattern] == lowerChars[iName])
+                continue;
+
+            int wordStart = indexOfWordStart(iName, end, lowerP[iPattern]);
+            if (wordStart < 0)
+            {
+                // backtrack and try to find the next occurrence of the current word
+                int next = indexOfWordStart(iName, end, lowerP[iPatternWordStart]);
+                if (next > start)
+                {
+                    wordStart = next;
+                    iPattern = iPatternWordStart;
+                }
+            }
+
+            if (wordStart < 0)
+                return false;
+
+            iName = wordStart;
+            iPatternWordStart = iPattern;
+        }
+        return true;
+    }
+
+    private int indexOfWordStart(int nameStart, int end, char lowerPatternChar)
+    {
+        for (int iName = nameStart; iName < end; iName++)
+        {
+            byte f = flags[iName];
+            if ((f & WORD_BOUNDARY) != 0 && lowerChars[iName] == lowerPatternChar)
+                return iName;
+
+            // don't match across identifiers
+            if ((f & IDENTIFIER_PART) == 0)
+                return -1;
+        }
+        return -1;
+    }
+
+    private int caseAt(int index, int start, int end)
+    {
+        if (index < start || index >= end)
+            return SEPARATOR;
+
+        char c = chars[index];
+        if (c == '_')
+            return SEPARATOR;
+        if (Character.isUpperCase(c))
+            return UPPER;
+        return LOWER;
+    }
+
+    private static boolean isWordBoundary(int p, int c, int n)
+    {
+        if (p == c && c == n)
+            return false; // a boundary needs some kind of gradient
+
+        if (p == SEPARATOR)
+            return true; // boundary after every separator
+
+        // the remaining cases are boundaries for capitalization changes:
+        // lowerUpper, UPPERLower, lowerUPPER
+        return c == UPPER && (p == LOWER || n == LOWER);
+    }
+
+    private class MatchTask
+        extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        final String pattern;
+        final char[] p;
+        final char[] lowerP;
+        final int[] scores;
+        final int from;
+        final int to;
+        int count;
+
+        MatchTask(String pattern, char[] p, char[] lowerP, int[] scores, int from, int to)
+        {
+            this.pattern = pattern;
+            this.p = p;
+            this.lowerP = lowerP;
+            this.scores = scores;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (to - from <= PARALLEL_THRESHOLD)
+            {
+                count = match(pattern, p, lowerP, scores, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            MatchTask left = new MatchTask(pattern, p, lowerP, scores, from, mid);
+            MatchTask right = new MatchTask(pattern, p, lowerP, scores, mid, to);
+            invokeAll(left, right);
+            count = left.count + right.count;
+        }
+    }
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2021 1C-Soft LLC.
+ * Copyright (c) 2021, 2026 1C-Soft LLC.
  *
  * This program and the accompanying materials are made available under
  * the terms of the Eclipse Public License 2.0 which is available at
@@ -17,12 +17,12 @@ package org.lxtk.util.completion;
  */
 public class DefaultMatcher
 {
-    private static final int S_CASE = 100;
-    private static final int S_CAMELCASE = 50;
-    private static final int S_EXACT = 40;
-    private static final int S_PREFIX = 30;
-    private static final int S_SUBSTRING = 20;
-    private static final int S_SUBWORD = 10;
+    static final int S_CASE = 100;
+    static final int S_CAMELCASE = 50;
+    static final int S_EXACT = 40;
+    static final int S_PREFIX = 30;
+    static final int S_SUBSTRING = 20;
+    static final int S_SUBWORD = 10;
 
     /**
      * Matches the given string against the given pattern.
@@ -45,11 +45,11 @@ public class DefaultMatcher
         {
             return new DefaultMatchResult(new int[] { 0, patternLength }, S_EXACT);
         }
-        if (string.substring(0, patternLength).equals(pattern))
+        if (string.startsWith(pattern))
         {
             return new DefaultMatchResult(new int[] { 0, patternLength }, S_PREFIX + S_CASE);
         }
-        if (string.substring(0, patternLength).equalsIgnoreCase(pattern))
+        if (string.regionMatches(true, 0, pattern, 0, patternLength))
         {
             return new DefaultMatchResult(new int[] { 0, patternLength }, S_PREFIX);
         }
@@ -62,7 +62,7 @@ public class DefaultMatcher
         }
         if (isSubstringMatching())
         {
-            int index = CharOperation.indexOf(pattern.toCharArray(), string.toCharArray(), false);
+            int index = indexOfIgnoreCase(pattern, string);
             if (index >= 0)
                 return new DefaultMatchResult(new int[] { index, patternLength }, S_SUBSTRING);
         }
@@ -75,6 +75,26 @@ public class DefaultMatcher
         return null;
     }
 
+    /*
+     * Same as CharOperation.indexOf(pattern.toCharArray(), string.toCharArray(), false),
+     * without copying the strings.
+     */
+    private static int indexOfIgnoreCase(String pattern, String string)
+    {
+        int patternLength = pattern.length();
+        outer: for (int i = 0, max = string.length() - patternLength; i <= max; i++)
+        {
+            for (int j = 0; j < patternLength; j++)
+            {
+                if (Character.toLowerCase(string.charAt(i + j)) != Character.toLowerCase(
+                    pattern.charAt(j)))
+                    continue outer;
+            }
+            return i;
+        }
+        return -1;
+    }
+
     /**
      * Returns whether camel case matching is enabled.
      *
@@ -0,0 +1,38 @@
+/*******************************************************************************
+ * Copyright (c) 2026 1C-Soft LLC.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Vladimir Piskarev (1C) - initial API and implementation
+ *******************************************************************************/
+package org.lxtk.util.connect;
+
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Represents a connection based on readable and writable byte channels.
+ * The channels are expected to be in blocking mode.
+ */
+public interface ChannelBasedConnection
+    extends Connection
+{
+    /**
+     * Returns the readable channel for this connection.
+     *
+     * @return the readable channel (never <code>null</code>)
+     */
+    ReadableByteChannel getReadableChannel();
+
+    /**
+     * Returns the writable channel for this connection.
+     *
+     * @return the writable channel (never <code>null</code>)
+     */
+    WritableByteChannel getWritableChannel();
+}
@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright (c) 2026 1C-Soft LLC.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Vladimir Piskarev (1C) - initial API and implementation
+ *******************************************************************************/
+package org.lxtk.util.connect;
+
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Objects;
+
+import org.lxtk.util.DisposableObject;
+
+/**
+ * Implements {@link ChannelBasedConnection} over a socket channel.
+ * <p>
+ * Any connected socket channel in blocking mode can be used, including
+ * a TCP channel and, on Java 16 or later, a Unix-domain socket channel
+ * (e.g. one opened via <code>SocketChannel.open(UnixDomainSocketAddress)</code>).
+ * </p>
+ */
+public final class SocketChannelConnection
+    extends DisposableObject
+    implements ChannelBasedConnection
+{
+    private final SocketChannel channel;
+
+    /**
+     * Constructor.
+     * <p>
+     * <b>Note:</b> When the connection is disposed, it will not close the channel.
+     * If necessary, clients can close the channel in a {@link #onDispose()
+     * dispose handler}.
+     * </p>
+     *
+     * @param channel not <code>null</code>
+     */
+    public SocketChannelConnection(SocketChannel channel)
+    {
+        this.channel = Objects.requireNonNull(channel);
+    }
+
+    @Override
+    public ReadableByteChannel getReadableChannel()
+    {
+        return channel;
+    }
+
+    @Override
+    public WritableByteChannel getWritableChannel()
+    {
+        return channel;
+    }
+
+    @Override
+    public boolean isClosed()
+    {
+        return isDisposed() || !channel.isOpen() || !channel.isConnected();
+    }
+}
@@ -0,0 +1,72 @@
+/*******************************************************************************
+ * Copyright (c) 2026 1C-Soft LLC.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Vladimir Piskarev (1C) - initial API and implementation
+ *******************************************************************************/
+package org.lxtk.util.connect;
+
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Objects;
+
+import org.lxtk.util.DisposableObject;
+
+/**
+ * Implements {@link ChannelBasedConnection} over the standard input and output
+ * of a process.
+ * <p>
+ * Since the process pipes are only exposed as streams, the channels of this
+ * connection are adapters of the process streams (see {@link Channels}).
+ * </p>
+ */
+public final class StdioChannelConnection
+    extends DisposableObject
+    implements ChannelBasedConnection
+{
+    private final Process process;
+    private final ReadableByteChannel readableChannel;
+    private final WritableByteChannel writableChannel;
+
+    /**
+     * Constructor.
+     * <p>
+     * <b>Note:</b> When the connection is disposed, it will not destroy the
+     * process. If necessary, clients can destroy the process in a {@link #onDispose()
+     * dispose handler}.
+     * </p>
+     *
+     * @param process not <code>null</code>
+     */
+    public StdioChannelConnection(Process process)
+    {
+        this.process = Objects.requireNonNull(process);
+        this.readableChannel = Channels.newChannel(process.getInputStream());
+        this.writableChannel = Channels.newChannel(process.getOutputStream());
+    }
+
+    @Override
+    public ReadableByteChannel getReadableChannel()
+    {
+        return readableChannel;
+    }
+
+    @Override
+    public WritableByteChannel getWritableChannel()
+    {
+        return writableChannel;
+    }
+
+    @Override
+    public boolean isClosed()
+    {
+        return isDisposed() || !process.isAlive();
+    }
+}
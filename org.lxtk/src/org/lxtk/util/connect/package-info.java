@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019, 2020 1C-Soft LLC.
+ * Copyright (c) 2019, 2026 1C-Soft LLC.
  *
  * This program and the accompanying materials are made available under
  * the terms of the Eclipse Public License 2.0 which is available at
@@ -17,7 +17,11 @@
  * Sub-interface {@link org.lxtk.util.connect.StreamBasedConnection} represents a connection
  * based on input and output streams. {@link org.lxtk.util.connect.StdioConnection} and
  * {@link org.lxtk.util.connect.SocketConnection} are two general-purpose implementations
- * of <code>StreamBasedConnection</code>.
+ * of <code>StreamBasedConnection</code>. Likewise, sub-interface
+ * {@link org.lxtk.util.connect.ChannelBasedConnection} represents a connection
+ * based on byte channels, with {@link org.lxtk.util.connect.StdioChannelConnection}
+ * and {@link org.lxtk.util.connect.SocketChannelConnection} as general-purpose
+ * implementations.
  * </p>
  * <p>
  * {@link org.lxtk.util.connect.Connectable} provides a common interface for connecting,